@@ -38,6 +38,7 @@ public class DeckApplication extends Application {
         PREF_KEY_THEME = getString(R.string.pref_key_dark_theme);
         PREF_KEY_DEBUGGING = getString(R.string.pref_key_debugging);
         setAppTheme(getAppTheme(this));
+        DeckLog.init(this);
         DeckLog.enablePersistentLogs(isPersistentLoggingEnabled(this));
         final var sharedPreferences = PreferenceManager.getDefaultSharedPreferences(this);
         currentAccountColor$ = distinctUntilChanged(new SharedPreferenceIntLiveData(sharedPreferences,
@@ -52,8 +53,8 @@ public class DeckApplication extends Application {
     @Override
     public void onLowMemory() {
         super.onLowMemory();
-        DeckLog.clearDebugLog();
-        DeckLog.error("--- cleared log because of low memory ---");
+        DeckLog.warn("--- low memory ---");
+        DeckLog.onLowMemory();
     }
 
     // ---------
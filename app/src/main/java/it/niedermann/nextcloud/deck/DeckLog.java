@@ -2,12 +2,13 @@ package it.niedermann.nextcloud.deck;
 
 import android.content.Context;
 import android.content.Intent;
-import android.text.TextUtils;
 import android.util.Log;
 import android.widget.Toast;
 
+import androidx.annotation.AnyThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 import androidx.core.content.FileProvider;
 
 import java.io.File;
@@ -15,78 +16,164 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import it.niedermann.nextcloud.deck.util.MimeTypeUtil;
+import it.niedermann.nextcloud.deck.util.RingBuffer;
 
+/**
+ * Logs to Logcat in debug builds and keeps the latest entries in memory if persistent logs are enabled.
+ * <p>
+ * Persisted entries are stored unformatted in a {@link RingBuffer}. They are only formatted when they are drained to a rotating log file on a background thread or exported.
+ * The arguments are therefore formatted at a later point in time, which is why callers should not pass objects they are going to modify.
+ * Drained entries are released immediately, so the buffer only keeps the arguments of the entries logged since the last drain alive.
+ */
 public class DeckLog {
 
     private DeckLog() {
         throw new UnsupportedOperationException("This class must not get instantiated");
     }
 
-    private static final StringBuffer DEBUG_LOG = new StringBuffer();
-    private static boolean PERSIST_LOGS = false;
     private static final String TAG = DeckLog.class.getSimpleName();
-    private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
 
-    public static void enablePersistentLogs(boolean persistLogs) {
+    private static final int BUFFER_CAPACITY = 4096;
+    private static final long DRAIN_INTERVAL_SECONDS = 5;
+    private static final long MAX_LOG_FILE_BYTES = 512 * 1024;
+    private static final String LOG_FILE_NAME = "deck.log";
+    private static final String ROTATED_LOG_FILE_NAME = "deck.1.log";
+
+    private static final RingBuffer<Entry> buffer = new RingBuffer<>(BUFFER_CAPACITY);
+    private static final ScheduledExecutorService drainExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, TAG);
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final Object fileLock = new Object();
+
+    private static volatile boolean PERSIST_LOGS = false;
+    private static volatile Severity callerSeverity = Severity.WARN;
+    @Nullable
+    private static volatile File logDirectory;
+    /**
+     * Sequence of the first entry which has not yet been written to the log file. Guarded by {@link #fileLock}.
+     */
+    private static long drainedSequence = 0;
+    @Nullable
+    private static ScheduledFuture<?> drainSchedule;
+
+    public enum Severity {
+        VERBOSE, DEBUG, LOG, INFO, WARN, ERROR, WTF
+    }
+
+    /**
+     * Persisted logs will be drained to files in the given {@link Context}s private storage.
+     */
+    public static void init(@NonNull Context context) {
+        logDirectory = new File(context.getFilesDir(), "logs");
+    }
+
+    public static synchronized void enablePersistentLogs(boolean persistLogs) {
         PERSIST_LOGS = persistLogs;
-        if (!persistLogs) {
+        if (drainSchedule != null) {
+            drainSchedule.cancel(false);
+            drainSchedule = null;
+        }
+        if (persistLogs) {
+            drainSchedule = drainExecutor.scheduleWithFixedDelay(DeckLog::drain, DRAIN_INTERVAL_SECONDS, DRAIN_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        } else {
             clearDebugLog();
         }
     }
 
-    public enum Severity {
-        VERBOSE, DEBUG, LOG, INFO, WARN, ERROR, WTF
+    /**
+     * Capturing the calling code location is expensive, so it is only done for entries of at least this {@link Severity}.
+     * Debug builds always capture it.
+     */
+    public static void setCallerSeverity(@NonNull Severity severity) {
+        callerSeverity = severity;
     }
 
     public static void verbose(Object... message) {
-        log(Severity.VERBOSE, 4, message);
+        append(Severity.VERBOSE, null, message);
     }
 
     public static void log(Object... message) {
-        log(Severity.DEBUG, 4, message);
+        append(Severity.DEBUG, null, message);
     }
 
     public static void info(Object... message) {
-        log(Severity.INFO, 4, message);
+        append(Severity.INFO, null, message);
     }
 
     public static void warn(Object... message) {
-        log(Severity.WARN, 4, message);
+        append(Severity.WARN, null, message);
     }
 
     public static void error(Object... message) {
-        log(Severity.ERROR, 4, message);
+        append(Severity.ERROR, null, message);
     }
 
     public static void wtf(Object... message) {
-        log(Severity.WTF, 4, message);
+        append(Severity.WTF, null, message);
     }
 
     public static void log(@NonNull Severity severity, Object... message) {
-        log(severity, 3, message);
+        append(severity, null, message);
     }
 
-    private static void log(@NonNull Severity severity, int stackTracePosition, Object... messages) {
+    public static void logError(@Nullable Throwable e) {
+        if (e == null) {
+            error("Could not log error because given error was null");
+            return;
+        }
+        append(Severity.ERROR, e);
+    }
+
+    private static void append(@NonNull Severity severity, @Nullable Throwable throwable, @Nullable Object... messages) {
         if (!(PERSIST_LOGS || BuildConfig.DEBUG)) {
             return;
         }
-        final StackTraceElement caller = Thread.currentThread().getStackTrace()[stackTracePosition];
-        final String print = "(" + caller.getFileName() + ":" + caller.getLineNumber() + ") " + caller.getMethodName() + "() → " + TextUtils.join(" ", messages);
+        final Entry entry = new Entry(severity, Thread.currentThread().getName(), captureCaller(severity), messages, throwable);
         if (PERSIST_LOGS) {
-            DEBUG_LOG
-                    .append(dtf.format(Instant.now().atZone(ZoneId.systemDefault())))
-                    .append(" ")
-                    .append(severity.name())
-                    .append(" ")
-                    .append(print)
-                    .append("\n");
-        }
-        switch (severity) {
+            buffer.add(entry);
+            if (severity.compareTo(Severity.ERROR) >= 0) {
+                // Errors are often followed by a crash, so do not wait for the next scheduled drain
+                drainExecutor.execute(DeckLog::drain);
+            }
+        }
+        if (BuildConfig.DEBUG) {
+            printToLogcat(entry);
+        }
+    }
+
+    @Nullable
+    private static StackTraceElement captureCaller(@NonNull Severity severity) {
+        if (!BuildConfig.DEBUG && severity.compareTo(callerSeverity) < 0) {
+            return null;
+        }
+        final StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+        for (StackTraceElement element : stackTrace) {
+            if (!DeckLog.class.getName().equals(element.getClassName())) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static void printToLogcat(@NonNull Entry entry) {
+        final String print = entry.formatMessage();
+        switch (entry.severity) {
             case DEBUG:
                 Log.d(TAG, print);
                 break;
@@ -108,42 +195,134 @@ public class DeckLog {
         }
     }
 
-    public static void logError(@Nullable Throwable e) {
-        if (!(PERSIST_LOGS || BuildConfig.DEBUG)) {
+    /**
+     * Writes all pending entries to the log file and releases the memory held by them.
+     */
+    @AnyThread
+    public static void onLowMemory() {
+        drainExecutor.execute(DeckLog::drain);
+    }
+
+    /**
+     * Appends all entries which have been logged since the last time to the log file and rotates it when it gets too big.
+     * Drained entries are released from the {@link #buffer}, so it does not keep their arguments alive.
+     * Any failure is caught, because it would otherwise cancel the scheduled draining for good.
+     */
+    @WorkerThread
+    private static void drain() {
+        final File directory = logDirectory;
+        if (directory == null || !PERSIST_LOGS) {
             return;
         }
-        if (e == null) {
-            error("Could not log error because given error was null");
+        synchronized (fileLock) {
+            try {
+                drainToFile(directory);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Could not drain log", e);
+            }
+            buffer.release(drainedSequence);
+        }
+    }
+
+    @WorkerThread
+    private static void drainToFile(@NonNull File directory) {
+        final long dropped = Math.max(0, buffer.getHead() - buffer.getCapacity() - drainedSequence);
+        if (buffer.getHead() == drainedSequence) {
             return;
         }
-        final StringWriter sw = new StringWriter();
-        e.printStackTrace(new PrintWriter(sw));
-        final String stacktrace = sw.toString();
-        final StackTraceElement caller = Thread.currentThread().getStackTrace()[3];
-        final String print = "(" + caller.getFileName() + ":" + caller.getLineNumber() + ") " + caller.getMethodName() + "() → " + stacktrace;
-        if (PERSIST_LOGS) {
-            DEBUG_LOG.append(print).append("\n");
+        //noinspection ResultOfMethodCallIgnored
+        directory.mkdirs();
+        final File logFile = new File(directory, LOG_FILE_NAME);
+        try (Writer writer = new FileWriter(logFile, true)) {
+            if (dropped > 0) {
+                writer.append("--- ").append(String.valueOf(dropped)).append(" entries have been dropped ---\n");
+            }
+            final IOException[] failure = new IOException[1];
+            drainedSequence = buffer.read(drainedSequence, entry -> {
+                if (failure[0] == null) {
+                    try {
+                        writer.append(entry.format());
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Could not write log file", e);
+            return;
+        }
+        if (logFile.length() > MAX_LOG_FILE_BYTES) {
+            final File rotatedLogFile = new File(directory, ROTATED_LOG_FILE_NAME);
+            //noinspection ResultOfMethodCallIgnored
+            rotatedLogFile.delete();
+            if (!logFile.renameTo(rotatedLogFile)) {
+                Log.w(TAG, "Could not rotate log file");
+            }
         }
-        Log.e(TAG, print);
     }
 
+    /**
+     * @return the persisted log files and all entries which have not yet been written to them
+     */
     @NonNull
     public static String getDebugLog() {
-        return DEBUG_LOG.toString();
+        final StringBuilder log = new StringBuilder();
+        synchronized (fileLock) {
+            final File directory = logDirectory;
+            if (directory != null) {
+                for (String fileName : new String[]{ROTATED_LOG_FILE_NAME, LOG_FILE_NAME}) {
+                    final File file = new File(directory, fileName);
+                    if (file.isFile()) {
+                        try {
+                            log.append(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+                        } catch (IOException e) {
+                            log.append("--- Could not read ").append(fileName).append(": ").append(e).append(" ---\n");
+                        }
+                    }
+                }
+            }
+            buffer.read(drainedSequence, entry -> log.append(entry.format()));
+        }
+        return log.toString();
     }
 
+    @AnyThread
     public static void clearDebugLog() {
-        DEBUG_LOG.setLength(0);
+        synchronized (fileLock) {
+            drainedSequence = buffer.getHead();
+            buffer.release(drainedSequence);
+            final File directory = logDirectory;
+            if (directory != null) {
+                //noinspection ResultOfMethodCallIgnored
+                new File(directory, LOG_FILE_NAME).delete();
+                //noinspection ResultOfMethodCallIgnored
+                new File(directory, ROTATED_LOG_FILE_NAME).delete();
+            }
+        }
     }
 
     /**
      * Writes the current log to a temporary file and starts a share intent.
      */
     public static void shareLogAsFile(@NonNull Context context) throws IOException {
+        shareLogAsFile(context, null);
+    }
+
+    /**
+     * Writes the current log followed by the given <code>appendix</code> to a temporary file and starts a share intent.
+     */
+    public static void shareLogAsFile(@NonNull Context context, @Nullable String appendix) throws IOException {
         Toast.makeText(context, R.string.copying_logs_to_file, Toast.LENGTH_LONG).show();
         final File logFile = new File(context.getCacheDir().getAbsolutePath() + "/log.txt");
         final FileWriter writer = new FileWriter(logFile);
         writer.write(DeckLog.getDebugLog());
+        if (appendix != null) {
+            writer.write("\n");
+            writer.write(appendix);
+        }
         writer.close();
         context.startActivity(new Intent(Intent.ACTION_SEND)
                 .putExtra(Intent.EXTRA_TITLE, context.getString(R.string.log_file))
@@ -151,4 +330,79 @@ public class DeckLog {
                 .setFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION)
                 .setType(MimeTypeUtil.TEXT_PLAIN));
     }
+
+    /**
+     * A log entry which keeps the raw arguments until it is formatted.
+     */
+    private static class Entry {
+        private final long timestamp = System.currentTimeMillis();
+        @NonNull
+        private final Severity severity;
+        @NonNull
+        private final String thread;
+        @Nullable
+        private final StackTraceElement caller;
+        @Nullable
+        private final Object[] messages;
+        @Nullable
+        private final Throwable throwable;
+
+        private Entry(@NonNull Severity severity, @NonNull String thread, @Nullable StackTraceElement caller, @Nullable Object[] messages, @Nullable Throwable throwable) {
+            this.severity = severity;
+            this.thread = thread;
+            this.caller = caller;
+            this.messages = messages;
+            this.throwable = throwable;
+        }
+
+        /**
+         * Arguments are formatted late, so their {@link Object#toString()} might fail. This must neither crash the caller nor stop the draining.
+         */
+        @NonNull
+        private String formatMessage() {
+            final StringBuilder builder = new StringBuilder();
+            try {
+                appendMessage(builder);
+            } catch (IOException e) {
+                // StringBuilder does not throw
+                throw new IllegalStateException(e);
+            } catch (RuntimeException e) {
+                return "--- Could not format log entry: " + e + " ---";
+            }
+            return builder.toString();
+        }
+
+        /**
+         * @return the line of this entry in the log file
+         */
+        @NonNull
+        private String format() {
+            return dtf.format(Instant.ofEpochMilli(timestamp)) + ' ' + severity.name() + " [" + thread + "] " + formatMessage() + '\n';
+        }
+
+        private void appendMessage(@NonNull Appendable appendable) throws IOException {
+            if (caller != null) {
+                appendable.append('(')
+                        .append(caller.getFileName())
+                        .append(':')
+                        .append(String.valueOf(caller.getLineNumber()))
+                        .append(") ")
+                        .append(caller.getMethodName())
+                        .append("() → ");
+            }
+            if (messages != null) {
+                for (int i = 0; i < messages.length; i++) {
+                    if (i > 0) {
+                        appendable.append(' ');
+                    }
+                    appendable.append(String.valueOf(messages[i]));
+                }
+            }
+            if (throwable != null) {
+                final StringWriter stacktrace = new StringWriter();
+                throwable.printStackTrace(new PrintWriter(stacktrace));
+                appendable.append(stacktrace.toString());
+            }
+        }
+    }
 }
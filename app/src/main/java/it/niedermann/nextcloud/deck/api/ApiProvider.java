@@ -30,6 +30,12 @@ public class ApiProvider {
     @Nullable
     private final String ssoAccountName;
     private SingleSignOnAccount ssoAccount;
+    @NonNull
+    private final RequestLimiter requestLimiter = new RequestLimiter();
+    @Nullable
+    private volatile RequestLimiter sharedRequestLimiter;
+    @NonNull
+    private final RequestStatistics requestStatistics = new RequestStatistics();
 
     public ApiProvider(@NonNull Context context, @Nullable String ssoAccountName) {
         this.context = context;
@@ -65,6 +71,28 @@ public class ApiProvider {
         return nextcloudAPI;
     }
 
+    @NonNull
+    public RequestLimiter getRequestLimiter() {
+        return requestLimiter;
+    }
+
+    /**
+     * @return a {@link RequestLimiter} which is shared with other {@link ApiProvider}s or <code>null</code>
+     */
+    @Nullable
+    public RequestLimiter getSharedRequestLimiter() {
+        return sharedRequestLimiter;
+    }
+
+    public void setSharedRequestLimiter(@Nullable RequestLimiter sharedRequestLimiter) {
+        this.sharedRequestLimiter = sharedRequestLimiter;
+    }
+
+    @NonNull
+    public RequestStatistics getRequestStatistics() {
+        return requestStatistics;
+    }
+
     public String getServerUrl(){
         if (ssoAccount == null) {
             setAccount();
@@ -78,10 +78,10 @@ public interface DeckAPI {
     Observable<Void> deleteStack(@Path("boardId") long boardId, @Path("stackId") long id);
 
     @GET("v1.0/boards/{boardId}/stacks/{stackId}")
-    Observable<FullStack> getStack(@Path("boardId") long boardId, @Path("stackId") long id, @Header(MODIFIED_SINCE_HEADER) String lastSync);
+    Observable<FullStack> getStack(@Path("boardId") long boardId, @Path("stackId") long id, @Header(MODIFIED_SINCE_HEADER) String lastSync, @Header(IF_NONE_MATCH) String eTag);
 
     @GET("v1.0/boards/{boardId}/stacks")
-    Observable<List<FullStack>> getStacks(@Path("boardId") long boardId, @Header(MODIFIED_SINCE_HEADER) String lastSync);
+    Observable<ParsedResponse<List<FullStack>>> getStacks(@Path("boardId") long boardId, @Header(MODIFIED_SINCE_HEADER) String lastSync, @Header(IF_NONE_MATCH) String eTag);
 
     @GET("v1.0/boards/{boardId}/stacks/archived")
     Observable<List<Stack>> getArchivedStacks(@Path("boardId") long boardId, @Header(MODIFIED_SINCE_HEADER) String lastSync);
@@ -122,10 +122,10 @@ public interface DeckAPI {
      */
     @SuppressWarnings("JavadocReference")
     @GET("v1.0/boards/{boardId}/stacks/{stackId}/cards/{cardId}")
-    Observable<FullCard> getCard_1_0(@Path("boardId") long boardId, @Path("stackId") long stackId, @Path("cardId") long cardId, @Header(MODIFIED_SINCE_HEADER) String lastSync);
+    Observable<FullCard> getCard_1_0(@Path("boardId") long boardId, @Path("stackId") long stackId, @Path("cardId") long cardId, @Header(MODIFIED_SINCE_HEADER) String lastSync, @Header(IF_NONE_MATCH) String eTag);
 
     @GET("v1.1/boards/{boardId}/stacks/{stackId}/cards/{cardId}")
-    Observable<FullCard> getCard_1_1(@Path("boardId") long boardId, @Path("stackId") long stackId, @Path("cardId") long cardId, @Header(MODIFIED_SINCE_HEADER) String lastSync);
+    Observable<FullCard> getCard_1_1(@Path("boardId") long boardId, @Path("stackId") long stackId, @Path("cardId") long cardId, @Header(MODIFIED_SINCE_HEADER) String lastSync, @Header(IF_NONE_MATCH) String eTag);
 
 
     // Labels
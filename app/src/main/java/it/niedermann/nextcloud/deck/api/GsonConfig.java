@@ -29,12 +29,17 @@ public class GsonConfig {
 
     public static final String DATE_PATTERN = "yyyy-MM-dd'T'hh:mm:ssZ";
 
-    private static final Gson INSTANCE;
+    private static final Gson INSTANCE = create(true);
+    private static final Gson TREE_INSTANCE = create(false);
 
-    static {
+    /**
+     * @param streaming whether boards, stacks, cards, attachments and comments should be read in one pass by {@link StreamingEntityParser}
+     *                  instead of building a tree of the whole response for {@link JsonToEntityParser} first
+     */
+    private static Gson create(boolean streaming) {
         Type boardList = new TypeToken<List<FullBoard>>() {}.getType();
         Type board = new TypeToken<FullBoard>() {}.getType();
-        Type cardList = new TypeToken<FullCard>() {}.getType();
+        Type cardList = new TypeToken<List<FullCard>>() {}.getType();
         Type card = new TypeToken<FullCard>() {}.getType();
         Type labelList = new TypeToken<Label>() {}.getType();
         Type label = new TypeToken<Label>() {}.getType();
@@ -51,33 +56,56 @@ public class GsonConfig {
         Type projectList = new TypeToken<OcsProjectList>() {}.getType();
         Type groupMembers = new TypeToken<GroupMemberUIDs>() {}.getType();
 
-        INSTANCE = new GsonBuilder()
+        final GsonBuilder builder = new GsonBuilder()
                 .setDateFormat(DATE_PATTERN)
                 .setLenient()
                 .registerTypeAdapter(Instant.class,     new GsonUTCInstantAdapter())
-                .registerTypeAdapter(boardList,         new NextcloudArrayDeserializer<>("boards", FullBoard.class))
-                .registerTypeAdapter(board,             new NextcloudDeserializer<>("board", FullBoard.class))
-                .registerTypeAdapter(cardList,          new NextcloudArrayDeserializer<>("cards", FullCard.class))
-                .registerTypeAdapter(card,              new NextcloudDeserializer<>("card", FullCard.class))
                 .registerTypeAdapter(labelList,         new NextcloudArrayDeserializer<>("labels", Label.class))
                 .registerTypeAdapter(label,             new NextcloudDeserializer<>("label", Label.class))
-                .registerTypeAdapter(stackList,         new NextcloudArrayDeserializer<>("stacks", FullStack.class))
-                .registerTypeAdapter(stack,             new NextcloudDeserializer<>("stack", FullStack.class))
                 .registerTypeAdapter(capabilities,      new NextcloudDeserializer<>("capability", Capabilities.class))
                 .registerTypeAdapter(ocsUserList,       new NextcloudDeserializer<>("ocsUserList", OcsUserList.class))
                 .registerTypeAdapter(ocsUser,           new NextcloudDeserializer<>("ocsUser", OcsUser.class))
                 .registerTypeAdapter(activity,          new NextcloudDeserializer<>("activity", Activity.class))
                 .registerTypeAdapter(activityList,      new NextcloudDeserializer<>("activityList", Activity.class))
-                .registerTypeAdapter(attachmentList,    new NextcloudArrayDeserializer<>("attachments", Attachment.class))
-                .registerTypeAdapter(attachment,        new NextcloudDeserializer<>("attachment", Attachment.class))
-                .registerTypeAdapter(comment,           new NextcloudDeserializer<>("comment", OcsComment.class))
                 .registerTypeAdapter(projectList,       new NextcloudDeserializer<>("projectList", OcsProjectList.class))
-                .registerTypeAdapter(groupMembers,      new NextcloudDeserializer<>("groupMembers", GroupMemberUIDs.class))
-                .create();
+                .registerTypeAdapter(groupMembers,      new NextcloudDeserializer<>("groupMembers", GroupMemberUIDs.class));
+
+        if (streaming) {
+            builder
+                    .registerTypeAdapter(boardList,         new NextcloudArrayTypeAdapter<>("boards", boardList, board, StreamingEntityParser::readBoard))
+                    .registerTypeAdapter(board,             new NextcloudTypeAdapter<>("board", board, StreamingEntityParser::readBoard))
+                    .registerTypeAdapter(cardList,          new NextcloudArrayTypeAdapter<>("cards", cardList, card, StreamingEntityParser::readCard))
+                    .registerTypeAdapter(card,              new NextcloudTypeAdapter<>("card", card, StreamingEntityParser::readCard))
+                    .registerTypeAdapter(stackList,         new NextcloudArrayTypeAdapter<>("stacks", stackList, stack, StreamingEntityParser::readStack))
+                    .registerTypeAdapter(stack,             new NextcloudTypeAdapter<>("stack", stack, StreamingEntityParser::readStack))
+                    .registerTypeAdapter(attachmentList,    new NextcloudArrayTypeAdapter<>("attachments", attachmentList, attachment, StreamingEntityParser::readAttachment))
+                    .registerTypeAdapter(attachment,        new NextcloudTypeAdapter<>("attachment", attachment, StreamingEntityParser::readAttachment))
+                    .registerTypeAdapter(comment,           new NextcloudTypeAdapter<>("comment", comment, StreamingEntityParser::readOcsComment));
+        } else {
+            builder
+                    .registerTypeAdapter(boardList,         new NextcloudArrayDeserializer<>("boards", FullBoard.class))
+                    .registerTypeAdapter(board,             new NextcloudDeserializer<>("board", FullBoard.class))
+                    .registerTypeAdapter(cardList,          new NextcloudArrayDeserializer<>("cards", FullCard.class))
+                    .registerTypeAdapter(card,              new NextcloudDeserializer<>("card", FullCard.class))
+                    .registerTypeAdapter(stackList,         new NextcloudArrayDeserializer<>("stacks", FullStack.class))
+                    .registerTypeAdapter(stack,             new NextcloudDeserializer<>("stack", FullStack.class))
+                    .registerTypeAdapter(attachmentList,    new NextcloudArrayDeserializer<>("attachments", Attachment.class))
+                    .registerTypeAdapter(attachment,        new NextcloudDeserializer<>("attachment", Attachment.class))
+                    .registerTypeAdapter(comment,           new NextcloudDeserializer<>("comment", OcsComment.class));
+        }
+        return builder.create();
     }
 
     public static Gson getGson() {
         return INSTANCE;
     }
 
+    /**
+     * Reads all entities from a {@link com.google.gson.JsonElement} tree using {@link JsonToEntityParser}.
+     * {@link #getGson()} falls back to it for types which could not be streamed and for writing.
+     */
+    public static Gson getTreeGson() {
+        return TREE_INSTANCE;
+    }
+
 }
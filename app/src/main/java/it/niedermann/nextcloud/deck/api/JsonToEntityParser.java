@@ -577,7 +577,10 @@ public class JsonToEntityParser {
     }
 
     private static int getColorAsInt(JsonObject element, String field) {
-        String rawString = getNullAsEmptyString(element.get(field));
+        return getColorAsInt(getNullAsEmptyString(element.get(field)));
+    }
+
+    static int getColorAsInt(String rawString) {
         try {
             if (!rawString.trim().isEmpty()) {
                 String colorAsString = ColorUtil.INSTANCE.formatColorToParsableHexString(rawString);
@@ -609,10 +612,14 @@ public class JsonToEntityParser {
             if (e.has("cards")) {
                 JsonArray cardsJson = e.getAsJsonArray("cards");
                 List<Card> cards = new ArrayList<>();
+                List<FullCard> fullCards = new ArrayList<>();
                 for (JsonElement cardJson : cardsJson) {
-                    cards.add(parseCard(cardJson.getAsJsonObject()).getCard());
+                    FullCard fullCard = parseCard(cardJson.getAsJsonObject());
+                    fullCards.add(fullCard);
+                    cards.add(fullCard.getCard());
                 }
                 fullStack.setCards(cards);
+                fullStack.setFullCards(fullCards);
             }
             stack.setDeletedAt(getTimestampFromLong(e.get("deletedAt")));
         }, e);
@@ -5,6 +5,7 @@ import android.content.SharedPreferences;
 
 import androidx.annotation.NonNull;
 
+import java.time.Duration;
 import java.time.Instant;
 
 import it.niedermann.nextcloud.deck.R;
@@ -12,6 +13,12 @@ import it.niedermann.nextcloud.deck.R;
 public class LastSyncUtil {
 
     private static final String LAST_SYNC_KEY = "lS_";
+    private static final String LAST_FULL_SYNC_KEY = "lFS_";
+    /**
+     * Delta syncs can not detect entities which have been removed on the server (e.g. lost permissions),
+     * so a full sync is performed regularly.
+     */
+    private static final Duration FULL_SYNC_INTERVAL = Duration.ofHours(24);
     private static LastSyncUtil INSTANCE;
     private final SharedPreferences lastSyncPref;
 
@@ -37,7 +44,25 @@ public class LastSyncUtil {
     }
 
     public static void resetLastSyncDate(long accountId) {
-        INSTANCE.lastSyncPref.edit().remove(getSyncKeyForAccount(accountId)).apply();
+        INSTANCE.lastSyncPref.edit()
+                .remove(getSyncKeyForAccount(accountId))
+                .remove(getFullSyncKeyForAccount(accountId))
+                .apply();
+    }
+
+    public static void setLastFullSyncDate(long accountId, Instant value) {
+        INSTANCE.lastSyncPref.edit().putLong(getFullSyncKeyForAccount(accountId), value.toEpochMilli()).apply();
+    }
+
+    /**
+     * @return <code>true</code> if the next sync of this account must fetch everything instead of only the changes since the last sync
+     */
+    public static boolean isFullSyncRequired(long accountId, @NonNull Instant now) {
+        if (getLastSync(accountId) == 0L) {
+            return true;
+        }
+        final long lastFullSync = INSTANCE.lastSyncPref.getLong(getFullSyncKeyForAccount(accountId), 0L);
+        return Instant.ofEpochMilli(lastFullSync).plus(FULL_SYNC_INTERVAL).isBefore(now);
     }
 
     public static void init(Context applicationContext) {
@@ -48,6 +73,10 @@ public class LastSyncUtil {
         return LAST_SYNC_KEY + accountId;
     }
 
+    private static String getFullSyncKeyForAccount(long accountId) {
+        return LAST_FULL_SYNC_KEY + accountId;
+    }
+
     public static void resetAll() {
         INSTANCE.lastSyncPref.edit().clear().apply();
     }
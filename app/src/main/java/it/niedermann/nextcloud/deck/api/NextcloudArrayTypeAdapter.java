@@ -0,0 +1,69 @@
+package it.niedermann.nextcloud.deck.api;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming counterpart of {@link NextcloudArrayDeserializer}. A single object is accepted as list with one item.
+ * Falls back to {@link GsonConfig#getTreeGson()} like {@link NextcloudTypeAdapter}.
+ */
+public class NextcloudArrayTypeAdapter<T> extends TypeAdapter<List<T>> {
+
+    @NonNull
+    protected final Type mListType;
+    @NonNull
+    protected final NextcloudTypeAdapter<T> mItemAdapter;
+
+    /**
+     * @param listType {@link List} of <code>type</code>
+     */
+    public NextcloudArrayTypeAdapter(@NonNull String key, @NonNull Type listType, @NonNull Type type, @NonNull StreamingEntityParser.EntityReader<T> reader) {
+        this.mListType = listType;
+        this.mItemAdapter = new NextcloudTypeAdapter<>(key, type, reader);
+    }
+
+    /**
+     * Must not be called while {@link GsonConfig} gets initialized
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    protected TypeAdapter<List<T>> getTreeAdapter() {
+        return (TypeAdapter<List<T>>) GsonConfig.getTreeGson().getAdapter(TypeToken.get(mListType));
+    }
+
+    @Override
+    public void write(JsonWriter out, List<T> value) throws IOException {
+        getTreeAdapter().write(out, value);
+    }
+
+    @Override
+    public List<T> read(JsonReader in) throws IOException {
+        if (mItemAdapter.hasStreamingFailed()) {
+            return getTreeAdapter().read(in);
+        }
+        final List<T> items = new ArrayList<>();
+        final JsonToken token = in.peek();
+        if (token == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+            while (in.hasNext()) {
+                items.add(mItemAdapter.read(in));
+            }
+            in.endArray();
+        } else if (token == JsonToken.BEGIN_OBJECT) {
+            items.add(mItemAdapter.read(in));
+        } else {
+            throw new IllegalArgumentException(getClass().getSimpleName() + " got a malformed Json at " + in.getPath() + ": " + token);
+        }
+        return items;
+    }
+}
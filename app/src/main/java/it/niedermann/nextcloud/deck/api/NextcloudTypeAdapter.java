@@ -0,0 +1,80 @@
+package it.niedermann.nextcloud.deck.api;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+
+/**
+ * Streaming counterpart of {@link NextcloudDeserializer}, which reads an entity without building a tree of the response first.
+ * <p>
+ * A response which has already been read partially can not be read again, so a response which can not be streamed fails.
+ * All further responses of this type are read by the tree based {@link GsonConfig#getTreeGson()}, which also writes entities.
+ */
+public class NextcloudTypeAdapter<T> extends TypeAdapter<T> {
+
+    @NonNull
+    protected final String mKey;
+    @NonNull
+    protected final Type mType;
+    @NonNull
+    protected final StreamingEntityParser.EntityReader<T> mReader;
+    private volatile boolean streamingFailed = false;
+
+    public NextcloudTypeAdapter(@NonNull String key, @NonNull Type type, @NonNull StreamingEntityParser.EntityReader<T> reader) {
+        this.mKey = key;
+        this.mType = type;
+        this.mReader = reader;
+    }
+
+    /**
+     * Must not be called while {@link GsonConfig} gets initialized
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    protected TypeAdapter<T> getTreeAdapter() {
+        return (TypeAdapter<T>) GsonConfig.getTreeGson().getAdapter(TypeToken.get(mType));
+    }
+
+    /**
+     * @return whether this adapter falls back to {@link #getTreeAdapter()} because it could not stream a response before
+     */
+    public boolean hasStreamingFailed() {
+        return streamingFailed;
+    }
+
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+        getTreeAdapter().write(out, value);
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (streamingFailed) {
+            return getTreeAdapter().read(in);
+        }
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return mReader.read(in);
+        } catch (IOException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            streamingFailed = true;
+            final JsonParseException exception = new JsonParseException("Could not read " + mKey + " at " + in.getPath() + ", falling back to tree parser for further responses", e);
+            DeckLog.logError(exception);
+            throw exception;
+        }
+    }
+}
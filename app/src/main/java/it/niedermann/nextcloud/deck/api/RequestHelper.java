@@ -2,19 +2,18 @@ package it.niedermann.nextcloud.deck.api;
 
 import androidx.annotation.NonNull;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Consumer;
 import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.schedulers.Schedulers;
 import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.util.DeckExecutors;
 
 public class RequestHelper {
 
-    private static final ExecutorService executor = Executors.newCachedThreadPool();
+    private static final Scheduler scheduler = Schedulers.from(DeckExecutors.network());
 
     static {
         RxJavaPlugins.setErrorHandler(DeckLog::logError);
@@ -25,9 +24,15 @@ public class RequestHelper {
             provider.initSsoApi(callback::onError);
         }
 
+        final RequestStatistics statistics = provider.getRequestStatistics();
         final ResponseConsumer<T> cb = new ResponseConsumer<>(callback);
-        return call.getObservableFromCall()
-                .subscribeOn(Schedulers.from(executor))
+        statistics.onRequest();
+        final RequestLimiter sharedRequestLimiter = provider.getSharedRequestLimiter();
+        final Observable<T> request = call.getObservableFromCall().subscribeOn(scheduler);
+        // The own slot is taken first, so waiting for it does not block a shared slot
+        return provider.getRequestLimiter().limit(sharedRequestLimiter == null ? request : sharedRequestLimiter.limit(request))
+                .doOnNext(statistics::onResponse)
+                .doOnError(statistics::onError)
                 .subscribe(cb, cb.getExceptionConsumer());
     }
 
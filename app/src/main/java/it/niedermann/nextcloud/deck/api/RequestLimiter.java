@@ -0,0 +1,106 @@
+package it.niedermann.nextcloud.deck.api;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Observable;
+
+/**
+ * Limits the number of requests which are in flight at the same time without blocking any thread.
+ * Requests exceeding the limit are queued and started in order as soon as a running one terminates.
+ */
+public class RequestLimiter {
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+    private int running = 0;
+    private int maxConcurrentRequests;
+
+    public RequestLimiter() {
+        this(UNLIMITED);
+    }
+
+    public RequestLimiter(int maxConcurrentRequests) {
+        setMaxConcurrentRequests(maxConcurrentRequests);
+    }
+
+    /**
+     * Changing the limit does not affect requests which are already running.
+     */
+    @AnyThread
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be at least 1, but was " + maxConcurrentRequests);
+        }
+        synchronized (this) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+        drain();
+    }
+
+    @AnyThread
+    public synchronized int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * @return an {@link Observable} which subscribes to the given <code>source</code> not before a slot is available
+     */
+    @NonNull
+    public <T> Observable<T> limit(@NonNull Observable<T> source) {
+        return Observable.create(emitter -> {
+            final AtomicBoolean released = new AtomicBoolean(false);
+            final Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    onFinished();
+                }
+            };
+            enqueue(() -> {
+                if (emitter.isDisposed()) {
+                    release.run();
+                } else {
+                    emitter.setDisposable(source
+                            .doFinally(release::run)
+                            .subscribe(emitter::onNext, emitter::tryOnError, emitter::onComplete));
+                }
+            });
+        });
+    }
+
+    private void enqueue(@NonNull Runnable start) {
+        synchronized (this) {
+            pending.add(start);
+        }
+        drain();
+    }
+
+    private void onFinished() {
+        synchronized (this) {
+            running--;
+        }
+        drain();
+    }
+
+    /**
+     * Starts pending requests outside of the lock, because they might terminate synchronously and call {@link #onFinished()}.
+     */
+    private void drain() {
+        final List<Runnable> toStart = new ArrayList<>();
+        synchronized (this) {
+            while (running < maxConcurrentRequests && !pending.isEmpty()) {
+                running++;
+                toStart.add(pending.poll());
+            }
+        }
+        for (Runnable start : toStart) {
+            start.run();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package it.niedermann.nextcloud.deck.api;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nextcloud.android.sso.api.ParsedResponse;
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
+
+import java.net.HttpURLConnection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.ResponseBody;
+
+/**
+ * Counts the requests of one {@link ApiProvider} since it has been created.
+ * Use {@link #snapshot()} to measure the requests of a certain period.
+ */
+public class RequestStatistics {
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong responsesWithKnownSize = new AtomicLong();
+    private final AtomicLong responseBytes = new AtomicLong();
+
+    @AnyThread
+    public void onRequest() {
+        requests.incrementAndGet();
+    }
+
+    /**
+     * The size is only known for raw responses and for responses whose headers contain a <code>Content-Length</code>.
+     */
+    @AnyThread
+    public void onResponse(@Nullable Object response) {
+        final long size = getSize(response);
+        if (size >= 0) {
+            responsesWithKnownSize.incrementAndGet();
+            responseBytes.addAndGet(size);
+        }
+    }
+
+    @AnyThread
+    public void onError(@NonNull Throwable throwable) {
+        if (throwable instanceof NextcloudHttpRequestFailedException
+                && ((NextcloudHttpRequestFailedException) throwable).getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            notModified.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+
+    @NonNull
+    @AnyThread
+    public Snapshot snapshot() {
+        return new Snapshot(requests.get(), failed.get(), notModified.get(), responsesWithKnownSize.get(), responseBytes.get());
+    }
+
+    private static long getSize(@Nullable Object response) {
+        if (response instanceof ResponseBody) {
+            return ((ResponseBody) response).contentLength();
+        } else if (response instanceof ParsedResponse) {
+            final Map<String, String> headers = ((ParsedResponse<?>) response).getHeaders();
+            if (headers != null) {
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    if ("Content-Length".equalsIgnoreCase(header.getKey())) {
+                        try {
+                            return Long.parseLong(header.getValue());
+                        } catch (NumberFormatException e) {
+                            return -1;
+                        }
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    public static class Snapshot {
+        public final long requests;
+        public final long failed;
+        public final long notModified;
+        public final long responsesWithKnownSize;
+        public final long responseBytes;
+
+        private Snapshot(long requests, long failed, long notModified, long responsesWithKnownSize, long responseBytes) {
+            this.requests = requests;
+            this.failed = failed;
+            this.notModified = notModified;
+            this.responsesWithKnownSize = responsesWithKnownSize;
+            this.responseBytes = responseBytes;
+        }
+
+        /**
+         * @return what has happened between the given <code>earlier</code> {@link Snapshot} and this one
+         */
+        @NonNull
+        public Snapshot minus(@NonNull Snapshot earlier) {
+            return new Snapshot(requests - earlier.requests,
+                    failed - earlier.failed,
+                    notModified - earlier.notModified,
+                    responsesWithKnownSize - earlier.responsesWithKnownSize,
+                    responseBytes - earlier.responseBytes);
+        }
+    }
+}
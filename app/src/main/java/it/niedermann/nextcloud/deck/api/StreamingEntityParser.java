@@ -0,0 +1,767 @@
+package it.niedermann.nextcloud.deck.api;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.model.AccessControl;
+import it.niedermann.nextcloud.deck.model.Attachment;
+import it.niedermann.nextcloud.deck.model.Board;
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.Label;
+import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.enums.EAttachmentType;
+import it.niedermann.nextcloud.deck.model.full.FullBoard;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.model.full.FullStack;
+import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
+import it.niedermann.nextcloud.deck.model.ocs.comment.Mention;
+import it.niedermann.nextcloud.deck.model.ocs.comment.OcsComment;
+
+/**
+ * Reads entities in one pass from a {@link JsonReader} instead of building a {@link com.google.gson.JsonElement} tree of the whole response first.
+ * The results are the same as the ones of {@link JsonToEntityParser}, except that missing or <code>null</code> values of nested arrays and objects are skipped instead of failing.
+ */
+public class StreamingEntityParser {
+
+    private StreamingEntityParser() {
+        throw new UnsupportedOperationException("This class must not be instantiated.");
+    }
+
+    public interface EntityReader<T> {
+        T read(@NonNull JsonReader in) throws IOException;
+    }
+
+    @NonNull
+    public static FullBoard readBoard(@NonNull JsonReader in) throws IOException {
+        final FullBoard fullBoard = new FullBoard();
+        final Board board = new Board();
+        board.setTitle("");
+        board.setColor("");
+        board.setArchived(false);
+        fullBoard.setBoard(board);
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    board.setId(in.nextLong());
+                    break;
+                case "title":
+                    board.setTitle(nextStringOrEmpty(in));
+                    break;
+                case "color":
+                    board.setColor(nextStringOrEmpty(in));
+                    break;
+                case "ETag":
+                    board.setEtag(nextStringOrNull(in));
+                    break;
+                case "archived":
+                    board.setArchived(nextBooleanOrFalse(in));
+                    break;
+                case "lastModified":
+                    board.setLastModified(nextTimestampFromLong(in));
+                    break;
+                case "deletedAt":
+                    board.setDeletedAt(nextTimestampFromLong(in));
+                    break;
+                case "labels": {
+                    final List<Label> labels = readArrayOrNull(in, StreamingEntityParser::readLabel);
+                    if (labels != null) {
+                        fullBoard.setLabels(labels);
+                    }
+                    break;
+                }
+                case "stacks": {
+                    final List<FullStack> stacks = readArrayOrNull(in, StreamingEntityParser::readStack);
+                    if (stacks != null) {
+                        final List<Stack> boardStacks = new ArrayList<>(stacks.size());
+                        for (FullStack stack : stacks) {
+                            boardStacks.add(stack.getStack());
+                        }
+                        fullBoard.setStacks(boardStacks);
+                    }
+                    break;
+                }
+                case "acl": {
+                    final List<AccessControl> acl = readArrayOrNull(in, StreamingEntityParser::readAcl);
+                    if (acl != null && acl.size() > 0) {
+                        fullBoard.setParticipants(acl);
+                    }
+                    break;
+                }
+                case "permissions":
+                    readPermissions(in, board);
+                    break;
+                case "owner":
+                    fullBoard.setOwner(readUser(in));
+                    break;
+                case "users": {
+                    final List<User> users = readArrayOrNull(in, StreamingEntityParser::readUser);
+                    if (users != null) {
+                        fullBoard.setUsers(users);
+                    }
+                    break;
+                }
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return fullBoard;
+    }
+
+    private static void readPermissions(@NonNull JsonReader in, @NonNull Board board) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return;
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "PERMISSION_READ":
+                    board.setPermissionRead(nextBoolean(in));
+                    break;
+                case "PERMISSION_EDIT":
+                    board.setPermissionEdit(nextBoolean(in));
+                    break;
+                case "PERMISSION_MANAGE":
+                    board.setPermissionManage(nextBoolean(in));
+                    break;
+                case "PERMISSION_SHARE":
+                    board.setPermissionShare(nextBoolean(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+    }
+
+    @NonNull
+    private static AccessControl readAcl(@NonNull JsonReader in) throws IOException {
+        final AccessControl acl = new AccessControl();
+        User participant = null;
+        Long type = null;
+        Long boardId = null;
+        Long id = null;
+        boolean owner = false;
+        boolean permissionEdit = false;
+        boolean permissionManage = false;
+        boolean permissionShare = false;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "participant":
+                    participant = readUser(in);
+                    break;
+                case "type":
+                    type = nextLongOrNull(in);
+                    break;
+                case "boardId":
+                    boardId = nextLongOrNull(in);
+                    break;
+                case "id":
+                    id = nextLongOrNull(in);
+                    break;
+                case "owner":
+                    owner = nextBooleanOrFalse(in);
+                    break;
+                case "permissionEdit":
+                    permissionEdit = nextBooleanOrFalse(in);
+                    break;
+                case "permissionManage":
+                    permissionManage = nextBooleanOrFalse(in);
+                    break;
+                case "permissionShare":
+                    permissionShare = nextBooleanOrFalse(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        // Entries without participant are kept empty, just like JsonToEntityParser does
+        if (participant != null) {
+            acl.setUser(participant);
+            acl.setType(type);
+            acl.setBoardId(boardId);
+            acl.setId(id);
+            acl.setOwner(owner);
+            acl.setPermissionEdit(permissionEdit);
+            acl.setPermissionManage(permissionManage);
+            acl.setPermissionShare(permissionShare);
+        }
+        return acl;
+    }
+
+    @NonNull
+    public static FullStack readStack(@NonNull JsonReader in) throws IOException {
+        final FullStack fullStack = new FullStack();
+        final Stack stack = new Stack();
+        stack.setTitle("");
+        stack.setOrder(0);
+        fullStack.setStack(stack);
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    stack.setId(in.nextLong());
+                    break;
+                case "title":
+                    stack.setTitle(nextStringOrEmpty(in));
+                    break;
+                case "boardId":
+                    stack.setBoardId(in.nextLong());
+                    break;
+                case "ETag":
+                    stack.setEtag(nextStringOrNull(in));
+                    break;
+                case "lastModified":
+                    stack.setLastModified(nextTimestampFromLong(in));
+                    break;
+                case "deletedAt":
+                    stack.setDeletedAt(nextTimestampFromLong(in));
+                    break;
+                case "order": {
+                    final Long order = nextLongOrNull(in);
+                    stack.setOrder(order == null ? 0 : order.intValue());
+                    break;
+                }
+                case "cards": {
+                    final List<FullCard> fullCards = readArrayOrNull(in, StreamingEntityParser::readCard);
+                    if (fullCards != null) {
+                        final List<Card> cards = new ArrayList<>(fullCards.size());
+                        for (FullCard fullCard : fullCards) {
+                            cards.add(fullCard.getCard());
+                        }
+                        fullStack.setCards(cards);
+                        fullStack.setFullCards(fullCards);
+                    }
+                    break;
+                }
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return fullStack;
+    }
+
+    @NonNull
+    public static FullCard readCard(@NonNull JsonReader in) throws IOException {
+        final FullCard fullCard = new FullCard();
+        final Card card = new Card();
+        card.setTitle("");
+        card.setDescription("");
+        card.setType("");
+        card.setOrder(0);
+        fullCard.setCard(card);
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    card.setId(in.nextLong());
+                    break;
+                case "title":
+                    card.setTitle(nextStringOrEmpty(in));
+                    break;
+                case "description":
+                    card.setDescription(nextStringOrEmpty(in));
+                    break;
+                case "stackId":
+                    card.setStackId(in.nextLong());
+                    break;
+                case "type":
+                    card.setType(nextStringOrEmpty(in));
+                    break;
+                case "ETag":
+                    card.setEtag(nextStringOrNull(in));
+                    break;
+                case "lastModified":
+                    card.setLastModified(nextTimestampFromLong(in));
+                    break;
+                case "createdAt":
+                    card.setCreatedAt(nextTimestampFromLong(in));
+                    break;
+                case "deletedAt":
+                    card.setDeletedAt(nextTimestampFromLong(in));
+                    break;
+                case "labels": {
+                    final List<Label> labels = readArrayOrNull(in, StreamingEntityParser::readLabel);
+                    if (labels != null) {
+                        fullCard.setLabels(labels);
+                    }
+                    break;
+                }
+                case "assignedUsers": {
+                    final List<User> assignedUsers = readArrayOrNull(in, StreamingEntityParser::readAssignedUser);
+                    if (assignedUsers != null) {
+                        final List<User> users = new ArrayList<>(assignedUsers.size());
+                        for (User user : assignedUsers) {
+                            if (user != null) {
+                                users.add(user);
+                            }
+                        }
+                        fullCard.setAssignedUsers(users);
+                    }
+                    break;
+                }
+                case "attachments": {
+                    final List<Attachment> attachments = readArrayOrNull(in, StreamingEntityParser::readAttachment);
+                    if (attachments != null) {
+                        fullCard.setAttachments(attachments);
+                    }
+                    break;
+                }
+                case "attachmentCount": {
+                    final Long attachmentCount = nextLongOrNull(in);
+                    if (attachmentCount != null) {
+                        card.setAttachmentCount(attachmentCount.intValue());
+                    }
+                    break;
+                }
+                case "order": {
+                    final Long order = nextLongOrNull(in);
+                    card.setOrder(order == null ? 0 : order.intValue());
+                    break;
+                }
+                case "overdue": {
+                    final Long overdue = nextLongOrNull(in);
+                    card.setOverdue(overdue == null ? 0 : overdue.intValue());
+                    break;
+                }
+                case "duedate":
+                    card.setDueDate(nextTimestampFromString(in));
+                    break;
+                case "commentsUnread": {
+                    final Long commentsUnread = nextLongOrNull(in);
+                    card.setCommentsUnread(commentsUnread == null ? 0 : commentsUnread.intValue());
+                    break;
+                }
+                case "owner":
+                    fullCard.setOwner(readUser(in));
+                    break;
+                case "archived":
+                    card.setArchived(nextBoolean(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return fullCard;
+    }
+
+    /**
+     * @return the participant of an assignment or <code>null</code> if it has none
+     */
+    @Nullable
+    private static User readAssignedUser(@NonNull JsonReader in) throws IOException {
+        User participant = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("participant".equals(in.nextName())) {
+                participant = readUser(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return participant;
+    }
+
+    @NonNull
+    public static Attachment readAttachment(@NonNull JsonReader in) throws IOException {
+        final Attachment attachment = new Attachment();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    attachment.setId(in.nextLong());
+                    break;
+                case "cardId":
+                    attachment.setCardId(in.nextLong());
+                    break;
+                case "type":
+                    attachment.setType(EAttachmentType.findByValue(nextStringOrNull(in)));
+                    break;
+                case "ETag":
+                    attachment.setEtag(nextStringOrNull(in));
+                    break;
+                case "data":
+                    attachment.setData(nextStringOrNull(in));
+                    break;
+                case "lastModified":
+                    attachment.setLastModified(nextTimestampFromLong(in));
+                    break;
+                case "createdAt":
+                    attachment.setCreatedAt(nextTimestampFromLong(in));
+                    break;
+                case "createdBy":
+                    attachment.setCreatedBy(nextStringOrNull(in));
+                    break;
+                case "deletedAt":
+                    attachment.setDeletedAt(nextTimestampFromLong(in));
+                    break;
+                case "extendedData":
+                    readExtendedData(in, attachment);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return attachment;
+    }
+
+    /**
+     * The server sends an empty array instead of an object if there is no extended data.
+     */
+    private static void readExtendedData(@NonNull JsonReader in, @NonNull Attachment attachment) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return;
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "filesize":
+                    attachment.setFilesize(in.nextLong());
+                    break;
+                case "mimetype":
+                    attachment.setMimetype(nextStringOrNull(in));
+                    break;
+                case "fileid": {
+                    final Long fileId = nextLongOrNull(in);
+                    if (fileId != null) {
+                        attachment.setFileId(fileId);
+                    }
+                    break;
+                }
+                case "info":
+                    readInfo(in, attachment);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+    }
+
+    private static void readInfo(@NonNull JsonReader in, @NonNull Attachment attachment) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return;
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "dirname":
+                    attachment.setDirname(nextStringOrNull(in));
+                    break;
+                case "basename":
+                    attachment.setBasename(nextStringOrNull(in));
+                    break;
+                case "extension":
+                    attachment.setExtension(nextStringOrNull(in));
+                    break;
+                case "filename":
+                    attachment.setFilename(nextStringOrNull(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+    }
+
+    @NonNull
+    public static OcsComment readOcsComment(@NonNull JsonReader in) throws IOException {
+        final OcsComment comment = new OcsComment();
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("ocs".equals(in.nextName()) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                in.beginObject();
+                while (in.hasNext()) {
+                    if ("data".equals(in.nextName())) {
+                        // Like JsonToEntityParser: everything but an array must be a single comment, anything else is not skipped silently
+                        if (in.peek() == JsonToken.BEGIN_ARRAY) {
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                comment.addComment(readDeckComment(in));
+                            }
+                            in.endArray();
+                        } else {
+                            comment.addComment(readDeckComment(in));
+                        }
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endObject();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return comment;
+    }
+
+    @NonNull
+    private static DeckComment readDeckComment(@NonNull JsonReader in) throws IOException {
+        final DeckComment deckComment = new DeckComment();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    deckComment.setId(in.nextLong());
+                    break;
+                case "objectId":
+                    deckComment.setObjectId(in.nextLong());
+                    break;
+                case "message":
+                    deckComment.setMessage(nextStringOrNull(in));
+                    break;
+                case "actorId":
+                    deckComment.setActorId(nextStringOrNull(in));
+                    break;
+                case "actorDisplayName":
+                    deckComment.setActorDisplayName(nextStringOrNull(in));
+                    break;
+                case "actorType":
+                    deckComment.setActorType(nextStringOrNull(in));
+                    break;
+                case "creationDateTime":
+                    deckComment.setCreationDateTime(nextTimestampFromString(in));
+                    break;
+                case "replyTo":
+                    readReplyTo(in, deckComment);
+                    break;
+                case "mentions": {
+                    final List<Mention> mentions = readArrayOrNull(in, StreamingEntityParser::readMention);
+                    if (mentions != null) {
+                        for (Mention mention : mentions) {
+                            deckComment.addMention(mention);
+                        }
+                    }
+                    break;
+                }
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return deckComment;
+    }
+
+    private static void readReplyTo(@NonNull JsonReader in, @NonNull DeckComment deckComment) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return;
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("id".equals(in.nextName())) {
+                deckComment.setParentId(in.nextLong());
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    @NonNull
+    private static Mention readMention(@NonNull JsonReader in) throws IOException {
+        final Mention mention = new Mention();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "mentionId":
+                    mention.setMentionId(nextStringOrNull(in));
+                    break;
+                case "mentionType":
+                    mention.setMentionType(nextStringOrNull(in));
+                    break;
+                case "mentionDisplayName":
+                    mention.setMentionDisplayName(nextStringOrNull(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return mention;
+    }
+
+    @NonNull
+    private static Label readLabel(@NonNull JsonReader in) throws IOException {
+        final Label label = new Label();
+        label.setTitle("");
+        String color = "";
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    label.setId(in.nextLong());
+                    break;
+                case "title":
+                    label.setTitle(nextStringOrEmpty(in));
+                    break;
+                case "ETag":
+                    label.setEtag(nextStringOrNull(in));
+                    break;
+                case "color":
+                    color = nextStringOrEmpty(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        label.setColor(JsonToEntityParser.getColorAsInt(color));
+        return label;
+    }
+
+    /**
+     * Users are either sent as object or just as their UID.
+     */
+    @Nullable
+    private static User readUser(@NonNull JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case NULL:
+                in.nextNull();
+                return null;
+            case BEGIN_OBJECT: {
+                final User user = new User();
+                user.setDisplayname("");
+                user.setPrimaryKey("");
+                user.setUid("");
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "displayname":
+                            user.setDisplayname(nextStringOrEmpty(in));
+                            break;
+                        case "primaryKey":
+                            user.setPrimaryKey(nextStringOrEmpty(in));
+                            break;
+                        case "uid":
+                            user.setUid(nextStringOrEmpty(in));
+                            break;
+                        default:
+                            in.skipValue();
+                            break;
+                    }
+                }
+                in.endObject();
+                return user;
+            }
+            default: {
+                final User user = new User();
+                final String uid = nextStringOrNull(in);
+                user.setDisplayname(uid);
+                user.setPrimaryKey(uid);
+                user.setUid(uid);
+                return user;
+            }
+        }
+    }
+
+    /**
+     * @return <code>null</code> if the value is <code>null</code> or not an array
+     */
+    @Nullable
+    private static <T> List<T> readArrayOrNull(@NonNull JsonReader in, @NonNull EntityReader<T> reader) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return null;
+        }
+        final List<T> items = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            items.add(reader.read(in));
+        }
+        in.endArray();
+        return items;
+    }
+
+    @Nullable
+    private static String nextStringOrNull(@NonNull JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case NULL:
+                in.nextNull();
+                return null;
+            case BOOLEAN:
+                return String.valueOf(in.nextBoolean());
+            default:
+                return in.nextString();
+        }
+    }
+
+    @NonNull
+    private static String nextStringOrEmpty(@NonNull JsonReader in) throws IOException {
+        final String value = nextStringOrNull(in);
+        return value == null ? "" : value;
+    }
+
+    @Nullable
+    private static Long nextLongOrNull(@NonNull JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextLong();
+    }
+
+    /**
+     * Like {@link com.google.gson.JsonPrimitive#getAsBoolean()}, strings and numbers are only <code>true</code> if they equal <code>"true"</code>.
+     */
+    private static boolean nextBoolean(@NonNull JsonReader in) throws IOException {
+        final JsonToken token = in.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    private static boolean nextBooleanOrFalse(@NonNull JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+        }
+        return nextBoolean(in);
+    }
+
+    @Nullable
+    private static Instant nextTimestampFromString(@NonNull JsonReader in) throws IOException {
+        final String value = nextStringOrNull(in);
+        return value == null ? null : ZonedDateTime.from(DateTimeFormatter.ISO_DATE_TIME.parse(value)).toInstant();
+    }
+
+    @Nullable
+    private static Instant nextTimestampFromLong(@NonNull JsonReader in) throws IOException {
+        final Long value = nextLongOrNull(in);
+        return value == null ? null : Instant.ofEpochMilli(value * 1000);
+    }
+}
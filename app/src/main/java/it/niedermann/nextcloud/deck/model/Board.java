@@ -58,6 +58,10 @@ public class Board extends AbstractRemoteEntity implements Serializable {
     private boolean permissionEdit = false;
     private boolean permissionManage = false;
     private boolean permissionShare = false;
+    /**
+     * ETag of the last response of the stacks endpoint of this board, not part of the board entity on the server
+     */
+    private String stacksEtag;
 
 
     @Override
@@ -203,6 +207,14 @@ public class Board extends AbstractRemoteEntity implements Serializable {
         this.permissionShare = permissionShare;
     }
 
+    public String getStacksEtag() {
+        return stacksEtag;
+    }
+
+    public void setStacksEtag(String stacksEtag) {
+        this.stacksEtag = stacksEtag;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
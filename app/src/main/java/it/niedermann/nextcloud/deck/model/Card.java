@@ -1,6 +1,7 @@
 package it.niedermann.nextcloud.deck.model;
 
 import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
 import androidx.room.Ignore;
@@ -18,7 +19,8 @@ import it.niedermann.nextcloud.deck.model.interfaces.AbstractRemoteEntity;
 @Entity(inheritSuperIndices = true,
         indices = {
                 @Index(value = "accountId", name = "card_accID"),
-                @Index("stackId")
+                @Index(value = {"stackId", "localOrder", "createdAt"}),
+                @Index(value = {"archived", "dueDate"})
         },
         foreignKeys = {
                 @ForeignKey(
@@ -61,6 +63,14 @@ public class Card extends AbstractRemoteEntity {
 
     private Long userId;
     private int order;
+    /**
+     * Position of the card in its stack as displayed in the app, which allows to move a card without changing its siblings.
+     * The server is not aware of it, that's why it is <code>transient</code> and therefore not serialized.
+     *
+     * @see it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter#getLocalOrderBetween(Card, Card)
+     */
+    @ColumnInfo(defaultValue = "0")
+    private transient long localOrder;
     private boolean archived;
     @SerializedName("duedate")
     private Instant dueDate;
@@ -89,6 +99,7 @@ public class Card extends AbstractRemoteEntity {
         this.attachmentCount = card.getAttachmentCount();
         this.userId = card.getUserId();
         this.order = card.getOrder();
+        this.localOrder = card.getLocalOrder();
         this.archived = card.isArchived();
         this.dueDate = card.getDueDate();
         this.notified = card.isNotified();
@@ -252,6 +263,14 @@ public class Card extends AbstractRemoteEntity {
         return this.order;
     }
 
+    public long getLocalOrder() {
+        return localOrder;
+    }
+
+    public void setLocalOrder(long localOrder) {
+        this.localOrder = localOrder;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -309,6 +328,7 @@ public class Card extends AbstractRemoteEntity {
                 ", attachmentCount=" + attachmentCount +
                 ", userId=" + userId +
                 ", order=" + order +
+                ", localOrder=" + localOrder +
                 ", archived=" + archived +
                 ", dueDate=" + dueDate +
                 ", notified=" + notified +
@@ -8,7 +8,7 @@ import it.niedermann.nextcloud.deck.model.interfaces.AbstractJoinEntity;
 
 @Entity(
         primaryKeys = {"labelId", "cardId"},
-        indices = {@Index("cardId"), @Index("labelId")},
+        indices = {@Index(value = {"cardId", "status", "labelId"}), @Index("labelId")},
         foreignKeys = {
             @ForeignKey(entity = Label.class,
                 parentColumns = "localId",
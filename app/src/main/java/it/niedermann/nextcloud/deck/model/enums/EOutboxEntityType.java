@@ -0,0 +1,30 @@
+package it.niedermann.nextcloud.deck.model.enums;
+
+/**
+ * Kind of operation recorded in the outbox, the local entity ID always refers to a {@link it.niedermann.nextcloud.deck.model.Card}.
+ * The IDs reflect the order in which operations need to be pushed to the server: a card needs to exist on the server before its labels and assignees.
+ */
+public enum EOutboxEntityType {
+    CARD(2),
+    CARD_LABEL(3),
+    CARD_USER(4);
+
+    private final int id;
+
+    EOutboxEntityType(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public static EOutboxEntityType findById(int id) {
+        for (EOutboxEntityType s : EOutboxEntityType.values()) {
+            if (s.getId() == id) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("unknown " + EOutboxEntityType.class.getSimpleName() + " key: " + id);
+    }
+}
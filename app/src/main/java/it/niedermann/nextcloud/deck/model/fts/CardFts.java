@@ -0,0 +1,48 @@
+package it.niedermann.nextcloud.deck.model.fts;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+import it.niedermann.nextcloud.deck.model.Card;
+
+/**
+ * Full text index for the title and description of {@link Card}s.
+ * Room keeps it in sync with the {@link Card} table by triggers, the <code>rowid</code> equals {@link Card#getLocalId()}.
+ */
+@Fts4(contentEntity = Card.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity
+public class CardFts {
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private Long rowId;
+    private String title;
+    private String description;
+
+    public Long getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(Long rowId) {
+        this.rowId = rowId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
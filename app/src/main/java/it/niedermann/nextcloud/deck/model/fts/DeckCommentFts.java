@@ -0,0 +1,39 @@
+package it.niedermann.nextcloud.deck.model.fts;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
+
+/**
+ * Full text index for the message of {@link DeckComment}s.
+ * Room keeps it in sync with the {@link DeckComment} table by triggers, the <code>rowid</code> equals {@link DeckComment#getLocalId()}.
+ */
+@Fts4(contentEntity = DeckComment.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity
+public class DeckCommentFts {
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private Long rowId;
+    private String message;
+
+    public Long getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(Long rowId) {
+        this.rowId = rowId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
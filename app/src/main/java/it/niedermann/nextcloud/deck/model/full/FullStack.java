@@ -17,6 +17,12 @@ public class FullStack implements IRemoteEntity {
     @Relation(entity = Card.class, parentColumn = "localId", entityColumn = "stackId")
     public List<Card> cards;
 
+    /**
+     * Cards including their relations as delivered by the stacks endpoint.
+     * Only filled for entities parsed from a server response, used by the card sync to avoid fetching each card on its own.
+     */
+    @Ignore
+    private transient List<FullCard> fullCards;
 
     public Stack getStack() {
         return stack;
@@ -34,6 +40,14 @@ public class FullStack implements IRemoteEntity {
         this.cards = cards;
     }
 
+    public List<FullCard> getFullCards() {
+        return fullCards;
+    }
+
+    public void setFullCards(List<FullCard> fullCards) {
+        this.fullCards = fullCards;
+    }
+
     @Ignore
     @Override
     public Stack getEntity() {
@@ -0,0 +1,59 @@
+package it.niedermann.nextcloud.deck.model.full;
+
+import androidx.annotation.Nullable;
+import androidx.room.Relation;
+
+import it.niedermann.nextcloud.deck.model.Account;
+
+/**
+ * A {@link FullCard} together with the {@link Account} and the board it belongs to, as needed by the upcoming cards screen and widget.
+ */
+public class FullUpcomingCard extends FullCard {
+
+    @Relation(parentColumn = "accountId", entityColumn = "id")
+    private Account account;
+
+    private long boardLocalId;
+
+    @Nullable
+    private Long boardRemoteId;
+
+    private boolean boardPermissionEdit;
+
+    public FullUpcomingCard() {
+        super();
+    }
+
+    public Account getAccount() {
+        return account;
+    }
+
+    public void setAccount(Account account) {
+        this.account = account;
+    }
+
+    public long getBoardLocalId() {
+        return boardLocalId;
+    }
+
+    public void setBoardLocalId(long boardLocalId) {
+        this.boardLocalId = boardLocalId;
+    }
+
+    @Nullable
+    public Long getBoardRemoteId() {
+        return boardRemoteId;
+    }
+
+    public void setBoardRemoteId(@Nullable Long boardRemoteId) {
+        this.boardRemoteId = boardRemoteId;
+    }
+
+    public boolean isBoardPermissionEdit() {
+        return boardPermissionEdit;
+    }
+
+    public void setBoardPermissionEdit(boolean boardPermissionEdit) {
+        this.boardPermissionEdit = boardPermissionEdit;
+    }
+}
@@ -16,7 +16,7 @@ import it.niedermann.nextcloud.deck.model.interfaces.AbstractRemoteEntity;
 @Entity(inheritSuperIndices = true,
         indices = {
                 @Index(value = "accountId", name = "comment_accID"),
-                @Index("objectId"),
+                @Index(value = {"objectId", "status"}),
                 @Index(value = "parentId", name = "idx_comment_parentID")
         },
         foreignKeys = {
@@ -0,0 +1,151 @@
+package it.niedermann.nextcloud.deck.model.outbox;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import java.time.Instant;
+
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Board;
+import it.niedermann.nextcloud.deck.model.enums.EOutboxEntityType;
+
+/**
+ * A pending local change which still needs to be pushed to the server.
+ * Entries are only appended and removed once pushed. All entries of the same entity are coalesced into one operation when the outbox gets drained,
+ * which pushes the current local state of the entity.
+ */
+@Entity(
+        indices = {
+                @Index(value = {"accountId", "entityType", "localEntityId"}),
+                @Index("localBoardId")
+        },
+        foreignKeys = {
+                @ForeignKey(
+                        entity = Account.class,
+                        parentColumns = "id",
+                        childColumns = "accountId", onDelete = ForeignKey.CASCADE
+                ),
+                @ForeignKey(
+                        entity = Board.class,
+                        parentColumns = "localId",
+                        childColumns = "localBoardId", onDelete = ForeignKey.CASCADE
+                )
+        }
+)
+public class OutboxEntry {
+
+    @PrimaryKey(autoGenerate = true)
+    private Long localId;
+    private long accountId;
+    private long localBoardId;
+    @Nullable
+    private Long localStackId;
+    @NonNull
+    private EOutboxEntityType entityType;
+    private long localEntityId;
+    @NonNull
+    private Instant createdAt;
+    private int attempts;
+
+    public OutboxEntry() {
+        this.entityType = EOutboxEntityType.CARD;
+        this.createdAt = Instant.now();
+    }
+
+    @Ignore
+    public OutboxEntry(long accountId, long localBoardId, @Nullable Long localStackId, @NonNull EOutboxEntityType entityType, long localEntityId) {
+        this.accountId = accountId;
+        this.localBoardId = localBoardId;
+        this.localStackId = localStackId;
+        this.entityType = entityType;
+        this.localEntityId = localEntityId;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getLocalId() {
+        return localId;
+    }
+
+    public void setLocalId(Long localId) {
+        this.localId = localId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(long accountId) {
+        this.accountId = accountId;
+    }
+
+    public long getLocalBoardId() {
+        return localBoardId;
+    }
+
+    public void setLocalBoardId(long localBoardId) {
+        this.localBoardId = localBoardId;
+    }
+
+    @Nullable
+    public Long getLocalStackId() {
+        return localStackId;
+    }
+
+    public void setLocalStackId(@Nullable Long localStackId) {
+        this.localStackId = localStackId;
+    }
+
+    @NonNull
+    public EOutboxEntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(@NonNull EOutboxEntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public long getLocalEntityId() {
+        return localEntityId;
+    }
+
+    public void setLocalEntityId(long localEntityId) {
+        this.localEntityId = localEntityId;
+    }
+
+    @NonNull
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(@NonNull Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "OutboxEntry{" +
+                "localId=" + localId +
+                ", accountId=" + accountId +
+                ", localBoardId=" + localBoardId +
+                ", localStackId=" + localStackId +
+                ", entityType=" + entityType +
+                ", localEntityId=" + localEntityId +
+                ", createdAt=" + createdAt +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -6,6 +6,7 @@ import androidx.room.Entity;
 import androidx.room.Ignore;
 import androidx.room.PrimaryKey;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,6 +27,12 @@ public class FilterWidget {
     @NonNull
     private EWidgetType widgetType = EWidgetType.FILTER_WIDGET;
 
+    /**
+     * When the {@link FilterWidgetResult}s of this widget have been computed or <code>null</code> if they need to be computed again.
+     */
+    @Nullable
+    private Instant resultComputedAt;
+
     @Ignore
     @NonNull
     private final List<FilterWidgetAccount> accounts = new ArrayList<>();
@@ -105,6 +112,15 @@ public class FilterWidget {
         this.title = title;
     }
 
+    @Nullable
+    public Instant getResultComputedAt() {
+        return resultComputedAt;
+    }
+
+    public void setResultComputedAt(@Nullable Instant resultComputedAt) {
+        this.resultComputedAt = resultComputedAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
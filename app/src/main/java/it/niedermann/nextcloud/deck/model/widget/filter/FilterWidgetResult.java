@@ -0,0 +1,62 @@
+package it.niedermann.nextcloud.deck.model.widget.filter;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+import it.niedermann.nextcloud.deck.model.Card;
+
+/**
+ * Snapshot of the {@link Card}s matching a {@link FilterWidget}, so the widget can be rendered without evaluating its filters again.
+ * The snapshot is valid as long as {@link FilterWidget#getResultComputedAt()} is set.
+ */
+@Entity(
+        primaryKeys = {"filterWidgetId", "cardId"},
+        indices = {
+                @Index(value = "cardId", name = "idx_FilterWidgetResult_cardId"),
+        },
+        foreignKeys = {
+                @ForeignKey(
+                        entity = FilterWidget.class,
+                        parentColumns = "id",
+                        childColumns = "filterWidgetId", onDelete = ForeignKey.CASCADE
+                ),
+                @ForeignKey(
+                        entity = Card.class,
+                        parentColumns = "localId",
+                        childColumns = "cardId", onDelete = ForeignKey.CASCADE
+                )
+        }
+)
+public class FilterWidgetResult {
+
+    private int filterWidgetId;
+    private long cardId;
+
+    public FilterWidgetResult() {
+        // Default constructor
+    }
+
+    @Ignore
+    public FilterWidgetResult(int filterWidgetId, long cardId) {
+        this.filterWidgetId = filterWidgetId;
+        this.cardId = cardId;
+    }
+
+    public int getFilterWidgetId() {
+        return filterWidgetId;
+    }
+
+    public void setFilterWidgetId(int filterWidgetId) {
+        this.filterWidgetId = filterWidgetId;
+    }
+
+    public long getCardId() {
+        return cardId;
+    }
+
+    public void setCardId(long cardId) {
+        this.cardId = cardId;
+    }
+}
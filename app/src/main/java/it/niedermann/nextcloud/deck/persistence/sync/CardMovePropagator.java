@@ -0,0 +1,94 @@
+package it.niedermann.nextcloud.deck.persistence.sync;
+
+import android.content.Context;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Objects;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.util.extrawurst.Debouncer;
+import it.niedermann.nextcloud.deck.util.DeckExecutors;
+
+/**
+ * Pushes moved cards with the reorder endpoint of the server. Successive moves of the same card are debounced,
+ * so only the position where the card has finally been dropped is sent.
+ *
+ * @see SyncManager#pushCardMove(Account, long)
+ */
+public class CardMovePropagator implements Debouncer.Callback<CardMovePropagator.MovedCard> {
+
+    private static final int DEBOUNCE_MILLIS = 1_500;
+    private static CardMovePropagator INSTANCE;
+
+    @NonNull
+    private final MovePusher pusher;
+    @NonNull
+    private final Debouncer<MovedCard> debouncer;
+
+    private CardMovePropagator(@NonNull Context context) {
+        this((accountId, localCardId) -> DeckExecutors.background().submit(() -> {
+            final Account account = new DataBaseAdapter(context).getAccountByIdDirectly(accountId);
+            if (account == null) {
+                DeckLog.warn("Account", accountId, "of moved card", localCardId, "does no longer exist");
+                return;
+            }
+            new SyncManager(context, account.getName()).pushCardMove(account, localCardId);
+        }), DEBOUNCE_MILLIS);
+    }
+
+    @VisibleForTesting
+    CardMovePropagator(@NonNull MovePusher pusher, int debounceMillis) {
+        this.pusher = pusher;
+        this.debouncer = new Debouncer<>(this, debounceMillis);
+    }
+
+    @NonNull
+    public static synchronized CardMovePropagator getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            INSTANCE = new CardMovePropagator(context.getApplicationContext());
+        }
+        return INSTANCE;
+    }
+
+    @AnyThread
+    public void onCardMoved(long accountId, long localCardId) {
+        debouncer.call(new MovedCard(accountId, localCardId));
+    }
+
+    @Override
+    public void call(MovedCard movedCard) {
+        pusher.push(movedCard.accountId, movedCard.localCardId);
+    }
+
+    interface MovePusher {
+        void push(long accountId, long localCardId);
+    }
+
+    static class MovedCard {
+        private final long accountId;
+        private final long localCardId;
+
+        private MovedCard(long accountId, long localCardId) {
+            this.accountId = accountId;
+            this.localCardId = localCardId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            MovedCard that = (MovedCard) o;
+            return accountId == that.accountId && localCardId == that.localCardId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, localCardId);
+        }
+    }
+}
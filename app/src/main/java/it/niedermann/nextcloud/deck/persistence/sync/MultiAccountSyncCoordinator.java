@@ -0,0 +1,218 @@
+package it.niedermann.nextcloud.deck.persistence.sync;
+
+import android.content.Context;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.api.RequestLimiter;
+import it.niedermann.nextcloud.deck.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
+
+/**
+ * Synchronizes multiple {@link Account}s in parallel while sharing the database, the executor and one {@link ServerAdapter} per {@link Account} across runs.
+ * <p>
+ * All accounts share one {@link RequestLimiter} for at most {@link #MAX_CONCURRENT_REQUESTS} requests in total. It counts each request until it terminated,
+ * also the ones of an account whose synchronization timed out. In addition this budget is split evenly across all accounts which are still synchronizing,
+ * so a server with many boards can not starve the others. Both limits are removed from the {@link ServerAdapter} as soon as the synchronization of its account finished.
+ * The limiter and the running accounts are process-wide, because the {@link ServerAdapter}s are shared by overlapping runs, e. g. of a worker and pull to refresh.
+ * Each account has its own timeout, so a slow or unreachable server does not stall the result of the others.
+ */
+public class MultiAccountSyncCoordinator {
+
+    static final int MAX_CONCURRENT_REQUESTS = 12;
+    private static final int MIN_CONCURRENT_REQUESTS_PER_ACCOUNT = 2;
+    private static final long ACCOUNT_TIMEOUT_MINUTES = 10;
+
+    private static final Map<String, IServerAdapter> serverAdapters = new ConcurrentHashMap<>();
+    private static final RequestLimiter sharedRequestLimiter = new RequestLimiter(MAX_CONCURRENT_REQUESTS);
+    /**
+     * Number of runs per {@link IServerAdapter} whose synchronization did not yet finish, including the ones which timed out
+     */
+    private static final Map<IServerAdapter, Integer> runningServerAdapters = new IdentityHashMap<>();
+
+    @NonNull
+    private final Context appContext;
+    @NonNull
+    private final DataBaseAdapter dataBaseAdapter;
+    @NonNull
+    private final ExecutorService executor;
+    @NonNull
+    private final SyncHelper.Factory syncHelperFactory;
+    @NonNull
+    private final Function<String, IServerAdapter> serverAdapterFactory;
+
+    MultiAccountSyncCoordinator(@NonNull Context context,
+                                @NonNull DataBaseAdapter dataBaseAdapter,
+                                @NonNull ExecutorService executor,
+                                @NonNull SyncHelper.Factory syncHelperFactory) {
+        this(context, dataBaseAdapter, executor, syncHelperFactory, accountName -> serverAdapters.computeIfAbsent(accountName, name -> new ServerAdapter(context.getApplicationContext(), name)));
+    }
+
+    MultiAccountSyncCoordinator(@NonNull Context context,
+                                @NonNull DataBaseAdapter dataBaseAdapter,
+                                @NonNull ExecutorService executor,
+                                @NonNull SyncHelper.Factory syncHelperFactory,
+                                @NonNull Function<String, IServerAdapter> serverAdapterFactory) {
+        this.appContext = context.getApplicationContext();
+        this.dataBaseAdapter = dataBaseAdapter;
+        this.executor = executor;
+        this.syncHelperFactory = syncHelperFactory;
+        this.serverAdapterFactory = serverAdapterFactory;
+    }
+
+    /**
+     * @return emits one {@link AccountSyncResult} per given {@link Account} in the order they finished
+     */
+    @AnyThread
+    public Single<List<AccountSyncResult>> synchronize(@NonNull List<Account> accounts) {
+        return Single.defer(() -> {
+            synchronized (runningServerAdapters) {
+                for (Account account : accounts) {
+                    final IServerAdapter serverAdapter = serverAdapterFactory.apply(account.getName());
+                    serverAdapter.setSharedRequestLimiter(sharedRequestLimiter);
+                    runningServerAdapters.merge(serverAdapter, 1, Integer::sum);
+                }
+                rebalance();
+            }
+            return Flowable.fromIterable(accounts)
+                    .flatMapSingle(this::synchronize)
+                    .doOnNext(result -> DeckLog.info("Synchronized", result.getAccountName(), "in", result.getDurationMillis(), "ms. Success:", result.isSuccess()))
+                    .toList();
+        });
+    }
+
+    private Single<AccountSyncResult> synchronize(@NonNull Account account) {
+        final IServerAdapter serverAdapter = serverAdapterFactory.apply(account.getName());
+        final SyncManager syncManager = new SyncManager(appContext, dataBaseAdapter, serverAdapter, executor, syncHelperFactory);
+        return Single.defer(() -> {
+            final long start = System.currentTimeMillis();
+            final AtomicBoolean finished = new AtomicBoolean(false);
+            return Single.<AccountSyncResult>create(emitter -> syncManager.synchronize(new ResponseCallback<>(account) {
+                        @Override
+                        public void onResponse(Boolean response) {
+                            onFinished(serverAdapter, finished);
+                            emitter.onSuccess(new AccountSyncResult(account, Boolean.TRUE.equals(response), System.currentTimeMillis() - start, null));
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {
+                            super.onError(throwable);
+                            onFinished(serverAdapter, finished);
+                            emitter.onSuccess(new AccountSyncResult(account, false, System.currentTimeMillis() - start, throwable));
+                        }
+                    }))
+                    .doOnError(throwable -> onFinished(serverAdapter, finished))
+                    // The synchronization itself can not be cancelled, but a stuck account should not hold back the result of the others.
+                    // It keeps its share of the budget until it actually finished.
+                    .timeout(ACCOUNT_TIMEOUT_MINUTES, TimeUnit.MINUTES, Single.fromCallable(() -> new AccountSyncResult(account, false, System.currentTimeMillis() - start,
+                            new TimeoutException("Synchronization of " + account.getName() + " did not finish within " + ACCOUNT_TIMEOUT_MINUTES + " minutes"))));
+        });
+    }
+
+    /**
+     * Hands the budget of the given {@link IServerAdapter} over to the accounts which are still synchronizing.
+     * Its limits are only removed when no other run is still synchronizing the same account.
+     *
+     * @param finished guards against finishing the same run of an account twice
+     */
+    private static void onFinished(@NonNull IServerAdapter serverAdapter, @NonNull AtomicBoolean finished) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (runningServerAdapters) {
+            final Integer runs = runningServerAdapters.get(serverAdapter);
+            if (runs == null) {
+                return;
+            }
+            if (runs > 1) {
+                runningServerAdapters.put(serverAdapter, runs - 1);
+            } else {
+                runningServerAdapters.remove(serverAdapter);
+                serverAdapter.setSharedRequestLimiter(null);
+                serverAdapter.setMaxConcurrentRequests(RequestLimiter.UNLIMITED);
+            }
+            rebalance();
+        }
+    }
+
+    /**
+     * Must be called while holding the lock of {@link #runningServerAdapters}.
+     */
+    private static void rebalance() {
+        final int accountCount = runningServerAdapters.size();
+        if (accountCount > 0) {
+            // Might exceed the total budget with many accounts, which is why the shared limiter is needed
+            final int budget = Math.max(MIN_CONCURRENT_REQUESTS_PER_ACCOUNT, MAX_CONCURRENT_REQUESTS / accountCount);
+            for (IServerAdapter serverAdapter : runningServerAdapters.keySet()) {
+                serverAdapter.setMaxConcurrentRequests(budget);
+            }
+        }
+    }
+
+    /**
+     * Drops the shared {@link ServerAdapter} of an {@link Account} which has been removed.
+     */
+    @AnyThread
+    public static void evict(@NonNull String accountName) {
+        serverAdapters.remove(accountName);
+    }
+
+    public static class AccountSyncResult {
+        private final long accountId;
+        @NonNull
+        private final String accountName;
+        private final boolean success;
+        private final long durationMillis;
+        @Nullable
+        private final Throwable error;
+
+        private AccountSyncResult(@NonNull Account account, boolean success, long durationMillis, @Nullable Throwable error) {
+            this.accountId = account.getId();
+            this.accountName = account.getName();
+            this.success = success;
+            this.durationMillis = durationMillis;
+            this.error = error;
+        }
+
+        public long getAccountId() {
+            return accountId;
+        }
+
+        @NonNull
+        public String getAccountName() {
+            return accountName;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        @Nullable
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
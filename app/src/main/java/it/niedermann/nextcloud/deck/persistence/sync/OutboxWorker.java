@@ -0,0 +1,117 @@
+package it.niedermann.nextcloud.deck.persistence.sync;
+
+import android.content.Context;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.RxWorker;
+import androidx.work.WorkManager;
+import androidx.work.WorkerParameters;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.outbox.OutboxEntry;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+
+/**
+ * Pushes the local changes recorded in the outbox. Scheduling is delayed a little, so a burst of edits gets pushed together.
+ * Failed pushes are retried with exponential backoff, changes which can not be pushed at all will be picked up by the next full synchronization.
+ */
+public class OutboxWorker extends RxWorker {
+
+    private static final String WORKER_NAME = "it.niedermann.nextcloud.deck.outbox";
+    private static final long BATCH_DELAY_SECONDS = 3;
+    private static final long BACKOFF_SECONDS = 30;
+    private static final int MAX_RUN_ATTEMPTS = 8;
+    private static final int MAX_ROUNDS = 3;
+    private static final Constraints constraints = new Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.CONNECTED)
+            .build();
+
+    public OutboxWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Single<Result> createWork() {
+        return push(new DataBaseAdapter(getApplicationContext()), MAX_ROUNDS)
+                .map(success -> {
+                    if (success) {
+                        return Result.success();
+                    }
+                    if (getRunAttemptCount() + 1 >= MAX_RUN_ATTEMPTS) {
+                        DeckLog.warn("Giving up pushing the outbox after", MAX_RUN_ATTEMPTS, "attempts, the next synchronization will pick up the changes");
+                        return Result.failure();
+                    }
+                    return Result.retry();
+                });
+    }
+
+    /**
+     * Pushes all entries which are currently in the outbox. Since this work is unique, scheduling it again while it is running has no effect,
+     * so entries which have been recorded in the meantime are pushed in another round.
+     */
+    private Single<Boolean> push(@NonNull DataBaseAdapter dataBaseAdapter, int remainingRounds) {
+        return Single.fromCallable(() -> {
+                    final long maxLocalId = dataBaseAdapter.getMaxOutboxEntryIdDirectly();
+                    final Map<Long, List<OutboxEntry>> entriesPerAccount = new LinkedHashMap<>();
+                    for (OutboxEntry entry : dataBaseAdapter.getOutboxEntriesDirectly()) {
+                        if (entry.getLocalId() <= maxLocalId) {
+                            entriesPerAccount.computeIfAbsent(entry.getAccountId(), key -> new ArrayList<>()).add(entry);
+                        }
+                    }
+                    DeckLog.verbose("Pushing outbox entries of", entriesPerAccount.size(), "accounts");
+                    return new Pair(maxLocalId, entriesPerAccount);
+                })
+                .flatMap(pair -> Flowable.fromIterable(pair.entriesPerAccount.entrySet())
+                        .flatMapSingle(accountEntries -> {
+                            final Account account = dataBaseAdapter.getAccountByIdDirectly(accountEntries.getKey());
+                            if (account == null) {
+                                return Single.just(true);
+                            }
+                            return new SyncManager(getApplicationContext(), account.getName()).pushOutbox(account, accountEntries.getValue());
+                        })
+                        .all(Boolean.TRUE::equals)
+                        .flatMap(success -> success && remainingRounds > 1 && dataBaseAdapter.getMaxOutboxEntryIdDirectly() > pair.maxLocalId
+                                ? push(dataBaseAdapter, remainingRounds - 1)
+                                : Single.just(success)));
+    }
+
+    /**
+     * Schedules pushing the outbox unless it has already been scheduled.
+     */
+    @AnyThread
+    public static void schedule(@NonNull Context context) {
+        final OneTimeWorkRequest work = new OneTimeWorkRequest.Builder(OutboxWorker.class)
+                .setConstraints(constraints)
+                .setInitialDelay(BATCH_DELAY_SECONDS, TimeUnit.SECONDS)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context.getApplicationContext()).enqueueUniqueWork(WORKER_NAME, ExistingWorkPolicy.KEEP, work);
+    }
+
+    private static class Pair {
+        private final long maxLocalId;
+        @NonNull
+        private final Map<Long, List<OutboxEntry>> entriesPerAccount;
+
+        private Pair(long maxLocalId, @NonNull Map<Long, List<OutboxEntry>> entriesPerAccount) {
+            this.maxLocalId = maxLocalId;
+            this.entriesPerAccount = entriesPerAccount;
+        }
+    }
+}
@@ -23,22 +23,35 @@ import com.nextcloud.android.sso.api.ParsedResponse;
 import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
 
 import java.io.File;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-
+import java.util.stream.Collectors;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.api.GsonConfig;
 import it.niedermann.nextcloud.deck.api.IResponseCallback;
@@ -57,6 +70,7 @@ import it.niedermann.nextcloud.deck.model.Stack;
 import it.niedermann.nextcloud.deck.model.User;
 import it.niedermann.nextcloud.deck.model.appwidgets.StackWidgetModel;
 import it.niedermann.nextcloud.deck.model.enums.DBStatus;
+import it.niedermann.nextcloud.deck.model.enums.EOutboxEntityType;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullCardWithProjects;
@@ -68,15 +82,21 @@ import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
 import it.niedermann.nextcloud.deck.model.ocs.comment.OcsComment;
 import it.niedermann.nextcloud.deck.model.ocs.comment.full.FullDeckComment;
 import it.niedermann.nextcloud.deck.model.ocs.projects.OcsProjectResource;
+import it.niedermann.nextcloud.deck.model.outbox.OutboxEntry;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidget;
 import it.niedermann.nextcloud.deck.model.widget.filter.dto.FilterWidgetCard;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.WidgetUpdateCoordinator;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.CardDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.util.WrappedLiveData;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.util.extrawurst.UserSearchLiveData;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.DataPropagationHelper;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.EntityDelta;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
-import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.AbstractSyncDataProvider;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncReportUtil;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncStatistics;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.AccessControlDataProvider;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.ActivityDataProvider;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.AttachmentDataProvider;
@@ -89,16 +109,32 @@ import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.StackData
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.partial.BoardWithAclDownSyncDataProvider;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.partial.BoardWithStacksAndLabelsUpSyncDataProvider;
 import it.niedermann.nextcloud.deck.ui.upcomingcards.UpcomingCardsAdapterItem;
+import it.niedermann.nextcloud.deck.util.DeckExecutors;
 
 @SuppressWarnings("WeakerAccess")
 public class SyncManager {
 
+    /**
+     * Outbox operations pushed at the same time.
+     */
+    private static final int OUTBOX_BATCH_SIZE = 4;
+    private static final long OUTBOX_UP_SYNC_TIMEOUT_MINUTES = 5;
+    /**
+     * Entries which failed this often are dropped, so a change which the server keeps rejecting does not make the outbox retry forever.
+     */
+    private static final int OUTBOX_MAX_ATTEMPTS = 5;
+    /**
+     * The start of a synchronization is taken from the device clock, but the server compares it against its own clock when it is sent as <code>If-Modified-Since</code>.
+     * It is stored this much earlier, so changes are not missed if the device clock runs ahead of the server. Fetching a few entities twice is harmless.
+     */
+    private static final Duration LAST_SYNC_CLOCK_SKEW_MARGIN = Duration.ofMinutes(5);
+
     @NonNull
     private final Context appContext;
     @NonNull
     private final DataBaseAdapter dataBaseAdapter;
     @NonNull
-    private final ServerAdapter serverAdapter;
+    private final IServerAdapter serverAdapter;
     @NonNull
     private final ExecutorService executor;
     @NonNull
@@ -114,16 +150,16 @@ public class SyncManager {
         this(context,
                 new DataBaseAdapter(context.getApplicationContext()),
                 new ServerAdapter(context.getApplicationContext(), ssoAccountName),
-                Executors.newCachedThreadPool(),
+                DeckExecutors.network(),
                 SyncHelper::new);
         LastSyncUtil.init(context.getApplicationContext());
     }
 
-    private SyncManager(@NonNull Context context,
-                        @NonNull DataBaseAdapter databaseAdapter,
-                        @NonNull ServerAdapter serverAdapter,
-                        @NonNull ExecutorService executor,
-                        @NonNull SyncHelper.Factory syncHelperFactory) {
+    SyncManager(@NonNull Context context,
+                @NonNull DataBaseAdapter databaseAdapter,
+                @NonNull IServerAdapter serverAdapter,
+                @NonNull ExecutorService executor,
+                @NonNull SyncHelper.Factory syncHelperFactory) {
         this.appContext = context.getApplicationContext();
         this.dataBaseAdapter = databaseAdapter;
         this.serverAdapter = serverAdapter;
@@ -136,37 +172,18 @@ public class SyncManager {
         return dataBaseAdapter.getBoardLocalIdByAccountAndCardRemoteIdDirectly(accountId, cardRemoteId);
     }
 
-    @WorkerThread
-    public boolean synchronizeEverything() {
-        List<Account> accounts = dataBaseAdapter.getAllAccountsDirectly();
-        if (accounts.size() > 0) {
-            final AtomicBoolean success = new AtomicBoolean(true);
-            CountDownLatch latch = new CountDownLatch(accounts.size());
-            try {
-                for (Account account : accounts) {
-                    new SyncManager(dataBaseAdapter.getContext(), account.getName()).synchronize(new ResponseCallback<>(account) {
-                        @Override
-                        public void onResponse(Boolean response) {
-                            success.set(success.get() && Boolean.TRUE.equals(response));
-                            latch.countDown();
-                        }
-
-                        @Override
-                        public void onError(Throwable throwable) {
-                            success.set(false);
-                            super.onError(throwable);
-                            latch.countDown();
-                        }
-                    });
-                }
-                latch.await();
-                return success.get();
-            } catch (InterruptedException e) {
-                DeckLog.logError(e);
-                return false;
-            }
-        }
-        return true;
+    /**
+     * Synchronizes all accounts in parallel without blocking the calling thread.
+     *
+     * @return emits <code>true</code> if the synchronization of each account has been successful
+     * @see MultiAccountSyncCoordinator
+     */
+    @AnyThread
+    public Single<Boolean> synchronizeEverything() {
+        return Single.fromCallable(dataBaseAdapter::getAllAccountsDirectly)
+                .subscribeOn(Schedulers.from(executor))
+                .flatMap(new MultiAccountSyncCoordinator(appContext, dataBaseAdapter, executor, syncHelperFactory)::synchronize)
+                .map(results -> results.stream().allMatch(MultiAccountSyncCoordinator.AccountSyncResult::isSuccess));
     }
 
     @AnyThread
@@ -216,23 +233,51 @@ public class SyncManager {
                     if (response != null && !response.isMaintenanceEnabled()) {
                         if (response.getDeckVersion().isSupported()) {
                             long accountId = callbackAccountId;
-                            Instant lastSyncDate = LastSyncUtil.getLastSyncDate(callbackAccountId);
-
-                            final SyncHelper syncHelper = syncHelperFactory.create(serverAdapter, dataBaseAdapter, lastSyncDate);
+                            final Instant syncStart = Instant.now();
+                            // Everything which has been recorded until now will be pushed by this synchronization
+                            final long outboxMaxLocalId = dataBaseAdapter.getMaxOutboxEntryIdDirectly();
+                            final boolean fullSync = LastSyncUtil.isFullSyncRequired(accountId, syncStart);
+                            // Only fetch changes since the start of the last successful sync, unless a full sync is due
+                            final Instant lastSyncDate = fullSync ? null : LastSyncUtil.getLastSyncDate(accountId);
+
+                            final SyncStatistics statistics = new SyncStatistics(callbackAccount.getName() + (fullSync ? " (full)" : " (delta)"), serverAdapter.getRequestStatistics());
+                            final SyncHelper syncHelper = syncHelperFactory.create(serverAdapter, dataBaseAdapter, lastSyncDate)
+                                    .setStatistics(statistics);
+                            // Widgets are notified once when the synchronization is done rather than for each changed entity
+                            final WidgetUpdateCoordinator.Hold widgetUpdateHold = WidgetUpdateCoordinator.holdDuringSynchronization();
 
                             ResponseCallback<Boolean> callback = new ResponseCallback<>(callbackAccount) {
                                 @Override
                                 public void onResponse(Boolean response) {
+                                    // Finishing the synchronization must only happen once, even if a provider signals its result more than once
+                                    final AtomicBoolean upSyncFinished = new AtomicBoolean(false);
                                     syncHelper.setResponseCallback(new ResponseCallback<>(account) {
                                         @Override
                                         public void onResponse(Boolean response) {
-                                            LastSyncUtil.setLastSyncDate(accountId, Instant.now());
+                                            if (upSyncFinished.getAndSet(true)) {
+                                                DeckLog.error("Up synchronization of", callbackAccount.getName(), "already finished, ignoring second response:", response);
+                                                return;
+                                            }
+                                            LastSyncUtil.setLastSyncDate(accountId, syncStart.minus(LAST_SYNC_CLOCK_SKEW_MARGIN));
+                                            // The up synchronization pushes all local changes no matter whether this is a full synchronization,
+                                            // and only responds after all of them have been pushed successfully
+                                            dataBaseAdapter.removeOutboxEntriesForAccount(accountId, outboxMaxLocalId);
+                                            if (fullSync) {
+                                                LastSyncUtil.setLastFullSyncDate(accountId, syncStart);
+                                            }
+                                            DeckExecutors.logStats();
+                                            onSynchronizationFinished(widgetUpdateHold, statistics, null);
                                             responseCallback.onResponse(response);
                                         }
 
                                         @Override
                                         public void onError(Throwable throwable) {
                                             super.onError(throwable);
+                                            if (upSyncFinished.getAndSet(true)) {
+                                                DeckLog.error("Up synchronization of", callbackAccount.getName(), "already finished, ignoring second result:", throwable);
+                                                return;
+                                            }
+                                            onSynchronizationFinished(widgetUpdateHold, statistics, throwable);
                                             responseCallback.onResponse(response);
                                         }
                                     });
@@ -241,6 +286,7 @@ public class SyncManager {
                                             syncHelper.doUpSyncFor(new BoardDataProvider(progress$));
                                         } catch (Throwable e) {
                                             DeckLog.logError(e);
+                                            widgetUpdateHold.release();
                                             responseCallback.onError(e);
                                         }
                                     });
@@ -250,6 +296,7 @@ public class SyncManager {
                                 @Override
                                 public void onError(Throwable throwable) {
                                     super.onError(throwable);
+                                    onSynchronizationFinished(widgetUpdateHold, statistics, throwable);
                                     responseCallback.onError(throwable);
                                 }
                             };
@@ -260,6 +307,7 @@ public class SyncManager {
                                 syncHelper.doSyncFor(new BoardDataProvider(progress$));
                             } catch (Throwable e) {
                                 DeckLog.logError(e);
+                                widgetUpdateHold.release();
                                 responseCallback.onError(e);
                             }
                         } else {
@@ -284,6 +332,13 @@ public class SyncManager {
         return progress$;
     }
 
+    private void onSynchronizationFinished(@NonNull WidgetUpdateCoordinator.Hold widgetUpdateHold, @NonNull SyncStatistics statistics, @Nullable Throwable error) {
+        widgetUpdateHold.release();
+        final String summary = statistics.getSummary(error);
+        DeckLog.info(summary);
+        SyncReportUtil.addReport(appContext, summary);
+    }
+
 //
 //    private <T> IResponseCallback<T> wrapCallForUi(IResponseCallback<T> responseCallback) {
 //        Account account = responseCallback.getAccount();
@@ -358,6 +413,10 @@ public class SyncManager {
     @AnyThread
     public void deleteAccount(long id) {
         executor.submit(() -> {
+            final Account account = dataBaseAdapter.getAccountByIdDirectly(id);
+            if (account != null) {
+                MultiAccountSyncCoordinator.evict(account.getName());
+            }
             dataBaseAdapter.deleteAccount(id);
             LastSyncUtil.resetLastSyncDate(id);
         });
@@ -602,82 +661,15 @@ public class SyncManager {
             } while (dataBaseAdapter.getBoardForAccountByNameDirectly(targetAccountId, newBoardTitle) != null);
 
 
-            originalBoard.setAccountId(targetAccountId);
-            originalBoard.setId(null);
-            originalBoard.setLocalId(null);
             originalBoard.getBoard().setTitle(newBoardTitle);
             originalBoard.getBoard().setColor(String.format("%06X", 0xFFFFFF & targetBoardColor));
             originalBoard.getBoard().setOwnerId(newOwner.getLocalId());
-            originalBoard.setStatusEnum(DBStatus.LOCAL_EDITED);
             originalBoard.setOwner(newOwner);
-            long newBoardId = dataBaseAdapter.createBoardDirectly(originAccountId, originalBoard.getBoard());
-            originalBoard.setLocalId(newBoardId);
-
-            boolean isSameAccount = targetAccountId == originAccountId;
-
-            if (isSameAccount) {
-                List<AccessControl> aclList = originalBoard.getParticipants();
-                for (AccessControl acl : aclList) {
-                    acl.setLocalId(null);
-                    acl.setId(null);
-                    acl.setBoardId(newBoardId);
-                    dataBaseAdapter.createAccessControl(targetAccountId, acl);
-                }
-            }
+            final long newBoardId = dataBaseAdapter.cloneBoardDirectly(originAccountId, originalBoard, targetAccountId, newOwner, cloneCards, targetAccountId == originAccountId);
 
-            Map<Long, Long> oldToNewLabelIdsDictionary = new HashMap<>();
-
-            for (Label label : originalBoard.getLabels()) {
-                Long oldLocalId = label.getLocalId();
-                label.setLocalId(null);
-                label.setId(null);
-                label.setAccountId(targetAccountId);
-                label.setStatusEnum(DBStatus.LOCAL_EDITED);
-                label.setBoardId(newBoardId);
-                long newLocalId = dataBaseAdapter.createLabelDirectly(targetAccountId, label);
-                oldToNewLabelIdsDictionary.put(oldLocalId, newLocalId);
-            }
-
-            List<Stack> oldStacks = originalBoard.getStacks();
-            for (Stack stack : oldStacks) {
-                Long oldStackId = stack.getLocalId();
-                stack.setLocalId(null);
-                stack.setId(null);
-                stack.setStatusEnum(DBStatus.LOCAL_EDITED);
-                stack.setAccountId(targetAccountId);
-                stack.setBoardId(newBoardId);
-                long createdStackId = dataBaseAdapter.createStack(targetAccountId, stack);
-                if (cloneCards) {
-                    List<FullCard> oldCards = dataBaseAdapter.getFullCardsForStackDirectly(originAccountId, oldStackId, null);
-                    for (FullCard oldCard : oldCards) {
-                        Card newCard = oldCard.getCard();
-                        newCard.setId(null);
-                        newCard.setUserId(newOwner.getLocalId());
-                        newCard.setLocalId(null);
-                        newCard.setStackId(createdStackId);
-                        newCard.setAccountId(targetAccountId);
-                        newCard.setStatusEnum(DBStatus.LOCAL_EDITED);
-                        long createdCardId = dataBaseAdapter.createCardDirectly(targetAccountId, newCard);
-                        if (oldCard.getLabels() != null) {
-                            for (Label oldLabel : oldCard.getLabels()) {
-                                Long newLabelId = oldToNewLabelIdsDictionary.get(oldLabel.getLocalId());
-                                if (newLabelId != null) {
-                                    dataBaseAdapter.createJoinCardWithLabel(newLabelId, createdCardId, DBStatus.LOCAL_EDITED);
-                                } else
-                                    DeckLog.error("ID of created Label is null! Skipping assignment of ", oldLabel.getTitle(), "…");
-                            }
-                        }
-                        if (isSameAccount && oldCard.getAssignedUsers() != null) {
-                            for (User assignedUser : oldCard.getAssignedUsers()) {
-                                dataBaseAdapter.createJoinCardWithUser(assignedUser.getLocalId(), createdCardId, DBStatus.LOCAL_EDITED);
-                            }
-                        }
-                    }
-                }
-            }
             if (serverAdapter.hasInternetConnection()) {
                 Account targetAccount = dataBaseAdapter.getAccountByIdDirectly(targetAccountId);
-                ServerAdapter serverAdapterToUse = this.serverAdapter;
+                IServerAdapter serverAdapterToUse = this.serverAdapter;
                 if (originAccountId != targetAccountId) {
                     serverAdapterToUse = new ServerAdapter(appContext, targetAccount.getName());
                 }
@@ -960,8 +952,12 @@ public class SyncManager {
         return dataBaseAdapter.getCardWithProjectsByLocalId(accountId, cardLocalId);
     }
 
-    public LiveData<List<FullCard>> getFullCardsForStack(long accountId, long localStackId, @Nullable FilterInformation filter) {
-        return dataBaseAdapter.getFullCardsForStack(accountId, localStackId, filter);
+    /**
+     * @param offset number of cards to skip, starting at the top of the stack
+     * @param limit  maximum number of cards to load or {@link CardDao#NO_LIMIT}
+     */
+    public LiveData<List<FullCard>> getFullCardsForStack(long accountId, long localStackId, @Nullable FilterInformation filter, int offset, int limit) {
+        return dataBaseAdapter.getFullCardsForStack(accountId, localStackId, filter, offset, limit);
     }
 
     public void countCardsInStackDirectly(long accountId, long localStackId, @NonNull IResponseCallback<Integer> callback) {
@@ -972,11 +968,15 @@ public class SyncManager {
         executor.submit(() -> dataBaseAdapter.countCardsWithLabel(localLabelId, callback));
     }
 
-    // TODO implement, see https://github.com/stefan-niedermann/nextcloud-deck/issues/395
-    public LiveData<List<FullCard>> getArchivedFullCardsForBoard(long accountId, long localBoardId) {
-        MutableLiveData<List<FullCard>> dummyData = new MutableLiveData<>();
-        dummyData.postValue(new ArrayList<>());
-        return dummyData;
+    /**
+     * Only reads archived cards which are already stored locally, fetching them from the server is not yet implemented.
+     *
+     * @param offset number of cards to skip
+     * @param limit  maximum number of cards to load or {@link CardDao#NO_LIMIT}
+     * @see <a href="https://github.com/stefan-niedermann/nextcloud-deck/issues/395">archived cards</a>
+     */
+    public LiveData<List<FullCard>> getArchivedFullCardsForBoard(long accountId, long localBoardId, int offset, int limit) {
+        return dataBaseAdapter.getArchivedFullCardsForBoard(accountId, localBoardId, offset, limit);
     }
 
 //    public LiveData<FullCard> createCard(long accountId, long localBoardId, long localStackId, Card card) {
@@ -1184,47 +1184,27 @@ public class SyncManager {
             }
 
             dataBaseAdapter.filterRelationsForCard(fullCardFromDB);
-            List<User> deletedUsers = AbstractSyncDataProvider.findDelta(card.getAssignedUsers(), fullCardFromDB.getAssignedUsers());
-            List<User> addedUsers = AbstractSyncDataProvider.findDelta(fullCardFromDB.getAssignedUsers(), card.getAssignedUsers());
-            for (User addedUser : addedUsers) {
+            final EntityDelta<User> userDelta = EntityDelta.between(fullCardFromDB.getAssignedUsers(), card.getAssignedUsers());
+            for (User addedUser : userDelta.getAdded()) {
                 dataBaseAdapter.createJoinCardWithUser(addedUser.getLocalId(), card.getLocalId(), DBStatus.LOCAL_EDITED);
             }
-            for (User deletedUser : deletedUsers) {
+            for (User deletedUser : userDelta.getRemoved()) {
                 dataBaseAdapter.deleteJoinedUserForCard(card.getLocalId(), deletedUser.getLocalId());
             }
 
-            List<Label> deletedLabels = AbstractSyncDataProvider.findDelta(card.getLabels(), fullCardFromDB.getLabels());
-            List<Label> addedLabels = AbstractSyncDataProvider.findDelta(fullCardFromDB.getLabels(), card.getLabels());
-            for (Label addedLabel : addedLabels) {
+            final EntityDelta<Label> labelDelta = EntityDelta.between(fullCardFromDB.getLabels(), card.getLabels());
+            for (Label addedLabel : labelDelta.getAdded()) {
                 dataBaseAdapter.createJoinCardWithLabel(addedLabel.getLocalId(), card.getLocalId(), DBStatus.LOCAL_EDITED);
             }
-            for (Label deletedLabel : deletedLabels) {
+            for (Label deletedLabel : labelDelta.getRemoved()) {
                 dataBaseAdapter.deleteJoinedLabelForCard(card.getLocalId(), deletedLabel.getLocalId());
             }
 
-            FullStack stack = dataBaseAdapter.getFullStackByLocalIdDirectly(card.getCard().getStackId());
-            Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getStack().getBoardId());
             fullCardFromDB.setCard(card.getCard());
             card.getCard().setStatus(DBStatus.LOCAL_EDITED.getId());
             dataBaseAdapter.updateCard(card.getCard(), false);
-            if (serverAdapter.hasInternetConnection()) {
-                Account account = dataBaseAdapter.getAccountByIdDirectly(card.getAccountId());
-                syncHelperFactory.create(serverAdapter, dataBaseAdapter, null)
-                        .setResponseCallback(new ResponseCallback<>(account) {
-                            @Override
-                            public void onResponse(Boolean response) {
-                                callback.onResponse(dataBaseAdapter.getFullCardByLocalIdDirectly(card.getAccountId(), card.getLocalId()));
-                            }
-
-                            @SuppressLint("MissingSuperCall")
-                            @Override
-                            public void onError(Throwable throwable) {
-                                callback.onError(throwable);
-                            }
-                        }).doUpSyncFor(new CardPropagationDataProvider(null, board, stack));
-            } else {
-                callback.onResponse(card);
-            }
+            addToOutbox(card.getCard(), EOutboxEntityType.CARD);
+            callback.onResponse(card);
         });
     }
 
@@ -1284,7 +1264,7 @@ public class SyncManager {
             final User userOfTargetAccount = dataBaseAdapter.getUserByUidDirectly(targetAccountId, targetAccount.getUserName());
             final CountDownLatch latch = new CountDownLatch(1);
 
-            ServerAdapter serverToUse = serverAdapter;
+            IServerAdapter serverToUse = serverAdapter;
             if (originAccountId != targetAccountId) {
                 serverToUse = new ServerAdapter(appContext, targetAccount.getName());
             }
@@ -1399,7 +1379,7 @@ public class SyncManager {
     }
 
     @AnyThread
-    private MutableLiveData<Label> createAndAssignLabelToCard(long accountId, @NonNull Label label, long localCardId, ServerAdapter serverAdapterToUse) {
+    private MutableLiveData<Label> createAndAssignLabelToCard(long accountId, @NonNull Label label, long localCardId, IServerAdapter serverAdapterToUse) {
         MutableLiveData<Label> liveData = new MutableLiveData<>();
         executor.submit(() -> {
             Account account = dataBaseAdapter.getAccountByIdDirectly(accountId);
@@ -1452,28 +1432,20 @@ public class SyncManager {
                 return;
             }
             dataBaseAdapter.createJoinCardWithUser(localUserId, localCardId, DBStatus.LOCAL_EDITED);
-            Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(card.getStackId());
-            Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getBoardId());
-            Account account = dataBaseAdapter.getAccountByIdDirectly(card.getAccountId());
-            if (serverAdapter.hasInternetConnection()) {
-                serverAdapter.assignUserToCard(board.getId(), stack.getId(), card.getId(), user.getUid(), new ResponseCallback<>(account) {
-
-                    @Override
-                    public void onResponse(Void response) {
-                        dataBaseAdapter.setStatusForJoinCardWithUser(localCardId, localUserId, DBStatus.UP_TO_DATE.getId());
-                    }
-                });
-            }
+            addToOutbox(card, EOutboxEntityType.CARD_USER);
         });
     }
 
     @AnyThread
     public void assignLabelToCard(@NonNull Label label, @NonNull Card card) {
-        assignLabelToCard(label, card, serverAdapter);
+        executor.submit(() -> {
+            dataBaseAdapter.createJoinCardWithLabel(label.getLocalId(), card.getLocalId(), DBStatus.LOCAL_EDITED);
+            addToOutbox(card, EOutboxEntityType.CARD_LABEL);
+        });
     }
 
     @AnyThread
-    public void assignLabelToCard(@NonNull Label label, @NonNull Card card, ServerAdapter serverAdapterToUse) {
+    public void assignLabelToCard(@NonNull Label label, @NonNull Card card, IServerAdapter serverAdapterToUse) {
         executor.submit(() -> {
             final long localLabelId = label.getLocalId();
             final long localCardId = card.getLocalId();
@@ -1500,17 +1472,7 @@ public class SyncManager {
     public void unassignLabelFromCard(@NonNull Label label, @NonNull Card card) {
         executor.submit(() -> {
             dataBaseAdapter.deleteJoinedLabelForCard(card.getLocalId(), label.getLocalId());
-            Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(card.getStackId());
-            Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getBoardId());
-            Account account = dataBaseAdapter.getAccountByIdDirectly(card.getAccountId());
-            if (serverAdapter.hasInternetConnection()) {
-                serverAdapter.unassignLabelFromCard(board.getId(), stack.getId(), card.getId(), label.getId(), new ResponseCallback<>(account) {
-                    @Override
-                    public void onResponse(Void response) {
-                        dataBaseAdapter.deleteJoinedLabelForCardPhysically(card.getLocalId(), label.getLocalId());
-                    }
-                });
-            }
+            addToOutbox(card, EOutboxEntityType.CARD_LABEL);
         });
     }
 
@@ -1518,17 +1480,7 @@ public class SyncManager {
     public void unassignUserFromCard(@NonNull User user, @NonNull Card card) {
         executor.submit(() -> {
             dataBaseAdapter.deleteJoinedUserForCard(card.getLocalId(), user.getLocalId());
-            if (serverAdapter.hasInternetConnection()) {
-                Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(card.getStackId());
-                Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getBoardId());
-                Account account = dataBaseAdapter.getAccountByIdDirectly(card.getAccountId());
-                serverAdapter.unassignUserFromCard(board.getId(), stack.getId(), card.getId(), user.getUid(), new ResponseCallback<>(account) {
-                    @Override
-                    public void onResponse(Void response) {
-                        dataBaseAdapter.deleteJoinedUserForCardPhysically(card.getLocalId(), user.getLocalId());
-                    }
-                });
-            }
+            addToOutbox(card, EOutboxEntityType.CARD_USER);
         });
     }
 
@@ -1613,163 +1565,99 @@ public class SyncManager {
     @AnyThread
     public void reorder(long accountId, @NonNull FullCard movedCard, long newStackId, int newIndex) {
         executor.submit(() -> {
-            // read cards of new stack
-            List<FullCard> cardsOfNewStack = dataBaseAdapter.getFullCardsForStackDirectly(accountId, newStackId, null);
-            int newOrder = newIndex;
-            if (cardsOfNewStack.size() > newIndex) {
-                newOrder = cardsOfNewStack.get(newIndex).getCard().getOrder();
+            final Card card = movedCard.getCard();
+            final List<FullCard> cardsOfNewStack = dataBaseAdapter.getFullCardsForStackDirectly(accountId, newStackId, null);
+            cardsOfNewStack.removeIf(fullCard -> fullCard.getLocalId().equals(movedCard.getLocalId()));
+            final int index = Math.max(0, Math.min(newIndex, cardsOfNewStack.size()));
+            final boolean sameStack = card.getStackId() == newStackId;
+            if (sameStack && isBetween(card, index, cardsOfNewStack)) {
+                return;
             }
 
-            boolean orderIsCorrect = true;
-            if (newOrder == movedCard.getCard().getOrder() && newStackId == movedCard.getCard().getStackId()) {
-                int lastOrder = Integer.MIN_VALUE;
-                for (FullCard fullCard : cardsOfNewStack) {
-                    int currentOrder = fullCard.getCard().getOrder();
-                    if (currentOrder > lastOrder) {
-                        lastOrder = currentOrder;
-                    } else {
-                        // the order is messed up. this could happen for a while,
-                        // because the new cards by the app had all the same order: 0
-                        orderIsCorrect = false;
-                        break;
-                    }
-                }
-                if (orderIsCorrect) {
-                    return;
-                } else {
-                    // we need to fix the order.
-                    cardsOfNewStack.remove(movedCard);
-                    cardsOfNewStack.add(newIndex, movedCard);
-                    for (int i = 0; i < cardsOfNewStack.size(); i++) {
-                        Card card = cardsOfNewStack.get(i).getCard();
-                        card.setOrder(i);
-                        dataBaseAdapter.updateCard(card, true);
-                    }
-
-                }
+            Long localOrder = getLocalOrderAt(index, cardsOfNewStack);
+            if (localOrder == null) {
+                // No gap left at this position, only the local order of the siblings changes, so nothing needs to be pushed for them
+                dataBaseAdapter.rebalanceLocalCardOrder(cardsOfNewStack.stream().map(FullCard::getCard).collect(Collectors.toList()));
+                localOrder = getLocalOrderAt(index, cardsOfNewStack);
             }
 
-//            if (serverAdapter.hasInternetConnection()){
-//                // call reorder
-//                Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(movedCard.getCard().getStackId());
-//                Stack newStack = newStackId == stack.getLocalId() ? stack :  dataBaseAdapter.getStackByLocalIdDirectly(newStackId);
-//                Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getBoardId());
-//                Account account = dataBaseAdapter.getAccountByIdDirectly(movedCard.getCard().getAccountId());
-//                movedCard.getCard().setStackId(newStackId);
-//                movedCard.getCard().setOrder(newOrder);
-//                movedCard.setStatusEnum(DBStatus.LOCAL_MOVED);
-//                dataBaseAdapter.updateCard(movedCard.getCard(), false);
-//                serverAdapter.reorder(board.getId(), stack.getId(), movedCard.getId(), newStack.getId(), newOrder+1, new IResponseCallback<List<FullCard>>(account){
-//
-//                    @Override
-//                    public void onResponse(List<FullCard> response) {
-//                        for (FullCard fullCard : response) {
-//                            Card card = fullCard.getCard();
-//                            card.setAccountId(accountId);
-//                            card.setStackId(dataBaseAdapter.getLocalStackIdByRemoteStackIdDirectly(accountId, card.getStackId()));
-//                            card.setStatusEnum(DBStatus.UP_TO_DATE);
-//                            dataBaseAdapter.updateCard(card, false);
-//                            DeckLog.log("move: stackid "+card.getStackId());
-//                        }
-//                        movedCard.setStatusEnum(DBStatus.UP_TO_DATE);
-//                        dataBaseAdapter.updateCard(movedCard.getCard(), false);
-//                    }
-//                });
-//            } else {
-            if (orderIsCorrect) {
-                reorderLocally(cardsOfNewStack, movedCard, newStackId, newOrder);
+            // Only the moved card is written, the order for the server is derived from its position when it gets pushed
+            // Other pending changes of the card need to be pushed together with its new position
+            final boolean onlyMoved = card.getStatus() == DBStatus.UP_TO_DATE.getId() || card.getStatus() == DBStatus.LOCAL_MOVED.getId();
+            card.setLocalOrder(Objects.requireNonNull(localOrder));
+            card.setLastModifiedLocal(Instant.now());
+            if (sameStack && !onlyMoved) {
+                card.setStatusEnum(DBStatus.LOCAL_EDITED);
+            } else {
+                card.setStackId(newStackId);
+                card.setStatusEnum(DBStatus.LOCAL_MOVED);
             }
-            //FIXME: remove the sync-block, when commentblock up there is activated. (waiting for deck server bugfix)
-            if (hasInternetConnection()) {
-                Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(movedCard.getCard().getStackId());
-                FullBoard board = dataBaseAdapter.getFullBoardByLocalIdDirectly(accountId, stack.getBoardId());
-                Account account = dataBaseAdapter.getAccountByIdDirectly(movedCard.getCard().getAccountId());
-                syncHelperFactory.create(serverAdapter, dataBaseAdapter, Instant.now()).setResponseCallback(new ResponseCallback<>(account) {
-                    @Override
-                    public void onResponse(Boolean response) {
-                        // doNothing();
-                    }
-                }).doUpSyncFor(new StackDataProvider(null, board));
+            dataBaseAdapter.updateCard(card, false);
+            if (onlyMoved) {
+                CardMovePropagator.getInstance(appContext).onCardMoved(accountId, card.getLocalId());
+            } else {
+                pushCardViaOutbox(accountId, card);
             }
-//        }
         });
     }
 
+    /**
+     * Pushes the position of a moved card with a single reorder request and applies the order of the target stack the server responds with.
+     * Cards which have other pending changes or can not be reordered right now are recorded in the outbox instead, which pushes them as a whole.
+     *
+     * @see CardMovePropagator
+     */
+    @WorkerThread
+    void pushCardMove(@NonNull Account account, long localCardId) {
+        final Card card = dataBaseAdapter.getCardByLocalIdDirectly(account.getId(), localCardId);
+        if (card == null || card.getStatus() == DBStatus.UP_TO_DATE.getId()) {
+            return;
+        }
+        final Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(card.getStackId());
+        final Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getBoardId());
+        if (card.getStatus() != DBStatus.LOCAL_MOVED.getId() || card.getId() == null || stack.getId() == null || board.getId() == null || !serverAdapter.hasInternetConnection()) {
+            pushCardViaOutbox(account.getId(), card);
+            return;
+        }
+        // The target stack is passed as path and as body parameter, because the server prefers the former
+        serverAdapter.reorder(board.getId(), stack.getId(), card.getId(), stack.getId(), dataBaseAdapter.getServerOrderOfCardDirectly(card), new ResponseCallback<>(account) {
+            @Override
+            public void onResponse(List<FullCard> response) {
+                executor.submit(() -> dataBaseAdapter.applyServerOrderAfterMove(account.getId(), card, response));
+            }
 
-    private void reorderLocally(List<FullCard> cardsOfNewStack, @NonNull FullCard movedCard, long newStackId, int newOrder) {
-        // set new stack and order
-        Card movedInnerCard = movedCard.getCard();
-        int oldOrder = movedInnerCard.getOrder();
-        long oldStackId = movedInnerCard.getStackId();
-
+            @Override
+            public void onError(Throwable throwable) {
+                super.onError(throwable);
+                executor.submit(() -> pushCardViaOutbox(account.getId(), card));
+            }
+        });
+    }
 
-        List<Card> changedCards = new ArrayList<>();
+    @WorkerThread
+    private void pushCardViaOutbox(long accountId, @NonNull Card card) {
+        final Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(card.getStackId());
+        dataBaseAdapter.addToOutbox(accountId, stack.getBoardId(), stack.getLocalId(), EOutboxEntityType.CARD, card.getLocalId());
+        OutboxWorker.schedule(appContext);
+    }
 
-        int startingAtOrder = newOrder;
-        if (oldStackId == newStackId) {
-            // card was only reordered in the same stack
-            movedInnerCard.setStatusEnum(movedInnerCard.getStatus() == DBStatus.LOCAL_MOVED.getId() ? DBStatus.LOCAL_MOVED : DBStatus.LOCAL_EDITED);
-            // move direction?
-            if (oldOrder > newOrder) {
-                // up
-                changedCards.add(movedCard.getCard());
-                for (FullCard cardToUpdate : cardsOfNewStack) {
-                    Card cardEntity = cardToUpdate.getCard();
-                    if (cardEntity.getOrder() < newOrder) {
-                        continue;
-                    }
-                    if (cardEntity.getOrder() >= oldOrder) {
-                        break;
-                    }
-                    changedCards.add(cardEntity);
-                }
-            } else {
-                // down
-                startingAtOrder = oldOrder;
-                for (FullCard cardToUpdate : cardsOfNewStack) {
-                    Card cardEntity = cardToUpdate.getCard();
-                    if (cardEntity.getOrder() <= oldOrder) {
-                        continue;
-                    }
-                    if (cardEntity.getOrder() > newOrder) {
-                        break;
-                    }
-                    changedCards.add(cardEntity);
-                }
-                changedCards.add(movedCard.getCard());
-            }
-        } else {
-            // card was moved to an other stack
-            movedInnerCard.setStackId(newStackId);
-            movedInnerCard.setStatusEnum(DBStatus.LOCAL_MOVED);
-            changedCards.add(movedCard.getCard());
-            for (FullCard fullCard : cardsOfNewStack) {
-                // skip unchanged cards
-                if (fullCard.getCard().getOrder() < newOrder) {
-                    continue;
-                }
-                changedCards.add(fullCard.getCard());
-            }
-        }
-        reorderAscending(movedInnerCard, changedCards, startingAtOrder);
+    /**
+     * @param cards of the stack without the moved card
+     * @return a local order for a card at the given <code>index</code> or <code>null</code> if there is no gap left at this position
+     */
+    @Nullable
+    private static Long getLocalOrderAt(int index, @NonNull List<FullCard> cards) {
+        return DataBaseAdapter.getLocalOrderBetween(
+                index > 0 ? cards.get(index - 1).getCard() : null,
+                index < cards.size() ? cards.get(index).getCard() : null);
     }
 
-    private void reorderAscending(@NonNull Card movedCard, @NonNull List<Card> cardsToReorganize, int startingAtOrder) {
-        final Instant now = Instant.now();
-        for (Card card : cardsToReorganize) {
-            card.setOrder(startingAtOrder);
-            if (card.getStatus() == DBStatus.UP_TO_DATE.getId()) {
-                card.setStatusEnum(DBStatus.LOCAL_EDITED_SILENT);
-                card.setLastModifiedLocal(now);
-            }
-            startingAtOrder++;
-        }
-        //update the moved one first, because otherwise a bunch of livedata is fired, leading the card to dispose and reappear
-        cardsToReorganize.remove(movedCard);
-        dataBaseAdapter.updateCard(movedCard, false);
-        for (Card card : cardsToReorganize) {
-            dataBaseAdapter.updateCard(card, false);
-        }
+    /**
+     * @return whether the given card is already sorted at the given <code>index</code> of <code>cards</code>
+     */
+    private static boolean isBetween(@NonNull Card card, int index, @NonNull List<FullCard> cards) {
+        return (index == 0 || cards.get(index - 1).getCard().getLocalOrder() < card.getLocalOrder())
+                && (index == cards.size() || card.getLocalOrder() < cards.get(index).getCard().getLocalOrder());
     }
 
     /**
@@ -1967,6 +1855,122 @@ public class SyncManager {
         executor.submit(() -> dataBaseAdapter.deleteStackWidget(appWidgetId));
     }
 
+    /**
+     * Records a local change of the given {@link Card} in the outbox and schedules pushing it.
+     */
+    @WorkerThread
+    private void addToOutbox(@NonNull Card card, @NonNull EOutboxEntityType entityType) {
+        final Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(card.getStackId());
+        dataBaseAdapter.addToOutbox(card.getAccountId(), stack.getBoardId(), stack.getLocalId(), entityType, card.getLocalId());
+        OutboxWorker.schedule(appContext);
+    }
+
+    /**
+     * Pushes the local changes recorded in the given outbox entries of one {@link Account}.
+     * All entries of the same entity are coalesced into one operation which pushes its current local state.
+     * Cards are pushed before their labels and assignees, at most {@link #OUTBOX_BATCH_SIZE} operations at the same time.
+     * Labels and assignees of a card which could not be pushed are left in the outbox.
+     * Pushed entries are removed from the outbox, the attempts of failed ones are increased.
+     * Operations which failed {@link #OUTBOX_MAX_ATTEMPTS} times are dropped and left to the next synchronization.
+     *
+     * @return emits <code>true</code> if all entries have been pushed successfully
+     */
+    @AnyThread
+    public Single<Boolean> pushOutbox(@NonNull Account account, @NonNull List<OutboxEntry> entries) {
+        final Map<EOutboxEntityType, Map<Long, List<OutboxEntry>>> operations = new EnumMap<>(EOutboxEntityType.class);
+        for (OutboxEntry entry : entries) {
+            operations.computeIfAbsent(entry.getEntityType(), key -> new LinkedHashMap<>())
+                    .computeIfAbsent(entry.getLocalEntityId(), key -> new ArrayList<>())
+                    .add(entry);
+        }
+        final Set<Long> failedLocalCardIds = ConcurrentHashMap.newKeySet();
+        final Single<Boolean> cards = pushOutboxOperations(operations.get(EOutboxEntityType.CARD), localCardId -> pushCardOfOutbox(account, localCardId))
+                .map(failed -> {
+                    failedLocalCardIds.addAll(failed);
+                    return failed.isEmpty();
+                });
+        final Single<Boolean> joins = Single.defer(() -> {
+            final Map<Long, List<OutboxEntry>> labels = operations.getOrDefault(EOutboxEntityType.CARD_LABEL, Collections.emptyMap());
+            final Map<Long, List<OutboxEntry>> users = operations.getOrDefault(EOutboxEntityType.CARD_USER, Collections.emptyMap());
+            final boolean skipped = labels.keySet().removeAll(failedLocalCardIds) | users.keySet().removeAll(failedLocalCardIds);
+            return Single.zip(
+                    pushOutboxOperations(labels, localCardId -> pushJoinsOfOutbox(account, localCardId, CardDataProvider::upSyncLabelsOfCard)),
+                    pushOutboxOperations(users, localCardId -> pushJoinsOfOutbox(account, localCardId, CardDataProvider::upSyncUsersOfCard)),
+                    (failedLabels, failedUsers) -> !skipped && failedLabels.isEmpty() && failedUsers.isEmpty());
+        });
+        return cards.flatMap(cardsPushed -> joins.map(joinsPushed -> cardsPushed && joinsPushed))
+                .subscribeOn(Schedulers.from(executor));
+    }
+
+    /**
+     * @return emits the local card ids whose operation failed
+     */
+    private Single<Set<Long>> pushOutboxOperations(@Nullable Map<Long, List<OutboxEntry>> operations, @NonNull Function<Long, Completable> push) {
+        if (operations == null || operations.isEmpty()) {
+            return Single.just(Collections.emptySet());
+        }
+        return Flowable.fromIterable(operations.entrySet())
+                .flatMapMaybe(operation -> {
+                    final long localCardId = operation.getKey();
+                    final List<Long> localIds = operation.getValue().stream().map(OutboxEntry::getLocalId).collect(Collectors.toList());
+                    if (operation.getValue().stream().mapToInt(OutboxEntry::getAttempts).max().orElse(0) >= OUTBOX_MAX_ATTEMPTS) {
+                        DeckLog.warn("Dropping", operation.getValue().get(0).getEntityType(), "of card", localCardId, "from the outbox after", OUTBOX_MAX_ATTEMPTS, "failed attempts");
+                        dataBaseAdapter.removeOutboxEntries(localIds);
+                        return Maybe.<Long>empty();
+                    }
+                    return Completable.defer(() -> push.apply(localCardId))
+                            .timeout(OUTBOX_UP_SYNC_TIMEOUT_MINUTES, TimeUnit.MINUTES)
+                            .doOnComplete(() -> dataBaseAdapter.removeOutboxEntries(localIds))
+                            .andThen(Maybe.<Long>empty())
+                            .onErrorResumeNext(throwable -> {
+                                DeckLog.warn("Could not push", operation.getValue().get(0).getEntityType(), "of card", localCardId, "from the outbox:", throwable);
+                                dataBaseAdapter.incrementOutboxAttempts(localIds);
+                                return Maybe.just(localCardId);
+                            });
+                }, false, OUTBOX_BATCH_SIZE)
+                .<Set<Long>>collect(HashSet::new, Set::add);
+    }
+
+    private Completable pushCardOfOutbox(@NonNull Account account, long localCardId) {
+        final FullCard card = dataBaseAdapter.getFullCardByLocalIdDirectly(account.getId(), localCardId);
+        if (card == null || card.getStatusEnum() == DBStatus.UP_TO_DATE) {
+            return Completable.complete();
+        }
+        final CardPropagationDataProvider provider = createCardProviderOfOutbox(card);
+        if (provider == null) {
+            return Completable.complete();
+        }
+        if (card.getId() == null && card.getStatusEnum() == DBStatus.LOCAL_DELETED) {
+            provider.deletePhysicallyInDB(dataBaseAdapter, account.getId(), card);
+            return Completable.complete();
+        }
+        return syncHelperFactory.create(serverAdapter, dataBaseAdapter, null)
+                .setResponseCallback(ResponseCallback.from(account, IResponseCallback.empty()))
+                .upSyncEntities(provider, Collections.singletonList(card));
+    }
+
+    private Completable pushJoinsOfOutbox(@NonNull Account account, long localCardId, @NonNull OutboxJoinPush push) {
+        final FullCard card = dataBaseAdapter.getFullCardByLocalIdDirectly(account.getId(), localCardId);
+        final CardPropagationDataProvider provider = card == null ? null : createCardProviderOfOutbox(card);
+        return provider == null
+                ? Completable.complete()
+                : push.push(provider, serverAdapter, dataBaseAdapter, account, localCardId);
+    }
+
+    @Nullable
+    private CardPropagationDataProvider createCardProviderOfOutbox(@NonNull FullCard card) {
+        final FullStack stack = dataBaseAdapter.getFullStackByLocalIdDirectly(card.getCard().getStackId());
+        if (stack == null) {
+            return null;
+        }
+        final Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getStack().getBoardId());
+        return board == null ? null : new CardPropagationDataProvider(null, board, stack);
+    }
+
+    private interface OutboxJoinPush {
+        Completable push(@NonNull CardDataProvider provider, @NonNull IServerAdapter serverAdapter, @NonNull DataBaseAdapter dataBaseAdapter, @NonNull Account account, long localCardId);
+    }
+
     /**
      * FIXME https://github.com/stefan-niedermann/nextcloud-deck/issues/640
      */
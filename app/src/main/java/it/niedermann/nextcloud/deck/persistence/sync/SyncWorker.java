@@ -10,15 +10,16 @@ import androidx.work.ExistingPeriodicWorkPolicy;
 import androidx.work.NetworkType;
 import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
-import androidx.work.Worker;
+import androidx.work.RxWorker;
 import androidx.work.WorkerParameters;
 
 import java.util.concurrent.TimeUnit;
 
+import io.reactivex.Single;
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.R;
 
-public class SyncWorker extends Worker {
+public class SyncWorker extends RxWorker {
 
     private static final String WORKER_TAG = "it.niedermann.nextcloud.deck.background_synchronization";
     private static final Constraints constraints = new Constraints.Builder()
@@ -31,7 +32,7 @@ public class SyncWorker extends Worker {
 
     @NonNull
     @Override
-    public Result doWork() {
+    public Single<Result> createWork() {
         SharedPreferences sharedPreferences = PreferenceManager.getDefaultSharedPreferences(getApplicationContext());
         SharedPreferences.Editor sharedPreferencesEditor = sharedPreferences.edit();
         SyncManager syncManager = new SyncManager(getApplicationContext(), null);
@@ -39,11 +40,12 @@ public class SyncWorker extends Worker {
             DeckLog.info("Starting background synchronization");
             sharedPreferencesEditor.putLong(getApplicationContext().getString(R.string.shared_preference_last_background_sync), System.currentTimeMillis());
             sharedPreferencesEditor.apply();
-            boolean success = syncManager.synchronizeEverything();
-            DeckLog.info("Finishing background synchronization. Success: ", success);
-            return success ? Result.failure() : Result.success();
+            return syncManager.synchronizeEverything().map(success -> {
+                DeckLog.info("Finishing background synchronization. Success: ", success);
+                return success ? Result.failure() : Result.success();
+            });
         }
-        return Result.success();
+        return Single.just(Result.success());
     }
 
     public static void update(@NonNull Context context) {
@@ -0,0 +1,173 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nextcloud.android.sso.api.ParsedResponse;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.api.RequestLimiter;
+import it.niedermann.nextcloud.deck.api.RequestStatistics;
+import it.niedermann.nextcloud.deck.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.exceptions.OfflineException;
+import it.niedermann.nextcloud.deck.model.AccessControl;
+import it.niedermann.nextcloud.deck.model.Attachment;
+import it.niedermann.nextcloud.deck.model.Board;
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.Label;
+import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.full.FullBoard;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.model.full.FullStack;
+import it.niedermann.nextcloud.deck.model.ocs.Activity;
+import it.niedermann.nextcloud.deck.model.ocs.Capabilities;
+import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
+import it.niedermann.nextcloud.deck.model.ocs.comment.OcsComment;
+import it.niedermann.nextcloud.deck.model.ocs.projects.OcsProjectList;
+import it.niedermann.nextcloud.deck.model.ocs.user.GroupMemberUIDs;
+import it.niedermann.nextcloud.deck.model.ocs.user.OcsUser;
+import it.niedermann.nextcloud.deck.model.ocs.user.OcsUserList;
+import it.niedermann.nextcloud.deck.model.propagation.CardUpdate;
+import okhttp3.ResponseBody;
+
+/**
+ * All requests the synchronization sends to a Deck server.
+ * Responses and errors are delivered asynchronously to the given {@link ResponseCallback}.
+ */
+public interface IServerAdapter {
+
+    /**
+     * Limits how many requests may be in flight at the same time.
+     * Requests exceeding this limit are queued until a running one terminates.
+     */
+    void setMaxConcurrentRequests(int maxConcurrentRequests);
+
+    /**
+     * Requests additionally need a slot of the given {@link RequestLimiter}, which can be shared with other adapters to limit their requests in total.
+     *
+     * @param sharedRequestLimiter <code>null</code> removes the shared limit
+     */
+    void setSharedRequestLimiter(@Nullable RequestLimiter sharedRequestLimiter);
+
+    /**
+     * @return counters of all requests which have been sent by this adapter
+     */
+    @NonNull
+    RequestStatistics getRequestStatistics();
+
+    boolean hasInternetConnection();
+
+    default void ensureInternetConnection() {
+        if (!hasInternetConnection()) {
+            throw new OfflineException();
+        }
+    }
+
+    boolean isEtagsEnabled();
+
+    default void getBoards(@NonNull ResponseCallback<ParsedResponse<List<FullBoard>>> responseCallback) {
+        getBoards(null, responseCallback);
+    }
+
+    /**
+     * @param lastSync if not <code>null</code>, only boards which have been modified since then will be returned
+     */
+    void getBoards(@Nullable Instant lastSync, @NonNull ResponseCallback<ParsedResponse<List<FullBoard>>> responseCallback);
+
+    void getCapabilities(String eTag, @NonNull ResponseCallback<ParsedResponse<Capabilities>> responseCallback);
+
+    void getProjectsForCard(long remoteCardId, @NonNull ResponseCallback<OcsProjectList> responseCallback);
+
+    void searchUser(String searchTerm, @NonNull ResponseCallback<OcsUserList> responseCallback);
+
+    void getSingleUserData(String userUid, @NonNull ResponseCallback<OcsUser> responseCallback);
+
+    void searchGroupMembers(String groupUID, @NonNull ResponseCallback<GroupMemberUIDs> responseCallback);
+
+    void getActivitiesForCard(long cardId, @NonNull ResponseCallback<List<Activity>> responseCallback);
+
+    void createBoard(Board board, @NonNull ResponseCallback<FullBoard> responseCallback);
+
+    void deleteBoard(Board board, @NonNull ResponseCallback<Void> responseCallback);
+
+    void updateBoard(Board board, @NonNull ResponseCallback<FullBoard> responseCallback);
+
+    void createAccessControl(long remoteBoardId, AccessControl acl, @NonNull ResponseCallback<AccessControl> responseCallback);
+
+    void updateAccessControl(long remoteBoardId, AccessControl acl, @NonNull ResponseCallback<AccessControl> responseCallback);
+
+    void deleteAccessControl(long remoteBoardId, AccessControl acl, @NonNull ResponseCallback<Void> responseCallback);
+
+    /**
+     * @param lastSync if not <code>null</code>, the stacks will only contain cards which have been modified since then
+     */
+    void getStacks(long boardId, @Nullable Instant lastSync, @Nullable String eTag, @NonNull ResponseCallback<ParsedResponse<List<FullStack>>> responseCallback);
+
+    void getStack(long boardId, long stackId, @Nullable String eTag, @NonNull ResponseCallback<FullStack> responseCallback);
+
+    void createStack(Board board, Stack stack, @NonNull ResponseCallback<FullStack> responseCallback);
+
+    void deleteStack(Board board, Stack stack, @NonNull ResponseCallback<Void> responseCallback);
+
+    void updateStack(Board board, Stack stack, @NonNull ResponseCallback<FullStack> responseCallback);
+
+    default void getCard(long boardId, long stackId, long cardId, @NonNull ResponseCallback<FullCard> responseCallback) {
+        getCard(boardId, stackId, cardId, null, responseCallback);
+    }
+
+    void getCard(long boardId, long stackId, long cardId, @Nullable String eTag, @NonNull ResponseCallback<FullCard> responseCallback);
+
+    void createCard(long boardId, long stackId, Card card, @NonNull ResponseCallback<FullCard> responseCallback);
+
+    void deleteCard(long boardId, long stackId, Card card, @NonNull ResponseCallback<Void> responseCallback);
+
+    void updateCard(long boardId, long stackId, CardUpdate card, @NonNull ResponseCallback<FullCard> responseCallback);
+
+    void assignUserToCard(long boardId, long stackId, long cardId, String userUID, @NonNull ResponseCallback<Void> responseCallback);
+
+    void unassignUserFromCard(long boardId, long stackId, long cardId, String userUID, @NonNull ResponseCallback<Void> responseCallback);
+
+    void assignLabelToCard(long boardId, long stackId, long cardId, long labelId, @NonNull ResponseCallback<Void> responseCallback);
+
+    void unassignLabelFromCard(long boardId, long stackId, long cardId, long labelId, @NonNull ResponseCallback<Void> responseCallback);
+
+
+    // Labels
+
+    void createLabel(long boardId, Label label, @NonNull ResponseCallback<Label> responseCallback);
+
+    void deleteLabel(long boardId, Label label, @NonNull ResponseCallback<Void> responseCallback);
+
+    void updateLabel(long boardId, Label label, @NonNull ResponseCallback<Label> responseCallback);
+
+    void reorder(long boardId, long currentStackId, long cardId, long newStackId, int newPosition, @NonNull ResponseCallback<List<FullCard>> responseCallback);
+
+
+    // Attachments
+
+    void uploadAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, File attachment, @NonNull ResponseCallback<Attachment> responseCallback);
+
+    void updateAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, String contentType, Uri attachmentUri, @NonNull ResponseCallback<Attachment> responseCallback);
+
+    void downloadAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, @NonNull ResponseCallback<ResponseBody> responseCallback);
+
+    void deleteAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, @NonNull ResponseCallback<Void> responseCallback);
+
+    void restoreAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, @NonNull ResponseCallback<Attachment> responseCallback);
+
+
+    // Comments
+
+    void getCommentsForRemoteCardId(Long remoteCardId, @NonNull ResponseCallback<OcsComment> responseCallback);
+
+    void createCommentForCard(DeckComment comment, @NonNull ResponseCallback<OcsComment> responseCallback);
+
+    void updateCommentForCard(DeckComment comment, @NonNull ResponseCallback<OcsComment> responseCallback);
+
+    void deleteCommentForCard(DeckComment comment, @NonNull ResponseCallback<Void> responseCallback);
+}
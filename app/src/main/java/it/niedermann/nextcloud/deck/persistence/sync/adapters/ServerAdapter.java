@@ -16,13 +16,18 @@ import androidx.preference.PreferenceManager;
 import com.nextcloud.android.sso.api.ParsedResponse;
 
 import java.io.File;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
 
 import it.niedermann.nextcloud.deck.R;
 import it.niedermann.nextcloud.deck.api.ApiProvider;
 import it.niedermann.nextcloud.deck.api.RequestHelper;
+import it.niedermann.nextcloud.deck.api.RequestLimiter;
+import it.niedermann.nextcloud.deck.api.RequestStatistics;
 import it.niedermann.nextcloud.deck.api.ResponseCallback;
-import it.niedermann.nextcloud.deck.exceptions.OfflineException;
 import it.niedermann.nextcloud.deck.model.AccessControl;
 import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.Attachment;
@@ -49,7 +54,15 @@ import okhttp3.MultipartBody;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 
-public class ServerAdapter {
+/**
+ * Talks to a real Nextcloud server through the Single Sign On library.
+ */
+public class ServerAdapter implements IServerAdapter {
+
+    /**
+     * HTTP-date as specified in <a href="https://datatracker.ietf.org/doc/html/rfc7231#section-7.1.1.1">RFC 7231</a>
+     */
+    private static final DateTimeFormatter IF_MODIFIED_SINCE_FORMAT = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.ENGLISH).withZone(ZoneOffset.UTC);
 
     private final String prefKeyWifiOnly;
     private final String prefKeyEtags;
@@ -67,13 +80,23 @@ public class ServerAdapter {
         sharedPreferences = PreferenceManager.getDefaultSharedPreferences(applicationContext);
     }
 
-    public void ensureInternetConnection() {
-        final boolean isConnected = hasInternetConnection();
-        if (!isConnected) {
-            throw new OfflineException();
-        }
+    @Override
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        provider.getRequestLimiter().setMaxConcurrentRequests(maxConcurrentRequests);
+    }
+
+    @Override
+    public void setSharedRequestLimiter(@Nullable RequestLimiter sharedRequestLimiter) {
+        provider.setSharedRequestLimiter(sharedRequestLimiter);
+    }
+
+    @NonNull
+    @Override
+    public RequestStatistics getRequestStatistics() {
+        return provider.getRequestStatistics();
     }
 
+    @Override
     public boolean hasInternetConnection() {
         ConnectivityManager cm = (ConnectivityManager) applicationContext.getSystemService(Context.CONNECTIVITY_SERVICE);
         if (cm != null) {
@@ -90,156 +113,189 @@ public class ServerAdapter {
         return false;
     }
 
-    // TODO what is this?
-    private String getLastSyncDateFormatted(long accountId) {
-        return null;
-//        String lastSyncHeader = API_FORMAT.format(getLastSync(accountId));
-//        // omit Offset of timezone (e.g.: +01:00)
-//        if (lastSyncHeader.matches("^.*\\+[0-9]{2}:[0-9]{2}$")) {
-//            lastSyncHeader = lastSyncHeader.substring(0, lastSyncHeader.length()-6);
-//        }
-//        DeckLog.log("lastSync "+lastSyncHeader);
-//        return lastSyncHeader;
+    @Nullable
+    private static String formatIfModifiedSince(@Nullable Instant lastSync) {
+        return lastSync == null ? null : IF_MODIFIED_SINCE_FORMAT.format(lastSync);
     }
 
-    public void getBoards(@NonNull ResponseCallback<ParsedResponse<List<FullBoard>>> responseCallback) {
+    @Override
+    public void getBoards(@Nullable Instant lastSync, @NonNull ResponseCallback<ParsedResponse<List<FullBoard>>> responseCallback) {
         RequestHelper.request(provider, () -> isEtagsEnabled()
-                ? provider.getDeckAPI().getBoards(true, getLastSyncDateFormatted(responseCallback.getAccount().getId()), responseCallback.getAccount().getBoardsEtag())
-                : provider.getDeckAPI().getBoards(true, getLastSyncDateFormatted(responseCallback.getAccount().getId())), responseCallback);
+                ? provider.getDeckAPI().getBoards(true, formatIfModifiedSince(lastSync), responseCallback.getAccount().getBoardsEtag())
+                : provider.getDeckAPI().getBoards(true, formatIfModifiedSince(lastSync)), responseCallback);
     }
 
+    @Override
     public boolean isEtagsEnabled() {
         return sharedPreferences.getBoolean(prefKeyEtags, true);
     }
 
+    /**
+     * ETags of entities are delivered without quotes in the JSON body, while the <code>If-None-Match</code> header expects them quoted.
+     *
+     * @return the quoted <code>eTag</code> or <code>null</code> if ETags are disabled
+     */
+    @Nullable
+    private String toIfNoneMatch(@Nullable String eTag) {
+        if (eTag == null || !isEtagsEnabled()) {
+            return null;
+        }
+        return eTag.startsWith("\"") || eTag.startsWith("W/") ? eTag : "\"" + eTag + "\"";
+    }
+
+    @Override
     public void getCapabilities(String eTag, @NonNull ResponseCallback<ParsedResponse<Capabilities>> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getNextcloudAPI().getCapabilities(eTag), responseCallback);
     }
 
+    @Override
     public void getProjectsForCard(long remoteCardId, @NonNull ResponseCallback<OcsProjectList> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getNextcloudAPI().getProjectsForCard(remoteCardId), responseCallback);
     }
 
+    @Override
     public void searchUser(String searchTerm, @NonNull ResponseCallback<OcsUserList> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getNextcloudAPI().searchUser(searchTerm), responseCallback);
     }
 
+    @Override
     public void getSingleUserData(String userUid, @NonNull ResponseCallback<OcsUser> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getNextcloudAPI().getSingleUserData(userUid), responseCallback);
     }
 
+    @Override
     public void searchGroupMembers(String groupUID, @NonNull ResponseCallback<GroupMemberUIDs> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getNextcloudAPI().searchGroupMembers(groupUID), responseCallback);
     }
 
+    @Override
     public void getActivitiesForCard(long cardId, @NonNull ResponseCallback<List<Activity>> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getNextcloudAPI().getActivitiesForCard(cardId), responseCallback);
     }
 
+    @Override
     public void createBoard(Board board, @NonNull ResponseCallback<FullBoard> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().createBoard(board), responseCallback);
     }
 
+    @Override
     public void deleteBoard(Board board, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().deleteBoard(board.getId()), responseCallback);
     }
 
+    @Override
     public void updateBoard(Board board, @NonNull ResponseCallback<FullBoard> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().updateBoard(board.getId(), board), responseCallback);
     }
 
+    @Override
     public void createAccessControl(long remoteBoardId, AccessControl acl, @NonNull ResponseCallback<AccessControl> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().createAccessControl(remoteBoardId, acl), responseCallback);
     }
 
+    @Override
     public void updateAccessControl(long remoteBoardId, AccessControl acl, @NonNull ResponseCallback<AccessControl> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().updateAccessControl(remoteBoardId, acl.getId(), acl), responseCallback);
     }
 
+    @Override
     public void deleteAccessControl(long remoteBoardId, AccessControl acl, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().deleteAccessControl(remoteBoardId, acl.getId(), acl), responseCallback);
     }
 
-    public void getStacks(long boardId, @NonNull ResponseCallback<List<FullStack>> responseCallback) {
+    @Override
+    public void getStacks(long boardId, @Nullable Instant lastSync, @Nullable String eTag, @NonNull ResponseCallback<ParsedResponse<List<FullStack>>> responseCallback) {
         ensureInternetConnection();
-        RequestHelper.request(provider, () -> provider.getDeckAPI().getStacks(boardId, getLastSyncDateFormatted(responseCallback.getAccount().getId())), responseCallback);
+        RequestHelper.request(provider, () -> provider.getDeckAPI().getStacks(boardId, formatIfModifiedSince(lastSync), toIfNoneMatch(eTag)), responseCallback);
     }
 
-    public void getStack(long boardId, long stackId, @NonNull ResponseCallback<FullStack> responseCallback) {
+    @Override
+    public void getStack(long boardId, long stackId, @Nullable String eTag, @NonNull ResponseCallback<FullStack> responseCallback) {
         ensureInternetConnection();
-        RequestHelper.request(provider, () -> provider.getDeckAPI().getStack(boardId, stackId, getLastSyncDateFormatted(responseCallback.getAccount().getId())), responseCallback);
+        RequestHelper.request(provider, () -> provider.getDeckAPI().getStack(boardId, stackId, null, toIfNoneMatch(eTag)), responseCallback);
     }
 
+    @Override
     public void createStack(Board board, Stack stack, @NonNull ResponseCallback<FullStack> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().createStack(board.getId(), stack), responseCallback);
     }
 
+    @Override
     public void deleteStack(Board board, Stack stack, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().deleteStack(board.getId(), stack.getId()), responseCallback);
 
     }
 
+    @Override
     public void updateStack(Board board, Stack stack, @NonNull ResponseCallback<FullStack> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().updateStack(board.getId(), stack.getId(), stack), responseCallback);
 
     }
 
-    public void getCard(long boardId, long stackId, long cardId, @NonNull ResponseCallback<FullCard> responseCallback) {
+    @Override
+    public void getCard(long boardId, long stackId, long cardId, @Nullable String eTag, @NonNull ResponseCallback<FullCard> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> {
             final Account account = responseCallback.getAccount();
             if (account.getServerDeckVersionAsObject().supportsFileAttachments()) {
-                return provider.getDeckAPI().getCard_1_1(boardId, stackId, cardId, getLastSyncDateFormatted(responseCallback.getAccount().getId()));
+                return provider.getDeckAPI().getCard_1_1(boardId, stackId, cardId, null, toIfNoneMatch(eTag));
             }
-            return provider.getDeckAPI().getCard_1_0(boardId, stackId, cardId, getLastSyncDateFormatted(responseCallback.getAccount().getId()));
+            return provider.getDeckAPI().getCard_1_0(boardId, stackId, cardId, null, toIfNoneMatch(eTag));
         }, responseCallback);
     }
 
+    @Override
     public void createCard(long boardId, long stackId, Card card, @NonNull ResponseCallback<FullCard> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().createCard(boardId, stackId, card), responseCallback);
     }
 
+    @Override
     public void deleteCard(long boardId, long stackId, Card card, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().deleteCard(boardId, stackId, card.getId()), responseCallback);
     }
 
+    @Override
     public void updateCard(long boardId, long stackId, CardUpdate card, @NonNull ResponseCallback<FullCard> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().updateCard(boardId, stackId, card.getId(), card), responseCallback);
     }
 
+    @Override
     public void assignUserToCard(long boardId, long stackId, long cardId, String userUID, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().assignUserToCard(boardId, stackId, cardId, userUID), responseCallback);
     }
 
+    @Override
     public void unassignUserFromCard(long boardId, long stackId, long cardId, String userUID, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().unassignUserFromCard(boardId, stackId, cardId, userUID), responseCallback);
     }
 
+    @Override
     public void assignLabelToCard(long boardId, long stackId, long cardId, long labelId, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().assignLabelToCard(boardId, stackId, cardId, labelId), responseCallback);
     }
 
+    @Override
     public void unassignLabelFromCard(long boardId, long stackId, long cardId, long labelId, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().unassignLabelFromCard(boardId, stackId, cardId, labelId), responseCallback);
@@ -248,21 +304,25 @@ public class ServerAdapter {
 
     // Labels
 
+    @Override
     public void createLabel(long boardId, Label label, @NonNull ResponseCallback<Label> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().createLabel(boardId, label), responseCallback);
     }
 
+    @Override
     public void deleteLabel(long boardId, Label label, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().deleteLabel(boardId, label.getId()), responseCallback);
     }
 
+    @Override
     public void updateLabel(long boardId, Label label, @NonNull ResponseCallback<Label> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().updateLabel(boardId, label.getId(), label), responseCallback);
     }
 
+    @Override
     public void reorder(long boardId, long currentStackId, long cardId, long newStackId, int newPosition, @NonNull ResponseCallback<List<FullCard>> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().moveCard(boardId, currentStackId, cardId, new Reorder(newPosition, (int) newStackId)), responseCallback);
@@ -271,6 +331,7 @@ public class ServerAdapter {
 
     // Attachments
 
+    @Override
     public void uploadAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, File attachment, @NonNull ResponseCallback<Attachment> responseCallback) {
         ensureInternetConnection();
         final Account account = responseCallback.getAccount();
@@ -296,6 +357,7 @@ public class ServerAdapter {
         return type;
     }
 
+    @Override
     public void updateAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, String contentType, Uri attachmentUri, @NonNull ResponseCallback<Attachment> responseCallback) {
         ensureInternetConnection();
         final File attachment = new File(attachmentUri.getPath());
@@ -307,36 +369,43 @@ public class ServerAdapter {
         RequestHelper.request(provider, () -> provider.getDeckAPI().updateAttachment(remoteBoardId, remoteStackId, remoteCardId, remoteAttachmentId, typePart, filePart), responseCallback);
     }
 
+    @Override
     public void downloadAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, @NonNull ResponseCallback<ResponseBody> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().downloadAttachment(remoteBoardId, remoteStackId, remoteCardId, remoteAttachmentId), responseCallback);
     }
 
+    @Override
     public void deleteAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().deleteAttachment(remoteBoardId, remoteStackId, remoteCardId, remoteAttachmentId), responseCallback);
     }
 
+    @Override
     public void restoreAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, @NonNull ResponseCallback<Attachment> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getDeckAPI().restoreAttachment(remoteBoardId, remoteStackId, remoteCardId, remoteAttachmentId), responseCallback);
     }
 
+    @Override
     public void getCommentsForRemoteCardId(Long remoteCardId, @NonNull ResponseCallback<OcsComment> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getNextcloudAPI().getCommentsForCard(remoteCardId), responseCallback);
     }
 
+    @Override
     public void createCommentForCard(DeckComment comment, @NonNull ResponseCallback<OcsComment> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getNextcloudAPI().createCommentForCard(comment.getObjectId(), comment), responseCallback);
     }
 
+    @Override
     public void updateCommentForCard(DeckComment comment, @NonNull ResponseCallback<OcsComment> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getNextcloudAPI().updateCommentForCard(comment.getObjectId(), comment.getId(), comment), responseCallback);
     }
 
+    @Override
     public void deleteCommentForCard(DeckComment comment, @NonNull ResponseCallback<Void> responseCallback) {
         ensureInternetConnection();
         RequestHelper.request(provider, () -> provider.getNextcloudAPI().deleteCommentForCard(comment.getObjectId(), comment.getId()), responseCallback);
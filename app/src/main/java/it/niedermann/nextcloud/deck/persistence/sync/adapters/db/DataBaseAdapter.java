@@ -2,9 +2,7 @@ package it.niedermann.nextcloud.deck.persistence.sync.adapters.db;
 
 import static androidx.lifecycle.Transformations.distinctUntilChanged;
 
-import android.appwidget.AppWidgetManager;
 import android.content.Context;
-import android.content.Intent;
 
 import androidx.annotation.AnyThread;
 import androidx.annotation.ColorInt;
@@ -12,12 +10,14 @@ import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
 import androidx.sqlite.db.SimpleSQLiteQuery;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -29,7 +29,8 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import it.niedermann.nextcloud.deck.DeckLog;
@@ -48,11 +49,13 @@ import it.niedermann.nextcloud.deck.model.User;
 import it.niedermann.nextcloud.deck.model.appwidgets.StackWidgetModel;
 import it.niedermann.nextcloud.deck.model.enums.DBStatus;
 import it.niedermann.nextcloud.deck.model.enums.EDueType;
+import it.niedermann.nextcloud.deck.model.enums.EOutboxEntityType;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullCardWithProjects;
 import it.niedermann.nextcloud.deck.model.full.FullSingleCardWidgetModel;
 import it.niedermann.nextcloud.deck.model.full.FullStack;
+import it.niedermann.nextcloud.deck.model.full.FullUpcomingCard;
 import it.niedermann.nextcloud.deck.model.interfaces.AbstractRemoteEntity;
 import it.niedermann.nextcloud.deck.model.interfaces.IRemoteEntity;
 import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
@@ -63,6 +66,7 @@ import it.niedermann.nextcloud.deck.model.ocs.comment.full.FullDeckComment;
 import it.niedermann.nextcloud.deck.model.ocs.projects.JoinCardWithProject;
 import it.niedermann.nextcloud.deck.model.ocs.projects.OcsProject;
 import it.niedermann.nextcloud.deck.model.ocs.projects.OcsProjectResource;
+import it.niedermann.nextcloud.deck.model.outbox.OutboxEntry;
 import it.niedermann.nextcloud.deck.model.relations.UserInBoard;
 import it.niedermann.nextcloud.deck.model.relations.UserInGroup;
 import it.niedermann.nextcloud.deck.model.widget.filter.EWidgetType;
@@ -71,32 +75,55 @@ import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetAccount;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetBoard;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetLabel;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetProject;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetResult;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetSort;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetStack;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetUser;
 import it.niedermann.nextcloud.deck.model.widget.filter.dto.FilterWidgetCard;
 import it.niedermann.nextcloud.deck.model.widget.singlecard.SingleCardWidgetModel;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.CardDao;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.util.FtsUtil;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.util.LiveDataHelper;
 import it.niedermann.nextcloud.deck.ui.upcomingcards.UpcomingCardsAdapterItem;
-import it.niedermann.nextcloud.deck.ui.widget.singlecard.SingleCardWidget;
+import it.niedermann.nextcloud.deck.util.DeckExecutors;
 
 public class DataBaseAdapter {
 
+    /**
+     * Stays below the SQLite limit of bound variables per statement on older Android versions.
+     */
+    private static final int MAX_CARDS_PER_RELATION_QUERY = 500;
+    /**
+     * Filters by due date depend on the current time, so their {@link FilterWidgetResult}s expire even if no entity has changed.
+     */
+    private static final Duration FILTER_WIDGET_RESULT_MAX_AGE_WITH_DUE_TYPE = Duration.ofHours(1);
+    /**
+     * Distance between the {@link Card#getLocalOrder()} of neighbours after rebalancing, which allows to insert 16 cards at the same position before rebalancing again.
+     */
+    public static final long CARD_LOCAL_ORDER_GAP = 65_536;
+
     @NonNull
     private final DeckDatabase db;
     @NonNull
     private final Context context;
     @NonNull
     private final ExecutorService widgetNotifierExecutor;
+    @NonNull
+    private final WidgetUpdateCoordinator widgetUpdateCoordinator;
 
     public DataBaseAdapter(@NonNull Context appContext) {
-        this(appContext, DeckDatabase.getInstance(appContext), Executors.newCachedThreadPool());
+        this(appContext, DeckDatabase.getInstance(appContext), DeckExecutors.background(), WidgetUpdateCoordinator.getInstance(appContext));
     }
 
     private DataBaseAdapter(@NonNull Context applicationContext, @NonNull DeckDatabase db, @NonNull ExecutorService widgetNotifierExecutor) {
+        this(applicationContext, db, widgetNotifierExecutor, new WidgetUpdateCoordinator(applicationContext, db, widgetNotifierExecutor));
+    }
+
+    private DataBaseAdapter(@NonNull Context applicationContext, @NonNull DeckDatabase db, @NonNull ExecutorService widgetNotifierExecutor, @NonNull WidgetUpdateCoordinator widgetUpdateCoordinator) {
         this.context = applicationContext;
         this.db = db;
         this.widgetNotifierExecutor = widgetNotifierExecutor;
+        this.widgetUpdateCoordinator = widgetUpdateCoordinator;
     }
 
     @NonNull
@@ -104,6 +131,14 @@ public class DataBaseAdapter {
         return context;
     }
 
+    /**
+     * Runs the given {@link Runnable} in a single database transaction, so multiple writes only cause one commit.
+     */
+    @WorkerThread
+    public void runInTransaction(@NonNull Runnable runnable) {
+        db.runInTransaction(runnable);
+    }
+
     private <T extends AbstractRemoteEntity> void markAsEditedIfNeeded(T entity, boolean setStatus) {
         if (!setStatus) return;
         entity.setLastModifiedLocal(Instant.now());
@@ -175,25 +210,10 @@ public class DataBaseAdapter {
 
     public void filterRelationsForCard(@Nullable FullCard card) {
         if (card != null) {
-            if (card.getLabels() != null && !card.getLabels().isEmpty()) {
-                List<Long> filteredIDs = db.getJoinCardWithLabelDao().filterDeleted(card.getLocalId(), getLocalIDs(card.getLabels()));
-                card.setLabels(db.getLabelDao().getLabelsByIdsDirectly(filteredIDs));
-            }
-            if (card.getAssignedUsers() != null && !card.getAssignedUsers().isEmpty()) {
-                List<Long> filteredIDs = db.getJoinCardWithUserDao().filterDeleted(card.getLocalId(), getLocalIDs(card.getAssignedUsers()));
-                card.setAssignedUsers(db.getUserDao().getUsersByIdsDirectly(filteredIDs));
-            }
+            filterRelationsForCard(Collections.singletonList(card));
         }
     }
 
-    private <T> List<Long> getLocalIDs(@NonNull List<? extends AbstractRemoteEntity> remoteEntityList) {
-        ArrayList<Long> ids = new ArrayList<>(remoteEntityList.size());
-        for (AbstractRemoteEntity entity : remoteEntityList) {
-            ids.add(entity.getLocalId());
-        }
-        return ids;
-    }
-
     public void readRelationsForACL(@Nullable List<AccessControl> acl) {
         if (acl != null) {
             for (AccessControl accessControl : acl) {
@@ -210,12 +230,61 @@ public class DataBaseAdapter {
         }
     }
 
-    private void filterRelationsForCard(@Nullable Collection<FullCard> card) {
-        if (card == null) {
+    /**
+     * Replaces the {@link Label}s and assigned {@link User}s of the given cards with the ones which have not been deleted locally.
+     * Uses a constant number of queries per chunk of cards instead of several queries per card.
+     */
+    private void filterRelationsForCard(@Nullable Collection<? extends FullCard> cards) {
+        if (cards == null || cards.isEmpty()) {
             return;
         }
-        for (FullCard c : card) {
-            filterRelationsForCard(c);
+        final List<FullCard> cardList = new ArrayList<>(cards.size());
+        for (FullCard card : cards) {
+            if (card != null) {
+                cardList.add(card);
+            }
+        }
+        for (int start = 0; start < cardList.size(); start += MAX_CARDS_PER_RELATION_QUERY) {
+            filterRelationsForCardChunk(cardList.subList(start, Math.min(start + MAX_CARDS_PER_RELATION_QUERY, cardList.size())));
+        }
+    }
+
+    private void filterRelationsForCardChunk(@NonNull List<FullCard> cards) {
+        final List<Long> localCardIds = new ArrayList<>(cards.size());
+        for (FullCard card : cards) {
+            localCardIds.add(card.getLocalId());
+        }
+
+        final Map<Long, List<Long>> cardIdsPerLabel = new HashMap<>();
+        for (JoinCardWithLabel join : db.getJoinCardWithLabelDao().getNotDeletedJoinsForCardsDirectly(localCardIds)) {
+            cardIdsPerLabel.computeIfAbsent(join.getLabelId(), key -> new ArrayList<>()).add(join.getCardId());
+        }
+        final Map<Long, List<Label>> labelsPerCard = new HashMap<>();
+        // Labels are ordered by title, so the per card lists keep that order
+        for (Label label : db.getLabelDao().getNotDeletedLabelsForCardsDirectly(localCardIds)) {
+            for (Long localCardId : cardIdsPerLabel.getOrDefault(label.getLocalId(), Collections.emptyList())) {
+                labelsPerCard.computeIfAbsent(localCardId, key -> new ArrayList<>()).add(label);
+            }
+        }
+
+        final Map<Long, List<Long>> cardIdsPerUser = new HashMap<>();
+        for (JoinCardWithUser join : db.getJoinCardWithUserDao().getNotDeletedJoinsForCardsDirectly(localCardIds)) {
+            cardIdsPerUser.computeIfAbsent(join.getUserId(), key -> new ArrayList<>()).add(join.getCardId());
+        }
+        final Map<Long, List<User>> usersPerCard = new HashMap<>();
+        for (User user : db.getUserDao().getNotDeletedUsersForCardsDirectly(localCardIds)) {
+            for (Long localCardId : cardIdsPerUser.getOrDefault(user.getLocalId(), Collections.emptyList())) {
+                usersPerCard.computeIfAbsent(localCardId, key -> new ArrayList<>()).add(user);
+            }
+        }
+
+        for (FullCard card : cards) {
+            if (card.getLabels() != null && !card.getLabels().isEmpty()) {
+                card.setLabels(labelsPerCard.getOrDefault(card.getLocalId(), new ArrayList<>()));
+            }
+            if (card.getAssignedUsers() != null && !card.getAssignedUsers().isEmpty()) {
+                card.setAssignedUsers(usersPerCard.getOrDefault(card.getLocalId(), new ArrayList<>()));
+            }
         }
     }
 
@@ -224,20 +293,31 @@ public class DataBaseAdapter {
         return db.getCardDao().getCardByRemoteIdDirectly(accountId, remoteId);
     }
 
-    public LiveData<List<FullCard>> getFullCardsForStack(long accountId, long localStackId, FilterInformation filter) {
+    /**
+     * @param offset number of cards to skip, starting at the top of the stack
+     * @param limit  maximum number of cards or {@link CardDao#NO_LIMIT}
+     */
+    public LiveData<List<FullCard>> getFullCardsForStack(long accountId, long localStackId, FilterInformation filter, int offset, int limit) {
         if (filter == null) {
-            return LiveDataHelper.interceptLiveData(db.getCardDao().getFullCardsForStack(accountId, localStackId), this::filterRelationsForCard);
+            return LiveDataHelper.interceptLiveData(db.getCardDao().getFullCardsForStack(accountId, localStackId, offset, limit), this::filterRelationsForCard);
         }
-        return LiveDataHelper.interceptLiveData(db.getCardDao().getFilteredFullCardsForStack(getQueryForFilter(filter, accountId, localStackId)), this::filterRelationsForCard);
+        return LiveDataHelper.interceptLiveData(db.getCardDao().getFilteredFullCardsForStack(getQueryForFilter(filter, Collections.singletonList(accountId), Collections.singletonList(localStackId), offset, limit)), this::filterRelationsForCard);
+    }
 
+    /**
+     * @param offset number of cards to skip, ordered like the stacks of the board
+     * @param limit  maximum number of cards or {@link CardDao#NO_LIMIT}
+     */
+    public LiveData<List<FullCard>> getArchivedFullCardsForBoard(long accountId, long localBoardId, int offset, int limit) {
+        return LiveDataHelper.interceptLiveData(db.getCardDao().getArchivedFullCardsForBoard(accountId, localBoardId, offset, limit), this::filterRelationsForCard);
     }
 
-    private void fillSqlWithEntityListValues(StringBuilder query, Collection<Object> args, @NonNull List<? extends IRemoteEntity> entities) {
+    private static void fillSqlWithEntityListValues(StringBuilder query, Collection<Object> args, @NonNull List<? extends IRemoteEntity> entities) {
         List<Long> idList = entities.stream().map(IRemoteEntity::getLocalId).collect(Collectors.toList());
         fillSqlWithListValues(query, args, idList);
     }
 
-    private void fillSqlWithListValues(StringBuilder query, Collection<Object> args, @NonNull List<?> values) {
+    private static void fillSqlWithListValues(StringBuilder query, Collection<Object> args, @NonNull List<?> values) {
         for (int i = 0; i < values.size(); i++) {
             if (i > 0) {
                 query.append(", ");
@@ -259,8 +339,17 @@ public class DataBaseAdapter {
         return getQueryForFilter(filter, Collections.singletonList(accountId), Collections.singletonList(localStackId));
     }
 
+    /**
+     * Public and static, so the built query can be checked without a database.
+     */
+    @VisibleForTesting
+    @AnyThread
+    public static SimpleSQLiteQuery getQueryForFilter(@NonNull FilterInformation filter, @Nullable List<Long> accountIds, @Nullable List<Long> localStackIds) {
+        return getQueryForFilter(filter, accountIds, localStackIds, 0, CardDao.NO_LIMIT);
+    }
+
     @AnyThread
-    private SimpleSQLiteQuery getQueryForFilter(FilterInformation filter, List<Long> accountIds, List<Long> localStackIds) {
+    private static SimpleSQLiteQuery getQueryForFilter(@NonNull FilterInformation filter, @Nullable List<Long> accountIds, @Nullable List<Long> localStackIds, int offset, int limit) {
         final Collection<Object> args = new ArrayList<>();
         StringBuilder query = new StringBuilder("SELECT * FROM card c WHERE 1=1 ");
         if (accountIds != null && !accountIds.isEmpty()) {
@@ -335,15 +424,30 @@ public class DataBaseAdapter {
             }
         }
         if (filter.getFilterText() != null && !filter.getFilterText().isEmpty()) {
-            query.append(" and (c.description like ? or c.title like ?) ");
-            String filterText = "%" + filter.getFilterText() + "%";
-            args.add(filterText);
-            args.add(filterText);
+            final String matchQuery = FtsUtil.toMatchQuery(filter.getFilterText());
+            if (matchQuery == null) {
+                // Input consists only of separators which are not part of the full text index
+                query.append(" and (c.description like ? or c.title like ?) ");
+                String filterText = "%" + filter.getFilterText() + "%";
+                args.add(filterText);
+                args.add(filterText);
+            } else {
+                query.append(" and (c.localId in (select docid from CardFts where CardFts match ?) " +
+                        "or c.localId in (select cm.objectId from DeckComment cm where cm.localId in (select docid from DeckCommentFts where DeckCommentFts match ?) and cm.status<>3)) ");
+                args.add(matchQuery);
+                args.add(matchQuery);
+            }
         }
         if (filter.getArchiveStatus() != FilterInformation.EArchiveStatus.ALL) {
             query.append(" and c.archived = ").append(filter.getArchiveStatus() == FilterInformation.EArchiveStatus.ARCHIVED ? 1 : 0);
         }
-        query.append(" and status<>3 order by accountId asc, stackId asc, `order`, createdAt asc;");
+        query.append(" and status<>3 order by accountId asc, stackId asc, localOrder, createdAt asc");
+        if (limit >= 0 || offset > 0) {
+            query.append(" limit ? offset ?");
+            args.add(limit);
+            args.add(offset);
+        }
+        query.append(";");
         return new SimpleSQLiteQuery(query.toString(), args.toArray());
     }
 
@@ -607,6 +711,122 @@ public class DataBaseAdapter {
         return id;
     }
 
+    /**
+     * Inserts a copy of the whole <code>originalBoard</code> in one transaction. The graph of the original board is read with a few set based queries
+     * and all entities of one type are inserted at once, local IDs get remapped in memory.
+     *
+     * @param originalBoard    will be inserted as new board of the <code>targetAccountId</code>, title, color and owner need to be set already
+     * @param newOwner         owner of the cloned board and its cards
+     * @param cloneCards       whether cards and their assigned labels and users should be cloned as well
+     * @param cloneAssignments whether access control and assigned users should be cloned, which is only possible within the same account
+     * @return the local ID of the cloned board
+     */
+    @WorkerThread
+    public long cloneBoardDirectly(long originAccountId, @NonNull FullBoard originalBoard, long targetAccountId, @NonNull User newOwner, boolean cloneCards, boolean cloneAssignments) {
+        final long originBoardLocalId = originalBoard.getLocalId();
+        final List<Card> originalCards = cloneCards ? db.getCardDao().getNotDeletedCardsOfBoardDirectly(originAccountId, originBoardLocalId) : Collections.emptyList();
+        final List<JoinCardWithLabel> originalLabelJoins = cloneCards ? db.getJoinCardWithLabelDao().getNotDeletedJoinsForBoardDirectly(originBoardLocalId) : Collections.emptyList();
+        final List<JoinCardWithUser> originalUserJoins = cloneCards && cloneAssignments ? db.getJoinCardWithUserDao().getNotDeletedJoinsForBoardDirectly(originBoardLocalId) : Collections.emptyList();
+
+        final long newBoardId = db.runInTransaction(() -> {
+            final Board board = originalBoard.getBoard();
+            board.setLocalId(null);
+            board.setId(null);
+            board.setAccountId(targetAccountId);
+            board.setStatusEnum(DBStatus.LOCAL_EDITED);
+            final long boardId = db.getBoardDao().insert(board);
+
+            if (cloneAssignments && originalBoard.getParticipants() != null) {
+                final AccessControl[] acl = originalBoard.getParticipants().toArray(new AccessControl[0]);
+                for (AccessControl entity : acl) {
+                    entity.setLocalId(null);
+                    entity.setId(null);
+                    entity.setAccountId(targetAccountId);
+                    entity.setBoardId(boardId);
+                }
+                db.getAccessControlDao().insert(acl);
+            }
+
+            final Map<Long, Long> labelIds = cloneEntities(originalBoard.getLabels(), label -> {
+                label.setAccountId(targetAccountId);
+                label.setBoardId(boardId);
+            }, labels -> db.getLabelDao().insert(labels.toArray(new Label[0])));
+
+            final Map<Long, Long> stackIds = cloneEntities(originalBoard.getStacks().stream()
+                    .filter(stack -> stack.getStatus() != DBStatus.LOCAL_DELETED.getId())
+                    .collect(Collectors.toList()), stack -> {
+                stack.setAccountId(targetAccountId);
+                stack.setBoardId(boardId);
+            }, stacks -> db.getStackDao().insert(stacks.toArray(new Stack[0])));
+
+            // Cards keep their sparse local order, which is only relative within their stack
+            final Map<Long, Long> cardIds = cloneEntities(originalCards.stream()
+                    .filter(card -> stackIds.containsKey(card.getStackId()))
+                    .collect(Collectors.toList()), card -> {
+                card.setAccountId(targetAccountId);
+                card.setStackId(stackIds.get(card.getStackId()));
+                card.setUserId(newOwner.getLocalId());
+            }, cards -> db.getCardDao().insert(cards.toArray(new Card[0])));
+
+            final List<JoinCardWithLabel> labelJoins = new ArrayList<>(originalLabelJoins.size());
+            for (JoinCardWithLabel originalJoin : originalLabelJoins) {
+                final Long cardId = cardIds.get(originalJoin.getCardId());
+                final Long labelId = labelIds.get(originalJoin.getLabelId());
+                if (cardId == null || labelId == null) {
+                    DeckLog.warn("Skipping assignment of label", originalJoin.getLabelId(), "to card", originalJoin.getCardId(), "because one of them has not been cloned");
+                    continue;
+                }
+                final JoinCardWithLabel join = new JoinCardWithLabel();
+                join.setCardId(cardId);
+                join.setLabelId(labelId);
+                join.setStatusEnum(DBStatus.LOCAL_EDITED);
+                labelJoins.add(join);
+            }
+            db.getJoinCardWithLabelDao().insert(labelJoins.toArray(new JoinCardWithLabel[0]));
+
+            final List<JoinCardWithUser> userJoins = new ArrayList<>(originalUserJoins.size());
+            for (JoinCardWithUser originalJoin : originalUserJoins) {
+                final Long cardId = cardIds.get(originalJoin.getCardId());
+                if (cardId != null) {
+                    final JoinCardWithUser join = new JoinCardWithUser();
+                    join.setCardId(cardId);
+                    join.setUserId(originalJoin.getUserId());
+                    join.setStatusEnum(DBStatus.LOCAL_EDITED);
+                    userJoins.add(join);
+                }
+            }
+            db.getJoinCardWithUserDao().insert(userJoins.toArray(new JoinCardWithUser[0]));
+            return boardId;
+        });
+        notifyFilterWidgetsAboutChangedEntity(FilterWidget.EChangedEntityType.ACCOUNT, targetAccountId);
+        notifyFilterWidgetsAboutChangedEntity(FilterWidget.EChangedEntityType.BOARD, newBoardId);
+        return newBoardId;
+    }
+
+    /**
+     * Resets the IDs of the given entities, marks them as {@link DBStatus#LOCAL_EDITED} and inserts them at once.
+     *
+     * @return the local IDs of the given entities mapped to the local IDs of their clones
+     */
+    @WorkerThread
+    private static <T extends AbstractRemoteEntity> Map<Long, Long> cloneEntities(@NonNull List<T> entities, @NonNull Consumer<T> remap, @NonNull Function<List<T>, long[]> insert) {
+        final Long[] originalLocalIds = new Long[entities.size()];
+        for (int i = 0; i < entities.size(); i++) {
+            final T entity = entities.get(i);
+            originalLocalIds[i] = entity.getLocalId();
+            entity.setLocalId(null);
+            entity.setId(null);
+            entity.setStatusEnum(DBStatus.LOCAL_EDITED);
+            remap.accept(entity);
+        }
+        final long[] newLocalIds = insert.apply(entities);
+        final Map<Long, Long> localIds = new HashMap<>(entities.size());
+        for (int i = 0; i < newLocalIds.length; i++) {
+            localIds.put(originalLocalIds[i], newLocalIds[i]);
+        }
+        return localIds;
+    }
+
     public void deleteBoard(Board board, boolean setStatus) {
         markAsDeletedIfNeeded(board, setStatus);
         db.getBoardDao().update(board);
@@ -625,6 +845,11 @@ public class DataBaseAdapter {
         notifyFilterWidgetsAboutChangedEntity(FilterWidget.EChangedEntityType.BOARD, board.getLocalId());
     }
 
+    @WorkerThread
+    public void updateStacksEtag(long localBoardId, @Nullable String stacksEtag) {
+        db.getBoardDao().updateStacksEtag(localBoardId, stacksEtag);
+    }
+
     public LiveData<List<Stack>> getStacksForBoard(long accountId, long localBoardId) {
         return distinctUntilChanged(db.getStackDao().getStacksForBoard(accountId, localBoardId));
     }
@@ -701,6 +926,8 @@ public class DataBaseAdapter {
     @WorkerThread
     public long createCardDirectly(long accountId, Card card) {
         card.setAccountId(accountId);
+        // New cards are appended, cards from the server get their final position by resetLocalCardOrderToServerOrder
+        card.setLocalOrder(db.getCardDao().getHighestLocalOrderInStack(card.getStackId()) + CARD_LOCAL_ORDER_GAP);
         final long newCardId = db.getCardDao().insert(card);
         notifyFilterWidgetsAboutChangedEntity(FilterWidget.EChangedEntityType.STACK, card.getStackId());
         return newCardId;
@@ -711,6 +938,111 @@ public class DataBaseAdapter {
         return db.getCardDao().getHighestOrderInStack(localStackId);
     }
 
+    /**
+     * @return a {@link Card#getLocalOrder()} which sorts between the given neighbours or <code>null</code> if there is no gap left between them
+     */
+    @Nullable
+    public static Long getLocalOrderBetween(@Nullable Card previous, @Nullable Card next) {
+        if (previous == null && next == null) {
+            return 0L;
+        } else if (previous == null) {
+            return next.getLocalOrder() - CARD_LOCAL_ORDER_GAP;
+        } else if (next == null) {
+            return previous.getLocalOrder() + CARD_LOCAL_ORDER_GAP;
+        } else if (next.getLocalOrder() - previous.getLocalOrder() < 2) {
+            return null;
+        }
+        return previous.getLocalOrder() + (next.getLocalOrder() - previous.getLocalOrder()) / 2;
+    }
+
+    /**
+     * Spreads the {@link Card#getLocalOrder()} of the given cards by {@link #CARD_LOCAL_ORDER_GAP} while keeping their order.
+     * The cards are neither marked as changed nor pushed, because the server is not aware of the local order.
+     *
+     * @param cards of one stack in the order they are displayed
+     */
+    @WorkerThread
+    public void rebalanceLocalCardOrder(@NonNull List<Card> cards) {
+        db.runInTransaction(() -> {
+            for (int i = 0; i < cards.size(); i++) {
+                final Card card = cards.get(i);
+                if (card.getLocalOrder() != i * CARD_LOCAL_ORDER_GAP) {
+                    card.setLocalOrder(i * CARD_LOCAL_ORDER_GAP);
+                    db.getCardDao().updateLocalOrder(card.getLocalId(), card.getLocalOrder());
+                }
+            }
+        });
+    }
+
+    /**
+     * Sorts the cards of the given stack like the server does, unless some of them have not been pushed yet, because their local order is the one which is about to be pushed.
+     */
+    @WorkerThread
+    public void resetLocalCardOrderToServerOrder(long localStackId) {
+        db.runInTransaction(() -> {
+            if (!db.getCardDao().hasLocallyChangedCardsInStack(localStackId)) {
+                rebalanceLocalCardOrder(db.getCardDao().getCardsForStackInServerOrderDirectly(localStackId));
+            }
+        });
+    }
+
+    /**
+     * Applies the order of all cards in the stack of the <code>movedCard</code> as responded by the server after moving it, in one transaction.
+     *
+     * @param movedCard as it has been pushed to the server
+     */
+    @WorkerThread
+    public void applyServerOrderAfterMove(long accountId, @NonNull Card movedCard, @NonNull List<FullCard> cardsOfStack) {
+        db.runInTransaction(() -> {
+            Instant lastModified = movedCard.getLastModifiedLocal();
+            for (FullCard fullCard : cardsOfStack) {
+                if (fullCard != null && fullCard.getId() != null) {
+                    db.getCardDao().updateOrderByRemoteId(accountId, fullCard.getId(), fullCard.getCard().getOrder());
+                    if (fullCard.getId().equals(movedCard.getId()) && fullCard.getCard().getLastModified() != null) {
+                        lastModified = fullCard.getCard().getLastModified();
+                    }
+                }
+            }
+            db.getCardDao().markMovedCardAsUpToDate(movedCard.getLocalId(), movedCard.getStackId(), movedCard.getLocalOrder(), lastModified);
+            resetLocalCardOrderToServerOrder(movedCard.getStackId());
+        });
+        widgetUpdateCoordinator.onCardChanged(movedCard.getLocalId());
+        notifyFilterWidgetsAboutChangedEntity(FilterWidget.EChangedEntityType.STACK, movedCard.getStackId());
+    }
+
+    /**
+     * @return the <code>order</code> which should be pushed to the server for the given card, derived from its position in the stack
+     */
+    @WorkerThread
+    public int getServerOrderOfCardDirectly(@NonNull Card card) {
+        return db.getCardDao().countCardsBeforeLocalOrderInStack(card.getStackId(), card.getLocalOrder());
+    }
+
+    /**
+     * The server does not renumber the other cards of the stack when a card is pushed with an <code>order</code>, so the card might tie with a sibling.
+     *
+     * @param order as derived by {@link #getServerOrderOfCardDirectly(Card)}
+     * @return whether the position of the card needs to be pushed with the reorder endpoint, which renumbers all cards of the stack
+     */
+    @WorkerThread
+    public boolean isServerOrderAmbiguous(long localStackId, @NonNull Card card, int order) {
+        return db.getCardDao().hasServerOrderConflictInStack(localStackId, card.getLocalId(), card.getLocalOrder(), order);
+    }
+
+    /**
+     * Applies the order of all cards of a stack as responded by the server after reordering it, in one transaction.
+     */
+    @WorkerThread
+    public void applyServerOrderOfStack(long accountId, @NonNull List<FullCard> cardsOfStack) {
+        db.runInTransaction(() -> {
+            for (FullCard fullCard : cardsOfStack) {
+                if (fullCard != null && fullCard.getId() != null) {
+                    db.getCardDao().updateOrderByRemoteId(accountId, fullCard.getId(), fullCard.getCard().getOrder());
+                }
+            }
+        });
+    }
+
     @WorkerThread
     public int getHighestStackOrderInBoard(long localBoardId) {
         return db.getStackDao().getHighestStackOrderInBoard(localBoardId);
@@ -738,12 +1070,7 @@ public class DataBaseAdapter {
         markAsEditedIfNeeded(card, setStatus);
         final Long originalStackLocalId = db.getCardDao().getLocalStackIdByLocalCardId(card.getLocalId());
         db.getCardDao().update(card);
-        widgetNotifierExecutor.submit(() -> {
-            if (db.getSingleCardWidgetModelDao().containsCardLocalId(card.getLocalId())) {
-                DeckLog.info("Notifying", SingleCardWidget.class.getSimpleName(), "about card changes for", card.getTitle());
-                SingleCardWidget.notifyDatasetChanged(context);
-            }
-        });
+        widgetUpdateCoordinator.onCardChanged(card.getLocalId());
         notifyFilterWidgetsAboutChangedEntity(FilterWidget.EChangedEntityType.STACK, originalStackLocalId);
     }
 
@@ -976,6 +1303,10 @@ public class DataBaseAdapter {
         return db.getJoinCardWithLabelDao().getAllChangedJoinsForStack(localStackId);
     }
 
+    public List<JoinCardWithLabel> getAllChangedLabelJoinsForCard(long localCardId) {
+        return db.getJoinCardWithLabelDao().getAllChangedJoinsForCard(localCardId);
+    }
+
     public JoinCardWithLabel getAllChangedLabelJoinsWithRemoteIDs(Long localCardId, Long localLabelId) {
         return db.getJoinCardWithLabelDao().getRemoteIdsForJoin(localCardId, localLabelId);
     }
@@ -988,6 +1319,10 @@ public class DataBaseAdapter {
         return db.getJoinCardWithUserDao().getChangedJoinsWithRemoteIDsForStack(localStackId);
     }
 
+    public List<JoinCardWithUser> getAllChangedUserJoinsWithRemoteIDsForCard(long localCardId) {
+        return db.getJoinCardWithUserDao().getChangedJoinsWithRemoteIDsForCard(localCardId);
+    }
+
     public void deleteJoinedLabelForCardPhysicallyByRemoteIDs(Long accountId, Long remoteCardId, Long remoteLabelId) {
         db.getJoinCardWithLabelDao().deleteJoinedLabelForCardPhysicallyByRemoteIDs(accountId, remoteCardId, remoteLabelId);
     }
@@ -1239,6 +1574,8 @@ public class DataBaseAdapter {
     public void updateFilterWidgetDirectly(FilterWidget filterWidget) {
         db.getFilterWidgetSortDao().deleteByFilterWidgetId(filterWidget.getId());
         db.getFilterWidgetAccountDao().deleteByFilterWidgetId(filterWidget.getId());
+        db.getFilterWidgetResultDao().deleteByFilterWidgetId(filterWidget.getId());
+        filterWidget.setResultComputedAt(null);
         db.getFilterWidgetDao().update(filterWidget);
         insertFilterWidgetDecendants(filterWidget);
     }
@@ -1271,25 +1608,70 @@ public class DataBaseAdapter {
         return cardResultsToUpcomingCardsAdapterItems(db.getCardDao().getUpcomingCardsDirectly());
     }
 
+    /**
+     * The board and the account are already part of the query result, so the number of queries does not depend on the number of cards.
+     */
     @NotNull
-    private List<UpcomingCardsAdapterItem> cardResultsToUpcomingCardsAdapterItems(List<FullCard> cardsResult) {
+    private List<UpcomingCardsAdapterItem> cardResultsToUpcomingCardsAdapterItems(List<FullUpcomingCard> cardsResult) {
         filterRelationsForCard(cardsResult);
         final List<UpcomingCardsAdapterItem> result = new ArrayList<>(cardsResult.size());
-        final Map<Long, Account> accountCache = new HashMap<>();
-        for (FullCard fullCard : cardsResult) {
-            final Board board = db.getBoardDao().getBoardByLocalCardIdDirectly(fullCard.getLocalId());
-            Account account = accountCache.get(fullCard.getAccountId());
-            if (account == null) {
-                account = db.getAccountDao().getAccountByIdDirectly(fullCard.getAccountId());
-                accountCache.put(fullCard.getAccountId(), account);
-            }
-            result.add(new UpcomingCardsAdapterItem(fullCard, account, board.getLocalId(), board.getId(), board.isPermissionEdit()));
+        for (FullUpcomingCard fullCard : cardsResult) {
+            result.add(new UpcomingCardsAdapterItem(fullCard, fullCard.getAccount(), fullCard.getBoardLocalId(), fullCard.getBoardRemoteId(), fullCard.isBoardPermissionEdit()));
         }
         return result;
     }
 
+    /**
+     * Reads the {@link FilterWidgetResult}s of the given widget and only evaluates its filters if they have been invalidated by a changed entity.
+     */
+    @WorkerThread
     public List<FilterWidgetCard> getCardsForFilterWidget(@NonNull Integer filterWidgetId) {
         final FilterWidget filterWidget = getFilterWidgetByIdDirectly(filterWidgetId);
+        if (!isFilterWidgetResultValid(filterWidget)) {
+            // Entity changes wait for the transaction, so their invalidation can not be overwritten by an outdated result
+            db.runInTransaction(() -> {
+                final Collection<FullCard> cardsResult = computeCardsForFilterWidget(filterWidget);
+                final FilterWidgetResult[] results = new FilterWidgetResult[cardsResult.size()];
+                int i = 0;
+                for (FullCard fullCard : cardsResult) {
+                    results[i++] = new FilterWidgetResult(filterWidgetId, fullCard.getLocalId());
+                }
+                db.getFilterWidgetResultDao().deleteByFilterWidgetId(filterWidgetId);
+                db.getFilterWidgetResultDao().insert(results);
+                db.getFilterWidgetDao().setResultComputedAt(filterWidgetId, Instant.now());
+            });
+        }
+
+        final List<FullCard> cards = db.getFilterWidgetResultDao().getFullCardsByFilterWidgetIdDirectly(filterWidgetId);
+        filterRelationsForCard(cards);
+        final Map<Long, Stack> stacks = new HashMap<>();
+        for (Stack stack : db.getFilterWidgetResultDao().getStacksByFilterWidgetIdDirectly(filterWidgetId)) {
+            stacks.put(stack.getLocalId(), stack);
+        }
+        final Map<Long, Board> boards = new HashMap<>();
+        for (Board board : db.getFilterWidgetResultDao().getBoardsByFilterWidgetIdDirectly(filterWidgetId)) {
+            boards.put(board.getLocalId(), board);
+        }
+        final List<FilterWidgetCard> result = new ArrayList<>(cards.size());
+        for (FullCard fullCard : cards) {
+            final Stack stack = stacks.get(fullCard.getCard().getStackId());
+            result.add(new FilterWidgetCard(fullCard, stack, stack == null ? null : boards.get(stack.getBoardId())));
+        }
+        return result;
+    }
+
+    private static boolean isFilterWidgetResultValid(@NonNull FilterWidget filterWidget) {
+        final Instant resultComputedAt = filterWidget.getResultComputedAt();
+        if (resultComputedAt == null) {
+            return false;
+        }
+        return filterWidget.getDueType() == null
+                || filterWidget.getDueType() == EDueType.NO_FILTER
+                || resultComputedAt.plus(FILTER_WIDGET_RESULT_MAX_AGE_WITH_DUE_TYPE).isAfter(Instant.now());
+    }
+
+    @NonNull
+    private Collection<FullCard> computeCardsForFilterWidget(@NonNull FilterWidget filterWidget) {
         final FilterInformation filter = new FilterInformation();
         final Set<FullCard> cardsResult = new HashSet<>();
         if (filterWidget.getDueType() != null) {
@@ -1346,49 +1728,23 @@ public class DataBaseAdapter {
         }
 
         handleWidgetTypeExtras(filterWidget, cardsResult);
-
-        filterRelationsForCard(cardsResult);
-
-        final List<FilterWidgetCard> result = new ArrayList<>(cardsResult.size());
-        final Map<Long, Board> boardCache = new HashMap<>();
-        final Map<Long, Stack> stackCache = new HashMap<>();
-        for (FullCard fullCard : cardsResult) {
-            final Long stackId = fullCard.getCard().getStackId();
-            Stack stack = stackCache.get(stackId);
-            if (stack == null) {
-                stack = db.getStackDao().getStackByLocalIdDirectly(stackId);
-                stackCache.put(stackId, stack);
-            }
-
-            Board board = boardCache.get(stack.getBoardId());
-            if (board == null) {
-                board = db.getBoardDao().getBoardByLocalIdDirectly(stackId);
-                boardCache.put(stackId, board);
-            }
-            result.add(new FilterWidgetCard(fullCard, stack, board));
-        }
-        return result;
+        return cardsResult;
     }
 
     private void handleWidgetTypeExtras(FilterWidget filterWidget, Collection<FullCard> cardsResult) {
         if (filterWidget.getWidgetType() == EWidgetType.UPCOMING_WIDGET) {
             // https://github.com/stefan-niedermann/nextcloud-deck/issues/819 "no due" cards are only shown if they are on a shared board
-            for (FullCard fullCard : new ArrayList<>(cardsResult)) {
-                if (fullCard.getCard().getDueDate() == null && !db.getStackDao().isStackOnSharedBoardDirectly(fullCard.getCard().getStackId())) {
-                    cardsResult.remove(fullCard);
-                }
-            }
+            final Map<Long, Boolean> stackOnSharedBoard = new HashMap<>();
+            cardsResult.removeIf(fullCard -> fullCard.getCard().getDueDate() == null
+                    && !stackOnSharedBoard.computeIfAbsent(fullCard.getCard().getStackId(), stackId -> db.getStackDao().isStackOnSharedBoardDirectly(stackId)));
             List<Long> accountIds = null;
             if (!filterWidget.getAccounts().isEmpty()) {
                 accountIds = filterWidget.getAccounts().stream().map(FilterWidgetAccount::getAccountId).collect(Collectors.toList());
             }
             // https://github.com/stefan-niedermann/nextcloud-deck/issues/822 exclude archived cards and boards
-            final List<Long> archivedStacks = db.getStackDao().getLocalStackIdsInArchivedBoardsByAccountIdsDirectly(accountIds);
-            for (Long archivedStack : archivedStacks) {
-                final List<FullCard> archivedCards = cardsResult.stream()
-                        .filter(c -> c.getCard().isArchived() || archivedStack.equals(c.getCard().getStackId()))
-                        .collect(Collectors.toList());
-                cardsResult.removeAll(archivedCards);
+            final Set<Long> archivedStacks = new HashSet<>(db.getStackDao().getLocalStackIdsInArchivedBoardsByAccountIdsDirectly(accountIds));
+            if (!archivedStacks.isEmpty()) {
+                cardsResult.removeIf(c -> c.getCard().isArchived() || archivedStacks.contains(c.getCard().getStackId()));
             }
             // https://github.com/stefan-niedermann/nextcloud-deck/issues/800 all cards within non-shared boards need to be included
             cardsResult.addAll(db.getCardDao().getFullCardsForNonSharedBoardsWithDueDateForUpcomingCardsWidgetDirectly(accountIds));
@@ -1482,17 +1838,11 @@ public class DataBaseAdapter {
     }
 
     private void notifyFilterWidgetsAboutChangedEntity(@NonNull FilterWidget.EChangedEntityType type, Long entityId) {
-        widgetNotifierExecutor.submit(() -> {
-            final List<EWidgetType> widgetTypesToNotify = db.getFilterWidgetDao().getChangedListTypesByEntity(type.toString(), entityId);
-            for (EWidgetType t : widgetTypesToNotify) {
-                DeckLog.info("Notifying", t.getWidgetClass().getSimpleName(), "about entity change:", type.name(), "with ID", entityId);
-                context.sendBroadcast(new Intent(context, t.getWidgetClass()).setAction(AppWidgetManager.ACTION_APPWIDGET_UPDATE));
-            }
-        });
+        widgetUpdateCoordinator.onEntityChanged(type, entityId);
     }
 
     private void notifyAllWidgets() {
-        widgetNotifierExecutor.submit(() -> SingleCardWidget.notifyDatasetChanged(context));
+        widgetUpdateCoordinator.onAllSingleCardWidgetsChanged();
         /// FIXME StackWidget.notifyDatasetChanged(context);
 //        UpcomingWidget.notifyDatasetChanged(context);
     }
@@ -1509,4 +1859,40 @@ public class DataBaseAdapter {
     public void deleteProjectResourcesByCardIdDirectly(Long localCardId) {
         db.getJoinCardWithOcsProjectDao().deleteProjectResourcesByCardIdDirectly(localCardId);
     }
+
+    /**
+     * Records a local change which needs to be pushed to the server. The outbox is append-only, entries of the same entity get coalesced when it is drained.
+     */
+    @WorkerThread
+    public void addToOutbox(long accountId, long localBoardId, @Nullable Long localStackId, @NonNull EOutboxEntityType entityType, long localEntityId) {
+        db.getOutboxDao().append(new OutboxEntry(accountId, localBoardId, localStackId, entityType, localEntityId));
+    }
+
+    @WorkerThread
+    public List<OutboxEntry> getOutboxEntriesDirectly() {
+        return db.getOutboxDao().getAllDirectly();
+    }
+
+    @WorkerThread
+    public long getMaxOutboxEntryIdDirectly() {
+        return db.getOutboxDao().getMaxLocalIdDirectly();
+    }
+
+    @WorkerThread
+    public void removeOutboxEntries(@NonNull List<Long> localIds) {
+        db.getOutboxDao().deleteByLocalIds(localIds);
+    }
+
+    /**
+     * Entries which have been added after <code>maxLocalId</code> are kept, because they might not have been pushed yet.
+     */
+    @WorkerThread
+    public void removeOutboxEntriesForAccount(long accountId, long maxLocalId) {
+        db.getOutboxDao().deleteForAccount(accountId, maxLocalId);
+    }
+
+    @WorkerThread
+    public void incrementOutboxAttempts(@NonNull List<Long> localIds) {
+        db.getOutboxDao().incrementAttempts(localIds);
+    }
 }
@@ -25,12 +25,15 @@ import it.niedermann.nextcloud.deck.model.Label;
 import it.niedermann.nextcloud.deck.model.Permission;
 import it.niedermann.nextcloud.deck.model.Stack;
 import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.fts.CardFts;
+import it.niedermann.nextcloud.deck.model.fts.DeckCommentFts;
 import it.niedermann.nextcloud.deck.model.ocs.Activity;
 import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
 import it.niedermann.nextcloud.deck.model.ocs.comment.Mention;
 import it.niedermann.nextcloud.deck.model.ocs.projects.JoinCardWithProject;
 import it.niedermann.nextcloud.deck.model.ocs.projects.OcsProject;
 import it.niedermann.nextcloud.deck.model.ocs.projects.OcsProjectResource;
+import it.niedermann.nextcloud.deck.model.outbox.OutboxEntry;
 import it.niedermann.nextcloud.deck.model.relations.UserInBoard;
 import it.niedermann.nextcloud.deck.model.relations.UserInGroup;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidget;
@@ -38,6 +41,7 @@ import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetAccount;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetBoard;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetLabel;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetProject;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetResult;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetSort;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetStack;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetUser;
@@ -58,6 +62,7 @@ import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.JoinCardWit
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.JoinCardWithUserDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.LabelDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.MentionDao;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.OutboxDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.PermissionDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.StackDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.UserDao;
@@ -72,6 +77,7 @@ import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.widgets.fil
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.widgets.filter.FilterWidgetDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.widgets.filter.FilterWidgetLabelDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.widgets.filter.FilterWidgetProjectDao;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.widgets.filter.FilterWidgetResultDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.widgets.filter.FilterWidgetSortDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.widgets.filter.FilterWidgetStackDao;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.widgets.filter.FilterWidgetUserDao;
@@ -96,6 +102,12 @@ import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migra
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_28_29;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_29_30;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_30_31;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_31_32;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_32_33;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_33_34;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_34_35;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_35_36;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_36_37;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_8_9;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migration_9_10;
 
@@ -132,9 +144,13 @@ import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration.Migra
                 FilterWidgetUser.class,
                 FilterWidgetProject.class,
                 FilterWidgetSort.class,
+                FilterWidgetResult.class,
+                CardFts.class,
+                DeckCommentFts.class,
+                OutboxEntry.class,
         },
         exportSchema = false,
-        version = 31
+        version = 37
 )
 @TypeConverters({DateTypeConverter.class, EnumConverter.class})
 public abstract class DeckDatabase extends RoomDatabase {
@@ -186,6 +202,12 @@ public abstract class DeckDatabase extends RoomDatabase {
                 .addMigrations(new Migration_28_29())
                 .addMigrations(new Migration_29_30(context))
                 .addMigrations(new Migration_30_31())
+                .addMigrations(new Migration_31_32())
+                .addMigrations(new Migration_32_33())
+                .addMigrations(new Migration_33_34())
+                .addMigrations(new Migration_34_35())
+                .addMigrations(new Migration_35_36())
+                .addMigrations(new Migration_36_37())
                 .fallbackToDestructiveMigration()
                 .addCallback(ON_CREATE_CALLBACK)
                 .build();
@@ -253,4 +275,8 @@ public abstract class DeckDatabase extends RoomDatabase {
 
     public abstract FilterWidgetSortDao getFilterWidgetSortDao();
 
+    public abstract FilterWidgetResultDao getFilterWidgetResultDao();
+
+    public abstract OutboxDao getOutboxDao();
+
 }
\ No newline at end of file
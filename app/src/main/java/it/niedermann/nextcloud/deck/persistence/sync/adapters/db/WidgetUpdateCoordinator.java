@@ -0,0 +1,255 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db;
+
+import android.appwidget.AppWidgetManager;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidget;
+import it.niedermann.nextcloud.deck.ui.widget.singlecard.SingleCardWidget;
+import it.niedermann.nextcloud.deck.util.DeckExecutors;
+
+/**
+ * Collects changed entities and notifies the affected widgets at most once per debounce window instead of once per change.
+ * <p>
+ * While a synchronization is running, all changes are held back until it has finished, because each notification makes the launcher query the widget contents again.
+ */
+public class WidgetUpdateCoordinator {
+
+    private static final long DEBOUNCE_MILLIS = 1_000;
+    /**
+     * Notifications are not held back longer than this, even if a synchronization never reports that it has finished.
+     */
+    private static final long MAX_HOLD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    /**
+     * Stays below the limit of bound variables of SQLite
+     */
+    private static final int MAX_IDS_PER_QUERY = 500;
+    private static final AtomicInteger runningSynchronizations = new AtomicInteger();
+    private static WidgetUpdateCoordinator INSTANCE;
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, WidgetUpdateCoordinator.class.getSimpleName());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @NonNull
+    private final Context context;
+    @NonNull
+    private final DeckDatabase db;
+    @NonNull
+    private final Executor executor;
+
+    private Set<ChangedEntity> changedEntities = new HashSet<>();
+    private Set<Long> changedCardLocalIds = new HashSet<>();
+    private boolean allSingleCardWidgetsChanged = false;
+    private boolean scheduled = false;
+    private long pendingSince = 0;
+
+    /**
+     * @param executor is used to query the database and send the notifications
+     */
+    WidgetUpdateCoordinator(@NonNull Context context, @NonNull DeckDatabase db, @NonNull Executor executor) {
+        this.context = context;
+        this.db = db;
+        this.executor = executor;
+    }
+
+    /**
+     * @return the instance which is shared by all {@link DataBaseAdapter}s of the app, so changes made through any of them are coalesced
+     */
+    @NonNull
+    static synchronized WidgetUpdateCoordinator getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            INSTANCE = new WidgetUpdateCoordinator(context.getApplicationContext(), DeckDatabase.getInstance(context.getApplicationContext()), DeckExecutors.background());
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Holds back widget notifications until {@link Hold#release()} has been called for each running synchronization.
+     */
+    @NonNull
+    @AnyThread
+    public static Hold holdDuringSynchronization() {
+        runningSynchronizations.incrementAndGet();
+        return new Hold();
+    }
+
+    @AnyThread
+    public void onEntityChanged(@NonNull FilterWidget.EChangedEntityType type, Long localId) {
+        synchronized (this) {
+            changedEntities.add(new ChangedEntity(type, localId));
+            schedule();
+        }
+    }
+
+    @AnyThread
+    public void onCardChanged(long localCardId) {
+        synchronized (this) {
+            changedCardLocalIds.add(localCardId);
+            schedule();
+        }
+    }
+
+    @AnyThread
+    public void onAllSingleCardWidgetsChanged() {
+        synchronized (this) {
+            allSingleCardWidgetsChanged = true;
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            pendingSince = System.currentTimeMillis();
+            timer.schedule(this::onWindowElapsed, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void onWindowElapsed() {
+        synchronized (this) {
+            if (runningSynchronizations.get() > 0 && System.currentTimeMillis() - pendingSince < MAX_HOLD_MILLIS) {
+                timer.schedule(this::onWindowElapsed, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        executor.execute(this::flush);
+    }
+
+    @WorkerThread
+    private void flush() {
+        final Set<ChangedEntity> entities;
+        final Set<Long> cardLocalIds;
+        final boolean allSingleCardWidgets;
+        synchronized (this) {
+            entities = changedEntities;
+            cardLocalIds = changedCardLocalIds;
+            allSingleCardWidgets = allSingleCardWidgetsChanged;
+            changedEntities = new HashSet<>();
+            changedCardLocalIds = new HashSet<>();
+            allSingleCardWidgetsChanged = false;
+            scheduled = false;
+        }
+
+        final Set<Integer> filterWidgetIds = getAffectedFilterWidgetIds(entities);
+        if (!filterWidgetIds.isEmpty()) {
+            final List<Integer> ids = new ArrayList<>(filterWidgetIds);
+            // Only the results of affected widgets are computed again, the others stay valid
+            db.getFilterWidgetDao().invalidateResults(ids);
+            for (FilterWidget widget : db.getFilterWidgetDao().getFilterWidgetsByIdsDirectly(ids)) {
+                DeckLog.info("Notifying", widget.getWidgetType().getWidgetClass().getSimpleName(), "with id", widget.getId(), "about", entities.size(), "changed entities");
+                context.sendBroadcast(new Intent(context, widget.getWidgetType().getWidgetClass())
+                        .setAction(AppWidgetManager.ACTION_APPWIDGET_UPDATE)
+                        .putExtra(AppWidgetManager.EXTRA_APPWIDGET_ID, (int) widget.getId()));
+            }
+        }
+
+        boolean notifySingleCardWidgets = allSingleCardWidgets;
+        for (Long cardLocalId : cardLocalIds) {
+            if (notifySingleCardWidgets) {
+                break;
+            }
+            notifySingleCardWidgets = db.getSingleCardWidgetModelDao().containsCardLocalId(cardLocalId);
+        }
+        if (notifySingleCardWidgets) {
+            DeckLog.info("Notifying", SingleCardWidget.class.getSimpleName(), "about card changes");
+            SingleCardWidget.notifyDatasetChanged(context);
+        }
+    }
+
+    /**
+     * Queries the affected filter widgets once per type of the changed entities, split only if there are more than {@link #MAX_IDS_PER_QUERY} of them.
+     */
+    @NonNull
+    @WorkerThread
+    private Set<Integer> getAffectedFilterWidgetIds(@NonNull Set<ChangedEntity> entities) {
+        final Set<Integer> filterWidgetIds = new HashSet<>();
+        if (entities.isEmpty()) {
+            return filterWidgetIds;
+        }
+        final int filterWidgetCount = db.getFilterWidgetDao().countFilterWidgets();
+        final Map<FilterWidget.EChangedEntityType, List<Long>> localIdsByType = new EnumMap<>(FilterWidget.EChangedEntityType.class);
+        for (ChangedEntity entity : entities) {
+            final List<Long> localIds = localIdsByType.computeIfAbsent(entity.type, type -> new ArrayList<>());
+            // Widgets which are not restricted to any entity of this type are affected anyway
+            if (entity.localId != null) {
+                localIds.add(entity.localId);
+            }
+        }
+        for (Map.Entry<FilterWidget.EChangedEntityType, List<Long>> localIds : localIdsByType.entrySet()) {
+            final List<Long> allLocalIds = localIds.getValue();
+            int from = 0;
+            do {
+                // No need to look further once every widget is affected
+                if (filterWidgetIds.size() >= filterWidgetCount) {
+                    return filterWidgetIds;
+                }
+                final int to = Math.min(from + MAX_IDS_PER_QUERY, allLocalIds.size());
+                filterWidgetIds.addAll(db.getFilterWidgetDao().getChangedFilterWidgetIdsByEntities(localIds.getKey().toString(), allLocalIds.subList(from, to)));
+                from = to;
+            } while (from < allLocalIds.size());
+        }
+        return filterWidgetIds;
+    }
+
+    public static class Hold {
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Hold() {
+        }
+
+        /**
+         * Can safely be called multiple times.
+         */
+        @AnyThread
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                runningSynchronizations.decrementAndGet();
+            }
+        }
+    }
+
+    private static class ChangedEntity {
+        @NonNull
+        private final FilterWidget.EChangedEntityType type;
+        private final Long localId;
+
+        private ChangedEntity(@NonNull FilterWidget.EChangedEntityType type, Long localId) {
+            this.type = type;
+            this.localId = localId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ChangedEntity that = (ChangedEntity) o;
+            return type == that.type && Objects.equals(localId, that.localId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, localId);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import androidx.room.TypeConverter;
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.model.enums.EAttachmentType;
 import it.niedermann.nextcloud.deck.model.enums.EDueType;
+import it.niedermann.nextcloud.deck.model.enums.EOutboxEntityType;
 import it.niedermann.nextcloud.deck.model.enums.ESortCriteria;
 import it.niedermann.nextcloud.deck.model.widget.filter.EWidgetType;
 
@@ -64,4 +65,17 @@ public class EnumConverter {
     public static String fromEAttachmentType(@Nullable EAttachmentType value) {
         return value == null ? null : value.getValue();
     }
+
+    // #### EOutboxEntityType
+    @TypeConverter
+    @Nullable
+    public static EOutboxEntityType toOutboxEntityTypeEnum(@Nullable Integer value) {
+        return value == null ? null : EOutboxEntityType.findById(value);
+    }
+
+    @TypeConverter
+    @Nullable
+    public static Integer fromOutboxEntityTypeEnum(@Nullable EOutboxEntityType value) {
+        return value == null ? null : value.getId();
+    }
 }
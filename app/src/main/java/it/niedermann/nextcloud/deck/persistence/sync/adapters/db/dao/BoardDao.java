@@ -88,4 +88,7 @@ public interface BoardDao extends GenericDao<Board> {
 
     @Query("SELECT b.color FROM board b where b.localId = :localBoardId and b.accountId = :accountId")
     Integer getBoardColorByLocalIdDirectly(long accountId, long localBoardId);
-}
\ No newline at end of file
+
+    @Query("UPDATE board SET stacksEtag = :stacksEtag WHERE localId = :localBoardId")
+    void updateStacksEtag(long localBoardId, String stacksEtag);
+}
@@ -7,16 +7,22 @@ import androidx.room.RawQuery;
 import androidx.room.Transaction;
 import androidx.sqlite.db.SupportSQLiteQuery;
 
+import java.time.Instant;
 import java.util.List;
 
 import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullCardWithProjects;
+import it.niedermann.nextcloud.deck.model.full.FullUpcomingCard;
 
 @Dao
 public interface CardDao extends GenericDao<Card> {
 
-    String QUERY_UPCOMING_CARDS = "SELECT c.* FROM card c " +
+    /**
+     * Selects the board properties along with each card, so the upcoming cards can be displayed without querying the board per card.
+     * Cards without due date come last, cards with the same due date are ordered by their last modification.
+     */
+    String QUERY_UPCOMING_CARDS = "SELECT c.*, b.localId AS boardLocalId, b.id AS boardRemoteId, b.permissionEdit AS boardPermissionEdit FROM card c " +
                 "join stack s on s.localId = c.stackId " +
                 "join board b on b.localId = s.boardId " +
             "WHERE b.archived = 0 and c.archived = 0 and b.status <> 3 and s.status <> 3 and c.status <> 3 " +
@@ -31,16 +37,31 @@ public interface CardDao extends GenericDao<Card> {
                         ")" +
                     ")" +
                 ")" +
-            "ORDER BY c.dueDate asc";
+            "ORDER BY c.dueDate is null, c.dueDate asc, max(ifnull(c.lastModified, 0), ifnull(c.lastModifiedLocal, 0)) asc";
 
-    @Query("SELECT * FROM card WHERE stackId = :localStackId order by `order`, createdAt asc")
+    String QUERY_CARD_BY_REMOTE_ID = "SELECT * FROM card WHERE accountId = :accountId and id = :remoteId";
+
+    /**
+     * Passed as <code>limit</code> to load all remaining cards, SQLite ignores negative limits.
+     */
+    int NO_LIMIT = -1;
+
+    String QUERY_NOT_DELETED_CARDS_FOR_STACK = "SELECT * FROM card WHERE accountId = :accountId AND archived = 0 AND stackId = :localStackId and status<>3 order by localOrder, createdAt asc limit :limit offset :offset";
+
+    String QUERY_ARCHIVED_CARDS_FOR_BOARD = "SELECT c.* FROM card c INNER JOIN stack s ON c.stackId = s.localId " +
+            "WHERE c.accountId = :accountId AND s.boardId = :localBoardId AND c.archived = 1 and c.status<>3 and s.status<>3 " +
+            "order by s.`order`, s.localId, c.localOrder, c.createdAt asc limit :limit offset :offset";
+
+    String QUERY_CARDS_FOR_STACK = "SELECT * FROM card WHERE accountId = :accountId AND stackId = :localStackId order by localOrder, createdAt asc";
+
+    @Query("SELECT * FROM card WHERE stackId = :localStackId order by localOrder, createdAt asc")
     LiveData<List<Card>> getCardsForStack(final long localStackId);
 
-    @Query("SELECT * FROM card WHERE accountId = :accountId and id = :remoteId")
+    @Query(QUERY_CARD_BY_REMOTE_ID)
     LiveData<Card> getCardByRemoteId(final long accountId, final long remoteId);
 
     @Transaction
-    @Query("SELECT * FROM card WHERE accountId = :accountId and id = :remoteId")
+    @Query(QUERY_CARD_BY_REMOTE_ID)
     FullCard getFullCardByRemoteIdDirectly(final long accountId, final long remoteId);
 
     @Query("SELECT * FROM card WHERE accountId = :accountId and localId = :localId")
@@ -50,9 +71,13 @@ public interface CardDao extends GenericDao<Card> {
     @Query("SELECT * FROM card WHERE accountId = :accountId and localId = :localId")
     FullCard getFullCardByLocalIdDirectly(final long accountId, final long localId);
 
-    @Transaction                                                                                // v not deleted!
-    @Query("SELECT * FROM card WHERE accountId = :accountId AND archived = 0 AND stackId = :localStackId and status<>3 order by `order`, createdAt asc")
-    LiveData<List<FullCard>> getFullCardsForStack(final long accountId, final long localStackId);
+    @Transaction
+    @Query(QUERY_NOT_DELETED_CARDS_FOR_STACK)
+    LiveData<List<FullCard>> getFullCardsForStack(final long accountId, final long localStackId, final int offset, final int limit);
+
+    @Transaction
+    @Query(QUERY_ARCHIVED_CARDS_FOR_BOARD)
+    LiveData<List<FullCard>> getArchivedFullCardsForBoard(final long accountId, final long localBoardId, final int offset, final int limit);
 
     @Transaction
     @RawQuery(observedEntities = Card.class)
@@ -63,7 +88,7 @@ public interface CardDao extends GenericDao<Card> {
     List<FullCard> getFilteredFullCardsForStackDirectly(SupportSQLiteQuery query);
 
     @Transaction
-    @Query("SELECT * FROM card WHERE accountId = :accountId AND stackId = :localStackId order by `order`, createdAt asc")
+    @Query(QUERY_CARDS_FOR_STACK)
     List<FullCard> getFullCardsForStackDirectly(final long accountId, final long localStackId);
 
     @Transaction
@@ -74,10 +99,10 @@ public interface CardDao extends GenericDao<Card> {
     LiveData<FullCardWithProjects> getFullCardWithProjectsByLocalId(final long accountId, final long localCardId);
 
     @Transaction
-    @Query("SELECT * FROM card WHERE accountId = :accountId and id = :remoteId")
+    @Query(QUERY_CARD_BY_REMOTE_ID)
     LiveData<FullCard> getFullCardByRemoteId(final long accountId, final long remoteId);
 
-    @Query("SELECT * FROM card WHERE accountId = :accountId and id = :remoteId")
+    @Query(QUERY_CARD_BY_REMOTE_ID)
     Card getCardByRemoteIdDirectly(long accountId, long remoteId);
 
     @Transaction
@@ -100,6 +125,44 @@ public interface CardDao extends GenericDao<Card> {
     @Query("SELECT coalesce(MAX(`order`), -1) FROM card c WHERE  stackId = :localStackId and status <> 3")
     Integer getHighestOrderInStack(Long localStackId);
 
+    @Query("SELECT coalesce(MAX(localOrder), 0) FROM card WHERE stackId = :localStackId and status <> 3")
+    long getHighestLocalOrderInStack(long localStackId);
+
+    /**
+     * @return the position of a card with the given <code>localOrder</code> among the not archived cards of the stack, like they are numbered by the server
+     */
+    @Query("SELECT count(*) FROM card WHERE stackId = :localStackId and status <> 3 and archived = 0 and localOrder < :localOrder")
+    int countCardsBeforeLocalOrderInStack(long localStackId, long localOrder);
+
+    /**
+     * @return whether a card with the given <code>localOrder</code> and server <code>order</code> would not be sorted unambiguously by the server
+     * among the other cards of the stack, because one of them which is sorted before it locally does not have a lower order or one after it does not have a higher order
+     */
+    @Query("SELECT EXISTS (SELECT 1 FROM card WHERE stackId = :localStackId and status <> 3 and archived = 0 and localId <> :localCardId " +
+            "and ((localOrder < :localOrder and `order` >= :order) or (localOrder > :localOrder and `order` <= :order)))")
+    boolean hasServerOrderConflictInStack(long localStackId, long localCardId, long localOrder, int order);
+
+    @Query("SELECT EXISTS (SELECT 1 FROM card WHERE stackId = :localStackId and status <> 1)")
+    boolean hasLocallyChangedCardsInStack(long localStackId);
+
+    @Query("SELECT * FROM card WHERE stackId = :localStackId and status <> 3 order by `order`, createdAt, localId asc")
+    List<Card> getCardsForStackInServerOrderDirectly(long localStackId);
+
+    @Query("UPDATE card SET localOrder = :localOrder WHERE localId = :localCardId")
+    void updateLocalOrder(long localCardId, long localOrder);
+
+    @Query("SELECT c.* FROM card c INNER JOIN stack s ON c.stackId = s.localId WHERE c.accountId = :accountId and s.boardId = :localBoardId and c.status <> 3 and s.status <> 3 order by c.stackId, c.localOrder, c.createdAt") // not LOCAL_DELETED
+    List<Card> getNotDeletedCardsOfBoardDirectly(long accountId, long localBoardId);
+
+    @Query("UPDATE card SET `order` = :order WHERE accountId = :accountId and id = :remoteId")
+    void updateOrderByRemoteId(long accountId, long remoteId, int order);
+
+    /**
+     * Marks a moved card as up to date unless it has been changed or moved again in the meantime.
+     */
+    @Query("UPDATE card SET status = 1, lastModified = :lastModified, lastModifiedLocal = :lastModified WHERE localId = :localCardId and status = 4 and stackId = :localStackId and localOrder = :localOrder")
+    void markMovedCardAsUpToDate(long localCardId, long localStackId, long localOrder, Instant lastModified);
+
     @Query("SELECT c.stackId FROM card c WHERE  localId = :localCardId")
     Long getLocalStackIdByLocalCardId(Long localCardId);
 
@@ -116,9 +179,9 @@ public interface CardDao extends GenericDao<Card> {
 
     @Transaction
     @Query(QUERY_UPCOMING_CARDS)
-    LiveData<List<FullCard>> getUpcomingCards();
+    LiveData<List<FullUpcomingCard>> getUpcomingCards();
 
     @Transaction
     @Query(QUERY_UPCOMING_CARDS)
-    List<FullCard> getUpcomingCardsDirectly();
+    List<FullUpcomingCard> getUpcomingCardsDirectly();
 }
\ No newline at end of file
@@ -13,14 +13,18 @@ import it.niedermann.nextcloud.deck.model.ocs.comment.full.FullDeckComment;
 @Dao
 public interface CommentDao extends GenericDao<DeckComment> {
 
+    String QUERY_LOCALLY_CHANGED_COMMENTS_FOR_CARD = "SELECT * FROM DeckComment WHERE accountId = :accountId and objectId = :localCardId " +
+            "and (status<>1 or id is null or lastModified <> lastModifiedLocal) order by localId asc";
+
+    String QUERY_COMMENTS_FOR_CARD = "SELECT * FROM DeckComment where objectId = :localCardId order by creationDateTime desc, localId desc";
+
     @Query("SELECT * FROM DeckComment where accountId = :accountId and id = :remoteId")
     DeckComment getCommentByRemoteIdDirectly(long accountId, Long remoteId);
 
     @Query("SELECT * FROM DeckComment where accountId = :accountId and localId = :id")
     DeckComment getCommentByLocalIdDirectly(long accountId, Long id);
 
-    @Query("SELECT * FROM DeckComment WHERE accountId = :accountId and objectId = :localCardId " +
-            "and (status<>1 or id is null or lastModified <> lastModifiedLocal) order by localId asc")
+    @Query(QUERY_LOCALLY_CHANGED_COMMENTS_FOR_CARD)
     List<DeckComment> getLocallyChangedCommentsByLocalCardIdDirectly(long accountId, long localCardId);
 
     @Query("SELECT * FROM DeckComment WHERE accountId = :accountId and (status<>1 or id is null or lastModified <> lastModifiedLocal)")
@@ -36,7 +40,7 @@ public interface CommentDao extends GenericDao<DeckComment> {
     LiveData<List<DeckComment>> getCommentByLocalCardId(Long localCardId);
 
     @Transaction
-    @Query("SELECT * FROM DeckComment where objectId = :localCardId order by creationDateTime desc, localId desc")
+    @Query(QUERY_COMMENTS_FOR_CARD)
     LiveData<List<FullDeckComment>> getFullCommentByLocalCardId(Long localCardId);
 
     @Query("SELECT id FROM DeckComment where localId = :localId")
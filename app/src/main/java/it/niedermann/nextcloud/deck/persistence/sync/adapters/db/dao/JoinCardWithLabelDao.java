@@ -9,6 +9,9 @@ import it.niedermann.nextcloud.deck.model.JoinCardWithLabel;
 
 @Dao
 public interface JoinCardWithLabelDao extends GenericDao<JoinCardWithLabel> {
+
+    String QUERY_NOT_DELETED_JOINS_FOR_CARDS = "select * from joincardwithlabel WHERE cardId IN (:localCardIds) and status <> 3"; // not LOCAL_DELETED
+
     @Query("DELETE FROM joincardwithlabel WHERE  cardId = :localCardId and status == 1") // only if UP_TO_DATE
     void deleteByCardId(long localCardId);
 
@@ -21,6 +24,15 @@ public interface JoinCardWithLabelDao extends GenericDao<JoinCardWithLabel> {
     @Query("select labelId from joincardwithlabel WHERE cardId = :localCardId and labelId IN (:localLabelIds) and status <> 3") // not LOCAL_DELETED
     List<Long> filterDeleted(long localCardId, List<Long> localLabelIds);
 
+    @Query(QUERY_NOT_DELETED_JOINS_FOR_CARDS)
+    List<JoinCardWithLabel> getNotDeletedJoinsForCardsDirectly(List<Long> localCardIds);
+
+    @Query("select j.* from joincardwithlabel j " +
+            "inner join card c on j.cardId = c.localId " +
+            "inner join stack s on c.stackId = s.localId " +
+            "WHERE s.boardId = :localBoardId and j.status <> 3 and c.status <> 3") // not LOCAL_DELETED
+    List<JoinCardWithLabel> getNotDeletedJoinsForBoardDirectly(long localBoardId);
+
     @Query("select * from joincardwithlabel WHERE cardId = :localCardId and labelId = :localLabelId")
     JoinCardWithLabel getJoin(Long localLabelId, Long localCardId);
 
@@ -42,6 +54,9 @@ public interface JoinCardWithLabelDao extends GenericDao<JoinCardWithLabel> {
     @Query("select j.* from joincardwithlabel j inner join card c on j.cardId = c.localId  WHERE c.stackId = :localStackId and j.status <> 1") // not UP_TO_DATE
     List<JoinCardWithLabel> getAllChangedJoinsForStack(Long localStackId);
 
+    @Query("select * from joincardwithlabel WHERE cardId = :localCardId and status <> 1") // not UP_TO_DATE
+    List<JoinCardWithLabel> getAllChangedJoinsForCard(long localCardId);
+
     @Query("delete from joincardwithlabel " +
             "where cardId = (select c.localId from card c where c.accountId = :accountId and c.id = :remoteCardId) " +
             "and labelId = (select l.localId from label l where l.accountId = :accountId and l.id = :remoteLabelId)")
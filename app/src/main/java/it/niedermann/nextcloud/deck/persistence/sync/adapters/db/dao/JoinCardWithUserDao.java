@@ -9,6 +9,9 @@ import it.niedermann.nextcloud.deck.model.JoinCardWithUser;
 
 @Dao
 public interface JoinCardWithUserDao extends GenericDao<JoinCardWithUser> {
+
+    String QUERY_NOT_DELETED_JOINS_FOR_CARDS = "select * from joincardwithuser WHERE cardId IN (:localCardIds) and status <> 3"; // not LOCAL_DELETED
+
     @Query("DELETE FROM joincardwithuser WHERE cardId = :localId and status=1") // 1 = UP_TO_DATE
     void deleteByCardId(long localId);
 
@@ -34,6 +37,13 @@ public interface JoinCardWithUserDao extends GenericDao<JoinCardWithUser> {
             "AND j.status <> 1") // not UP_TO_DATE
     List<JoinCardWithUser> getChangedJoinsWithRemoteIDsForStack(Long localStackId);
 
+    @Query("select u.localId as userId, c.id as cardId, j.status from joincardwithuser j " +
+            "inner join card c on j.cardId = c.localId " +
+            "inner join user u on j.userId = u.localId " +
+            "WHERE j.cardId = :localCardId " +
+            "AND j.status <> 1") // not UP_TO_DATE
+    List<JoinCardWithUser> getChangedJoinsWithRemoteIDsForCard(long localCardId);
+
     @Query("delete from joincardwithuser " +
             "where cardId = (select c.localId from card c where c.accountId = :accountId and c.id = :remoteCardId) " +
             "and userId = (select u.localId from user u where u.accountId = :accountId and u.uid = :userUid)")
@@ -41,4 +51,13 @@ public interface JoinCardWithUserDao extends GenericDao<JoinCardWithUser> {
 
     @Query("select userId from joincardwithuser WHERE cardId = :localCardId and userId IN (:assignedUserIDs) and status <> 3") // not LOCAL_DELETED
     List<Long> filterDeleted(long localCardId, List<Long> assignedUserIDs);
+
+    @Query(QUERY_NOT_DELETED_JOINS_FOR_CARDS)
+    List<JoinCardWithUser> getNotDeletedJoinsForCardsDirectly(List<Long> localCardIds);
+
+    @Query("select j.* from joincardwithuser j " +
+            "inner join card c on j.cardId = c.localId " +
+            "inner join stack s on c.stackId = s.localId " +
+            "WHERE s.boardId = :localBoardId and j.status <> 3 and c.status <> 3") // not LOCAL_DELETED
+    List<JoinCardWithUser> getNotDeletedJoinsForBoardDirectly(long localBoardId);
 }
\ No newline at end of file
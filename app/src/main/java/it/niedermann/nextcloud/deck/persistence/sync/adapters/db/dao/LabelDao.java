@@ -11,6 +11,8 @@ import it.niedermann.nextcloud.deck.model.Label;
 @Dao
 public interface LabelDao extends GenericDao<Label> {
 
+    String QUERY_NOT_DELETED_LABELS_FOR_CARDS = "SELECT * FROM label WHERE localId IN (select labelId from joincardwithlabel where cardId IN (:localCardIds) and status <> 3) and status <> 3 order by title asc"; // not LOCAL_DELETED
+
 //    @Query("SELECT * FROM label WHERE stackId = :localStackId")
 //    LiveData<List<Label>> getLabelsForStack(final long localStackId);
 
@@ -26,6 +28,9 @@ public interface LabelDao extends GenericDao<Label> {
     @Query("SELECT * FROM label WHERE localId IN (:labelIDs) and status <> 3 order by title asc") // not LOCAL_DELETED
     List<Label> getLabelsByIdsDirectly(List<Long> labelIDs);
 
+    @Query(QUERY_NOT_DELETED_LABELS_FOR_CARDS)
+    List<Label> getNotDeletedLabelsForCardsDirectly(List<Long> localCardIds);
+
     @Query("SELECT * FROM label WHERE localId = :localLabelID")
     Label getLabelsByIdDirectly(final long localLabelID);
 
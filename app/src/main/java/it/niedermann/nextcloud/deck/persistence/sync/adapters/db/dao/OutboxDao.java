@@ -0,0 +1,40 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.model.outbox.OutboxEntry;
+
+@Dao
+public interface OutboxDao extends GenericDao<OutboxEntry> {
+
+    /**
+     * The outbox is append-only, entries of the same entity are coalesced when it gets drained.
+     */
+    @Insert
+    long append(OutboxEntry entry);
+
+    /**
+     * Ordered by the {@link it.niedermann.nextcloud.deck.model.enums.EOutboxEntityType}, which reflects the order in which they need to be pushed.
+     */
+    @Query("SELECT * FROM OutboxEntry ORDER BY accountId, entityType, localId")
+    List<OutboxEntry> getAllDirectly();
+
+    @Query("SELECT coalesce(MAX(localId), 0) FROM OutboxEntry")
+    long getMaxLocalIdDirectly();
+
+    @Query("SELECT count(*) FROM OutboxEntry WHERE accountId = :accountId")
+    int countForAccountDirectly(long accountId);
+
+    @Query("DELETE FROM OutboxEntry WHERE localId IN (:localIds)")
+    void deleteByLocalIds(List<Long> localIds);
+
+    @Query("DELETE FROM OutboxEntry WHERE accountId = :accountId AND localId <= :maxLocalId")
+    void deleteForAccount(long accountId, long maxLocalId);
+
+    @Query("UPDATE OutboxEntry SET attempts = attempts + 1 WHERE localId IN (:localIds)")
+    void incrementAttempts(List<Long> localIds);
+}
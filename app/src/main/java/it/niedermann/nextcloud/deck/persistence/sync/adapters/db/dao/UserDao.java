@@ -11,6 +11,8 @@ import it.niedermann.nextcloud.deck.model.User;
 @Dao
 public interface UserDao extends GenericDao<User> {
 
+    String QUERY_NOT_DELETED_USERS_FOR_CARDS = "SELECT * FROM user WHERE localId IN (select userId from joincardwithuser where cardId IN (:localCardIds) and status <> 3) and status <> 3"; // not LOCAL_DELETED
+
     @Query("SELECT * FROM user WHERE accountId = :accountId")
     LiveData<List<User>> getUsersForAccount(final long accountId);
 
@@ -109,4 +111,7 @@ public interface UserDao extends GenericDao<User> {
 
     @Query("SELECT * FROM user WHERE localId IN (:userIDs) and status <> 3") // not LOCAL_DELETED
     List<User> getUsersByIdsDirectly(List<Long> userIDs);
+
+    @Query(QUERY_NOT_DELETED_USERS_FOR_CARDS)
+    List<User> getNotDeletedUsersForCardsDirectly(List<Long> localCardIds);
 }
\ No newline at end of file
@@ -4,9 +4,9 @@ import androidx.room.Dao;
 import androidx.room.Query;
 import androidx.room.Transaction;
 
+import java.time.Instant;
 import java.util.List;
 
-import it.niedermann.nextcloud.deck.model.widget.filter.EWidgetType;
 import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidget;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.GenericDao;
 
@@ -25,7 +25,7 @@ public interface FilterWidgetDao extends GenericDao<FilterWidget> {
     List<Integer> getFilterWidgetIdsByType(int type);
 
     @Transaction
-    @Query("SELECT DISTINCT w.widgetType " +
+    @Query("SELECT DISTINCT w.id " +
             "FROM FilterWidget w " +
             "LEFT JOIN FilterWidgetAccount a ON w.id = a.filterWidgetId " +
             "LEFT JOIN FilterWidgetBoard b ON a.id = b.filterAccountId " +
@@ -33,12 +33,24 @@ public interface FilterWidgetDao extends GenericDao<FilterWidget> {
             "LEFT JOIN FilterWidgetUser u ON a.id = u.filterAccountId " +
             "LEFT JOIN FilterWidgetProject p ON a.id = p.filterAccountId " +
             "LEFT JOIN FilterWidgetLabel l ON b.id = l.filterBoardId " +
-            "WHERE (:changedEntityType = 'ACCOUNT' AND (a.accountId = :localIdOfChangedEntity OR a.accountId IS NULL)) " +
-            "OR (:changedEntityType = 'BOARD' AND (b.boardId = :localIdOfChangedEntity OR b.boardId IS NULL)) " +
-            "OR (:changedEntityType = 'STACK' AND (s.stackId = :localIdOfChangedEntity OR s.stackId IS NULL)) " +
-            "OR (:changedEntityType = 'USER' AND (u.userId = :localIdOfChangedEntity OR u.userId IS NULL)) " +
-            "OR (:changedEntityType = 'PROJECT' AND (p.projectId = :localIdOfChangedEntity OR p.projectId IS NULL)) " +
-            "OR (:changedEntityType = 'LABEL' AND (l.labelId = :localIdOfChangedEntity OR l.labelId IS NULL)) "
+            "WHERE (:changedEntityType = 'ACCOUNT' AND (a.accountId IN (:localIdsOfChangedEntities) OR a.accountId IS NULL)) " +
+            "OR (:changedEntityType = 'BOARD' AND (b.boardId IN (:localIdsOfChangedEntities) OR b.boardId IS NULL)) " +
+            "OR (:changedEntityType = 'STACK' AND (s.stackId IN (:localIdsOfChangedEntities) OR s.stackId IS NULL)) " +
+            "OR (:changedEntityType = 'USER' AND (u.userId IN (:localIdsOfChangedEntities) OR u.userId IS NULL)) " +
+            "OR (:changedEntityType = 'PROJECT' AND (p.projectId IN (:localIdsOfChangedEntities) OR p.projectId IS NULL)) " +
+            "OR (:changedEntityType = 'LABEL' AND (l.labelId IN (:localIdsOfChangedEntities) OR l.labelId IS NULL)) "
     )
-    List<EWidgetType> getChangedListTypesByEntity(String changedEntityType, Long localIdOfChangedEntity);
+    List<Integer> getChangedFilterWidgetIdsByEntities(String changedEntityType, List<Long> localIdsOfChangedEntities);
+
+    @Query("SELECT COUNT(*) FROM FilterWidget")
+    int countFilterWidgets();
+
+    @Query("SELECT * FROM FilterWidget WHERE id IN (:filterWidgetIds)")
+    List<FilterWidget> getFilterWidgetsByIdsDirectly(List<Integer> filterWidgetIds);
+
+    @Query("UPDATE FilterWidget SET resultComputedAt = :resultComputedAt WHERE id = :filterWidgetId")
+    void setResultComputedAt(int filterWidgetId, Instant resultComputedAt);
+
+    @Query("UPDATE FilterWidget SET resultComputedAt = NULL WHERE id IN (:filterWidgetIds)")
+    void invalidateResults(List<Integer> filterWidgetIds);
 }
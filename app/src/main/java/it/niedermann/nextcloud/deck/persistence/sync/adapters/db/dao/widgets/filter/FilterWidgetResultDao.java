@@ -0,0 +1,29 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.widgets.filter;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.model.Board;
+import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetResult;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.GenericDao;
+
+@Dao
+public interface FilterWidgetResultDao extends GenericDao<FilterWidgetResult> {
+    @Query("DELETE FROM FilterWidgetResult WHERE filterWidgetId = :filterWidgetId")
+    void deleteByFilterWidgetId(int filterWidgetId);
+
+    @Transaction
+    @Query("SELECT c.* FROM FilterWidgetResult r INNER JOIN Card c ON c.localId = r.cardId WHERE r.filterWidgetId = :filterWidgetId")
+    List<FullCard> getFullCardsByFilterWidgetIdDirectly(int filterWidgetId);
+
+    @Query("SELECT DISTINCT s.* FROM FilterWidgetResult r INNER JOIN Card c ON c.localId = r.cardId INNER JOIN Stack s ON s.localId = c.stackId WHERE r.filterWidgetId = :filterWidgetId")
+    List<Stack> getStacksByFilterWidgetIdDirectly(int filterWidgetId);
+
+    @Query("SELECT DISTINCT b.* FROM FilterWidgetResult r INNER JOIN Card c ON c.localId = r.cardId INNER JOIN Stack s ON s.localId = c.stackId INNER JOIN Board b ON b.localId = s.boardId WHERE r.filterWidgetId = :filterWidgetId")
+    List<Board> getBoardsByFilterWidgetIdDirectly(int filterWidgetId);
+}
@@ -0,0 +1,20 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Stores the ETag of the stacks endpoint per board to send it as <code>If-None-Match</code> header on the next synchronization
+ */
+public class Migration_31_32 extends Migration {
+
+    public Migration_31_32() {
+        super(31, 32);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("ALTER TABLE `Board` ADD `stacksEtag` TEXT");
+    }
+}
@@ -0,0 +1,43 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Adds full text indices for the title and description of cards and the message of comments.
+ * The triggers are the same Room generates for external content FTS tables, the indices get filled with the existing rows.
+ */
+public class Migration_32_33 extends Migration {
+
+    public Migration_32_33() {
+        super(32, 33);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `CardFts` USING FTS4(`title` TEXT, `description` TEXT, tokenize=unicode61, content=`Card`)");
+        createContentSyncTriggers(database, "CardFts", "Card", "title", "description");
+        database.execSQL("INSERT INTO `CardFts`(`CardFts`) VALUES ('rebuild')");
+
+        database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `DeckCommentFts` USING FTS4(`message` TEXT, tokenize=unicode61, content=`DeckComment`)");
+        createContentSyncTriggers(database, "DeckCommentFts", "DeckComment", "message");
+        database.execSQL("INSERT INTO `DeckCommentFts`(`DeckCommentFts`) VALUES ('rebuild')");
+    }
+
+    private static void createContentSyncTriggers(@NonNull SupportSQLiteDatabase database, @NonNull String ftsTable, @NonNull String contentTable, @NonNull String... columns) {
+        final var columnNames = new StringBuilder();
+        final var newValues = new StringBuilder();
+        for (String column : columns) {
+            columnNames.append(", `").append(column).append("`");
+            newValues.append(", NEW.`").append(column).append("`");
+        }
+        final String prefix = "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + ftsTable + "_";
+        final String delete = " BEGIN DELETE FROM `" + ftsTable + "` WHERE `docid`=OLD.`rowid`; END";
+        final String insert = " BEGIN INSERT INTO `" + ftsTable + "`(`docid`" + columnNames + ") VALUES (NEW.`rowid`" + newValues + "); END";
+        database.execSQL(prefix + "BEFORE_UPDATE BEFORE UPDATE ON `" + contentTable + "`" + delete);
+        database.execSQL(prefix + "BEFORE_DELETE BEFORE DELETE ON `" + contentTable + "`" + delete);
+        database.execSQL(prefix + "AFTER_UPDATE AFTER UPDATE ON `" + contentTable + "`" + insert);
+        database.execSQL(prefix + "AFTER_INSERT AFTER INSERT ON `" + contentTable + "`" + insert);
+    }
+}
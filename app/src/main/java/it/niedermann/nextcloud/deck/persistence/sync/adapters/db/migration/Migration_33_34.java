@@ -0,0 +1,32 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Replaces single column indices on cards, card joins and comments with composite indices matching the hot queries:
+ * Cards of a stack sorted by <code>order</code>, upcoming cards sorted by <code>dueDate</code> and joins / comments probed by card and status.
+ */
+public class Migration_33_34 extends Migration {
+
+    public Migration_33_34() {
+        super(33, 34);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("DROP INDEX IF EXISTS `index_Card_stackId`");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_Card_stackId_order_createdAt` ON `Card` (`stackId`, `order`, `createdAt`)");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_Card_archived_dueDate` ON `Card` (`archived`, `dueDate`)");
+
+        database.execSQL("DROP INDEX IF EXISTS `index_JoinCardWithLabel_cardId`");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_JoinCardWithLabel_cardId_status_labelId` ON `JoinCardWithLabel` (`cardId`, `status`, `labelId`)");
+
+        database.execSQL("DROP INDEX IF EXISTS `index_JoinCardWithUser_cardId`");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_JoinCardWithUser_cardId_status_userId` ON `JoinCardWithUser` (`cardId`, `status`, `userId`)");
+
+        database.execSQL("DROP INDEX IF EXISTS `index_DeckComment_objectId`");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_DeckComment_objectId_status` ON `DeckComment` (`objectId`, `status`)");
+    }
+}
@@ -0,0 +1,24 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Adds the outbox which records pending local changes, so they can be pushed in batches instead of one request per change
+ */
+public class Migration_34_35 extends Migration {
+
+    public Migration_34_35() {
+        super(34, 35);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("CREATE TABLE IF NOT EXISTS `OutboxEntry` (`localId` INTEGER PRIMARY KEY AUTOINCREMENT, `accountId` INTEGER NOT NULL, `localBoardId` INTEGER NOT NULL, `localStackId` INTEGER, `entityType` INTEGER NOT NULL, `localEntityId` INTEGER NOT NULL, `createdAt` INTEGER NOT NULL, `attempts` INTEGER NOT NULL, " +
+                "FOREIGN KEY(`accountId`) REFERENCES `Account`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                "FOREIGN KEY(`localBoardId`) REFERENCES `Board`(`localId`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_OutboxEntry_accountId_entityType_localEntityId` ON `OutboxEntry` (`accountId`, `entityType`, `localEntityId`)");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_OutboxEntry_localBoardId` ON `OutboxEntry` (`localBoardId`)");
+    }
+}
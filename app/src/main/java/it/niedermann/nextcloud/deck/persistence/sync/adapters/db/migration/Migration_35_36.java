@@ -0,0 +1,24 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Adds a snapshot of the cards matching each filter widget, so widgets do not need to evaluate their filters on each update
+ */
+public class Migration_35_36 extends Migration {
+
+    public Migration_35_36() {
+        super(35, 36);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("ALTER TABLE `FilterWidget` ADD COLUMN `resultComputedAt` INTEGER");
+        database.execSQL("CREATE TABLE IF NOT EXISTS `FilterWidgetResult` (`filterWidgetId` INTEGER NOT NULL, `cardId` INTEGER NOT NULL, PRIMARY KEY(`filterWidgetId`, `cardId`), " +
+                "FOREIGN KEY(`filterWidgetId`) REFERENCES `FilterWidget`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE , " +
+                "FOREIGN KEY(`cardId`) REFERENCES `Card`(`localId`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `idx_FilterWidgetResult_cardId` ON `FilterWidgetResult` (`cardId`)");
+    }
+}
@@ -0,0 +1,27 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Adds a local sort key for cards with gaps between siblings, so a card can be moved without renumbering the others.
+ * It is initialized with the rank of each card in its stack, sorted like before by <code>order</code> and <code>createdAt</code>.
+ */
+public class Migration_36_37 extends Migration {
+
+    public Migration_36_37() {
+        super(36, 37);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("ALTER TABLE `Card` ADD COLUMN `localOrder` INTEGER NOT NULL DEFAULT 0");
+        database.execSQL("UPDATE `Card` SET `localOrder` = 65536 * (SELECT count(*) FROM `Card` o WHERE o.`stackId` = `Card`.`stackId` AND (" +
+                "o.`order` < `Card`.`order` " +
+                "OR (o.`order` = `Card`.`order` AND ifnull(o.`createdAt`, 0) < ifnull(`Card`.`createdAt`, 0)) " +
+                "OR (o.`order` = `Card`.`order` AND ifnull(o.`createdAt`, 0) = ifnull(`Card`.`createdAt`, 0) AND o.`localId` < `Card`.`localId`)))");
+        database.execSQL("DROP INDEX IF EXISTS `index_Card_stackId_order_createdAt`");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_Card_stackId_localOrder_createdAt` ON `Card` (`stackId`, `localOrder`, `createdAt`)");
+    }
+}
@@ -0,0 +1,39 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.regex.Pattern;
+
+public class FtsUtil {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private FtsUtil() {
+        throw new UnsupportedOperationException("This class must not be instantiated.");
+    }
+
+    /**
+     * Converts user input into a <code>MATCH</code> expression which requires all words to be present.
+     * Every word is matched as prefix, so results appear while the user is still typing.
+     * Words are quoted to prevent them from being interpreted as FTS operators like <code>OR</code> or <code>NOT</code>.
+     *
+     * @return <code>null</code> if the input does not contain any searchable word
+     */
+    @Nullable
+    public static String toMatchQuery(@Nullable String input) {
+        if (input == null) {
+            return null;
+        }
+        final var query = new StringBuilder();
+        for (String token : TOKEN_SEPARATOR.split(input.trim())) {
+            if (!token.isEmpty()) {
+                if (query.length() > 0) {
+                    query.append(' ');
+                }
+                query.append('"').append(token).append("*\"");
+            }
+        }
+        return query.length() == 0 ? null : query.toString();
+    }
+}
@@ -9,7 +9,8 @@ import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.Observer;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+
+import it.niedermann.nextcloud.deck.util.DeckExecutors;
 
 public class LiveDataHelper {
 
@@ -17,7 +18,7 @@ public class LiveDataHelper {
         throw new UnsupportedOperationException("This class must not be instantiated.");
     }
 
-    private static final ExecutorService executor = Executors.newCachedThreadPool();
+    private static final ExecutorService executor = DeckExecutors.database();
 
     public static <T> LiveData<T> interceptLiveData(LiveData<T> data, DataChangeProcessor<T> onDataChange) {
         MediatorLiveData<T> ret = new MediatorLiveData<>();
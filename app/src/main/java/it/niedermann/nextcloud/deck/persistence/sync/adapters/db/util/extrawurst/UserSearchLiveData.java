@@ -12,20 +12,20 @@ import it.niedermann.nextcloud.deck.model.User;
 import it.niedermann.nextcloud.deck.model.enums.DBStatus;
 import it.niedermann.nextcloud.deck.model.ocs.user.OcsUser;
 import it.niedermann.nextcloud.deck.model.ocs.user.OcsUserList;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
 
 public class UserSearchLiveData extends MediatorLiveData<List<User>> implements Debouncer.Callback<Long> {
 
     private static final int DEBOUNCE_TIME = 300; // ms
     private final DataBaseAdapter db;
-    private final ServerAdapter server;
+    private final IServerAdapter server;
     long accountId;
     String searchTerm;
     long notYetAssignedInACL;
     private final Debouncer<Long> debouncer = new Debouncer<>(this, DEBOUNCE_TIME);
 
-    public UserSearchLiveData(DataBaseAdapter db, ServerAdapter server) {
+    public UserSearchLiveData(DataBaseAdapter db, IServerAdapter server) {
         this.db = db;
         this.server = server;
     }
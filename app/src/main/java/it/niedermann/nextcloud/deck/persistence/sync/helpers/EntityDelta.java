@@ -0,0 +1,157 @@
+package it.niedermann.nextcloud.deck.persistence.sync.helpers;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.model.interfaces.IRemoteEntity;
+
+/**
+ * Difference between two states of a list of entities, computed in linear time by indexing the entities
+ * by <code>(accountId, localId)</code> and <code>(accountId, remoteId)</code>.
+ * <p>
+ * Two entities are considered the same if both have a local ID and those are equal, otherwise if their remote IDs are equal.
+ * In both cases they need to belong to the same account.
+ */
+public class EntityDelta<T extends IRemoteEntity> {
+
+    @NonNull
+    private final List<T> added;
+    @NonNull
+    private final List<T> removed;
+    @NonNull
+    private final List<T> changed;
+
+    private EntityDelta(@NonNull List<T> added, @NonNull List<T> removed, @NonNull List<T> changed) {
+        this.added = added;
+        this.removed = removed;
+        this.changed = changed;
+    }
+
+    @NonNull
+    public static <T extends IRemoteEntity> EntityDelta<T> between(@Nullable Collection<T> before, @Nullable Collection<T> after) {
+        final Collection<T> safeBefore = before == null ? Collections.emptyList() : before;
+        final Collection<T> safeAfter = after == null ? Collections.emptyList() : after;
+        final Index<T> beforeIndex = new Index<>(safeBefore);
+        final Index<T> afterIndex = new Index<>(safeAfter);
+
+        final List<T> added = new ArrayList<>();
+        final List<T> changed = new ArrayList<>();
+        for (T entity : safeAfter) {
+            if (entity == null) {
+                continue;
+            }
+            final T previous = beforeIndex.find(entity);
+            if (previous == null) {
+                added.add(entity);
+            } else if (!Objects.equals(previous.getEtag(), entity.getEtag()) || !Objects.equals(previous.getLastModified(), entity.getLastModified())) {
+                changed.add(entity);
+            }
+        }
+
+        final List<T> removed = new ArrayList<>();
+        for (T entity : safeBefore) {
+            if (entity != null && afterIndex.find(entity) == null) {
+                removed.add(entity);
+            }
+        }
+        return new EntityDelta<>(added, removed, changed);
+    }
+
+    /**
+     * @return entities of <code>after</code> which are missing in <code>before</code>
+     */
+    @NonNull
+    public List<T> getAdded() {
+        return added;
+    }
+
+    /**
+     * @return entities of <code>before</code> which are missing in <code>after</code>
+     */
+    @NonNull
+    public List<T> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return entities of <code>after</code> which are also contained in <code>before</code>, but with a different etag or modification date
+     */
+    @NonNull
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    private static class Index<T extends IRemoteEntity> {
+
+        private final Map<Key, T> byLocalId = new HashMap<>();
+        private final Map<Key, T> byRemoteId = new HashMap<>();
+        /**
+         * Entities with a remote ID but without a local ID, which can be matched by any entity with the same remote ID
+         */
+        private final Map<Key, T> byRemoteIdWithoutLocalId = new HashMap<>();
+
+        private Index(@NonNull Collection<T> entities) {
+            for (T entity : entities) {
+                if (entity == null) {
+                    DeckLog.error("Entry in list is null! skipping...");
+                    continue;
+                }
+                if (entity.getLocalId() != null) {
+                    byLocalId.putIfAbsent(new Key(entity.getAccountId(), entity.getLocalId()), entity);
+                }
+                if (entity.getId() != null) {
+                    final Key key = new Key(entity.getAccountId(), entity.getId());
+                    byRemoteId.putIfAbsent(key, entity);
+                    if (entity.getLocalId() == null) {
+                        byRemoteIdWithoutLocalId.putIfAbsent(key, entity);
+                    }
+                }
+            }
+        }
+
+        @Nullable
+        private T find(@NonNull T entity) {
+            final Long remoteId = entity.getId();
+            if (entity.getLocalId() != null) {
+                final T match = byLocalId.get(new Key(entity.getAccountId(), entity.getLocalId()));
+                if (match != null || remoteId == null) {
+                    return match;
+                }
+                return byRemoteIdWithoutLocalId.get(new Key(entity.getAccountId(), remoteId));
+            }
+            return remoteId == null ? null : byRemoteId.get(new Key(entity.getAccountId(), remoteId));
+        }
+    }
+
+    private static class Key {
+        private final long accountId;
+        private final long id;
+
+        private Key(long accountId, long id) {
+            this.accountId = accountId;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return accountId == key.accountId && id == key.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, id);
+        }
+    }
+}
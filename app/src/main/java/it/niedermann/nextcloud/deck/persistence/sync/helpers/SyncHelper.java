@@ -7,172 +7,283 @@ import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
 
 import java.net.HttpURLConnection;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Map;
 
+import io.reactivex.Completable;
+import io.reactivex.CompletableSource;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import io.reactivex.exceptions.CompositeException;
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.api.ResponseCallback;
 import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.enums.DBStatus;
 import it.niedermann.nextcloud.deck.model.interfaces.IRemoteEntity;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.AbstractSyncDataProvider;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.IRelationshipProvider;
 
 public class SyncHelper {
     @NonNull
-    private final ServerAdapter serverAdapter;
+    private final IServerAdapter serverAdapter;
     @NonNull
     private final DataBaseAdapter dataBaseAdapter;
     @Nullable
     private final Instant lastSync;
     private final boolean etagsEnabled;
+    @NonNull
+    private SyncStatistics statistics;
 
     private Account account;
     private long accountId;
     private ResponseCallback<Boolean> responseCallback;
 
-    public SyncHelper(@NonNull ServerAdapter serverAdapter, @NonNull DataBaseAdapter dataBaseAdapter, @Nullable Instant lastSync) {
+    public SyncHelper(@NonNull IServerAdapter serverAdapter, @NonNull DataBaseAdapter dataBaseAdapter, @Nullable Instant lastSync) {
         this.serverAdapter = serverAdapter;
         this.dataBaseAdapter = dataBaseAdapter;
         this.lastSync = lastSync;
         // check only once per sync
         this.etagsEnabled = serverAdapter.isEtagsEnabled();
+        this.statistics = new SyncStatistics("ad hoc synchronization", null);
     }
 
     // Sync Server -> App
     public <T extends IRemoteEntity> void doSyncFor(@NonNull final AbstractSyncDataProvider<T> provider) {
-        provider.registerChildInParent(provider);
-        provider.getAllFromServer(serverAdapter, dataBaseAdapter, accountId, new ResponseCallback<>(account) {
-            @Override
-            public void onResponse(List<T> response) {
-                if (response != null) {
-                    provider.goingDeeper();
-                    for (T entityFromServer : response) {
-                        if (entityFromServer == null) {
-                            // see https://github.com/stefan-niedermann/nextcloud-deck/issues/574
-                            DeckLog.error("Skipped null value from server for DataProvider:", provider.getClass().getSimpleName());
-                            continue;
-                        }
-                        entityFromServer.setAccountId(accountId);
-                        T existingEntity = provider.getSingleFromDB(dataBaseAdapter, accountId, entityFromServer);
-
-                        if (existingEntity == null) {
-                            provider.createInDB(dataBaseAdapter, accountId, entityFromServer);
-                        } else {
-                            //TODO: how to handle deletes? what about archived?
-                            if (existingEntity.getStatus() != DBStatus.UP_TO_DATE.getId()) {
-                                DeckLog.warn("Conflicting changes on entity:", existingEntity);
-                                // TODO: what to do?
-                            } else {
-                                if (etagsEnabled && entityFromServer.getEtag() != null && entityFromServer.getEtag().equals(existingEntity.getEtag())) {
-                                    DeckLog.log("[" + provider.getClass().getSimpleName() + "] ETags do match! skipping " + existingEntity.getClass().getSimpleName() + " with localId: " + existingEntity.getLocalId());
-                                    continue;
-                                }
-                                provider.updateInDB(dataBaseAdapter, accountId, applyUpdatesFromRemote(provider, existingEntity, entityFromServer, accountId), false);
-                            }
-                        }
-                        existingEntity = provider.getSingleFromDB(dataBaseAdapter, accountId, entityFromServer);
-                        provider.goDeeper(SyncHelper.this, existingEntity, entityFromServer, responseCallback);
-                    }
+        final ResponseCallback<Boolean> callback = responseCallback;
+        //noinspection ResultOfMethodCallIgnored
+        sync(provider).subscribe(callback::onResponse, throwable -> callback.onError(unwrap(throwable)));
+    }
 
-                    provider.handleDeletes(serverAdapter, dataBaseAdapter, accountId, response);
+    /**
+     * Use this to synchronize the children of an entity in {@link AbstractSyncDataProvider#goDeeper(SyncHelper, IRemoteEntity, IRemoteEntity)}.
+     *
+     * @return completes when the given <code>provider</code> and all of its children have been synchronized
+     */
+    public <T extends IRemoteEntity> Completable syncFor(@NonNull final AbstractSyncDataProvider<T> provider) {
+        return sync(provider).ignoreElement();
+    }
 
-                    provider.doneGoingDeeper(responseCallback, true);
-                } else {
-                    provider.childDone(provider, responseCallback, false);
+    /**
+     * @return emits <code>true</code> if the server delivered entities and <code>false</code> if nothing changed
+     */
+    private <T extends IRemoteEntity> Single<Boolean> sync(@NonNull final AbstractSyncDataProvider<T> provider) {
+        return getAllFromServer(provider)
+                .map(response -> applyFromServer(provider, response))
+                .flatMap(entitiesToGoDeeper -> goDeeper(provider, entitiesToGoDeeper)
+                        .andThen(Completable.fromAction(() -> provider.onSynchronized(dataBaseAdapter, accountId)))
+                        .andThen(Maybe.just(Boolean.TRUE)))
+                .toSingle(Boolean.FALSE);
+    }
+
+    /**
+     * @return the entities from the server or nothing in case the server did not deliver any or ETags say nothing has changed
+     */
+    private <T extends IRemoteEntity> Maybe<List<T>> getAllFromServer(@NonNull final AbstractSyncDataProvider<T> provider) {
+        final SyncStatistics.ProviderStatistics providerStatistics = statistics.forProvider(provider);
+        return Maybe.create(emitter -> {
+            final long start = System.nanoTime();
+            provider.getAllFromServer(serverAdapter, dataBaseAdapter, accountId, new ResponseCallback<>(account) {
+                @Override
+                public void onResponse(List<T> response) {
+                    providerStatistics.onFetched(System.nanoTime() - start, response == null ? 0 : response.size());
+                    if (response == null) {
+                        emitter.onComplete();
+                    } else {
+                        emitter.onSuccess(response);
+                    }
                 }
-            }
 
-            @Override
-            public void onError(Throwable throwable) {
-                if (throwable.getClass() == NextcloudHttpRequestFailedException.class) {
-                    final NextcloudHttpRequestFailedException requestFailedException = (NextcloudHttpRequestFailedException) throwable;
-                    if (HttpURLConnection.HTTP_NOT_MODIFIED == requestFailedException.getStatusCode()) {
-                        DeckLog.log("[" + provider.getClass().getSimpleName() + "] ETags do match! skipping this one.");
+                @Override
+                public void onError(Throwable throwable) {
+                    if (isNotModified(throwable)) {
+                        providerStatistics.onNotModified(System.nanoTime() - start);
+                        DeckLog.log("[", provider.getClass().getSimpleName(), "] ETags do match! skipping this one.");
                         // well, etags say we're fine here. no need to go deeper.
-                        provider.childDone(provider, responseCallback, false);
+                        emitter.onComplete();
                         return;
                     }
+                    super.onError(throwable);
+                    emitter.tryOnError(throwable);
                 }
-                super.onError(throwable);
-                provider.onError(responseCallback);
-                responseCallback.onError(throwable);
-            }
-        }, lastSync);
+            }, lastSync);
+        });
     }
 
-    // Sync App -> Server
-    public <T extends IRemoteEntity> void doUpSyncFor(@NonNull AbstractSyncDataProvider<T> provider) {
-        doUpSyncFor(provider, null);
-    }
-
-    public <T extends IRemoteEntity> void doUpSyncFor(@NonNull AbstractSyncDataProvider<T> provider, @Nullable CountDownLatch countDownLatch) {
-        final List<T> allFromDB = provider.getAllChangedFromDB(dataBaseAdapter, accountId, lastSync);
-        if (allFromDB != null && !allFromDB.isEmpty()) {
-            for (T entity : allFromDB) {
-                if (entity.getId() != null) {
-                    if (entity.getStatusEnum() == DBStatus.LOCAL_DELETED) {
-                        provider.deleteOnServer(serverAdapter, accountId, getDeleteCallback(provider, entity), entity, dataBaseAdapter);
-                        if (countDownLatch != null) {
-                            countDownLatch.countDown();
-                        }
+    /**
+     * Persists the given entities from the server in one transaction and removes local entities which have been deleted on the server.
+     *
+     * @return the entities whose children need to be synchronized
+     */
+    private <T extends IRemoteEntity> List<T> applyFromServer(@NonNull final AbstractSyncDataProvider<T> provider, @NonNull List<T> response) {
+        final SyncStatistics.ProviderStatistics providerStatistics = statistics.forProvider(provider);
+        final List<T> entitiesToGoDeeper = new ArrayList<>(response.size());
+        final long start = System.nanoTime();
+        dataBaseAdapter.runInTransaction(() -> {
+            final Map<Long, T> existingEntities = provider.getAllFromDB(dataBaseAdapter, accountId, response);
+            for (T entityFromServer : response) {
+                if (entityFromServer == null) {
+                    // see https://github.com/stefan-niedermann/nextcloud-deck/issues/574
+                    DeckLog.error("Skipped null value from server for DataProvider:", provider.getClass().getSimpleName());
+                    continue;
+                }
+                entityFromServer.setAccountId(accountId);
+                final T existingEntity = getExistingEntity(provider, existingEntities, entityFromServer);
+
+                if (existingEntity == null) {
+                    provider.createInDB(dataBaseAdapter, accountId, entityFromServer);
+                    providerStatistics.onCreated();
+                } else {
+                    //TODO: how to handle deletes? what about archived?
+                    if (existingEntity.getStatus() != DBStatus.UP_TO_DATE.getId()) {
+                        DeckLog.warn("Conflicting changes on entity:", existingEntity);
+                        // TODO: what to do?
                     } else {
-                        provider.updateOnServer(serverAdapter, dataBaseAdapter, accountId, getUpdateCallback(provider, entity, countDownLatch), entity);
+                        if (etagsEnabled && entityFromServer.getEtag() != null && entityFromServer.getEtag().equals(existingEntity.getEtag())) {
+                            DeckLog.log("[", provider.getClass().getSimpleName(), "] ETags do match! skipping", existingEntity.getClass().getSimpleName(), "with localId:", existingEntity.getLocalId());
+                            providerStatistics.onUnchanged();
+                            continue;
+                        }
+                        provider.updateInDB(dataBaseAdapter, accountId, applyUpdatesFromRemote(provider, existingEntity, entityFromServer, accountId), false);
+                        providerStatistics.onUpdated();
                     }
-                } else {
-                    provider.createOnServer(serverAdapter, dataBaseAdapter, accountId, getUpdateCallback(provider, entity, countDownLatch), entity);
                 }
+                entitiesToGoDeeper.add(entityFromServer);
             }
-        } else {
-            provider.goDeeperForUpSync(this, serverAdapter, dataBaseAdapter, responseCallback);
-            if (countDownLatch != null) {
-                countDownLatch.countDown();
-            }
+            provider.onAppliedFromServer(dataBaseAdapter, accountId, entitiesToGoDeeper);
+        });
+        final long duration = System.nanoTime() - start;
+        statistics.onTransaction(duration);
+        providerStatistics.onWritten(duration);
+
+        if (!provider.isDeltaResponse(lastSync)) {
+            provider.handleDeletes(serverAdapter, dataBaseAdapter, accountId, response);
         }
+        return entitiesToGoDeeper;
+    }
+
+    /**
+     * Synchronizes the children of the given entities, at most {@link AbstractSyncDataProvider#getMaxConcurrency()} at the same time.
+     * A failing child does not cancel its siblings, the errors are delivered when all of them are done.
+     */
+    private <T extends IRemoteEntity> Completable goDeeper(@NonNull final AbstractSyncDataProvider<T> provider, @NonNull List<T> entitiesFromServer) {
+        final Map<Long, T> existingEntities = provider.getAllFromDB(dataBaseAdapter, accountId, entitiesFromServer);
+        return Flowable.fromIterable(entitiesFromServer)
+                .flatMapCompletable(entityFromServer -> provider.goDeeper(this, getExistingEntity(provider, existingEntities, entityFromServer), entityFromServer),
+                        true, provider.getMaxConcurrency());
     }
 
-    private <T extends IRemoteEntity> ResponseCallback<Void> getDeleteCallback(@NonNull AbstractSyncDataProvider<T> provider, T entity) {
-        return new ResponseCallback<>(account) {
-            @Override
-            public void onResponse(Void response) {
-                provider.deletePhysicallyInDB(dataBaseAdapter, accountId, entity);
-                provider.goDeeperForUpSync(SyncHelper.this, serverAdapter, dataBaseAdapter, responseCallback);
+    /**
+     * Children are synchronized with delayed errors, so multiple failures are collected in a {@link CompositeException}.
+     * Consumers only expect a single {@link Throwable}, which is why the first one is reported.
+     */
+    @NonNull
+    private static Throwable unwrap(@NonNull Throwable throwable) {
+        if (throwable instanceof CompositeException) {
+            final List<Throwable> exceptions = ((CompositeException) throwable).getExceptions();
+            if (!exceptions.isEmpty()) {
+                return exceptions.get(0);
             }
+        }
+        return throwable;
+    }
 
-            @Override
-            public void onError(Throwable throwable) {
-                super.onError(throwable);
-                responseCallback.onError(throwable);
+    /**
+     * @return <code>true</code> if the server responded with <code>304 Not Modified</code> to a conditional request
+     */
+    public static boolean isNotModified(@NonNull Throwable throwable) {
+        return throwable.getClass() == NextcloudHttpRequestFailedException.class
+                && ((NextcloudHttpRequestFailedException) throwable).getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED;
+    }
+
+    // Sync App -> Server
+    public <T extends IRemoteEntity> void doUpSyncFor(@NonNull AbstractSyncDataProvider<T> provider) {
+        final ResponseCallback<Boolean> callback = responseCallback;
+        //noinspection ResultOfMethodCallIgnored
+        upSyncFor(provider).subscribe(() -> callback.onResponse(Boolean.TRUE), throwable -> callback.onError(unwrap(throwable)));
+    }
+
+    /**
+     * Pushes the local changes of the given <code>provider</code> to the server, at most {@link AbstractSyncDataProvider#getMaxConcurrency()} at the same time,
+     * and afterwards the local changes of its children via {@link AbstractSyncDataProvider#goDeeperForUpSync(SyncHelper, IServerAdapter, DataBaseAdapter, Account)}.
+     * A failing entity does not stop the other entities or the children from being pushed, the errors are delivered when all of them are done.
+     *
+     * @return completes when the changed entities and all of their children have been pushed
+     */
+    public <T extends IRemoteEntity> Completable upSyncFor(@NonNull AbstractSyncDataProvider<T> provider) {
+        return Completable.defer(() -> {
+            final Completable children = Completable.defer(() -> provider.goDeeperForUpSync(this, serverAdapter, dataBaseAdapter, account));
+            final List<T> allFromDB = provider.getAllChangedFromDB(dataBaseAdapter, accountId, lastSync);
+            if (allFromDB == null || allFromDB.isEmpty()) {
+                return children;
             }
-        };
-    }
-
-    private <T extends IRemoteEntity> ResponseCallback<T> getUpdateCallback(@NonNull AbstractSyncDataProvider<T> provider, @NonNull T entity, @Nullable CountDownLatch countDownLatch) {
-        return new ResponseCallback<>(account) {
-            @Override
-            public void onResponse(T response) {
-                response.setAccountId(this.account.getId());
-                T update = applyUpdatesFromRemote(provider, entity, response, accountId);
-                update.setId(response.getId());
-                update.setStatus(DBStatus.UP_TO_DATE.getId());
-                provider.updateInDB(dataBaseAdapter, accountId, update, false);
-                provider.goDeeperForUpSync(SyncHelper.this, serverAdapter, dataBaseAdapter, responseCallback);
-                if (countDownLatch != null) {
-                    countDownLatch.countDown();
+            return andThenDelayError(upSyncEntities(provider, allFromDB), children);
+        });
+    }
+
+    /**
+     * Pushes the given local changes, e. g. as recorded in the outbox, at most {@link AbstractSyncDataProvider#getMaxConcurrency()} at the same time.
+     * Unlike {@link #upSyncFor(AbstractSyncDataProvider)} the changes are not looked up and the children are not pushed.
+     *
+     * @return completes when all given entities have been pushed, errors are delayed until then
+     */
+    public <T extends IRemoteEntity> Completable upSyncEntities(@NonNull AbstractSyncDataProvider<T> provider, @NonNull List<T> entities) {
+        return Flowable.fromIterable(entities)
+                .flatMapCompletable(entity -> upSync(provider, entity), true, provider.getMaxConcurrency());
+    }
+
+    /**
+     * Like {@link Completable#andThen(CompletableSource)}, but <code>next</code> is also subscribed to if <code>first</code> fails.
+     * The errors of both are delivered after <code>next</code> terminated.
+     */
+    @NonNull
+    public static Completable andThenDelayError(@NonNull Completable first, @NonNull Completable next) {
+        return Flowable.fromArray(first, next).concatMapCompletableDelayError(completable -> completable);
+    }
+
+    private <T extends IRemoteEntity> Completable upSync(@NonNull AbstractSyncDataProvider<T> provider, @NonNull T entity) {
+        if (entity.getId() != null && entity.getStatusEnum() == DBStatus.LOCAL_DELETED) {
+            return Completable.create(emitter -> provider.deleteOnServer(serverAdapter, accountId, new ResponseCallback<>(account) {
+                @Override
+                public void onResponse(Void response) {
+                    provider.deletePhysicallyInDB(dataBaseAdapter, accountId, entity);
+                    emitter.onComplete();
                 }
-            }
 
-            @Override
-            public void onError(Throwable throwable) {
-                super.onError(throwable);
-                responseCallback.onError(throwable);
-                if (countDownLatch != null) {
-                    countDownLatch.countDown();
+                @Override
+                public void onError(Throwable throwable) {
+                    super.onError(throwable);
+                    emitter.tryOnError(throwable);
                 }
+            }, entity, dataBaseAdapter));
+        }
+        return Completable.create(emitter -> {
+            final ResponseCallback<T> callback = new ResponseCallback<>(account) {
+                @Override
+                public void onResponse(T response) {
+                    response.setAccountId(this.account.getId());
+                    T update = applyUpdatesFromRemote(provider, entity, response, accountId);
+                    update.setId(response.getId());
+                    update.setStatus(DBStatus.UP_TO_DATE.getId());
+                    provider.updateInDB(dataBaseAdapter, accountId, update, false);
+                    emitter.onComplete();
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    super.onError(throwable);
+                    emitter.tryOnError(throwable);
+                }
+            };
+            if (entity.getId() == null) {
+                provider.createOnServer(serverAdapter, dataBaseAdapter, accountId, callback, entity);
+            } else {
+                provider.updateOnServer(serverAdapter, dataBaseAdapter, accountId, callback, entity);
             }
-        };
+        });
     }
 
     public void fixRelations(@NonNull IRelationshipProvider relationshipProvider) {
@@ -181,6 +292,14 @@ public class SyncHelper {
         relationshipProvider.insertAllNecessary(dataBaseAdapter, accountId);
     }
 
+    @Nullable
+    private <T extends IRemoteEntity> T getExistingEntity(@NonNull AbstractSyncDataProvider<T> provider, @NonNull Map<Long, T> existingEntities, @NonNull T entityFromServer) {
+        final T existingEntity = existingEntities.get(entityFromServer.getId());
+        return existingEntity == null
+                ? provider.getSingleFromDB(dataBaseAdapter, accountId, entityFromServer)
+                : existingEntity;
+    }
+
     private <T extends IRemoteEntity> T applyUpdatesFromRemote(@NonNull AbstractSyncDataProvider<T> provider, @NonNull T localEntity, @NonNull T remoteEntity, @NonNull Long accountId) {
         if (!accountId.equals(localEntity.getAccountId())) {
             throw new IllegalArgumentException("IDs of Accounts are not matching! WTF are you doin?!");
@@ -190,6 +309,23 @@ public class SyncHelper {
         return remoteEntity;
     }
 
+    public Account getAccount() {
+        return account;
+    }
+
+    @NonNull
+    public SyncStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Everything this {@link SyncHelper} does from now on will be recorded in the given {@link SyncStatistics}.
+     */
+    public SyncHelper setStatistics(@NonNull SyncStatistics statistics) {
+        this.statistics = statistics;
+        return this;
+    }
+
     public SyncHelper setResponseCallback(@NonNull ResponseCallback<Boolean> callback) {
         this.responseCallback = callback;
         this.account = responseCallback.getAccount();
@@ -198,6 +334,6 @@ public class SyncHelper {
     }
 
     public interface Factory {
-        SyncHelper create(@NonNull ServerAdapter serverAdapter, @NonNull DataBaseAdapter dataBaseAdapter, @Nullable Instant lastSync);
+        SyncHelper create(@NonNull IServerAdapter serverAdapter, @NonNull DataBaseAdapter dataBaseAdapter, @Nullable Instant lastSync);
     }
 }
@@ -0,0 +1,52 @@
+package it.niedermann.nextcloud.deck.persistence.sync.helpers;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+
+import it.niedermann.nextcloud.deck.R;
+
+/**
+ * Keeps the summaries of the latest synchronization runs, so they can be attached to a bug report.
+ */
+public class SyncReportUtil {
+
+    private static final String KEY_REPORTS = "reports";
+    private static final String SEPARATOR = "\n";
+    private static final int MAX_REPORTS = 20;
+
+    private SyncReportUtil() {
+        throw new UnsupportedOperationException("This class must not get instantiated");
+    }
+
+    /**
+     * @param summary see {@link SyncStatistics#getSummary(Throwable)}
+     */
+    @AnyThread
+    public static synchronized void addReport(@NonNull Context context, @NonNull String summary) {
+        final SharedPreferences sharedPreferences = getSharedPreferences(context);
+        final String[] reports = sharedPreferences.getString(KEY_REPORTS, "").split(SEPARATOR + SEPARATOR);
+        final StringBuilder updatedReports = new StringBuilder(summary.trim());
+        for (int i = 0; i < Math.min(reports.length, MAX_REPORTS - 1); i++) {
+            if (!reports[i].isEmpty()) {
+                updatedReports.append(SEPARATOR).append(SEPARATOR).append(reports[i]);
+            }
+        }
+        sharedPreferences.edit().putString(KEY_REPORTS, updatedReports.toString()).apply();
+    }
+
+    /**
+     * @return the summaries of the latest synchronization runs, newest first
+     */
+    @NonNull
+    @AnyThread
+    public static String getReports(@NonNull Context context) {
+        return getSharedPreferences(context).getString(KEY_REPORTS, "");
+    }
+
+    private static SharedPreferences getSharedPreferences(@NonNull Context context) {
+        return context.getSharedPreferences(context.getString(R.string.shared_preference_sync_reports), Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,161 @@
+package it.niedermann.nextcloud.deck.persistence.sync.helpers;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import it.niedermann.nextcloud.deck.api.RequestStatistics;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.AbstractSyncDataProvider;
+
+/**
+ * Records where the time of one synchronization run is spent, per {@link AbstractSyncDataProvider} and in total.
+ * All methods are thread safe because providers of the same level are synchronized in parallel, which is also why their durations add up to more than the wall time.
+ */
+public class SyncStatistics {
+
+    @NonNull
+    private final String name;
+    @NonNull
+    private final Instant start = Instant.now();
+    private final long startNanos = System.nanoTime();
+    @Nullable
+    private final RequestStatistics requestStatistics;
+    @Nullable
+    private final RequestStatistics.Snapshot requestsAtStart;
+    private final Map<String, ProviderStatistics> providers = new ConcurrentHashMap<>();
+    private final AtomicInteger transactions = new AtomicInteger();
+    private final AtomicLong transactionNanos = new AtomicLong();
+    private final AtomicLong maxTransactionNanos = new AtomicLong();
+
+    /**
+     * @param name              describes the synchronization run in the summary, e.g. the account and whether it is a full sync
+     * @param requestStatistics will be used to report the requests sent during this run
+     */
+    public SyncStatistics(@NonNull String name, @Nullable RequestStatistics requestStatistics) {
+        this.name = name;
+        this.requestStatistics = requestStatistics;
+        this.requestsAtStart = requestStatistics == null ? null : requestStatistics.snapshot();
+    }
+
+    @NonNull
+    @AnyThread
+    public ProviderStatistics forProvider(@NonNull AbstractSyncDataProvider<?> provider) {
+        return providers.computeIfAbsent(getLevel(provider), level -> new ProviderStatistics());
+    }
+
+    @AnyThread
+    public void onTransaction(long nanos) {
+        transactions.incrementAndGet();
+        transactionNanos.addAndGet(nanos);
+        maxTransactionNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return a human readable summary of this run
+     */
+    @NonNull
+    @AnyThread
+    public String getSummary(@Nullable Throwable error) {
+        final StringBuilder summary = new StringBuilder()
+                .append(String.format(Locale.ROOT, "%s Sync of %s %s after %d ms%n",
+                        start, name, error == null ? "succeeded" : "failed with " + error, millis(System.nanoTime() - startNanos)));
+        if (requestStatistics != null && requestsAtStart != null) {
+            final RequestStatistics.Snapshot requests = requestStatistics.snapshot().minus(requestsAtStart);
+            summary.append(String.format(Locale.ROOT, "  HTTP: %d requests, %d failed, %d not modified (%d %%), %d KiB in %d responses with known size%n",
+                    requests.requests, requests.failed, requests.notModified, percent(requests.notModified, requests.requests),
+                    requests.responseBytes / 1024, requests.responsesWithKnownSize));
+        }
+        summary.append(String.format(Locale.ROOT, "  DB: %d transactions in %d ms, longest %d ms%n",
+                transactions.get(), millis(transactionNanos.get()), millis(maxTransactionNanos.get())));
+        for (Map.Entry<String, ProviderStatistics> provider : new TreeMap<>(providers).entrySet()) {
+            summary.append("  ").append(provider.getKey()).append(": ").append(provider.getValue()).append(System.lineSeparator());
+        }
+        return summary.toString();
+    }
+
+    /**
+     * @return the name of the level a provider synchronizes, e.g. <code>Card</code> for the <code>CardDataProvider</code>
+     */
+    @NonNull
+    private static String getLevel(@NonNull AbstractSyncDataProvider<?> provider) {
+        final String name = provider.getClass().getSimpleName();
+        if (name.endsWith("DataProvider")) {
+            return name.substring(0, name.length() - "DataProvider".length());
+        } else if (name.endsWith("Provider")) {
+            return name.substring(0, name.length() - "Provider".length());
+        }
+        return name;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static long percent(long part, long total) {
+        return total == 0 ? 0 : part * 100 / total;
+    }
+
+    public static class ProviderStatistics {
+        private final AtomicInteger fetches = new AtomicInteger();
+        private final AtomicInteger notModified = new AtomicInteger();
+        private final AtomicLong fetchNanos = new AtomicLong();
+        private final AtomicInteger received = new AtomicInteger();
+        private final AtomicInteger created = new AtomicInteger();
+        private final AtomicInteger updated = new AtomicInteger();
+        private final AtomicInteger unchanged = new AtomicInteger();
+        private final AtomicLong writeNanos = new AtomicLong();
+
+        private ProviderStatistics() {
+        }
+
+        @AnyThread
+        public void onFetched(long nanos, int entities) {
+            fetches.incrementAndGet();
+            fetchNanos.addAndGet(nanos);
+            received.addAndGet(entities);
+        }
+
+        @AnyThread
+        public void onNotModified(long nanos) {
+            onFetched(nanos, 0);
+            notModified.incrementAndGet();
+        }
+
+        @AnyThread
+        public void onCreated() {
+            created.incrementAndGet();
+        }
+
+        @AnyThread
+        public void onUpdated() {
+            updated.incrementAndGet();
+        }
+
+        @AnyThread
+        public void onUnchanged() {
+            unchanged.incrementAndGet();
+        }
+
+        @AnyThread
+        public void onWritten(long nanos) {
+            writeNanos.addAndGet(nanos);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d fetches in %d ms, %d not modified (%d %%), %d entities received (%d created, %d updated, %d unchanged) and written in %d ms",
+                    fetches.get(), millis(fetchNanos.get()), notModified.get(), percent(notModified.get(), fetches.get()),
+                    received.get(), created.get(), updated.get(), unchanged.get(), millis(writeNanos.get()));
+        }
+    }
+}
@@ -3,86 +3,98 @@ package it.niedermann.nextcloud.deck.persistence.sync.helpers.providers;
 import androidx.annotation.Nullable;
 
 import java.time.Instant;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import it.niedermann.nextcloud.deck.DeckLog;
+import io.reactivex.Completable;
 import it.niedermann.nextcloud.deck.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.interfaces.IRemoteEntity;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
 
 public abstract class AbstractSyncDataProvider<T extends IRemoteEntity> {
 
+    protected static final int DEFAULT_MAX_CONCURRENCY = 4;
+
     @Nullable
     protected AbstractSyncDataProvider<?> parent;
-    protected final List<AbstractSyncDataProvider<?>> children = new ArrayList<>();
-    protected boolean stillGoingDeeper = false;
 
     public AbstractSyncDataProvider(@Nullable AbstractSyncDataProvider<?> parent) {
         this.parent = parent;
     }
 
-    public void registerChildInParent(AbstractSyncDataProvider<?> child) {
-        if (parent != null) {
-            parent.addChild(child);
-        }
+    /**
+     * @return how many entities of this provider are processed in parallel, both when going deeper after they have been fetched from the server
+     * and when pushing local changes to the server
+     */
+    public int getMaxConcurrency() {
+        return DEFAULT_MAX_CONCURRENCY;
     }
 
-    public void handleDeletes(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<T> entitiesFromServer) {
+    public void handleDeletes(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<T> entitiesFromServer) {
         // do nothing as a default.
     }
 
     /**
-     * Searches each entry of <code>listB</code> in list <code>listA</code> and returns the missing ones
-     *
-     * @param listA List
-     * @param listB List
-     * @return all entries of <code>listB</code> missing in <code>listA</code>
+     * Called in the same transaction after all <code>entitiesFromServer</code> have been written to the database.
      */
-    public static <T extends IRemoteEntity> List<T> findDelta(List<T> listA, List<T> listB) {
-        List<T> delta = new ArrayList<>();
-        for (T b : listB) {
-            if (b == null) {
-                DeckLog.error("Entry in listB is null! skipping...");
-                continue;
-            }
-            boolean found = false;
-            for (T a : listA) {
-                if (a == null) {
-                    DeckLog.error("Entry in listA is null! skipping...");
-                    continue;
-                }
-                if ((a.getLocalId() != null && b.getLocalId() != null ? (a.getLocalId().equals(b.getLocalId()))
-                        : a.getId().equals(b.getId())) && b.getAccountId() == a.getAccountId()) {
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
-                delta.add(b);
-            }
-        }
-        return delta;
+    public void onAppliedFromServer(DataBaseAdapter dataBaseAdapter, long accountId, List<T> entitiesFromServer) {
+        // do nothing as a default.
     }
 
-    public void addChild(AbstractSyncDataProvider<?> child) {
-        children.add(child);
+    /**
+     * Called after the entities of this provider and all of their children have been synchronized successfully.
+     */
+    public void onSynchronized(DataBaseAdapter dataBaseAdapter, long accountId) {
+        // do nothing as a default.
+    }
+
+    /**
+     * @return <code>true</code> if the server only responds with the entities changed since <code>lastSync</code>.
+     * Entities missing in such a response are unchanged rather than deleted, so {@link #handleDeletes} must not be called.
+     */
+    public boolean isDeltaResponse(@Nullable Instant lastSync) {
+        return false;
     }
 
     @SuppressWarnings("UnnecessaryReturnStatement")
-    public void getAllFromServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<List<T>> responder, Instant lastSync) {
+    public void getAllFromServer(IServerAdapter serverAdapter, long accountId, ResponseCallback<List<T>> responder, Instant lastSync) {
         return;
     }
 
-    public void getAllFromServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<T>> responder, Instant lastSync) {
+    public void getAllFromServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<T>> responder, Instant lastSync) {
         // Overridden, because we also need the DB-Adapter at some points here (see ACL data provider)
         getAllFromServer(serverAdapter, accountId, responder, lastSync);
     }
 
     public abstract T getSingleFromDB(DataBaseAdapter dataBaseAdapter, long accountId, T entity);
 
+    /**
+     * Loads the local counterparts of the given <code>entitiesFromServer</code> with as few queries as possible.
+     * Entities missing in the result will be looked up one by one via {@link #getSingleFromDB(DataBaseAdapter, long, IRemoteEntity)}.
+     *
+     * @return local entities keyed by their remote id
+     */
+    public Map<Long, T> getAllFromDB(DataBaseAdapter dataBaseAdapter, long accountId, List<T> entitiesFromServer) {
+        return Collections.emptyMap();
+    }
+
+    protected static <T extends IRemoteEntity> Map<Long, T> mapByRemoteId(@Nullable List<T> entities) {
+        final Map<Long, T> map = new HashMap<>();
+        if (entities != null) {
+            for (T entity : entities) {
+                if (entity != null && entity.getId() != null) {
+                    map.put(entity.getId(), entity);
+                }
+            }
+        }
+        return map;
+    }
+
     public abstract long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, T b);
 
     public void updateInDB(DataBaseAdapter dataBaseAdapter, long accountId, T t) {
@@ -97,50 +109,26 @@ public abstract class AbstractSyncDataProvider<T extends IRemoteEntity> {
         deleteInDB(dataBaseAdapter, accountId, t);
     }
 
-    public void goDeeper(SyncHelper syncHelper, T existingEntity, T entityFromServer, ResponseCallback<Boolean> callback) {
-        childDone(this, callback, true);
-    }
-
-    public abstract void createOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<T> responder, T entity);
-
-    public abstract void updateOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<T> callback, T entity);
-
-    public abstract void deleteOnServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, T entity, DataBaseAdapter dataBaseAdapter);
-
-    public void childDone(AbstractSyncDataProvider<?> child, ResponseCallback<Boolean> responseCallback, boolean syncChangedSomething) {
-        removeChild(child);
-        if (!stillGoingDeeper && children.isEmpty()) {
-            if (parent != null) {
-                parent.childDone(this, responseCallback, syncChangedSomething);
-            } else {
-                responseCallback.onResponse(syncChangedSomething);
-            }
-        }
+    /**
+     * @return the synchronization of the children of the given entity, which will be subscribed to by the {@link SyncHelper}
+     */
+    public Completable goDeeper(SyncHelper syncHelper, T existingEntity, T entityFromServer) {
+        return Completable.complete();
     }
 
-    protected boolean removeChild(AbstractSyncDataProvider<?> child) {
-        return children.remove(child);
-    }
+    public abstract void createOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<T> responder, T entity);
 
-    public void doneGoingDeeper(ResponseCallback<Boolean> responseCallback, boolean syncChangedSomething) {
-        stillGoingDeeper = false;
-        childDone(this, responseCallback, syncChangedSomething);
-    }
+    public abstract void updateOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<T> callback, T entity);
 
-    public void goingDeeper() {
-        stillGoingDeeper = true;
-    }
+    public abstract void deleteOnServer(IServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, T entity, DataBaseAdapter dataBaseAdapter);
 
     public abstract List<T> getAllChangedFromDB(DataBaseAdapter dataBaseAdapter, long accountId, Instant lastSync);
 
-    public void goDeeperForUpSync(SyncHelper syncHelper, ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, ResponseCallback<Boolean> callback) {
-        //do nothing
-    }
-
-    public void onError(ResponseCallback<Boolean> responseCallback) {
-        if (parent != null) {
-            parent.childDone(this, responseCallback, false);
-        }
+    /**
+     * @return pushes the local changes of the children after the changed entities of this provider have been pushed, will be subscribed to by the {@link SyncHelper}
+     */
+    public Completable goDeeperForUpSync(SyncHelper syncHelper, IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account) {
+        return Completable.complete();
     }
 
     public T applyUpdatesFromRemote(T localEntity, T remoteEntity, Long accountId) {
@@ -4,8 +4,10 @@ import androidx.annotation.Nullable;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
 
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.api.ResponseCallback;
 import it.niedermann.nextcloud.deck.model.AccessControl;
@@ -14,13 +16,13 @@ import it.niedermann.nextcloud.deck.model.User;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.ocs.user.GroupMemberUIDs;
 import it.niedermann.nextcloud.deck.model.ocs.user.OcsUser;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
-import it.niedermann.nextcloud.deck.persistence.sync.helpers.util.AsyncUtil;
 
 public class AccessControlDataProvider extends AbstractSyncDataProvider<AccessControl> {
 
     private static final Long TYPE_GROUP = 1L;
+    private static final int MAX_PARALLEL_USER_REQUESTS = 4;
     private final List<AccessControl> acl;
     private final FullBoard board;
 
@@ -31,40 +33,40 @@ public class AccessControlDataProvider extends AbstractSyncDataProvider<AccessCo
     }
 
     @Override
-    public void getAllFromServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<AccessControl>> responder, Instant lastSync) {
-        AsyncUtil.awaitAsyncWork(acl.size(), latch -> {
-            for (AccessControl accessControl : acl) {
-                if (TYPE_GROUP.equals(accessControl.getType())) {
-                    serverAdapter.searchGroupMembers(accessControl.getUser().getUid(), new ResponseCallback<>(responder.getAccount()) {
-                        @Override
-                        public void onResponse(GroupMemberUIDs response) {
-                            accessControl.setGroupMemberUIDs(response);
-                            if (response.getUids().size() > 0) {
-                                ensureGroupMembersInDB(getAccount(), dataBaseAdapter, serverAdapter, response);
-                            }
-                            latch.countDown();
-                        }
-
-                        @Override
-                        public void onError(Throwable throwable) {
-                            super.onError(throwable);
-                            latch.countDown();
-                        }
-                    });
-                } else latch.countDown();
+    public void getAllFromServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<AccessControl>> responder, Instant lastSync) {
+        //noinspection ResultOfMethodCallIgnored
+        Flowable.fromIterable(acl)
+                .filter(accessControl -> TYPE_GROUP.equals(accessControl.getType()))
+                .flatMapCompletable(accessControl -> fetchGroupMembers(responder.getAccount(), dataBaseAdapter, serverAdapter, accessControl), false, MAX_PARALLEL_USER_REQUESTS)
+                .subscribe(() -> responder.onResponse(acl), responder::onError);
+    }
+
+    /**
+     * Failing to fetch the members of a group does not fail the synchronization of the {@link AccessControl}.
+     */
+    private Completable fetchGroupMembers(Account account, DataBaseAdapter dataBaseAdapter, IServerAdapter serverAdapter, AccessControl accessControl) {
+        return Maybe.<GroupMemberUIDs>create(emitter -> serverAdapter.searchGroupMembers(accessControl.getUser().getUid(), new ResponseCallback<>(account) {
+            @Override
+            public void onResponse(GroupMemberUIDs response) {
+                emitter.onSuccess(response);
             }
-        });
 
-        responder.onResponse(acl);
+            @Override
+            public void onError(Throwable throwable) {
+                super.onError(throwable);
+                emitter.onComplete();
+            }
+        })).flatMapCompletable(response -> {
+            accessControl.setGroupMemberUIDs(response);
+            return ensureGroupMembersInDB(account, dataBaseAdapter, serverAdapter, response);
+        });
     }
 
-    private void ensureGroupMembersInDB(Account account, DataBaseAdapter dataBaseAdapter, ServerAdapter serverAdapter, GroupMemberUIDs response) {
-        CountDownLatch memberLatch = new CountDownLatch(response.getUids().size());
-        for (String uid : response.getUids()) {
-            User user = dataBaseAdapter.getUserByUidDirectly(account.getId(), uid);
-            if (user == null) {
+    private Completable ensureGroupMembersInDB(Account account, DataBaseAdapter dataBaseAdapter, IServerAdapter serverAdapter, GroupMemberUIDs response) {
+        return Flowable.fromIterable(response.getUids())
                 // unknown user. fetch!
-                serverAdapter.getSingleUserData(uid, new ResponseCallback<>(account) {
+                .filter(uid -> dataBaseAdapter.getUserByUidDirectly(account.getId(), uid) == null)
+                .flatMapCompletable(uid -> Completable.create(emitter -> serverAdapter.getSingleUserData(uid, new ResponseCallback<>(account) {
                     @Override
                     public void onResponse(OcsUser response) {
                         DeckLog.log(response);
@@ -73,22 +75,15 @@ public class AccessControlDataProvider extends AbstractSyncDataProvider<AccessCo
                         user.setPrimaryKey(response.getId());
                         user.setDisplayname(response.getDisplayName());
                         dataBaseAdapter.createUser(account.getId(), user);
-                        memberLatch.countDown();
+                        emitter.onComplete();
                     }
 
                     @Override
                     public void onError(Throwable throwable) {
                         super.onError(throwable);
-                        memberLatch.countDown();
+                        emitter.onComplete();
                     }
-                });
-            } else memberLatch.countDown();
-        }
-        try {
-            memberLatch.await();
-        } catch (InterruptedException e) {
-            DeckLog.logError(e);
-        }
+                })), false, MAX_PARALLEL_USER_REQUESTS);
     }
 
     @Override
@@ -148,7 +143,7 @@ public class AccessControlDataProvider extends AbstractSyncDataProvider<AccessCo
     }
 
     @Override
-    public void createOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<AccessControl> responder, AccessControl entity) {
+    public void createOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<AccessControl> responder, AccessControl entity) {
         AccessControl acl = new AccessControl(entity);
         acl.setBoardId(board.getBoard().getId());
         if (acl.getUser() == null && acl.getUserId() != null) {
@@ -158,7 +153,7 @@ public class AccessControlDataProvider extends AbstractSyncDataProvider<AccessCo
     }
 
     @Override
-    public void updateOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<AccessControl> callback, AccessControl entity) {
+    public void updateOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<AccessControl> callback, AccessControl entity) {
         serverAdapter.updateAccessControl(board.getBoard().getId(), entity, callback);
     }
 
@@ -174,7 +169,7 @@ public class AccessControlDataProvider extends AbstractSyncDataProvider<AccessCo
     }
 
     @Override
-    public void deleteOnServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, AccessControl entity, DataBaseAdapter dataBaseAdapter) {
+    public void deleteOnServer(IServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, AccessControl entity, DataBaseAdapter dataBaseAdapter) {
         serverAdapter.deleteAccessControl(board.getBoard().getId(), entity, callback);
     }
 
@@ -3,6 +3,7 @@ package it.niedermann.nextcloud.deck.persistence.sync.helpers.providers;
 import android.annotation.SuppressLint;
 import android.util.Pair;
 
+import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
 
 import com.nextcloud.android.sso.api.ParsedResponse;
@@ -12,25 +13,30 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.api.ResponseCallback;
 import it.niedermann.nextcloud.deck.model.AccessControl;
+import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.Board;
 import it.niedermann.nextcloud.deck.model.Label;
 import it.niedermann.nextcloud.deck.model.User;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.full.FullStack;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.EntityDelta;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
-import it.niedermann.nextcloud.deck.persistence.sync.helpers.util.AsyncUtil;
 
 public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
 
     private int progressTotal = 0;
-    private int progressDone = 0;
+    private final AtomicInteger progressDone = new AtomicInteger();
     private MutableLiveData<Pair<Integer, Integer>> progress = null;
 
     public BoardDataProvider() {
@@ -43,8 +49,8 @@ public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
     }
 
     @Override
-    public void getAllFromServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<FullBoard>> responder, Instant lastSync) {
-        serverAdapter.getBoards(new ResponseCallback<>(responder.getAccount()) {
+    public void getAllFromServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<FullBoard>> responder, Instant lastSync) {
+        serverAdapter.getBoards(lastSync, new ResponseCallback<>(responder.getAccount()) {
             @Override
             public void onResponse(ParsedResponse<List<FullBoard>> response) {
                 progressTotal = response.getResponse().size();
@@ -67,24 +73,20 @@ public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
 
     private void updateProgress() {
         if (progress != null) {
-            DeckLog.log("New progress post", progressDone, progressTotal);
-            progress.postValue(Pair.create(progressDone, progressTotal));
+            final int done = progressDone.get();
+            DeckLog.log("New progress post", done, progressTotal);
+            progress.postValue(Pair.create(done, progressTotal));
         }
     }
 
     @Override
-    protected boolean removeChild(AbstractSyncDataProvider<?> child) {
-        boolean isRemoved = super.removeChild(child);
-        if (isRemoved && child.getClass() == StackDataProvider.class) {
-            progressDone ++;
-            updateProgress();
-        }
-        return isRemoved;
+    public FullBoard getSingleFromDB(DataBaseAdapter dataBaseAdapter, long accountId, FullBoard entity) {
+        return dataBaseAdapter.getFullBoardByRemoteIdDirectly(accountId, entity.getEntity().getId());
     }
 
     @Override
-    public FullBoard getSingleFromDB(DataBaseAdapter dataBaseAdapter, long accountId, FullBoard entity) {
-        return dataBaseAdapter.getFullBoardByRemoteIdDirectly(accountId, entity.getEntity().getId());
+    public Map<Long, FullBoard> getAllFromDB(DataBaseAdapter dataBaseAdapter, long accountId, List<FullBoard> entitiesFromServer) {
+        return mapByRemoteId(dataBaseAdapter.getAllFullBoards(accountId));
     }
 
     @Override
@@ -156,29 +158,51 @@ public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
         updateInDB(dataBaseAdapter, accountId, entity, false);
     }
 
+    @Override
+    public FullBoard applyUpdatesFromRemote(FullBoard localEntity, FullBoard remoteEntity, Long accountId) {
+        // The server does not know about the ETag of the stacks endpoint, so keep the one we stored
+        remoteEntity.getBoard().setStacksEtag(localEntity.getBoard().getStacksEtag());
+        return remoteEntity;
+    }
+
 
     @Override
-    public void goDeeper(SyncHelper syncHelper, FullBoard existingEntity, FullBoard entityFromServer, ResponseCallback<Boolean> callback) {
-        List<Label> labels = entityFromServer.getLabels();
-        if (labels != null && !labels.isEmpty()) {
-            syncHelper.doSyncFor(new LabelDataProvider(this, existingEntity.getBoard(), labels));
+    public Completable goDeeper(SyncHelper syncHelper, FullBoard existingEntity, FullBoard entityFromServer) {
+        // Labels need to be in the database before cards can be related to them
+        Completable labels = Completable.complete();
+        List<Label> labelsFromServer = entityFromServer.getLabels();
+        if (labelsFromServer != null && !labelsFromServer.isEmpty()) {
+            labels = syncHelper.syncFor(new LabelDataProvider(this, existingEntity.getBoard(), labelsFromServer));
         }
 
+        final List<Completable> children = new ArrayList<>(2);
         List<AccessControl> acl = entityFromServer.getParticipants();
         if (acl != null && !acl.isEmpty()) {
             for (AccessControl ac : acl) {
                 ac.setBoardId(existingEntity.getLocalId());
             }
-            syncHelper.doSyncFor(new AccessControlDataProvider(this, existingEntity, acl));
+            children.add(syncHelper.syncFor(new AccessControlDataProvider(this, existingEntity, acl)));
         }
 
         if (entityFromServer.getStacks() != null && !entityFromServer.getStacks().isEmpty()) {
-            syncHelper.doSyncFor(new StackDataProvider(this, existingEntity));
+            children.add(syncHelper.syncFor(new StackDataProvider(this, existingEntity)));
         }
+
+        return labels.andThen(Completable.mergeDelayError(children))
+                .doFinally(() -> {
+                    progressDone.incrementAndGet();
+                    updateProgress();
+                });
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        // Each board fans out into its stacks and cards, which are processed concurrently themselves
+        return 2;
     }
 
     @Override
-    public void createOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullBoard> responder, FullBoard entity) {
+    public void createOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullBoard> responder, FullBoard entity) {
         serverAdapter.createBoard(entity.getBoard(), responder);
     }
 
@@ -188,42 +212,45 @@ public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
     }
 
     @Override
-    public void goDeeperForUpSync(SyncHelper syncHelper, ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, ResponseCallback<Boolean> callback) {
-        Long accountId = callback.getAccount().getId();
+    public Completable goDeeperForUpSync(SyncHelper syncHelper, IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account) {
+        Long accountId = account.getId();
         List<Label> locallyChangedLabels = dataBaseAdapter.getLocallyChangedLabels(accountId);
-        AsyncUtil.awaitAsyncWork(locallyChangedLabels.size(), (countDownLatch) -> {
-            for (Label label : locallyChangedLabels) {
-                Board board = dataBaseAdapter.getBoardByLocalIdDirectly(label.getBoardId());
-                label.setBoardId(board.getId());
-                syncHelper.doUpSyncFor(new LabelDataProvider(this, board, Collections.singletonList(label)), countDownLatch);
-            }
-        });
+        // Labels need to be pushed before cards can be related to them
+        Completable labels = Flowable.fromIterable(locallyChangedLabels)
+                .flatMapCompletable(label -> {
+                    Board board = dataBaseAdapter.getBoardByLocalIdDirectly(label.getBoardId());
+                    label.setBoardId(board.getId());
+                    return syncHelper.upSyncFor(new LabelDataProvider(this, board, Collections.singletonList(label)));
+                }, true, getMaxConcurrency());
+        return SyncHelper.andThenDelayError(labels, Completable.defer(() -> goDeeperForUpSyncAfterLabels(syncHelper, serverAdapter, dataBaseAdapter, account)));
+    }
 
+    private Completable goDeeperForUpSyncAfterLabels(SyncHelper syncHelper, IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account) {
+        Long accountId = account.getId();
+        List<Completable> children = new ArrayList<>();
         List<Long> localBoardIDsWithChangedACL = dataBaseAdapter.getBoardIDsOfLocallyChangedAccessControl(accountId);
         for (Long boardId : localBoardIDsWithChangedACL) {
-            syncHelper.doUpSyncFor(new AccessControlDataProvider(this, dataBaseAdapter.getFullBoardByLocalIdDirectly(accountId, boardId), new ArrayList<>()));
+            children.add(syncHelper.upSyncFor(new AccessControlDataProvider(this, dataBaseAdapter.getFullBoardByLocalIdDirectly(accountId, boardId), new ArrayList<>())));
         }
 
         Set<Long> syncedBoards = new HashSet<>();
         List<FullStack> locallyChangedStacks = dataBaseAdapter.getLocallyChangedStacks(accountId);
-        if (locallyChangedStacks.size() < 1) {
-            // no changed stacks? maybe cards! So we have to go deeper!
-            new StackDataProvider(this, null).goDeeperForUpSync(syncHelper, serverAdapter, dataBaseAdapter, callback);
-        } else {
-            for (FullStack locallyChangedStack : locallyChangedStacks) {
-                long boardId = locallyChangedStack.getStack().getBoardId();
-                boolean added = syncedBoards.add(boardId);
-                if (added) {
-                    FullBoard board = dataBaseAdapter.getFullBoardByLocalIdDirectly(accountId, boardId);
-                    locallyChangedStack.getStack().setBoardId(board.getId());
-                    syncHelper.doUpSyncFor(new StackDataProvider(this, board));
-                }
+        for (FullStack locallyChangedStack : locallyChangedStacks) {
+            long boardId = locallyChangedStack.getStack().getBoardId();
+            boolean added = syncedBoards.add(boardId);
+            if (added) {
+                FullBoard board = dataBaseAdapter.getFullBoardByLocalIdDirectly(accountId, boardId);
+                locallyChangedStack.getStack().setBoardId(board.getId());
+                children.add(syncHelper.upSyncFor(new StackDataProvider(this, board)));
             }
         }
+        // Cards of stacks which did not change themselves, users and labels of cards, attachments and comments
+        return SyncHelper.andThenDelayError(Flowable.fromIterable(children).flatMapCompletable(child -> child, true, getMaxConcurrency()),
+                Completable.defer(() -> new StackDataProvider(this, null).goDeeperForUpSync(syncHelper, serverAdapter, dataBaseAdapter, account)));
     }
 
     @Override
-    public void updateOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullBoard> callback, FullBoard entity) {
+    public void updateOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullBoard> callback, FullBoard entity) {
         serverAdapter.updateBoard(entity.getBoard(), callback);
     }
 
@@ -238,14 +265,19 @@ public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
     }
 
     @Override
-    public void deleteOnServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, FullBoard entity, DataBaseAdapter dataBaseAdapter) {
+    public void deleteOnServer(IServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, FullBoard entity, DataBaseAdapter dataBaseAdapter) {
         serverAdapter.deleteBoard(entity.getBoard(), callback);
     }
 
     @Override
-    public void handleDeletes(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<FullBoard> entitiesFromServer) {
+    public boolean isDeltaResponse(@Nullable Instant lastSync) {
+        return lastSync != null;
+    }
+
+    @Override
+    public void handleDeletes(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<FullBoard> entitiesFromServer) {
         List<FullBoard> localBoards = dataBaseAdapter.getAllFullBoards(accountId);
-        List<FullBoard> delta = findDelta(entitiesFromServer, localBoards);
+        List<FullBoard> delta = EntityDelta.between(localBoards, entitiesFromServer).getRemoved();
         for (FullBoard board : delta) {
             if (board.getId() == null) {
                 // not pushed up yet so:
@@ -2,13 +2,24 @@ package it.niedermann.nextcloud.deck.persistence.sync.helpers.providers;
 
 import android.annotation.SuppressLint;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.api.ResponseCallback;
 import it.niedermann.nextcloud.deck.exceptions.DeckException;
@@ -25,13 +36,15 @@ import it.niedermann.nextcloud.deck.model.enums.DBStatus;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullStack;
 import it.niedermann.nextcloud.deck.model.propagation.CardUpdate;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.EntityDelta;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
 
 public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
 
     private static final String ALREADY_ARCHIVED_INDICATOR = "Operation not allowed. This card is archived.";
+    private static final int MAX_PARALLEL_CARD_REQUESTS = 4;
     protected Board board;
     protected FullStack stack;
 
@@ -42,31 +55,114 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
     }
 
     @Override
-    public void getAllFromServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<List<FullCard>> responder, Instant lastSync) {
-
-
+    public void getAllFromServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<FullCard>> responder, Instant lastSync) {
         if (stack.getCards() == null || stack.getCards().isEmpty()) {
             responder.onResponse(new ArrayList<>());
             return;
         }
-        List<FullCard> result = Collections.synchronizedList(new ArrayList<>());
+        final List<FullCard> result = Collections.synchronizedList(new ArrayList<>());
+        final Queue<Long> cardIdsToFetch = new ConcurrentLinkedQueue<>();
+        final Map<Long, FullCard> localCardsToFetch = new HashMap<>();
+        final Map<Long, FullCard> cardsFromStack = new HashMap<>();
+        if (stack.getFullCards() != null) {
+            for (FullCard fullCard : stack.getFullCards()) {
+                cardsFromStack.put(fullCard.getId(), fullCard);
+            }
+        }
+
         for (Card card : stack.getCards()) {
-            serverAdapter.getCard(board.getId(), stack.getId(), card.getId(), new ResponseCallback<>(responder.getAccount()) {
-                @Override
-                public void onResponse(FullCard response) {
-                    result.add(response);
-                    if (result.size() == stack.getCards().size()) {
-                        responder.onResponse(result);
-                    }
+            final FullCard cardFromStack = cardsFromStack.get(card.getId());
+            final FullCard localCard = dataBaseAdapter.getFullCardByRemoteIdDirectly(accountId, card.getId());
+            if (cardFromStack == null) {
+                cardIdsToFetch.add(card.getId());
+                localCardsToFetch.put(card.getId(), localCard);
+                continue;
+            }
+            if (isComplete(cardFromStack)) {
+                result.add(cardFromStack);
+            } else if (isUnchanged(localCard, cardFromStack)) {
+                // The stacks endpoint does not deliver attachments, but nothing changed since the last sync, so keep the ones we already know
+                cardFromStack.setAttachments(localCard.getAttachments());
+                result.add(cardFromStack);
+            } else {
+                cardIdsToFetch.add(card.getId());
+                localCardsToFetch.put(card.getId(), localCard);
+            }
+        }
+
+        if (cardIdsToFetch.isEmpty()) {
+            responder.onResponse(result);
+            return;
+        }
+
+        DeckLog.verbose("Fetching", cardIdsToFetch.size(), "of", stack.getCards().size(), "cards of stack", stack.getId(), "one by one");
+        final int expectedSize = stack.getCards().size();
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final int parallelRequests = Math.min(MAX_PARALLEL_CARD_REQUESTS, cardIdsToFetch.size());
+        for (int i = 0; i < parallelRequests; i++) {
+            fetchNextCard(serverAdapter, cardIdsToFetch, localCardsToFetch, result, expectedSize, failed, responder);
+        }
+    }
+
+    /**
+     * Fetches the next card of the queue and continues with the following one when done,
+     * so that there are never more than {@link #MAX_PARALLEL_CARD_REQUESTS} requests in flight per stack.
+     * The ETag of the local card is sent along, so unchanged cards are answered with <code>304 Not Modified</code> and the local card is kept.
+     */
+    private void fetchNextCard(IServerAdapter serverAdapter, Queue<Long> cardIdsToFetch, Map<Long, FullCard> localCards, List<FullCard> result, int expectedSize, AtomicBoolean failed, ResponseCallback<List<FullCard>> responder) {
+        final Long cardId = cardIdsToFetch.poll();
+        if (cardId == null || failed.get()) {
+            return;
+        }
+        final FullCard localCard = localCards.get(cardId);
+        final String eTag = localCard == null || localCard.getStatusEnum() != DBStatus.UP_TO_DATE ? null : localCard.getEtag();
+        serverAdapter.getCard(board.getId(), stack.getId(), cardId, eTag, new ResponseCallback<>(responder.getAccount()) {
+            @Override
+            public void onResponse(FullCard response) {
+                onCardFetched(response);
+            }
+
+            private void onCardFetched(FullCard card) {
+                result.add(card);
+                if (result.size() == expectedSize) {
+                    responder.onResponse(result);
+                } else {
+                    fetchNextCard(serverAdapter, cardIdsToFetch, localCards, result, expectedSize, failed, responder);
                 }
+            }
 
-                @SuppressLint("MissingSuperCall")
-                @Override
-                public void onError(Throwable throwable) {
+            @SuppressLint("MissingSuperCall")
+            @Override
+            public void onError(Throwable throwable) {
+                if (localCard != null && SyncHelper.isNotModified(throwable)) {
+                    // The SyncHelper will skip this card because of the matching ETag
+                    onCardFetched(localCard);
+                } else if (failed.compareAndSet(false, true)) {
                     responder.onError(throwable);
                 }
-            });
+            }
+        });
+    }
+
+    /**
+     * @return <code>true</code> if the card delivered by the stacks endpoint contains all relations we would get by fetching the card on its own
+     */
+    private static boolean isComplete(@NonNull FullCard cardFromStack) {
+        return cardFromStack.getLabels() != null
+                && cardFromStack.getAssignedUsers() != null
+                && cardFromStack.getOwner() != null
+                && (cardFromStack.getAttachments() != null || cardFromStack.getCard().getAttachmentCount() == 0);
+    }
+
+    private static boolean isUnchanged(@Nullable FullCard localCard, @NonNull FullCard cardFromStack) {
+        if (localCard == null || localCard.getStatusEnum() != DBStatus.UP_TO_DATE) {
+            return false;
         }
+        if (cardFromStack.getEtag() != null) {
+            return cardFromStack.getEtag().equals(localCard.getEtag());
+        }
+        return cardFromStack.getCard().getLastModified() != null
+                && cardFromStack.getCard().getLastModified().equals(localCard.getCard().getLastModified());
     }
 
     @Override
@@ -74,12 +170,25 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
         return dataBaseAdapter.getFullCardByRemoteIdDirectly(accountId, entity.getEntity().getId());
     }
 
+    @Override
+    public Map<Long, FullCard> getAllFromDB(DataBaseAdapter dataBaseAdapter, long accountId, List<FullCard> entitiesFromServer) {
+        // Cards which have been moved from another stack are not part of this and will be looked up one by one
+        return mapByRemoteId(dataBaseAdapter.getFullCardsForStackDirectly(accountId, stack.getLocalId(), null));
+    }
+
     @Override
     public long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, FullCard entity) {
         fixRelations(dataBaseAdapter, accountId, entity);
         return dataBaseAdapter.createCardDirectly(accountId, entity.getCard());
     }
 
+    @Override
+    public void onAppliedFromServer(DataBaseAdapter dataBaseAdapter, long accountId, List<FullCard> entitiesFromServer) {
+        if (!entitiesFromServer.isEmpty()) {
+            dataBaseAdapter.resetLocalCardOrderToServerOrder(stack.getLocalId());
+        }
+    }
+
     protected CardUpdate toCardUpdate(FullCard card) {
         CardUpdate c = new CardUpdate(card);
         // FIXME This causes an IndexOutOfBoundsException for the three "Example Tasks" on a fresh Deck server installation
@@ -111,6 +220,8 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
         if (localEntity.getCard().getUserId() != null) {
             remoteEntity.getCard().setUserId(localEntity.getCard().getUserId());
         }
+        // The server is not aware of the local order, changes of the server order are applied by onAppliedFromServer
+        remoteEntity.getCard().setLocalOrder(localEntity.getCard().getLocalOrder());
         return remoteEntity;
     }
 
@@ -126,7 +237,7 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
     }
 
     @Override
-    public void goDeeper(SyncHelper syncHelper, FullCard existingEntity, FullCard entityFromServer, ResponseCallback<Boolean> callback) {
+    public Completable goDeeper(SyncHelper syncHelper, FullCard existingEntity, FullCard entityFromServer) {
         List<Label> labels = entityFromServer.getLabels();
         existingEntity.setLabels(labels);
         List<User> assignedUsers = entityFromServer.getAssignedUsers();
@@ -135,46 +246,57 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
         existingEntity.setAttachments(attachments);
 
         syncHelper.fixRelations(new CardLabelRelationshipProvider(existingEntity.getCard(), existingEntity.getLabels()));
-        if (assignedUsers != null && !assignedUsers.isEmpty()) {
-            syncHelper.doSyncFor(new UserDataProvider(this, board, stack, existingEntity, existingEntity.getAssignedUsers()));
-        }
 
-        syncHelper.fixRelations(new CardUserRelationshipProvider(existingEntity.getCard(), existingEntity.getAssignedUsers()));
+        final List<Completable> children = new ArrayList<>(4);
+        // Assigned users need to be in the database before they can be related to the card
+        final Completable users = assignedUsers != null && !assignedUsers.isEmpty()
+                ? syncHelper.syncFor(new UserDataProvider(this, board, stack, existingEntity, existingEntity.getAssignedUsers()))
+                : Completable.complete();
+        children.add(users.andThen(Completable.fromAction(() ->
+                syncHelper.fixRelations(new CardUserRelationshipProvider(existingEntity.getCard(), existingEntity.getAssignedUsers())))));
+
         if (attachments == null) {
             attachments = new ArrayList<>();
         }
-        syncHelper.doSyncFor(new AttachmentDataProvider(this, board, stack.getStack(), existingEntity, attachments));
+        children.add(syncHelper.syncFor(new AttachmentDataProvider(this, board, stack.getStack(), existingEntity, attachments)));
 
-        if (callback.getAccount().getServerDeckVersionAsObject().supportsComments()) {
+        if (syncHelper.getAccount().getServerDeckVersionAsObject().supportsComments()) {
             DeckLog.verbose("Comments - Version is OK, SYNC");
-            syncHelper.doSyncFor(new DeckCommentsDataProvider(this, existingEntity.getCard()));
+            children.add(syncHelper.syncFor(new DeckCommentsDataProvider(this, existingEntity.getCard())));
         } else {
             DeckLog.verbose("Comments - Version is too low, DONT SYNC");
         }
-        syncHelper.doSyncFor(new OcsProjectDataProvider(this, existingEntity.getCard()));
+        children.add(syncHelper.syncFor(new OcsProjectDataProvider(this, existingEntity.getCard())));
+        return Completable.mergeDelayError(children);
     }
 
     @Override
-    public void createOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullCard> responder, FullCard entity) {
+    public void createOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullCard> responder, FullCard entity) {
         if (stack.getId() == null) {
             responder.onError(new DeckException(DeckException.Hint.DEPENDENCY_NOT_SYNCED_YET, "Stack \"" +
                     stack.getStack().getTitle() + "\" for Card \"" + entity.getCard().getTitle() +
                     "\" is not synced yet. Perform a full sync (pull to refresh) as soon as you are online again."));
             return;
         }
+        final int order = dataBaseAdapter.getServerOrderOfCardDirectly(entity.getCard());
+        final var callback = reorderIfAmbiguous(serverAdapter, dataBaseAdapter, accountId, entity.getCard(), order, responder);
+        entity.getCard().setOrder(order);
         entity.getCard().setStackId(stack.getId());
-        serverAdapter.createCard(board.getId(), stack.getId(), entity.getCard(), responder);
+        serverAdapter.createCard(board.getId(), stack.getId(), entity.getCard(), callback);
     }
 
     @Override
-    public void updateOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullCard> callback, FullCard entity) {
+    public void updateOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullCard> callback, FullCard entity) {
         CardUpdate update = toCardUpdate(entity);
+        final int order = dataBaseAdapter.getServerOrderOfCardDirectly(entity.getCard());
+        final var reorderCallback = reorderIfAmbiguous(serverAdapter, dataBaseAdapter, accountId, entity.getCard(), order, callback);
+        update.setOrder(order);
         update.setStackId(stack.getId());
         // https://github.com/stefan-niedermann/nextcloud-deck/issues/787 resolve archiving-conflict
         serverAdapter.updateCard(board.getId(), stack.getId(), update, new ResponseCallback<>(callback.getAccount()) {
             @Override
             public void onResponse(FullCard response) {
-                callback.onResponse(response);
+                reorderCallback.onResponse(response);
             }
 
             @SuppressLint("MissingSuperCall")
@@ -193,13 +315,61 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
         });
     }
 
+    /**
+     * The server stores the pushed <code>order</code> as it is without renumbering the other cards of the stack.
+     * If this would tie with or overtake a sibling, the position of the card gets pushed again via the reorder endpoint, which renumbers the whole stack.
+     * Must be called before the card gets pushed, because its local stack id gets replaced by the remote one.
+     *
+     * @return the callback to pass to the create or update request
+     */
+    protected ResponseCallback<FullCard> reorderIfAmbiguous(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, @NonNull Card card, int order, @NonNull ResponseCallback<FullCard> callback) {
+        if (!dataBaseAdapter.isServerOrderAmbiguous(stack.getLocalId(), card, order)) {
+            return callback;
+        }
+        return new ResponseCallback<>(callback.getAccount()) {
+            @Override
+            public void onResponse(FullCard response) {
+                if (response == null || response.getId() == null) {
+                    callback.onResponse(response);
+                    return;
+                }
+                serverAdapter.reorder(board.getId(), stack.getId(), response.getId(), stack.getId(), order, new ResponseCallback<>(callback.getAccount()) {
+                    @Override
+                    public void onResponse(List<FullCard> cardsOfStack) {
+                        if (cardsOfStack != null) {
+                            for (FullCard cardOfStack : cardsOfStack) {
+                                if (response.getId().equals(cardOfStack.getId())) {
+                                    response.getCard().setOrder(cardOfStack.getCard().getOrder());
+                                }
+                            }
+                            dataBaseAdapter.applyServerOrderOfStack(accountId, cardsOfStack);
+                        }
+                        callback.onResponse(response);
+                    }
+
+                    @SuppressLint("MissingSuperCall")
+                    @Override
+                    public void onError(Throwable throwable) {
+                        callback.onError(throwable);
+                    }
+                });
+            }
+
+            @SuppressLint("MissingSuperCall")
+            @Override
+            public void onError(Throwable throwable) {
+                callback.onError(throwable);
+            }
+        };
+    }
+
     @Override
     public void deleteInDB(DataBaseAdapter dataBaseAdapter, long accountId, FullCard fullCard) {
         dataBaseAdapter.deleteCard(fullCard.getCard(), false);
     }
 
     @Override
-    public void deleteOnServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, FullCard entity, DataBaseAdapter dataBaseAdapter) {
+    public void deleteOnServer(IServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, FullCard entity, DataBaseAdapter dataBaseAdapter) {
         serverAdapter.deleteCard(board.getId(), stack.getId(), entity.getCard(), callback);
     }
 
@@ -214,71 +384,110 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
         return dataBaseAdapter.getLocallyChangedCardsByLocalStackIdDirectly(accountId, stack.getStack().getLocalId());
     }
 
+    /**
+     * @return completes after all changed labels and users of the cards, their attachments and comments have been pushed
+     */
     @Override
-    public void goDeeperForUpSync(SyncHelper syncHelper, ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, ResponseCallback<Boolean> callback) {
-        FullStack stack;
-        Board board;
+    public Completable goDeeperForUpSync(SyncHelper syncHelper, IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account) {
+        List<Completable> children = new ArrayList<>();
         List<JoinCardWithLabel> changedLabels;
         if (this.stack == null) {
             changedLabels = dataBaseAdapter.getAllChangedLabelJoins();
         } else {
             changedLabels = dataBaseAdapter.getAllChangedLabelJoinsForStack(this.stack.getLocalId());
         }
+        children.addAll(labelJoinRequests(serverAdapter, dataBaseAdapter, account, changedLabels));
 
-        Account account = callback.getAccount();
+        List<JoinCardWithUser> changedUsers;
+        if (this.stack == null) {
+            changedUsers = dataBaseAdapter.getAllChangedUserJoinsWithRemoteIDs();
+        } else {
+            changedUsers = dataBaseAdapter.getAllChangedUserJoinsWithRemoteIDsForStack(this.stack.getLocalId());
+        }
+        children.addAll(userJoinRequests(serverAdapter, dataBaseAdapter, account, changedUsers));
+
+        List<Attachment> attachments;
+        if (this.stack == null) {
+            attachments = dataBaseAdapter.getLocallyChangedAttachmentsDirectly(account.getId());
+        } else {
+            attachments = dataBaseAdapter.getLocallyChangedAttachmentsForStackDirectly(this.stack.getLocalId());
+        }
+        for (Attachment attachment : attachments) {
+            FullCard card = dataBaseAdapter.getFullCardByLocalIdDirectly(account.getId(), attachment.getCardId());
+            FullStack stack = dataBaseAdapter.getFullStackByLocalIdDirectly(card.getCard().getStackId());
+            Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getStack().getBoardId());
+            children.add(syncHelper.upSyncFor(new AttachmentDataProvider(this, board, stack.getStack(), card, Collections.singletonList(attachment))));
+        }
+
+        List<Card> cardsWithChangedComments;
+        if (this.stack == null) {
+            cardsWithChangedComments = dataBaseAdapter.getCardsWithLocallyChangedCommentsDirectly(account.getId());
+        } else {
+            cardsWithChangedComments = dataBaseAdapter.getCardsWithLocallyChangedCommentsForStackDirectly(this.stack.getLocalId());
+        }
+        for (Card card : cardsWithChangedComments) {
+            children.add(syncHelper.upSyncFor(new DeckCommentsDataProvider(this, card)));
+        }
+
+        return Flowable.fromIterable(children).flatMapCompletable(child -> child, true, getMaxConcurrency());
+    }
+
+    /**
+     * Pushes the changed labels of a single card, e. g. as recorded in the outbox.
+     *
+     * @return completes after all changed labels of the card have been pushed, errors are delayed until then
+     */
+    public Completable upSyncLabelsOfCard(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account, long localCardId) {
+        return Completable.mergeDelayError(labelJoinRequests(serverAdapter, dataBaseAdapter, account, dataBaseAdapter.getAllChangedLabelJoinsForCard(localCardId)));
+    }
+
+    /**
+     * Pushes the changed assignees of a single card, e. g. as recorded in the outbox.
+     *
+     * @return completes after all changed assignees of the card have been pushed, errors are delayed until then
+     */
+    public Completable upSyncUsersOfCard(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account, long localCardId) {
+        return Completable.mergeDelayError(userJoinRequests(serverAdapter, dataBaseAdapter, account, dataBaseAdapter.getAllChangedUserJoinsWithRemoteIDsForCard(localCardId)));
+    }
+
+    private List<Completable> labelJoinRequests(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account, List<JoinCardWithLabel> changedLabels) {
+        final List<Completable> requests = new ArrayList<>(changedLabels.size());
         for (JoinCardWithLabel changedLabelLocal : changedLabels) {
             Card card = dataBaseAdapter.getCardByLocalIdDirectly(account.getId(), changedLabelLocal.getCardId());
             if (card == null) {
                 // https://github.com/stefan-niedermann/nextcloud-deck/issues/683#issuecomment-759116820
                 continue;
             }
-            if (this.stack == null) {
-                stack = dataBaseAdapter.getFullStackByLocalIdDirectly(card.getStackId());
-            } else {
-                stack = this.stack;
-            }
-
-            if (this.board == null) {
-                board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getStack().getBoardId());
-            } else {
-                board = this.board;
-            }
+            final FullStack stack = this.stack == null ? dataBaseAdapter.getFullStackByLocalIdDirectly(card.getStackId()) : this.stack;
+            final Board board = this.board == null ? dataBaseAdapter.getBoardByLocalIdDirectly(stack.getStack().getBoardId()) : this.board;
 
             JoinCardWithLabel changedLabel = dataBaseAdapter.getAllChangedLabelJoinsWithRemoteIDs(changedLabelLocal.getCardId(), changedLabelLocal.getLabelId());
             if (changedLabel.getStatusEnum() == DBStatus.LOCAL_DELETED) {
                 if (changedLabel.getLabelId() == null || changedLabel.getCardId() == null) {
                     dataBaseAdapter.deleteJoinedLabelForCardPhysicallyByRemoteIDs(account.getId(), changedLabel.getCardId(), changedLabel.getLabelId());
                 } else {
-                    serverAdapter.unassignLabelFromCard(board.getId(), stack.getId(), changedLabel.getCardId(), changedLabel.getLabelId(), new ResponseCallback<>(account) {
-                        @Override
-                        public void onResponse(Void response) {
-                            dataBaseAdapter.deleteJoinedLabelForCardPhysicallyByRemoteIDs(account.getId(), changedLabel.getCardId(), changedLabel.getLabelId());
-                        }
-                    });
+                    requests.add(joinRequest(account,
+                            callback -> serverAdapter.unassignLabelFromCard(board.getId(), stack.getId(), changedLabel.getCardId(), changedLabel.getLabelId(), callback),
+                            () -> dataBaseAdapter.deleteJoinedLabelForCardPhysicallyByRemoteIDs(account.getId(), changedLabel.getCardId(), changedLabel.getLabelId())));
                 }
             } else if (changedLabel.getStatusEnum() == DBStatus.LOCAL_EDITED) {
                 if (changedLabel.getLabelId() == null || changedLabel.getCardId() == null) {
                     // Sync next time, the card should be available on server then.
                     continue;
-                } else {
-                    serverAdapter.assignLabelToCard(board.getId(), stack.getId(), changedLabel.getCardId(), changedLabel.getLabelId(), new ResponseCallback<>(account) {
-                        @Override
-                        public void onResponse(Void response) {
+                }
+                requests.add(joinRequest(account,
+                        callback -> serverAdapter.assignLabelToCard(board.getId(), stack.getId(), changedLabel.getCardId(), changedLabel.getLabelId(), callback),
+                        () -> {
                             Label label = dataBaseAdapter.getLabelByRemoteIdDirectly(account.getId(), changedLabel.getLabelId());
                             dataBaseAdapter.setStatusForJoinCardWithLabel(card.getLocalId(), label.getLocalId(), DBStatus.UP_TO_DATE.getId());
-                        }
-                    });
-                }
-
+                        }));
             }
         }
+        return requests;
+    }
 
-        List<JoinCardWithUser> changedUsers;
-        if (this.stack == null) {
-            changedUsers = dataBaseAdapter.getAllChangedUserJoinsWithRemoteIDs();
-        } else {
-            changedUsers = dataBaseAdapter.getAllChangedUserJoinsWithRemoteIDsForStack(this.stack.getLocalId());
-        }
+    private List<Completable> userJoinRequests(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account, List<JoinCardWithUser> changedUsers) {
+        final List<Completable> requests = new ArrayList<>(changedUsers.size());
         for (JoinCardWithUser changedUser : changedUsers) {
             // not already known to server?
             if (changedUser.getCardId() == null) {
@@ -292,65 +501,56 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
                 // this shouldn't actually happen, but does as it seems. the card cant be found by remote id (exists!) and account-ID.
                 continue;
             }
-            if (this.stack == null) {
-                stack = dataBaseAdapter.getFullStackByLocalIdDirectly(card.getStackId());
-            } else {
-                stack = this.stack;
-            }
-
-            if (this.board == null) {
-                board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getStack().getBoardId());
-            } else {
-                board = this.board;
-            }
+            final FullStack stack = this.stack == null ? dataBaseAdapter.getFullStackByLocalIdDirectly(card.getStackId()) : this.stack;
+            final Board board = this.board == null ? dataBaseAdapter.getBoardByLocalIdDirectly(stack.getStack().getBoardId()) : this.board;
             User user = dataBaseAdapter.getUserByLocalIdDirectly(changedUser.getUserId());
             if (changedUser.getStatusEnum() == DBStatus.LOCAL_DELETED) {
-                serverAdapter.unassignUserFromCard(board.getId(), stack.getId(), changedUser.getCardId(), user.getUid(), new ResponseCallback<>(account) {
-                    @Override
-                    public void onResponse(Void response) {
-                        dataBaseAdapter.deleteJoinedUserForCardPhysicallyByRemoteIDs(account.getId(), changedUser.getCardId(), user.getUid());
-                    }
-                });
+                requests.add(joinRequest(account,
+                        callback -> serverAdapter.unassignUserFromCard(board.getId(), stack.getId(), changedUser.getCardId(), user.getUid(), callback),
+                        () -> dataBaseAdapter.deleteJoinedUserForCardPhysicallyByRemoteIDs(account.getId(), changedUser.getCardId(), user.getUid())));
             } else if (changedUser.getStatusEnum() == DBStatus.LOCAL_EDITED) {
-                serverAdapter.assignUserToCard(board.getId(), stack.getId(), changedUser.getCardId(), user.getUid(), new ResponseCallback<>(account) {
-                    @Override
-                    public void onResponse(Void response) {
-                        dataBaseAdapter.setStatusForJoinCardWithUser(card.getLocalId(), user.getLocalId(), DBStatus.UP_TO_DATE.getId());
-                    }
-                });
+                requests.add(joinRequest(account,
+                        callback -> serverAdapter.assignUserToCard(board.getId(), stack.getId(), changedUser.getCardId(), user.getUid(), callback),
+                        () -> dataBaseAdapter.setStatusForJoinCardWithUser(card.getLocalId(), user.getLocalId(), DBStatus.UP_TO_DATE.getId())));
             }
         }
+        return requests;
+    }
 
-        List<Attachment> attachments;
-        if (this.stack == null) {
-            attachments = dataBaseAdapter.getLocallyChangedAttachmentsDirectly(account.getId());
-        } else {
-            attachments = dataBaseAdapter.getLocallyChangedAttachmentsForStackDirectly(this.stack.getLocalId());
-        }
-        for (Attachment attachment : attachments) {
-            FullCard card = dataBaseAdapter.getFullCardByLocalIdDirectly(account.getId(), attachment.getCardId());
-            stack = dataBaseAdapter.getFullStackByLocalIdDirectly(card.getCard().getStackId());
-            board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getStack().getBoardId());
-            syncHelper.doUpSyncFor(new AttachmentDataProvider(this, board, stack.getStack(), card, Collections.singletonList(attachment)));
-        }
+    /**
+     * @param request    sends the request to the server, the given callback needs to be passed on
+     * @param onResponse persists the successful request
+     * @return completes after <code>request</code> succeeded and <code>onResponse</code> has been applied
+     */
+    private static Completable joinRequest(@NonNull Account account, @NonNull Consumer<ResponseCallback<Void>> request, @NonNull Runnable onResponse) {
+        return Completable.create(emitter -> request.accept(new ResponseCallback<>(account) {
+            @Override
+            public void onResponse(Void response) {
+                try {
+                    onResponse.run();
+                    emitter.onComplete();
+                } catch (Throwable t) {
+                    emitter.tryOnError(t);
+                }
+            }
 
-        List<Card> cardsWithChangedComments;
-        if (this.stack == null) {
-            cardsWithChangedComments = dataBaseAdapter.getCardsWithLocallyChangedCommentsDirectly(account.getId());
-        } else {
-            cardsWithChangedComments = dataBaseAdapter.getCardsWithLocallyChangedCommentsForStackDirectly(this.stack.getLocalId());
-        }
-        for (Card card : cardsWithChangedComments) {
-            syncHelper.doUpSyncFor(new DeckCommentsDataProvider(this, card));
-        }
+            @Override
+            public void onError(Throwable throwable) {
+                super.onError(throwable);
+                emitter.tryOnError(throwable);
+            }
+        }));
+    }
 
-        callback.onResponse(Boolean.TRUE);
+    @Override
+    public boolean isDeltaResponse(@Nullable Instant lastSync) {
+        return lastSync != null;
     }
 
     @Override
-    public void handleDeletes(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<FullCard> entitiesFromServer) {
+    public void handleDeletes(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<FullCard> entitiesFromServer) {
         List<FullCard> localCards = dataBaseAdapter.getFullCardsForStackDirectly(accountId, stack.getLocalId(), null);
-        List<FullCard> delta = findDelta(entitiesFromServer, localCards);
+        List<FullCard> delta = EntityDelta.between(localCards, entitiesFromServer).getRemoved();
         for (FullCard cardToDelete : delta) {
             if (cardToDelete.getId() == null) {
                 // not pushed up yet so:
@@ -9,7 +9,7 @@ import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullStack;
 import it.niedermann.nextcloud.deck.model.propagation.CardUpdate;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
 
 public class CardPropagationDataProvider extends CardDataProvider {
@@ -19,7 +19,7 @@ public class CardPropagationDataProvider extends CardDataProvider {
     }
 
     @Override
-    public void createOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullCard> responder, FullCard entity) {
+    public void createOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullCard> responder, FullCard entity) {
         // make sure, all ancestors are synced properly
         if (board.getId() == null) {
             serverAdapter.createBoard(board, new ResponseCallback<>(responder.getAccount()) {
@@ -53,8 +53,11 @@ public class CardPropagationDataProvider extends CardDataProvider {
             });
         } else {
             Card card = entity.getCard();
+            final int order = dataBaseAdapter.getServerOrderOfCardDirectly(card);
+            final var callback = reorderIfAmbiguous(serverAdapter, dataBaseAdapter, accountId, card, order, responder);
+            card.setOrder(order);
             card.setStackId(stack.getId());
-            serverAdapter.createCard(board.getId(), stack.getId(), card, responder);
+            serverAdapter.createCard(board.getId(), stack.getId(), card, callback);
         }
     }
 
@@ -66,10 +69,12 @@ public class CardPropagationDataProvider extends CardDataProvider {
     }
 
     @Override
-    public void updateOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullCard> callback, FullCard entity) {
+    public void updateOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullCard> callback, FullCard entity) {
         CardUpdate update = toCardUpdate(entity);
+        final int order = dataBaseAdapter.getServerOrderOfCardDirectly(entity.getCard());
+        update.setOrder(order);
         update.setStackId(stack.getId());
-        serverAdapter.updateCard(board.getId(), stack.getId(), update, callback);
+        serverAdapter.updateCard(board.getId(), stack.getId(), update, reorderIfAmbiguous(serverAdapter, dataBaseAdapter, accountId, entity.getCard(), order, callback));
     }
 
     @Override
@@ -83,7 +88,7 @@ public class CardPropagationDataProvider extends CardDataProvider {
     }
 
     @Override
-    public void deleteOnServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, FullCard entity, DataBaseAdapter dataBaseAdapter) {
+    public void deleteOnServer(IServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, FullCard entity, DataBaseAdapter dataBaseAdapter) {
         serverAdapter.deleteCard(board.getId(), stack.getId(), entity.getCard(), callback);
     }
 }
@@ -7,7 +7,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
 
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.api.IResponseCallback;
@@ -16,8 +15,9 @@ import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
 import it.niedermann.nextcloud.deck.model.ocs.comment.Mention;
 import it.niedermann.nextcloud.deck.model.ocs.comment.OcsComment;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.EntityDelta;
 
 public class DeckCommentsDataProvider extends AbstractSyncDataProvider<OcsComment> {
 
@@ -29,7 +29,7 @@ public class DeckCommentsDataProvider extends AbstractSyncDataProvider<OcsCommen
     }
 
     @Override
-    public void getAllFromServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<List<OcsComment>> responder, Instant lastSync) {
+    public void getAllFromServer(IServerAdapter serverAdapter, long accountId, ResponseCallback<List<OcsComment>> responder, Instant lastSync) {
         serverAdapter.getCommentsForRemoteCardId(card.getId(), new ResponseCallback<>(responder.getAccount()) {
             @Override
             public void onResponse(OcsComment response) {
@@ -112,18 +112,16 @@ public class DeckCommentsDataProvider extends AbstractSyncDataProvider<OcsCommen
     }
 
     @Override
-    public void createOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<OcsComment> responder, OcsComment entity) {
+    public void createOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<OcsComment> responder, OcsComment entity) {
         DeckComment comment = entity.getSingle();
         comment.setObjectId(card.getId());
         if (comment.getParentId() != null) {
             comment.setParentId(dataBaseAdapter.getRemoteCommentIdForLocalIdDirectly(comment.getParentId()));
         }
         DeckLog.info("creating entity: "+entity.getComments().get(0).getMessage() + " with id " +entity.getComments().get(0).getLocalId());
-        CountDownLatch latch = new CountDownLatch(1);
         serverAdapter.createCommentForCard(comment, new ResponseCallback<>(responder.getAccount()) {
             @Override
             public void onResponse(OcsComment response) {
-                latch.countDown();
                 responder.onResponse(response);
                 DeckLog.info("CREATED entity: "+entity.getComments().get(0).getMessage() + " with id " +entity.getComments().get(0).getLocalId());
             }
@@ -131,21 +129,19 @@ public class DeckCommentsDataProvider extends AbstractSyncDataProvider<OcsCommen
             @SuppressLint("MissingSuperCall")
             @Override
             public void onError(Throwable throwable) {
-                latch.countDown();
                 responder.onError(throwable);
             }
         });
+    }
 
-        try {
-            latch.await();
-            DeckLog.info("released latch for entity: "+entity.getComments().get(0).getMessage() + " with id " +entity.getComments().get(0).getLocalId());
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+    @Override
+    public int getMaxConcurrency() {
+        // Replies can only be created after the comment they refer to has been created
+        return 1;
     }
 
     @Override
-    public void updateOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<OcsComment> callback, OcsComment entity) {
+    public void updateOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<OcsComment> callback, OcsComment entity) {
         DeckComment comment = entity.getSingle();
         comment.setObjectId(card.getId());
         if (comment.getParentId() != null) {
@@ -155,7 +151,7 @@ public class DeckCommentsDataProvider extends AbstractSyncDataProvider<OcsCommen
     }
 
     @Override
-    public void deleteOnServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, OcsComment entity, DataBaseAdapter dataBaseAdapter) {
+    public void deleteOnServer(IServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, OcsComment entity, DataBaseAdapter dataBaseAdapter) {
         DeckComment comment = entity.getSingle();
         comment.setObjectId(card.getId());
         serverAdapter.deleteCommentForCard(comment, callback);
@@ -167,8 +163,8 @@ public class DeckCommentsDataProvider extends AbstractSyncDataProvider<OcsCommen
     }
 
     @Override
-    public void handleDeletes(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<OcsComment> entitiesFromServer) {
-        List<OcsComment> deletedComments = findDelta(entitiesFromServer, new OcsComment(dataBaseAdapter.getCommentByLocalCardIdDirectly(card.getLocalId())).split());
+    public void handleDeletes(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<OcsComment> entitiesFromServer) {
+        List<OcsComment> deletedComments = EntityDelta.between(new OcsComment(dataBaseAdapter.getCommentByLocalCardIdDirectly(card.getLocalId())).split(), entitiesFromServer).getRemoved();
         for (OcsComment deletedComment : deletedComments) {
             if (deletedComment.getId() != null) {
                 // preserve new, unsynced comment.
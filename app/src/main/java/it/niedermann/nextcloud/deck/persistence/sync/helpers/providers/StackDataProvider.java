@@ -1,26 +1,44 @@
 package it.niedermann.nextcloud.deck.persistence.sync.helpers.providers;
 
+import android.annotation.SuppressLint;
+
+import androidx.annotation.Nullable;
+
+import com.nextcloud.android.sso.api.ParsedResponse;
+
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
 
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
 import it.niedermann.nextcloud.deck.api.ResponseCallback;
 import it.niedermann.nextcloud.deck.exceptions.DeckException;
+import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.Board;
 import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullStack;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.EntityDelta;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
 
 public class StackDataProvider extends AbstractSyncDataProvider<FullStack> {
     private FullBoard board;
 
     private Set<Long> syncedStacks = new ConcurrentSkipListSet<>();
+    /**
+     * ETag of the stacks response, which must only be stored after the cards of all stacks have been synchronized.
+     * Otherwise a failed card synchronization would be skipped because of a <code>304 Not Modified</code> until the next full synchronization.
+     */
+    @Nullable
+    private String receivedStacksEtag;
 
     public StackDataProvider(AbstractSyncDataProvider<?> parent, FullBoard board) {
         super(parent);
@@ -28,8 +46,29 @@ public class StackDataProvider extends AbstractSyncDataProvider<FullStack> {
     }
 
     @Override
-    public void getAllFromServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<List<FullStack>> responder, Instant lastSync) {
-        serverAdapter.getStacks(board.getId(), responder);
+    public void getAllFromServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<FullStack>> responder, Instant lastSync) {
+        serverAdapter.getStacks(board.getId(), lastSync, board.getBoard().getStacksEtag(), new ResponseCallback<>(responder.getAccount()) {
+            @Override
+            public void onResponse(ParsedResponse<List<FullStack>> response) {
+                receivedStacksEtag = response.getHeaders().get("ETag");
+                responder.onResponse(response.getResponse());
+            }
+
+            @SuppressLint("MissingSuperCall")
+            @Override
+            public void onError(Throwable throwable) {
+                // A 304 Not Modified is handled by the SyncHelper and skips the whole subtree of this board
+                responder.onError(throwable);
+            }
+        });
+    }
+
+    @Override
+    public void onSynchronized(DataBaseAdapter dataBaseAdapter, long accountId) {
+        if (receivedStacksEtag != null && !receivedStacksEtag.equals(board.getBoard().getStacksEtag())) {
+            board.getBoard().setStacksEtag(receivedStacksEtag);
+            dataBaseAdapter.updateStacksEtag(board.getLocalId(), receivedStacksEtag);
+        }
     }
 
     @Override
@@ -37,6 +76,11 @@ public class StackDataProvider extends AbstractSyncDataProvider<FullStack> {
         return dataBaseAdapter.getFullStackByRemoteIdDirectly(accountId, board.getLocalId(), entity.getEntity().getId());
     }
 
+    @Override
+    public Map<Long, FullStack> getAllFromDB(DataBaseAdapter dataBaseAdapter, long accountId, List<FullStack> entitiesFromServer) {
+        return mapByRemoteId(dataBaseAdapter.getFullStacksForBoardDirectly(accountId, board.getLocalId()));
+    }
+
     @Override
     public long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, FullStack entity) {
         entity.getStack().setBoardId(board.getLocalId());
@@ -56,25 +100,25 @@ public class StackDataProvider extends AbstractSyncDataProvider<FullStack> {
     }
 
     @Override
-    public void goDeeper(SyncHelper syncHelper, FullStack existingEntity, FullStack entityFromServer, ResponseCallback<Boolean> callback) {
+    public Completable goDeeper(SyncHelper syncHelper, FullStack existingEntity, FullStack entityFromServer) {
         boolean serverHasCards = entityFromServer.getCards() != null && !entityFromServer.getCards().isEmpty();
         boolean weHaveCards = existingEntity.getCards() != null && !existingEntity.getCards().isEmpty();
         if (serverHasCards || weHaveCards) {
             existingEntity.setCards(entityFromServer.getCards());
+            existingEntity.setFullCards(entityFromServer.getFullCards());
             List<Card> cards = existingEntity.getCards();
             if (cards != null) {
                 for (Card card : cards) {
                     card.setStackId(existingEntity.getLocalId());
                 }
             }
-            syncHelper.doSyncFor(new CardDataProvider(this, board.getBoard(), existingEntity));
-        } else {
-            childDone(this, callback, true);
+            return syncHelper.syncFor(new CardDataProvider(this, board.getBoard(), existingEntity));
         }
+        return Completable.complete();
     }
 
     @Override
-    public void createOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullStack> responder, FullStack entity) {
+    public void createOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullStack> responder, FullStack entity) {
         if (board.getId() == null) {
             throw new DeckException(DeckException.Hint.DEPENDENCY_NOT_SYNCED_YET, "Board for this stack is not synced yet. Perform a full sync (pull to referesh) as soon as you are online again.");
         }
@@ -89,7 +133,7 @@ public class StackDataProvider extends AbstractSyncDataProvider<FullStack> {
     }
 
     @Override
-    public void deleteOnServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, FullStack entity, DataBaseAdapter dataBaseAdapter) {
+    public void deleteOnServer(IServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, FullStack entity, DataBaseAdapter dataBaseAdapter) {
         entity.getStack().setBoardId(board.getId());
         serverAdapter.deleteStack(board.getBoard(), entity.getStack(), callback);
     }
@@ -106,40 +150,56 @@ public class StackDataProvider extends AbstractSyncDataProvider<FullStack> {
         return changedStacks;
     }
 
+    /**
+     * Pushes the changed cards of this {@link #board} or, if no board is given, of all boards together with their users, labels, attachments and comments.
+     */
     @Override
-    public void goDeeperForUpSync(SyncHelper syncHelper, ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, ResponseCallback<Boolean> callback) {
-        List<FullCard> changedCards = dataBaseAdapter.getLocallyChangedCardsDirectly(callback.getAccount().getId());
-        if (changedCards != null && !changedCards.isEmpty()) {
+    public Completable goDeeperForUpSync(SyncHelper syncHelper, IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account) {
+        List<Completable> children = new ArrayList<>();
+        List<FullCard> changedCards = dataBaseAdapter.getLocallyChangedCardsDirectly(account.getId());
+        if (changedCards != null) {
             for (FullCard changedCard : changedCards) {
                 long stackId = changedCard.getCard().getStackId();
                 boolean alreadySynced = syncedStacks.contains(stackId);
                 if (!alreadySynced) {
                     FullStack stack = dataBaseAdapter.getFullStackByLocalIdDirectly(stackId);
                     // already synced and known to server?
-                    if (stack.getStack().getId() != null) {
+                    if (stack.getStack().getId() != null && (board == null || board.getLocalId().equals(stack.getStack().getBoardId()))) {
                         syncedStacks.add(stackId);
                         Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getStack().getBoardId());
                         changedCard.getCard().setStackId(stack.getId());
-                        syncHelper.doUpSyncFor(new CardDataProvider(this, board, stack));
+                        children.add(syncHelper.upSyncFor(new CardDataProvider(this, board, stack)));
                     }
                 }
             }
-        } else {
-            // no changed cards? maybe users or Labels! So we have to go deeper!
-            new CardDataProvider(this, null, null).goDeeperForUpSync(syncHelper, serverAdapter, dataBaseAdapter, callback);
         }
+        final Completable cards = Flowable.fromIterable(children).flatMapCompletable(child -> child, true, getMaxConcurrency());
+        if (board != null) {
+            return cards;
+        }
+        // maybe users or labels of cards which did not change themselves! So we have to go deeper!
+        return SyncHelper.andThenDelayError(cards, Completable.defer(() -> new CardDataProvider(this, null, null).goDeeperForUpSync(syncHelper, serverAdapter, dataBaseAdapter, account)));
     }
 
     @Override
-    public void updateOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullStack> callback, FullStack entity) {
+    public void updateOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullStack> callback, FullStack entity) {
         entity.getStack().setBoardId(board.getId());
         serverAdapter.updateStack(board.getBoard(), entity.getStack(), callback);
     }
 
+    /**
+     * The stacks endpoint responds with all stacks of the board even if <code>If-Modified-Since</code> is sent,
+     * so stacks missing in the response have been deleted and {@link #handleDeletes} needs to run on every response.
+     */
+    @Override
+    public boolean isDeltaResponse(@Nullable Instant lastSync) {
+        return false;
+    }
+
     @Override
-    public void handleDeletes(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<FullStack> entitiesFromServer) {
+    public void handleDeletes(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<FullStack> entitiesFromServer) {
         List<FullStack> localStacks = dataBaseAdapter.getFullStacksForBoardDirectly(accountId, board.getLocalId());
-        List<FullStack> delta = findDelta(entitiesFromServer, localStacks);
+        List<FullStack> delta = EntityDelta.between(localStacks, entitiesFromServer).getRemoved();
         for (FullStack stackToDelete : delta) {
             if (stackToDelete.getId() == null) {
                 // not pushed up yet so:
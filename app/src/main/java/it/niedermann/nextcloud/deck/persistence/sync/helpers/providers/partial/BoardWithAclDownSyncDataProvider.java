@@ -2,10 +2,11 @@ package it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.partial;
 
 import java.util.List;
 
-import it.niedermann.nextcloud.deck.api.ResponseCallback;
+import io.reactivex.Completable;
 import it.niedermann.nextcloud.deck.model.AccessControl;
+import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.AccessControlDataProvider;
@@ -14,19 +15,21 @@ import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.BoardData
 public class BoardWithAclDownSyncDataProvider extends BoardDataProvider {
 
     @Override
-    public void goDeeper(SyncHelper syncHelper, FullBoard existingEntity, FullBoard entityFromServer, ResponseCallback<Boolean> callback) {
+    public Completable goDeeper(SyncHelper syncHelper, FullBoard existingEntity, FullBoard entityFromServer) {
 
         List<AccessControl> acl = entityFromServer.getParticipants();
         if (acl != null && !acl.isEmpty()){
             for (AccessControl ac : acl){
                 ac.setBoardId(existingEntity.getLocalId());
             }
-            syncHelper.doSyncFor(new AccessControlDataProvider(this, existingEntity, acl));
+            return syncHelper.syncFor(new AccessControlDataProvider(this, existingEntity, acl));
         }
+        return Completable.complete();
     }
 
     @Override
-    public void goDeeperForUpSync(SyncHelper syncHelper, ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, ResponseCallback<Boolean> callback) {
+    public Completable goDeeperForUpSync(SyncHelper syncHelper, IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account) {
         // do nothing!
+        return Completable.complete();
     }
 }
@@ -4,9 +4,9 @@ import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 
-import it.niedermann.nextcloud.deck.api.ResponseCallback;
+import io.reactivex.Completable;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.BoardDataProvider;
@@ -25,13 +25,13 @@ public class BoardWithStacksAndLabelsUpSyncDataProvider extends BoardDataProvide
     }
 
     @Override
-    public void goDeeper(SyncHelper syncHelper, FullBoard existingEntity, FullBoard entityFromServer, ResponseCallback<Boolean> callback) {
+    public Completable goDeeper(SyncHelper syncHelper, FullBoard existingEntity, FullBoard entityFromServer) {
         // do nothing!
-
+        return Completable.complete();
     }
 
     @Override
-    public void handleDeletes(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<FullBoard> entitiesFromServer) {
+    public void handleDeletes(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<FullBoard> entitiesFromServer) {
         // do nothing!
     }
 }
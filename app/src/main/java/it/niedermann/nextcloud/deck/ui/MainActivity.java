@@ -105,6 +105,7 @@ import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
 import it.niedermann.nextcloud.deck.model.ocs.Capabilities;
 import it.niedermann.nextcloud.deck.model.ocs.Version;
 import it.niedermann.nextcloud.deck.persistence.sync.SyncManager;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncReportUtil;
 import it.niedermann.nextcloud.deck.ui.about.AboutActivity;
 import it.niedermann.nextcloud.deck.ui.accountswitcher.AccountSwitcherDialog;
 import it.niedermann.nextcloud.deck.ui.archivedboards.ArchivedBoardsActvitiy;
@@ -241,7 +242,7 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
         mainViewModel.isDebugModeEnabled().observe(this, (enabled) -> headerBinding.copyDebugLogs.setVisibility(enabled ? View.VISIBLE : View.GONE));
         headerBinding.copyDebugLogs.setOnClickListener((v) -> {
             try {
-                DeckLog.shareLogAsFile(this);
+                DeckLog.shareLogAsFile(this, "--- Latest synchronizations ---\n" + SyncReportUtil.getReports(this));
             } catch (Exception e) {
                 ExceptionDialogFragment.newInstance(e, mainViewModel.getCurrentAccount()).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName());
             }
@@ -261,16 +261,16 @@ public class MainViewModel extends AndroidViewModel {
         syncManager.addOrUpdateSingleCardWidget(widgetId, accountId, boardId, localCardId);
     }
 
-    public LiveData<List<FullCard>> getFullCardsForStack(long accountId, long localStackId, @Nullable FilterInformation filter) {
-        return syncManager.getFullCardsForStack(accountId, localStackId, filter);
+    public LiveData<List<FullCard>> getFullCardsForStack(long accountId, long localStackId, @Nullable FilterInformation filter, int offset, int limit) {
+        return syncManager.getFullCardsForStack(accountId, localStackId, filter, offset, limit);
     }
 
     public void moveCard(long originAccountId, long originCardLocalId, long targetAccountId, long targetBoardLocalId, long targetStackLocalId, @NonNull IResponseCallback<Void> callback) {
         syncManager.moveCard(originAccountId, originCardLocalId, targetAccountId, targetBoardLocalId, targetStackLocalId, callback);
     }
 
-    public LiveData<List<FullCard>> getArchivedFullCardsForBoard(long accountId, long localBoardId) {
-        return syncManager.getArchivedFullCardsForBoard(accountId, localBoardId);
+    public LiveData<List<FullCard>> getArchivedFullCardsForBoard(long accountId, long localBoardId, int offset, int limit) {
+        return syncManager.getArchivedFullCardsForBoard(accountId, localBoardId, offset, limit);
     }
 
     public void assignUserToCard(@NonNull User user, @NonNull Card card) {
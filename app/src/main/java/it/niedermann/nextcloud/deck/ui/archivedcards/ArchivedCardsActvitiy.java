@@ -13,6 +13,8 @@ import it.niedermann.nextcloud.deck.databinding.ActivityArchivedBinding;
 import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.util.LiveDataHelper;
 import it.niedermann.nextcloud.deck.ui.MainViewModel;
+import it.niedermann.nextcloud.deck.ui.card.CardLimitScrollListener;
+import it.niedermann.nextcloud.deck.ui.card.CardPagesLiveData;
 import it.niedermann.nextcloud.deck.ui.exception.ExceptionHandler;
 import it.niedermann.nextcloud.deck.ui.pickstack.PickStackViewModel;
 
@@ -67,7 +69,10 @@ public class ArchivedCardsActvitiy extends AppCompatActivity {
             adapter = new ArchivedCardsAdapter(this, getSupportFragmentManager(), viewModel);
             binding.recyclerView.setAdapter(adapter);
 
-            viewModel.getArchivedFullCardsForBoard(account.getId(), boardId).observe(this, (fullCards) -> adapter.setCardList(fullCards));
+            final var cardPages = new CardPagesLiveData((offset, limit) -> viewModel.getArchivedFullCardsForBoard(account.getId(), boardId, offset, limit));
+            cardPages.loadPage(0, CardLimitScrollListener.PAGE_SIZE);
+            cardPages.observe(this, (fullCards) -> adapter.setCardList(fullCards));
+            binding.recyclerView.addOnScrollListener(new CardLimitScrollListener(cardPages::loadPage));
         });
     }
 
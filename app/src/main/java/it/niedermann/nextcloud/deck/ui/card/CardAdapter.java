@@ -19,6 +19,7 @@ import androidx.annotation.StringRes;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.FragmentManager;
 import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
@@ -43,6 +44,7 @@ import it.niedermann.nextcloud.deck.ui.branding.Branded;
 import it.niedermann.nextcloud.deck.ui.exception.ExceptionDialogFragment;
 import it.niedermann.nextcloud.deck.ui.movecard.MoveCardDialogFragment;
 import it.niedermann.nextcloud.deck.util.CardUtil;
+import it.niedermann.nextcloud.deck.util.DeckExecutors;
 
 public class CardAdapter extends RecyclerView.Adapter<AbstractCardViewHolder> implements DragAndDropAdapter<FullCard>, CardOptionsItemSelectedListener, Branded {
 
@@ -66,6 +68,14 @@ public class CardAdapter extends RecyclerView.Adapter<AbstractCardViewHolder> im
     @StringRes
     private final int shareLinkRes;
     protected final int maxCoverImages;
+    /**
+     * Incremented for every submitted card list, so outdated diff results can be dropped.
+     */
+    private int maxScheduledGeneration = 0;
+    /**
+     * Incremented for every local change of {@link #cardList} (e.g. by drag and drop), which invalidates diffs computed against an older snapshot.
+     */
+    private int localModificationCount = 0;
 
     public CardAdapter(@NonNull Activity activity, @NonNull FragmentManager fragmentManager, long stackId, @NonNull MainViewModel mainViewModel, @Nullable SelectCardListener selectCardListener) {
         this(activity, fragmentManager, stackId, mainViewModel, selectCardListener, Executors.newSingleThreadExecutor());
@@ -141,7 +151,7 @@ public class CardAdapter extends RecyclerView.Adapter<AbstractCardViewHolder> im
                 DeckLog.log("Starting drag and drop");
                 v.startDrag(ClipData.newPlainText("cardid", String.valueOf(fullCard.getLocalId())),
                         new View.DragShadowBuilder(v),
-                        new DraggedItemLocalState<>(fullCard, viewHolder.getDraggable(), this, position),
+                        new DraggedItemLocalState<>(fullCard, viewHolder.getDraggable(), this, viewHolder.getAdapterPosition()),
                         0
                 );
                 return true;
@@ -155,6 +165,7 @@ public class CardAdapter extends RecyclerView.Adapter<AbstractCardViewHolder> im
     }
 
     public void insertItem(FullCard fullCard, int position) {
+        localModificationCount++;
         cardList.add(position, fullCard);
         notifyItemInserted(position);
     }
@@ -167,26 +178,57 @@ public class CardAdapter extends RecyclerView.Adapter<AbstractCardViewHolder> im
 
     @Override
     public void moveItem(int fromPosition, int toPosition) {
+        localModificationCount++;
         cardList.add(toPosition, cardList.remove(fromPosition));
         notifyItemMoved(fromPosition, toPosition);
     }
 
     @Override
     public void removeItem(int position) {
+        localModificationCount++;
         cardList.remove(position);
         notifyItemRemoved(position);
     }
 
+    /**
+     * Calculates the difference to the currently displayed cards off the main thread and only notifies about cards which actually changed.
+     */
     public void setCardList(@NonNull List<FullCard> cardList) {
-        this.cardList.clear();
-        this.cardList.addAll(cardList);
-        notifyDataSetChanged();
+        final int generation = ++maxScheduledGeneration;
+        final int modificationCountAtStart = localModificationCount;
+        final List<FullCard> oldList = new ArrayList<>(this.cardList);
+        final List<FullCard> newList = new ArrayList<>(cardList);
+        if (oldList.isEmpty()) {
+            this.cardList.addAll(newList);
+            notifyItemRangeInserted(0, newList.size());
+            return;
+        }
+        DeckExecutors.cpu().execute(() -> {
+            final var diffResult = DiffUtil.calculateDiff(new FullCardDiffCallback(oldList, newList));
+            activity.runOnUiThread(() -> {
+                if (generation != maxScheduledGeneration) {
+                    // A newer list has been submitted in the meantime
+                    return;
+                }
+                if (modificationCountAtStart != localModificationCount) {
+                    // The displayed list has been changed locally, the diff is no longer valid
+                    setCardList(newList);
+                    return;
+                }
+                this.cardList.clear();
+                this.cardList.addAll(newList);
+                diffResult.dispatchUpdatesTo(this);
+            });
+        });
     }
 
     @Override
     public void applyBrand(int mainColor) {
-        this.mainColor = getSecondaryForegroundColorDependingOnTheme(activity, mainColor);
-        notifyDataSetChanged();
+        final int newMainColor = getSecondaryForegroundColorDependingOnTheme(activity, mainColor);
+        if (this.mainColor != newMainColor) {
+            this.mainColor = newMainColor;
+            notifyItemRangeChanged(0, getItemCount());
+        }
     }
 
     @Override
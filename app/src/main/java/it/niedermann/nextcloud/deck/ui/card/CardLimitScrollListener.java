@@ -0,0 +1,73 @@
+package it.niedermann.nextcloud.deck.ui.card;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.CardDao;
+
+/**
+ * Only a page of cards gets loaded initially, another page is requested whenever the user scrolls close to the last loaded card.
+ * This keeps the time until the first cards are shown and the memory usage independent of the total number of cards.
+ * Each page is only loaded once and appended to the already loaded pages, see {@link CardPagesLiveData}.
+ */
+public class CardLimitScrollListener extends RecyclerView.OnScrollListener {
+
+    public static final int PAGE_SIZE = 50;
+
+    @NonNull
+    private final OnLoadPageListener onLoadPage;
+    private int requestedCount = PAGE_SIZE;
+    private boolean allRequested = false;
+
+    /**
+     * @param onLoadPage needs to load and append the requested page
+     */
+    public CardLimitScrollListener(@NonNull OnLoadPageListener onLoadPage) {
+        this.onLoadPage = onLoadPage;
+    }
+
+    /**
+     * Starts with the first page again, e. g. after the filter has changed. Does not call the listener, the caller loads the first page.
+     */
+    public void reset() {
+        requestedCount = PAGE_SIZE;
+        allRequested = false;
+    }
+
+    /**
+     * Loads all remaining cards, e. g. to be able to scroll to the last one.
+     */
+    public void loadAll() {
+        if (!allRequested) {
+            allRequested = true;
+            onLoadPage.onLoadPage(requestedCount, CardDao.NO_LIMIT);
+        }
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy <= 0 || allRequested) {
+            return;
+        }
+        final var adapter = recyclerView.getAdapter();
+        final var layoutManager = recyclerView.getLayoutManager();
+        if (adapter == null || !(layoutManager instanceof LinearLayoutManager)) {
+            return;
+        }
+        final int itemCount = adapter.getItemCount();
+        // Less cards than requested mean that all cards have already been loaded or the last page is still loading
+        if (itemCount >= requestedCount && ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition() >= itemCount - PAGE_SIZE / 2) {
+            final int offset = requestedCount;
+            requestedCount += PAGE_SIZE;
+            onLoadPage.onLoadPage(offset, PAGE_SIZE);
+        }
+    }
+
+    public interface OnLoadPageListener {
+        /**
+         * @param limit number of cards or {@link CardDao#NO_LIMIT} for all remaining cards
+         */
+        void onLoadPage(int offset, int limit);
+    }
+}
@@ -0,0 +1,67 @@
+package it.niedermann.nextcloud.deck.ui.card;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+
+/**
+ * Concatenates independently loaded pages of cards, so loading another page does not query the already loaded ones again.
+ * <p>
+ * Each page stays observed on its own and gets updated when cards change. A card which moved from one page to another one might be emitted by both pages for a moment, it is only contained once.
+ */
+public class CardPagesLiveData extends MediatorLiveData<List<FullCard>> {
+
+    @NonNull
+    private final PageSource pageSource;
+    @NonNull
+    private final List<List<FullCard>> pages = new ArrayList<>();
+
+    public CardPagesLiveData(@NonNull PageSource pageSource) {
+        this.pageSource = pageSource;
+    }
+
+    @UiThread
+    public void loadPage(int offset, int limit) {
+        final int index = pages.size();
+        pages.add(null);
+        addSource(pageSource.getPage(offset, limit), cards -> {
+            pages.set(index, cards);
+            publish();
+        });
+    }
+
+    /**
+     * Publishes all pages until the first one which has not been loaded yet, so the cards are always a prefix of the stack.
+     */
+    private void publish() {
+        final List<FullCard> cards = new ArrayList<>();
+        final Set<Long> localIds = new HashSet<>();
+        for (List<FullCard> page : pages) {
+            if (page == null) {
+                break;
+            }
+            for (FullCard card : page) {
+                if (localIds.add(card.getLocalId())) {
+                    cards.add(card);
+                }
+            }
+        }
+        setValue(cards);
+    }
+
+    public interface PageSource {
+        /**
+         * @param limit number of cards or {@link it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.CardDao#NO_LIMIT}
+         */
+        @NonNull
+        LiveData<List<FullCard>> getPage(int offset, int limit);
+    }
+}
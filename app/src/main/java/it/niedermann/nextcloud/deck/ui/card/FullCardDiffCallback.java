@@ -0,0 +1,58 @@
+package it.niedermann.nextcloud.deck.ui.card;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.List;
+import java.util.Objects;
+
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+
+/**
+ * Compares two snapshots of a card list so only cards which actually changed get rebound.
+ * Items are identified by their local ID, contents are compared including labels, assignees, attachments and comments.
+ */
+public class FullCardDiffCallback extends DiffUtil.Callback {
+
+    @NonNull
+    private final List<FullCard> oldList;
+    @NonNull
+    private final List<FullCard> newList;
+
+    public FullCardDiffCallback(@NonNull List<FullCard> oldList, @NonNull List<FullCard> newList) {
+        this.oldList = oldList;
+        this.newList = newList;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return oldList.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return newList.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+        return ITEM_CALLBACK.areItemsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+        return ITEM_CALLBACK.areContentsTheSame(oldList.get(oldItemPosition), newList.get(newItemPosition));
+    }
+
+    public static final DiffUtil.ItemCallback<FullCard> ITEM_CALLBACK = new DiffUtil.ItemCallback<>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull FullCard oldItem, @NonNull FullCard newItem) {
+            return Objects.equals(oldItem.getLocalId(), newItem.getLocalId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull FullCard oldItem, @NonNull FullCard newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+}
@@ -10,7 +10,6 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
-import androidx.lifecycle.LiveData;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -26,9 +25,12 @@ import it.niedermann.nextcloud.deck.databinding.FragmentStackBinding;
 import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.Stack;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
 import it.niedermann.nextcloud.deck.persistence.sync.SyncManager;
 import it.niedermann.nextcloud.deck.ui.MainViewModel;
 import it.niedermann.nextcloud.deck.ui.card.CardAdapter;
+import it.niedermann.nextcloud.deck.ui.card.CardLimitScrollListener;
+import it.niedermann.nextcloud.deck.ui.card.CardPagesLiveData;
 import it.niedermann.nextcloud.deck.ui.card.SelectCardListener;
 import it.niedermann.nextcloud.deck.ui.exception.ExceptionDialogFragment;
 import it.niedermann.nextcloud.deck.ui.filter.FilterViewModel;
@@ -45,7 +47,14 @@ public class StackFragment extends Fragment implements DragAndDropTab<CardAdapte
 
     @Nullable
     private CardAdapter adapter = null;
-    private LiveData<List<FullCard>> cardsLiveData;
+    @Nullable
+    private CardPagesLiveData cardPages;
+    @Nullable
+    private Observer<List<FullCard>> cardsObserver;
+    @Nullable
+    private CardLimitScrollListener cardLimitScrollListener;
+    @Nullable
+    private FilterInformation filterInformation;
 
     private long stackId;
 
@@ -103,7 +112,7 @@ public class StackFragment extends Fragment implements DragAndDropTab<CardAdapte
             binding.emptyContentView.hideDescription();
         }
 
-        final Observer<List<FullCard>> cardsObserver = (fullCards) -> activity.runOnUiThread(() -> {
+        cardsObserver = (fullCards) -> activity.runOnUiThread(() -> {
             binding.loadingSpinner.hide();
             if (fullCards != null && fullCards.size() > 0) {
                 binding.emptyContentView.setVisibility(View.GONE);
@@ -113,18 +122,42 @@ public class StackFragment extends Fragment implements DragAndDropTab<CardAdapte
             }
         });
 
-        cardsLiveData = mainViewModel.getFullCardsForStack(mainViewModel.getCurrentAccount().getId(), stackId, filterViewModel.getFilterInformation().getValue());
-        cardsLiveData.observe(getViewLifecycleOwner(), cardsObserver);
+        cardLimitScrollListener = new CardLimitScrollListener((offset, limit) -> {
+            if (cardPages != null) {
+                cardPages.loadPage(offset, limit);
+            }
+        });
+        binding.recyclerView.addOnScrollListener(cardLimitScrollListener);
+
+        filterInformation = filterViewModel.getFilterInformation().getValue();
+        observeCards();
 
         filterViewModel.getFilterInformation().observe(getViewLifecycleOwner(), (filterInformation -> {
-            cardsLiveData.removeObserver(cardsObserver);
-            cardsLiveData = mainViewModel.getFullCardsForStack(mainViewModel.getCurrentAccount().getId(), stackId, filterInformation);
-            cardsLiveData.observe(getViewLifecycleOwner(), cardsObserver);
+            this.filterInformation = filterInformation;
+            cardLimitScrollListener.reset();
+            observeCards();
         }));
 
         return binding.getRoot();
     }
 
+    /**
+     * (Re-)Subscribes to the first page of cards of this stack with the current filter
+     */
+    private void observeCards() {
+        if (cardsObserver == null) {
+            return;
+        }
+        if (cardPages != null) {
+            cardPages.removeObserver(cardsObserver);
+        }
+        final long accountId = mainViewModel.getCurrentAccount().getId();
+        final FilterInformation filter = filterInformation;
+        cardPages = new CardPagesLiveData((offset, limit) -> mainViewModel.getFullCardsForStack(accountId, stackId, filter, offset, limit));
+        cardPages.loadPage(0, CardLimitScrollListener.PAGE_SIZE);
+        cardPages.observe(getViewLifecycleOwner(), cardsObserver);
+    }
+
     @Override
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
@@ -196,6 +229,10 @@ public class StackFragment extends Fragment implements DragAndDropTab<CardAdapte
                 DeckLog.warn("LayoutManager is null");
                 return;
             }
+            if (cardLimitScrollListener != null) {
+                // Cards below the current limit have not been loaded yet
+                cardLimitScrollListener.loadAll();
+            }
             int currentItem = layoutManager.findFirstVisibleItemPosition();
 
             if (adapter.getItemCount() - currentItem < 40) {
@@ -10,13 +10,8 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
-import it.niedermann.nextcloud.deck.DeckLog;
-import it.niedermann.nextcloud.deck.model.Card;
-
 import static java.time.temporal.ChronoUnit.DAYS;
 
 public class UpcomingCardsUtil {
@@ -47,49 +42,15 @@ public class UpcomingCardsUtil {
     }
 
     /**
-     * @return a {@link Collection} of the given {@param items}, sorted and separated by {@link UpcomingCardsAdapterSectionItem}.
+     * @param items must already be sorted by their due date, like they are returned from the database
+     * @return a {@link Collection} of the given {@param items}, separated by {@link UpcomingCardsAdapterSectionItem}.
      */
     public static Collection<Object> addDueDateSeparators(@NonNull Context context, @NonNull List<UpcomingCardsAdapterItem> items) {
-        final Collection<Object> ret = new ArrayList<>();
-
-        final Comparator<UpcomingCardsAdapterItem> comparator = Comparator.comparing((card -> {
-            if (card != null &&
-                    card.getFullCard() != null &&
-                    card.getFullCard().getCard() != null &&
-                    card.getFullCard().getCard().getDueDate() != null) {
-                return card.getFullCard().getCard().getDueDate();
-            }
-            return null;
-        }), Comparator.nullsLast(Comparator.naturalOrder()));
-
-        comparator.thenComparing(card -> {
-            if (card != null &&
-                    card.getFullCard() != null &&
-                    card.getFullCard().getCard().getDueDate() != null) {
-
-                final Card c = card.getFullCard().getCard();
-
-                if (c.getLastModified() == null && c.getLastModifiedLocal() != null) {
-                    return c.getLastModifiedLocal();
-                } else if (c.getLastModified() != null && c.getLastModifiedLocal() == null) {
-                    return c.getLastModified();
-                } else {
-                    return c.getLastModifiedLocal().toEpochMilli() > c.getLastModified().toEpochMilli() ?
-                            c.getLastModifiedLocal() : c.getLastModified();
-                }
-            }
-            return null;
-        }, Comparator.nullsLast(Comparator.naturalOrder()));
-
-        Collections.sort(
-                items,
-                comparator
-        );
+        final Collection<Object> ret = new ArrayList<>(items.size() + EUpcomingDueType.values().length);
 
         EUpcomingDueType lastDueType = null;
         for (UpcomingCardsAdapterItem filterWidgetCard : items) {
             final EUpcomingDueType nextDueType = getDueType(filterWidgetCard.getFullCard().getCard().getDueDate());
-            DeckLog.info(filterWidgetCard.getFullCard().getCard().getTitle() + ":", nextDueType.name());
             if (!nextDueType.equals(lastDueType)) {
                 ret.add(new UpcomingCardsAdapterSectionItem(nextDueType.toString(context)));
                 lastDueType = nextDueType;
@@ -8,13 +8,13 @@ import androidx.lifecycle.LiveData;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import it.niedermann.nextcloud.deck.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.persistence.sync.SyncManager;
+import it.niedermann.nextcloud.deck.util.DeckExecutors;
 
 @SuppressWarnings("WeakerAccess")
 public class UpcomingCardsViewModel extends AndroidViewModel {
@@ -25,7 +25,7 @@ public class UpcomingCardsViewModel extends AndroidViewModel {
     public UpcomingCardsViewModel(@NonNull Application application) {
         super(application);
         this.syncManager = new SyncManager(application);
-        this.executor = Executors.newCachedThreadPool();
+        this.executor = DeckExecutors.database();
     }
 
     public LiveData<List<UpcomingCardsAdapterItem>> getUpcomingCards() {
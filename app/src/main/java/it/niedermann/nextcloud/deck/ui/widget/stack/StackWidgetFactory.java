@@ -47,7 +47,7 @@ public class StackWidgetFactory implements RemoteViewsService.RemoteViewsFactory
             final List<FilterWidgetCard> response = syncManager.getCardsForFilterWidget(appWidgetId);
             DeckLog.verbose(StackWidget.class.getSimpleName(), "with id", appWidgetId, "fetched", response.size(), "cards from the database.");
             data.clear();
-            Collections.sort(response, Comparator.comparingLong(value -> value.getCard().getCard().getOrder()));
+            Collections.sort(response, Comparator.comparingLong(value -> value.getCard().getCard().getLocalOrder()));
             data.addAll(response);
         } catch (NoSuchElementException e) {
             DeckLog.error("No", StackWidget.class.getSimpleName(), "for appWidgetId", appWidgetId, "found.");
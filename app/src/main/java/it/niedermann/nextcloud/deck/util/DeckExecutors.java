@@ -0,0 +1,106 @@
+package it.niedermann.nextcloud.deck.util;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+
+/**
+ * Central, bounded thread pools shared by the whole app instead of one unbounded cached thread pool per component.
+ */
+public class DeckExecutors {
+
+    private DeckExecutors() {
+        throw new UnsupportedOperationException("This class must not get instantiated");
+    }
+
+    private static final int CPU_COUNT = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int NETWORK_MAX_THREADS = 16;
+    private static final int DATABASE_THREADS = 2;
+    private static final int DATABASE_QUEUE_CAPACITY = 64;
+    private static final int CPU_QUEUE_CAPACITY = CPU_COUNT * 16;
+    private static final int BACKGROUND_QUEUE_CAPACITY = 32;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * Network requests and other blocking work. Some sync steps block while waiting for nested requests,
+     * so tasks are handed off directly to a thread instead of being queued. When all threads are busy,
+     * the submitting thread runs the task itself, which throttles the producer of new requests.
+     */
+    private static final InstrumentedThreadPoolExecutor NETWORK = new InstrumentedThreadPoolExecutor(
+            "network", 2, NETWORK_MAX_THREADS, KEEP_ALIVE_SECONDS, new SynchronousQueue<>(), new CallerRunsUnlessMainThreadPolicy());
+
+    /**
+     * Local database reads and writes which back the UI, like {@link androidx.lifecycle.LiveData} and widget contents.
+     * Once the queue is full, the submitting thread runs the task itself.
+     */
+    private static final InstrumentedThreadPoolExecutor DATABASE = new InstrumentedThreadPoolExecutor(
+            "database", DATABASE_THREADS, DATABASE_THREADS, KEEP_ALIVE_SECONDS, new ArrayBlockingQueue<>(DATABASE_QUEUE_CAPACITY), new CallerRunsUnlessMainThreadPolicy());
+
+    /**
+     * Pure computations like parsing and diffing which neither block on the network nor on the database.
+     * Once the queue is full, the submitting thread runs the task itself.
+     */
+    private static final InstrumentedThreadPoolExecutor CPU = new InstrumentedThreadPoolExecutor(
+            "cpu", CPU_COUNT, CPU_COUNT, KEEP_ALIVE_SECONDS, new ArrayBlockingQueue<>(CPU_QUEUE_CAPACITY), new CallerRunsUnlessMainThreadPolicy());
+
+    /**
+     * Deferred work which nobody waits for, like pushing debounced card moves and notifying widgets.
+     * It has its own thread so it neither delays nor is delayed by the reads of {@link #database()}.
+     */
+    private static final InstrumentedThreadPoolExecutor BACKGROUND = new InstrumentedThreadPoolExecutor(
+            "background", 1, 1, KEEP_ALIVE_SECONDS, new ArrayBlockingQueue<>(BACKGROUND_QUEUE_CAPACITY), new CallerRunsUnlessMainThreadPolicy());
+
+    static {
+        DATABASE.allowCoreThreadTimeOut(true);
+        CPU.allowCoreThreadTimeOut(true);
+        BACKGROUND.allowCoreThreadTimeOut(true);
+    }
+
+    @NonNull
+    public static InstrumentedThreadPoolExecutor network() {
+        return NETWORK;
+    }
+
+    @NonNull
+    public static InstrumentedThreadPoolExecutor database() {
+        return DATABASE;
+    }
+
+    @NonNull
+    public static InstrumentedThreadPoolExecutor cpu() {
+        return CPU;
+    }
+
+    @NonNull
+    public static InstrumentedThreadPoolExecutor background() {
+        return BACKGROUND;
+    }
+
+    public static void logStats() {
+        DeckLog.verbose(NETWORK.getStats(), DATABASE.getStats(), CPU.getStats(), BACKGROUND.getStats());
+    }
+
+    /**
+     * Runs rejected tasks on the submitting thread to slow it down. The main thread must never block,
+     * so tasks rejected there are run on a short living extra thread instead.
+     */
+    private static class CallerRunsUnlessMainThreadPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                DeckLog.warn("Executor has been shut down, dropping task");
+            } else if (Looper.myLooper() == Looper.getMainLooper()) {
+                new Thread(runnable, "deck-overflow").start();
+            } else {
+                runnable.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package it.niedermann.nextcloud.deck.util;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ThreadPoolExecutor} which keeps track of queue depth, active threads, rejections and the latency of its tasks.
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    @NonNull
+    private final String name;
+    private final AtomicLong submittedTasks = new AtomicLong();
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+
+    public InstrumentedThreadPoolExecutor(@NonNull String name, int corePoolSize, int maximumPoolSize, long keepAliveSeconds,
+                                          @NonNull BlockingQueue<Runnable> workQueue, @NonNull RejectedExecutionHandler rejectedExecutionHandler) {
+        super(corePoolSize, maximumPoolSize, keepAliveSeconds, TimeUnit.SECONDS, workQueue, new NamedThreadFactory(name));
+        this.name = name;
+        setRejectedExecutionHandler((runnable, executor) -> {
+            rejectedTasks.incrementAndGet();
+            rejectedExecutionHandler.rejectedExecution(runnable, executor);
+        });
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        submittedTasks.incrementAndGet();
+        super.execute(new TimedRunnable(command));
+    }
+
+    @NonNull
+    public Stats getStats() {
+        final long completed = completedTasks.get();
+        return new Stats(
+                name,
+                getQueue().size(),
+                getActiveCount(),
+                getPoolSize(),
+                getLargestPoolSize(),
+                submittedTasks.get(),
+                completed,
+                rejectedTasks.get(),
+                completed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / completed),
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+                completed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalRunNanos.get() / completed)
+        );
+    }
+
+    private class TimedRunnable implements Runnable {
+        @NonNull
+        private final Runnable delegate;
+        private final long enqueuedAt = System.nanoTime();
+
+        private TimedRunnable(@NonNull Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            final long startedAt = System.nanoTime();
+            final long waitNanos = startedAt - enqueuedAt;
+            totalWaitNanos.addAndGet(waitNanos);
+            long currentMax;
+            do {
+                currentMax = maxWaitNanos.get();
+            } while (waitNanos > currentMax && !maxWaitNanos.compareAndSet(currentMax, waitNanos));
+            try {
+                delegate.run();
+            } finally {
+                totalRunNanos.addAndGet(System.nanoTime() - startedAt);
+                completedTasks.incrementAndGet();
+            }
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        @NonNull
+        private final String name;
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        private NamedThreadFactory(@NonNull String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            final Thread thread = new Thread(runnable, "deck-" + name + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    public static class Stats {
+        @NonNull
+        public final String name;
+        public final int queueDepth;
+        public final int activeThreads;
+        public final int poolSize;
+        public final int largestPoolSize;
+        public final long submittedTasks;
+        public final long completedTasks;
+        public final long rejectedTasks;
+        public final long averageWaitMillis;
+        public final long maxWaitMillis;
+        public final long averageRunMillis;
+
+        private Stats(@NonNull String name, int queueDepth, int activeThreads, int poolSize, int largestPoolSize,
+                      long submittedTasks, long completedTasks, long rejectedTasks,
+                      long averageWaitMillis, long maxWaitMillis, long averageRunMillis) {
+            this.name = name;
+            this.queueDepth = queueDepth;
+            this.activeThreads = activeThreads;
+            this.poolSize = poolSize;
+            this.largestPoolSize = largestPoolSize;
+            this.submittedTasks = submittedTasks;
+            this.completedTasks = completedTasks;
+            this.rejectedTasks = rejectedTasks;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.averageRunMillis = averageRunMillis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return name + "{" +
+                    "queue=" + queueDepth +
+                    ", active=" + activeThreads +
+                    ", pool=" + poolSize +
+                    ", largestPool=" + largestPoolSize +
+                    ", submitted=" + submittedTasks +
+                    ", completed=" + completedTasks +
+                    ", rejected=" + rejectedTasks +
+                    ", avgWait=" + averageWaitMillis + "ms" +
+                    ", maxWait=" + maxWaitMillis + "ms" +
+                    ", avgRun=" + averageRunMillis + "ms" +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package it.niedermann.nextcloud.deck.util;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-size buffer which keeps the latest elements and overwrites the oldest ones when full.
+ * <p>
+ * Adding does neither lock nor allocate more than one slot object, so it can be used from hot paths on any thread.
+ * Each element gets a sequence number, which allows consumers to continue reading where they stopped the last time.
+ */
+public class RingBuffer<T> {
+
+    private final int capacity;
+    private final int mask;
+    @NonNull
+    private final AtomicReferenceArray<Slot<T>> slots;
+    @NonNull
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity must be a power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two, but was " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return the sequence number of the added element
+     */
+    @AnyThread
+    public long add(@NonNull T element) {
+        final long sequence = head.getAndIncrement();
+        slots.set((int) (sequence & mask), new Slot<>(sequence, element));
+        return sequence;
+    }
+
+    /**
+     * @return the sequence number the next added element will get
+     */
+    @AnyThread
+    public long getHead() {
+        return head.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Passes all elements from <code>fromSequence</code> on which are still in the buffer to the <code>consumer</code> in the order they have been added.
+     * Elements which have been overwritten before they could be read are skipped.
+     *
+     * @return the sequence number to continue with the next time. Elements which are still being added are not skipped but will be read the next time.
+     */
+    @AnyThread
+    public long read(long fromSequence, @NonNull Consumer<T> consumer) {
+        final long end = head.get();
+        long sequence = Math.max(fromSequence, end - capacity);
+        for (; sequence < end; sequence++) {
+            final Slot<T> slot = slots.get((int) (sequence & mask));
+            if (slot == null || slot.sequence < sequence) {
+                // Sequence has been claimed, but the element is not yet published
+                break;
+            }
+            if (slot.sequence == sequence) {
+                consumer.accept(slot.element);
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Drops the references to all elements before <code>toSequence</code>, so they can be garbage collected before they get overwritten.
+     * Released elements can not be read anymore.
+     */
+    @AnyThread
+    public void release(long toSequence) {
+        for (int i = 0; i < capacity; i++) {
+            final Slot<T> slot = slots.get(i);
+            if (slot != null && slot.sequence < toSequence) {
+                slots.compareAndSet(i, slot, null);
+            }
+        }
+    }
+
+    private static class Slot<T> {
+        private final long sequence;
+        @NonNull
+        private final T element;
+
+        private Slot(long sequence, @NonNull T element) {
+            this.sequence = sequence;
+            this.element = element;
+        }
+    }
+}
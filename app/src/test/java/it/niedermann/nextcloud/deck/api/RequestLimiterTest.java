@@ -0,0 +1,70 @@
+package it.niedermann.nextcloud.deck.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+
+public class RequestLimiterTest {
+
+    @Test
+    public void testLimit() {
+        final var limiter = new RequestLimiter(1);
+        final PublishSubject<String> first = PublishSubject.create();
+        final PublishSubject<String> second = PublishSubject.create();
+
+        final TestObserver<String> firstObserver = limiter.limit(first).test();
+        final TestObserver<String> secondObserver = limiter.limit(second).test();
+
+        assertTrue(first.hasObservers());
+        assertFalse("Second request must wait until the first one terminated", second.hasObservers());
+
+        first.onNext("first");
+        first.onComplete();
+        firstObserver.assertValue("first").assertComplete();
+
+        assertTrue(second.hasObservers());
+        second.onError(new IllegalStateException());
+        secondObserver.assertError(IllegalStateException.class);
+    }
+
+    @Test
+    public void testDisposedWhileQueued() {
+        final var limiter = new RequestLimiter(1);
+        final PublishSubject<String> first = PublishSubject.create();
+        final PublishSubject<String> second = PublishSubject.create();
+        final PublishSubject<String> third = PublishSubject.create();
+
+        final TestObserver<String> firstObserver = limiter.limit(first).test();
+        limiter.limit(second).test().dispose();
+        limiter.limit(third).test();
+
+        firstObserver.dispose();
+        assertFalse(second.hasObservers());
+        assertTrue("Disposed requests must not occupy a slot", third.hasObservers());
+    }
+
+    @Test
+    public void testIncreaseLimit() {
+        final var limiter = new RequestLimiter(1);
+        final PublishSubject<String> first = PublishSubject.create();
+        final PublishSubject<String> second = PublishSubject.create();
+
+        limiter.limit(first).test();
+        limiter.limit(second).test();
+        assertFalse(second.hasObservers());
+
+        limiter.setMaxConcurrentRequests(2);
+        assertEquals(2, limiter.getMaxConcurrentRequests());
+        assertTrue(second.hasObservers());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimit() {
+        new RequestLimiter(0);
+    }
+}
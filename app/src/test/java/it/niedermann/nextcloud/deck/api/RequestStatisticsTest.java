@@ -0,0 +1,69 @@
+package it.niedermann.nextcloud.deck.api;
+
+import static org.junit.Assert.assertEquals;
+
+import com.nextcloud.android.sso.api.ParsedResponse;
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import okhttp3.ResponseBody;
+
+public class RequestStatisticsTest {
+
+    @Test
+    public void testNotModifiedAndFailedRequests() {
+        final var statistics = new RequestStatistics();
+        for (int i = 0; i < 4; i++) {
+            statistics.onRequest();
+        }
+        statistics.onError(new NextcloudHttpRequestFailedException(304, new RuntimeException()));
+        statistics.onError(new NextcloudHttpRequestFailedException(304, new RuntimeException()));
+        statistics.onError(new NextcloudHttpRequestFailedException(500, new RuntimeException()));
+        statistics.onError(new RuntimeException());
+
+        final var snapshot = statistics.snapshot();
+        assertEquals(4, snapshot.requests);
+        assertEquals(2, snapshot.notModified);
+        assertEquals(2, snapshot.failed);
+    }
+
+    @Test
+    public void testResponseSizes() {
+        final var statistics = new RequestStatistics();
+        statistics.onResponse(ResponseBody.create(null, "12345"));
+        statistics.onResponse(new ParsedResponse<>(Collections.emptyList(), Map.of("content-length", "1024")));
+        // Unknown sizes must not be counted
+        statistics.onResponse(new ParsedResponse<>(Collections.emptyList(), Map.of("Content-Length", "invalid")));
+        statistics.onResponse(new ParsedResponse<>(Collections.emptyList(), Collections.emptyMap()));
+        statistics.onResponse(Collections.emptyList());
+        statistics.onResponse(null);
+
+        final var snapshot = statistics.snapshot();
+        assertEquals(2, snapshot.responsesWithKnownSize);
+        assertEquals(1029, snapshot.responseBytes);
+    }
+
+    @Test
+    public void testSnapshotMinus() {
+        final var statistics = new RequestStatistics();
+        statistics.onRequest();
+        statistics.onError(new RuntimeException());
+        final var earlier = statistics.snapshot();
+
+        statistics.onRequest();
+        statistics.onRequest();
+        statistics.onError(new NextcloudHttpRequestFailedException(304, new RuntimeException()));
+        statistics.onResponse(ResponseBody.create(null, "12"));
+
+        final var difference = statistics.snapshot().minus(earlier);
+        assertEquals(2, difference.requests);
+        assertEquals(0, difference.failed);
+        assertEquals(1, difference.notModified);
+        assertEquals(1, difference.responsesWithKnownSize);
+        assertEquals(2, difference.responseBytes);
+    }
+}
@@ -0,0 +1,202 @@
+package it.niedermann.nextcloud.deck.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.graphics.Color;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.model.Attachment;
+import it.niedermann.nextcloud.deck.model.enums.EAttachmentType;
+import it.niedermann.nextcloud.deck.model.full.FullBoard;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.model.full.FullStack;
+import it.niedermann.nextcloud.deck.model.ocs.comment.OcsComment;
+
+/**
+ * Golden file tests which make sure the streaming {@link GsonConfig#getGson()} reads the same entities as the tree based {@link GsonConfig#getTreeGson()}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StreamingEntityParserTest {
+
+    /**
+     * Serializes all fields, so entities can be compared even where their <code>equals</code> implementation ignores some of them
+     */
+    private final Gson comparingGson = new GsonBuilder()
+            .registerTypeAdapter(Instant.class, new GsonUTCInstantAdapter())
+            .serializeNulls()
+            .create();
+
+    @Test
+    public void testBoards() throws IOException {
+        final List<FullBoard> boards = assertParity("api/boards.json", new TypeToken<List<FullBoard>>() {}.getType());
+
+        assertEquals(3, boards.size());
+        final FullBoard board = boards.get(0);
+        assertEquals("Personal", board.getBoard().getTitle());
+        assertEquals(3, board.getLabels().size());
+        assertEquals(Color.GRAY, board.getLabels().get(2).getColor().intValue());
+        assertEquals(2, board.getParticipants().size());
+        assertEquals("admins", board.getParticipants().get(1).getUser().getUid());
+        assertEquals(2, board.getStacks().size());
+        assertEquals(0, board.getStacks().get(1).getOrder());
+        assertEquals(Instant.ofEpochSecond(1634038316), board.getBoard().getLastModified());
+        assertEquals("", boards.get(2).getBoard().getTitle());
+    }
+
+    @Test
+    public void testStacks() throws IOException {
+        final List<FullStack> stacks = assertParity("api/stacks.json", new TypeToken<List<FullStack>>() {}.getType());
+        final List<FullStack> treeStacks = GsonConfig.getTreeGson().fromJson(read("api/stacks.json"), new TypeToken<List<FullStack>>() {}.getType());
+
+        assertEquals(2, stacks.size());
+        for (int i = 0; i < stacks.size(); i++) {
+            // Full cards are transient and therefore not part of the serialized comparison
+            assertEquals(toJson(treeStacks.get(i).getFullCards()), toJson(stacks.get(i).getFullCards()));
+        }
+
+        final List<FullCard> cards = stacks.get(0).getFullCards();
+        assertEquals(2, cards.size());
+        assertEquals(2, cards.get(0).getAssignedUsers().size());
+        assertEquals(4711L, cards.get(0).getAttachments().get(0).getFileId().longValue());
+        assertEquals("Überprüfen 🚀", cards.get(1).getCard().getTitle());
+        assertEquals("", cards.get(1).getCard().getDescription());
+        assertEquals(0, cards.get(1).getCard().getOrder());
+    }
+
+    @Test
+    public void testCard() throws IOException {
+        final FullCard card = assertParity("api/card.json", FullCard.class);
+
+        assertEquals(42L, card.getCard().getId().longValue());
+        assertEquals(3, card.getCard().getOrder());
+        assertEquals(Instant.parse("2021-11-01T07:30:00Z"), card.getCard().getDueDate());
+    }
+
+    @Test
+    public void testAttachments() throws IOException {
+        final List<Attachment> attachments = assertParity("api/attachments.json", new TypeToken<List<Attachment>>() {}.getType());
+
+        assertEquals(2, attachments.size());
+        assertEquals(EAttachmentType.DECK_FILE, attachments.get(0).getType());
+        assertEquals("photo.jpg", attachments.get(0).getBasename());
+        assertEquals(EAttachmentType.FILE, attachments.get(1).getType());
+    }
+
+    @Test
+    public void testComments() throws IOException {
+        final OcsComment comments = assertParity("api/comments.json", OcsComment.class);
+        assertEquals(2, comments.getComments().size());
+        assertEquals(21L, comments.getComments().get(1).getParentId().longValue());
+        assertEquals(1, comments.getComments().get(0).getMentions().size());
+
+        final OcsComment comment = assertParity("api/comment.json", OcsComment.class);
+        assertEquals(1, comment.getComments().size());
+        assertEquals("Single comment", comment.getSingle().getMessage());
+    }
+
+    @Test
+    public void testCardWithNullCounters() {
+        final String json = "{\"id\": 42, \"title\": \"Card\", \"overdue\": null, \"commentsUnread\": null}";
+        final FullCard card = GsonConfig.getGson().fromJson(json, FullCard.class);
+
+        assertEquals(0, card.getCard().getOverdue());
+        assertEquals(0, card.getCard().getCommentsUnread());
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void testCommentsWithoutData() throws IOException {
+        // The tree parser does not accept this either, so it must not silently result in no comments
+        new NextcloudTypeAdapter<>("comment", OcsComment.class, StreamingEntityParser::readOcsComment)
+                .fromJson("{\"ocs\": {\"data\": null}}");
+    }
+
+    @Test
+    public void testFallbackToTreeParser() throws IOException {
+        final NextcloudTypeAdapter<FullCard> adapter = new NextcloudTypeAdapter<>("card", FullCard.class, in -> {
+            throw new IllegalStateException("Not streamable");
+        });
+
+        try (Reader reader = open("api/card.json")) {
+            adapter.fromJson(reader);
+            fail("The response has already been read partially and must therefore fail");
+        } catch (JsonParseException e) {
+            assertTrue(adapter.hasStreamingFailed());
+        }
+
+        final FullCard fromTree = GsonConfig.getTreeGson().fromJson(read("api/card.json"), FullCard.class);
+        final FullCard fromFallback;
+        try (Reader reader = open("api/card.json")) {
+            fromFallback = adapter.fromJson(reader);
+        }
+        assertEquals(toJson(fromTree), toJson(fromFallback));
+    }
+
+    @Test
+    public void testWriteDelegatesToTreeGson() throws IOException {
+        final FullCard card = GsonConfig.getTreeGson().fromJson(read("api/card.json"), FullCard.class);
+        final List<FullCard> cards = Collections.singletonList(card);
+
+        assertEquals(GsonConfig.getTreeGson().toJson(card), GsonConfig.getGson().toJson(card));
+        assertEquals(GsonConfig.getTreeGson().toJson(cards, new TypeToken<List<FullCard>>() {}.getType()),
+                GsonConfig.getGson().toJson(cards, new TypeToken<List<FullCard>>() {}.getType()));
+    }
+
+    /**
+     * @return the result of the streaming parser after asserting it equals the result of the tree parser
+     */
+    private <T> T assertParity(@NonNull String resource, @NonNull Type type) throws IOException {
+        final T fromTree = GsonConfig.getTreeGson().fromJson(read(resource), type);
+        final T fromStream;
+        try (Reader reader = open(resource)) {
+            fromStream = GsonConfig.getGson().fromJson(reader, type);
+        }
+        assertNotNull(fromStream);
+        assertEquals(toJson(fromTree), toJson(fromStream));
+        return fromStream;
+    }
+
+    private String toJson(Object object) {
+        return comparingGson.toJson(object);
+    }
+
+    private Reader open(@NonNull String resource) {
+        final InputStream stream = getClass().getClassLoader().getResourceAsStream(resource);
+        assertNotNull("Missing golden file " + resource, stream);
+        return new InputStreamReader(stream, StandardCharsets.UTF_8);
+    }
+
+    private String read(@NonNull String resource) throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        try (Reader reader = open(resource)) {
+            final char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, read);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package it.niedermann.nextcloud.deck.persistence.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class CardMovePropagatorTest {
+
+    private static final int DEBOUNCE_MILLIS = 200;
+
+    private final List<String> pushed = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testSuccessiveMovesArePushedOnce() throws InterruptedException {
+        final var latch = new CountDownLatch(2);
+        final var propagator = new CardMovePropagator((accountId, localCardId) -> {
+            pushed.add(accountId + "/" + localCardId);
+            latch.countDown();
+        }, DEBOUNCE_MILLIS);
+
+        for (int i = 0; i < 5; i++) {
+            propagator.onCardMoved(1L, 10L);
+        }
+        propagator.onCardMoved(2L, 10L);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // Give a wrongly scheduled second request the chance to show up
+        Thread.sleep(DEBOUNCE_MILLIS * 2);
+        assertEquals(2, pushed.size());
+        assertTrue(pushed.contains("1/10"));
+        assertTrue(pushed.contains("2/10"));
+    }
+
+    @Test
+    public void testMoveAfterDebounceIsPushedAgain() throws InterruptedException {
+        final var firstPush = new CountDownLatch(1);
+        final var secondPush = new CountDownLatch(2);
+        final var propagator = new CardMovePropagator((accountId, localCardId) -> {
+            pushed.add(accountId + "/" + localCardId);
+            firstPush.countDown();
+            secondPush.countDown();
+        }, DEBOUNCE_MILLIS);
+
+        propagator.onCardMoved(1L, 10L);
+        assertTrue(firstPush.await(5, TimeUnit.SECONDS));
+        propagator.onCardMoved(1L, 10L);
+        assertTrue(secondPush.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1/10", "1/10"), pushed);
+    }
+}
@@ -0,0 +1,134 @@
+package it.niedermann.nextcloud.deck.persistence.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import it.niedermann.nextcloud.deck.api.LastSyncUtil;
+import it.niedermann.nextcloud.deck.api.RequestLimiter;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.FakeDeckServer;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DeckDatabase;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
+
+@RunWith(RobolectricTestRunner.class)
+public class MultiAccountSyncCoordinatorTest {
+
+    /**
+     * More than <code>MAX_CONCURRENT_REQUESTS / MIN_CONCURRENT_REQUESTS_PER_ACCOUNT</code>, so the budgets per account exceed the total budget
+     */
+    private static final int ACCOUNTS = 8;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private final AtomicInteger requestsInFlight = new AtomicInteger();
+    private final Map<String, FakeDeckServer> servers = new HashMap<>();
+    private final List<Account> accounts = new ArrayList<>(ACCOUNTS);
+
+    private DeckDatabase db;
+    private DataBaseAdapter dataBaseAdapter;
+    private ExecutorService executor;
+    private MultiAccountSyncCoordinator coordinator;
+
+    @Before
+    public void setup() throws Exception {
+        db = Room.inMemoryDatabaseBuilder(context, DeckDatabase.class).build();
+        final var constructor = DataBaseAdapter.class.getDeclaredConstructor(Context.class, DeckDatabase.class, ExecutorService.class);
+        constructor.setAccessible(true);
+        dataBaseAdapter = constructor.newInstance(context, db, MoreExecutors.newDirectExecutorService());
+
+        LastSyncUtil.init(context);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            final var account = dataBaseAdapter.createAccountDirectly(new Account(FakeDeckServer.OWNER_UID + "@fake" + i + ".example.com", FakeDeckServer.OWNER_UID, "https://fake" + i + ".example.com"));
+            final var server = new FakeDeckServer(2, 2, 3, requestsInFlight);
+            server.setLatencyMillis(5);
+            servers.put(account.getName(), server);
+            accounts.add(account);
+        }
+        executor = Executors.newCachedThreadPool();
+        coordinator = new MultiAccountSyncCoordinator(context, dataBaseAdapter, executor, SyncHelper::new, servers::get);
+    }
+
+    @After
+    public void tearDown() {
+        for (FakeDeckServer server : servers.values()) {
+            server.shutdown();
+        }
+        executor.shutdownNow();
+        db.close();
+    }
+
+    @Test
+    public void testSynchronizeLimitsRequestsInTotal() {
+        final var results = coordinator.synchronize(accounts).timeout(5, TimeUnit.MINUTES).blockingGet();
+
+        assertEquals(ACCOUNTS, results.size());
+        int peakRequestsInFlight = 0;
+        for (MultiAccountSyncCoordinator.AccountSyncResult result : results) {
+            assertNull(result.getError());
+            assertTrue(result.isSuccess());
+            peakRequestsInFlight = Math.max(peakRequestsInFlight, servers.get(result.getAccountName()).getPeakRequestsInFlight());
+        }
+        assertTrue("Peak of " + peakRequestsInFlight + " requests in flight exceeds the total budget", peakRequestsInFlight <= MultiAccountSyncCoordinator.MAX_CONCURRENT_REQUESTS);
+
+        assertLimitsRemoved();
+    }
+
+    @Test
+    public void testOverlappingSynchronizationsShareTheTotalBudget() {
+        // Like a periodic synchronization and pull to refresh, which use the same server adapters
+        final var secondCoordinator = new MultiAccountSyncCoordinator(context, dataBaseAdapter, executor, SyncHelper::new, servers::get);
+        final var firstRun = coordinator.synchronize(accounts).subscribeOn(Schedulers.io());
+        final var secondRun = secondCoordinator.synchronize(accounts.subList(0, ACCOUNTS / 2)).subscribeOn(Schedulers.io());
+
+        final var results = Single.merge(firstRun, secondRun).toList().timeout(5, TimeUnit.MINUTES).blockingGet();
+
+        assertEquals(2, results.size());
+        assertEquals(ACCOUNTS + ACCOUNTS / 2, results.get(0).size() + results.get(1).size());
+        int peakRequestsInFlight = 0;
+        for (FakeDeckServer server : servers.values()) {
+            peakRequestsInFlight = Math.max(peakRequestsInFlight, server.getPeakRequestsInFlight());
+        }
+        assertTrue("Peak of " + peakRequestsInFlight + " requests in flight exceeds the total budget", peakRequestsInFlight <= MultiAccountSyncCoordinator.MAX_CONCURRENT_REQUESTS);
+
+        // The run which finished first must not remove the limits of the other one, but both together must remove them
+        assertLimitsRemoved();
+    }
+
+    private void assertLimitsRemoved() {
+        // Limits must not stick to the cached server adapters
+        for (FakeDeckServer server : servers.values()) {
+            assertNull(server.getSharedRequestLimiter());
+            assertEquals(RequestLimiter.UNLIMITED, server.getMaxConcurrentRequests());
+        }
+    }
+}
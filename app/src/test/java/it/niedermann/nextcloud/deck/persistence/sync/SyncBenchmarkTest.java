@@ -0,0 +1,272 @@
+package it.niedermann.nextcloud.deck.persistence.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.gson.GsonBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import it.niedermann.nextcloud.deck.api.LastSyncUtil;
+import it.niedermann.nextcloud.deck.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.FakeDeckServer;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DeckDatabase;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
+
+/**
+ * Runs a full and an incremental synchronization against a {@link FakeDeckServer} and reports wall time, request count, database transactions and peak heap.
+ * <p>
+ * Skipped as part of the regular unit tests, it needs to be enabled explicitly. Larger loads can be configured like
+ * <code>./gradlew testDevDebugUnitTest --tests '*SyncBenchmarkTest' -PsyncBenchmark.enabled=true -PsyncBenchmark.boards=20 -PsyncBenchmark.stacks=5 -PsyncBenchmark.cards=50 -PsyncBenchmark.latency=20</code>
+ * <p>
+ * The results are written as JSON to <code>build/reports/sync-benchmark/results.json</code>.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SyncBenchmarkTest {
+
+    private static final boolean ENABLED = Boolean.getBoolean("syncBenchmark.enabled");
+    private static final int BOARDS = Integer.getInteger("syncBenchmark.boards", 2);
+    private static final int STACKS_PER_BOARD = Integer.getInteger("syncBenchmark.stacks", 3);
+    private static final int CARDS_PER_STACK = Integer.getInteger("syncBenchmark.cards", 10);
+    private static final long LATENCY_MILLIS = Long.getLong("syncBenchmark.latency", 0L);
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("syncBenchmark.errorRate", "0"));
+    private static final double TOUCHED_CARDS = 0.1;
+    private static final long TIMEOUT_MINUTES = 15;
+    private static final File RESULTS_FILE = new File("build/reports/sync-benchmark/results.json");
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+    private final AtomicInteger transactions = new AtomicInteger();
+    private final AtomicInteger statements = new AtomicInteger();
+
+    private DeckDatabase db;
+    private FakeDeckServer server;
+    private ExecutorService executor;
+    private SyncManager syncManager;
+    private Account account;
+
+    @Before
+    public void setup() throws Exception {
+        assumeTrue("Enable with -PsyncBenchmark.enabled=true", ENABLED);
+        db = Room.inMemoryDatabaseBuilder(context, DeckDatabase.class)
+                .setQueryCallback((sqlQuery, bindArgs) -> {
+                    statements.incrementAndGet();
+                    if (sqlQuery.startsWith("BEGIN")) {
+                        transactions.incrementAndGet();
+                    }
+                }, Runnable::run)
+                .build();
+        final var constructor = DataBaseAdapter.class.getDeclaredConstructor(Context.class, DeckDatabase.class, ExecutorService.class);
+        constructor.setAccessible(true);
+        final DataBaseAdapter dataBaseAdapter = constructor.newInstance(context, db, MoreExecutors.newDirectExecutorService());
+
+        server = new FakeDeckServer(BOARDS, STACKS_PER_BOARD, CARDS_PER_STACK);
+        server.setLatencyMillis(LATENCY_MILLIS);
+        server.setErrorRate(ERROR_RATE);
+        executor = Executors.newCachedThreadPool();
+        syncManager = new SyncManager(context, dataBaseAdapter, server, executor, SyncHelper::new);
+
+        LastSyncUtil.init(context);
+        account = dataBaseAdapter.createAccountDirectly(new Account(FakeDeckServer.OWNER_UID + "@fake.example.com", FakeDeckServer.OWNER_UID, "https://fake.example.com"));
+    }
+
+    @After
+    public void tearDown() {
+        if (!ENABLED) {
+            return;
+        }
+        server.shutdown();
+        executor.shutdownNow();
+        db.close();
+    }
+
+    @Test
+    public void testFullAndIncrementalSync() throws InterruptedException, IOException {
+        final List<Result> results = new ArrayList<>(2);
+
+        final Result full = synchronize("full");
+        results.add(full);
+        final int touched = server.touchCards(TOUCHED_CARDS);
+        final Result incremental = synchronize("incremental");
+        results.add(incremental);
+
+        write(results);
+
+        if (ERROR_RATE == 0) {
+            assertNull(full.toString(), full.error);
+            assertNull(incremental.toString(), incremental.error);
+            assertTrue(full.toString(), full.success);
+            assertTrue(incremental.toString(), incremental.success);
+            assertEquals(BOARDS * STACKS_PER_BOARD * CARDS_PER_STACK, count("SELECT COUNT(*) FROM Card WHERE accountId = ?"));
+            assertEquals(touched, count("SELECT COUNT(*) FROM Card WHERE accountId = ? AND title LIKE '% (edited)'"));
+            assertTrue("An incremental synchronization should need less requests than a full one", incremental.requests < full.requests);
+        }
+    }
+
+    @NonNull
+    private Result synchronize(@NonNull String name) throws InterruptedException {
+        server.resetStatistics();
+        transactions.set(0);
+        statements.set(0);
+        System.gc();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Boolean> success = new AtomicReference<>(Boolean.FALSE);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final long start = System.nanoTime();
+        final long peakHeapBytes;
+        try (HeapSampler heapSampler = new HeapSampler()) {
+            syncManager.synchronize(new ResponseCallback<>(account) {
+                @Override
+                public void onResponse(Boolean response) {
+                    success.set(response);
+                    latch.countDown();
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    super.onError(throwable);
+                    error.set(throwable);
+                    latch.countDown();
+                }
+            });
+            assertTrue("Synchronization did not finish within " + TIMEOUT_MINUTES + " minutes", latch.await(TIMEOUT_MINUTES, TimeUnit.MINUTES));
+            peakHeapBytes = heapSampler.getPeakBytes();
+        }
+        return new Result(name,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                Boolean.TRUE.equals(success.get()),
+                error.get(),
+                server.getRequestCount(),
+                server.getRequestCountPerEndpoint(),
+                server.getPeakRequestsInFlight(),
+                transactions.get(),
+                statements.get(),
+                peakHeapBytes);
+    }
+
+    private int count(@NonNull String query) {
+        try (Cursor cursor = db.query(new SimpleSQLiteQuery(query, new Object[]{account.getId()}))) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    private static void write(@NonNull List<Result> results) throws IOException {
+        //noinspection ResultOfMethodCallIgnored
+        RESULTS_FILE.getParentFile().mkdirs();
+        try (Writer writer = new FileWriter(RESULTS_FILE)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(results, writer);
+        }
+    }
+
+    /**
+     * Samples the used heap in a fixed interval and remembers the highest value.
+     */
+    private static class HeapSampler implements AutoCloseable {
+
+        private static final long INTERVAL_MILLIS = 10;
+
+        private final AtomicLong peakBytes = new AtomicLong();
+        private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+
+        private HeapSampler() {
+            sampler.scheduleAtFixedRate(this::sample, 0, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        private void sample() {
+            final Runtime runtime = Runtime.getRuntime();
+            peakBytes.accumulateAndGet(runtime.totalMemory() - runtime.freeMemory(), Math::max);
+        }
+
+        private long getPeakBytes() {
+            sample();
+            return peakBytes.get();
+        }
+
+        @Override
+        public void close() {
+            sampler.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    private static class Result {
+        private final String name;
+        private final int boards = BOARDS;
+        private final int stacksPerBoard = STACKS_PER_BOARD;
+        private final int cardsPerStack = CARDS_PER_STACK;
+        private final long latencyMillis = LATENCY_MILLIS;
+        private final double errorRate = ERROR_RATE;
+        private final long wallTimeMillis;
+        private final boolean success;
+        private final transient Throwable error;
+        private final String errorMessage;
+        private final int requests;
+        private final Map<String, Integer> requestsPerEndpoint;
+        private final int peakRequestsInFlight;
+        private final int transactions;
+        private final int statements;
+        private final long peakHeapBytes;
+
+        private Result(String name, long wallTimeMillis, boolean success, Throwable error, int requests, Map<String, Integer> requestsPerEndpoint,
+                       int peakRequestsInFlight, int transactions, int statements, long peakHeapBytes) {
+            this.name = name;
+            this.wallTimeMillis = wallTimeMillis;
+            this.success = success;
+            this.error = error;
+            this.errorMessage = error == null ? null : error.toString();
+            this.requests = requests;
+            this.requestsPerEndpoint = requestsPerEndpoint;
+            this.peakRequestsInFlight = peakRequestsInFlight;
+            this.transactions = transactions;
+            this.statements = statements;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format("[%s sync] %d boards × %d stacks × %d cards: %d ms, %d requests (peak %d in flight), %d transactions, %d statements, %d MiB peak heap%s",
+                    name, boards, stacksPerBoard, cardsPerStack, wallTimeMillis, requests, peakRequestsInFlight, transactions, statements,
+                    peakHeapBytes / (1024 * 1024), error == null ? "" : ", failed with " + error);
+        }
+    }
+}
@@ -13,7 +13,9 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -39,6 +41,7 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
@@ -46,6 +49,7 @@ import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 
+import io.reactivex.Completable;
 import it.niedermann.nextcloud.deck.TestUtil;
 import it.niedermann.nextcloud.deck.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.api.LastSyncUtil;
@@ -55,12 +59,16 @@ import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.Board;
 import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.enums.DBStatus;
+import it.niedermann.nextcloud.deck.model.enums.EOutboxEntityType;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullStack;
 import it.niedermann.nextcloud.deck.model.interfaces.IRemoteEntity;
 import it.niedermann.nextcloud.deck.model.ocs.Capabilities;
 import it.niedermann.nextcloud.deck.model.ocs.Version;
-import it.niedermann.nextcloud.deck.persistence.sync.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.model.outbox.OutboxEntry;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
 import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.util.WrappedLiveData;
 import it.niedermann.nextcloud.deck.persistence.sync.helpers.SyncHelper;
@@ -75,7 +83,7 @@ public class SyncManagerTest {
     public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
 
     private final Context context = ApplicationProvider.getApplicationContext();
-    private final ServerAdapter serverAdapter = mock(ServerAdapter.class);
+    private final IServerAdapter serverAdapter = mock(IServerAdapter.class);
     private final DataBaseAdapter dataBaseAdapter = mock(DataBaseAdapter.class);
     private final SyncHelper.Factory syncHelperFactory = mock(SyncHelper.Factory.class);
 
@@ -85,7 +93,7 @@ public class SyncManagerTest {
     public void setup() throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
         final var constructor = SyncManager.class.getDeclaredConstructor(Context.class,
                 DataBaseAdapter.class,
-                ServerAdapter.class,
+                IServerAdapter.class,
                 ExecutorService.class,
                 SyncHelper.Factory.class);
         constructor.setAccessible(true);
@@ -300,7 +308,7 @@ public class SyncManagerTest {
         // Happy path
 
         doAnswer(invocation -> {
-            assertEquals("The old eTag must be passed to the " + ServerAdapter.class.getSimpleName(),
+            assertEquals("The old eTag must be passed to the " + IServerAdapter.class.getSimpleName(),
                     "This-Is-The-Old_ETag", invocation.getArgument(0));
             //noinspection unchecked
             ((ResponseCallback<ParsedResponse<Capabilities>>) invocation.getArgument(1))
@@ -465,6 +473,8 @@ public class SyncManagerTest {
         syncManagerSpy.synchronize(finalCallback);
 
         verify(finalCallback, times(1)).onResponse(any());
+        // A device clock running ahead of the server must not make the next delta synchronization miss changes
+        assertTrue(LastSyncUtil.getLastSyncDate(account.getId()).isBefore(Instant.now().minus(Duration.ofMinutes(4))));
 
 
         // Bad paths
@@ -492,6 +502,113 @@ public class SyncManagerTest {
         verify(finalCallback, times(1)).onError(any());
     }
 
+    @Test
+    public void testSynchronizeFinishesOnlyOnce() {
+        final var syncManagerSpy = spy(syncManager);
+
+        LastSyncUtil.init(ApplicationProvider.getApplicationContext());
+        final var account = new Account(1337L, "Test", "Peter", "example.com");
+        final var capabilities = new Capabilities();
+        capabilities.setDeckVersion(Version.minimumSupported());
+        doAnswer((invocation -> {
+            //noinspection unchecked
+            ((IResponseCallback<Capabilities>) invocation.getArgument(0)).onResponse(capabilities);
+            return null;
+        })).when(syncManagerSpy).refreshCapabilities(any());
+        final var finalCallback = spy(new ResponseCallback<Boolean>(account) {
+            @Override
+            public void onResponse(Boolean response) {
+            }
+        });
+
+        final var syncHelper = new SyncHelperMock(true) {
+            @Override
+            public <T extends IRemoteEntity> void doUpSyncFor(@NonNull AbstractSyncDataProvider<T> provider) {
+                super.doUpSyncFor(provider);
+                super.doUpSyncFor(provider);
+            }
+        };
+        when(syncHelperFactory.create(any(), any(), any())).thenReturn(syncHelper);
+
+        syncManagerSpy.synchronize(finalCallback);
+
+        verify(finalCallback, times(1)).onResponse(any());
+        verify(dataBaseAdapter, times(1)).removeOutboxEntriesForAccount(anyLong(), anyLong());
+    }
+
+    @Test
+    public void testPushOutboxDropsEntriesAfterMaxAttempts() {
+        final var account = new Account(1337L, "Test", "Peter", "example.com");
+        final var entry = new OutboxEntry(account.getId(), 5L, 7L, EOutboxEntityType.CARD, 9L);
+        entry.setLocalId(1L);
+        entry.setAttempts(5);
+
+        assertTrue(syncManager.pushOutbox(account, List.of(entry)).blockingGet());
+
+        verify(dataBaseAdapter, times(1)).removeOutboxEntries(List.of(1L));
+        verify(syncHelperFactory, times(0)).create(any(), any(), any());
+    }
+
+    @Test
+    public void testPushOutboxCoalescesEntriesAndPushesCardsFirst() {
+        final var account = new Account(1337L, "Test", "Peter", "example.com");
+        final var syncHelper = mockOutboxCard(account, Completable.complete());
+
+        final var label = createOutboxEntry(account, 3L, EOutboxEntityType.CARD_LABEL);
+        final var firstEdit = createOutboxEntry(account, 1L, EOutboxEntityType.CARD);
+        final var secondEdit = createOutboxEntry(account, 2L, EOutboxEntityType.CARD);
+
+        assertTrue(syncManager.pushOutbox(account, List.of(label, firstEdit, secondEdit)).blockingGet());
+
+        final var inOrder = inOrder(syncHelper, dataBaseAdapter);
+        inOrder.verify(syncHelper, times(1)).upSyncEntities(any(), any());
+        inOrder.verify(dataBaseAdapter).removeOutboxEntries(List.of(1L, 2L));
+        inOrder.verify(dataBaseAdapter).getAllChangedLabelJoinsForCard(9L);
+        inOrder.verify(dataBaseAdapter).removeOutboxEntries(List.of(3L));
+    }
+
+    @Test
+    public void testPushOutboxKeepsJoinsOfFailedCards() {
+        final var account = new Account(1337L, "Test", "Peter", "example.com");
+        mockOutboxCard(account, Completable.error(new RuntimeException()));
+
+        final var card = createOutboxEntry(account, 1L, EOutboxEntityType.CARD);
+        final var user = createOutboxEntry(account, 2L, EOutboxEntityType.CARD_USER);
+
+        assertFalse(syncManager.pushOutbox(account, List.of(card, user)).blockingGet());
+
+        verify(dataBaseAdapter).incrementOutboxAttempts(List.of(1L));
+        verify(dataBaseAdapter, never()).getAllChangedUserJoinsWithRemoteIDsForCard(anyLong());
+        verify(dataBaseAdapter, never()).removeOutboxEntries(any());
+    }
+
+    private SyncHelper mockOutboxCard(@NonNull Account account, @NonNull Completable result) {
+        final var card = new FullCard();
+        card.setCard(new Card());
+        card.getCard().setLocalId(9L);
+        card.getCard().setStackId(7L);
+        card.getCard().setStatus(DBStatus.LOCAL_EDITED.getId());
+        final var stack = new FullStack();
+        stack.setStack(new Stack());
+        stack.getStack().setLocalId(7L);
+        stack.getStack().setBoardId(5L);
+        when(dataBaseAdapter.getFullCardByLocalIdDirectly(account.getId(), 9L)).thenReturn(card);
+        when(dataBaseAdapter.getFullStackByLocalIdDirectly(7L)).thenReturn(stack);
+        when(dataBaseAdapter.getBoardByLocalIdDirectly(5L)).thenReturn(new Board());
+
+        final var syncHelper = mock(SyncHelper.class);
+        when(syncHelper.setResponseCallback(any())).thenReturn(syncHelper);
+        when(syncHelper.upSyncEntities(any(), any())).thenReturn(result);
+        when(syncHelperFactory.create(any(), any(), any())).thenReturn(syncHelper);
+        return syncHelper;
+    }
+
+    private static OutboxEntry createOutboxEntry(@NonNull Account account, long localId, @NonNull EOutboxEntityType entityType) {
+        final var entry = new OutboxEntry(account.getId(), 5L, 7L, entityType, 9L);
+        entry.setLocalId(localId);
+        return entry;
+    }
+
     /**
      * A simple {@link SyncHelper} implementation which directly responds to sync requests
      */
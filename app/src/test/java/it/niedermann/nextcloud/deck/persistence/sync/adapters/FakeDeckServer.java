@@ -0,0 +1,1159 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters;
+
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+
+import android.graphics.Color;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nextcloud.android.sso.api.ParsedResponse;
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import it.niedermann.nextcloud.deck.api.RequestLimiter;
+import it.niedermann.nextcloud.deck.api.RequestStatistics;
+import it.niedermann.nextcloud.deck.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.model.AccessControl;
+import it.niedermann.nextcloud.deck.model.Attachment;
+import it.niedermann.nextcloud.deck.model.Board;
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.Label;
+import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.enums.EAttachmentType;
+import it.niedermann.nextcloud.deck.model.full.FullBoard;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.model.full.FullStack;
+import it.niedermann.nextcloud.deck.model.ocs.Activity;
+import it.niedermann.nextcloud.deck.model.ocs.Capabilities;
+import it.niedermann.nextcloud.deck.model.ocs.Version;
+import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
+import it.niedermann.nextcloud.deck.model.ocs.comment.OcsComment;
+import it.niedermann.nextcloud.deck.model.ocs.projects.OcsProjectList;
+import it.niedermann.nextcloud.deck.model.ocs.user.GroupMemberUIDs;
+import it.niedermann.nextcloud.deck.model.ocs.user.OcsUser;
+import it.niedermann.nextcloud.deck.model.ocs.user.OcsUserList;
+import it.niedermann.nextcloud.deck.model.propagation.CardUpdate;
+import okhttp3.ResponseBody;
+
+/**
+ * An in-process Deck server which generates <code>N</code> boards × <code>M</code> stacks × <code>K</code> cards with labels, assignees, attachments and comments.
+ * <p>
+ * It behaves like a real server regarding <code>If-Modified-Since</code>, ETags and the fact that the stacks endpoint does not deliver attachments.
+ * Every request is delayed by the configured latency and fails with <code>500 Internal Server Error</code> at the configured error rate.
+ * Responses are delivered on background threads and pass the same {@link RequestLimiter} as the ones of the {@link ServerAdapter}.
+ */
+public class FakeDeckServer implements IServerAdapter {
+
+    public static final String OWNER_UID = "user0";
+    public static final String GROUP_ID = "benchmark-group";
+
+    private static final String DECK_VERSION = "1.6.0";
+    private static final String NEXTCLOUD_VERSION = "23.0.0";
+    private static final String CAPABILITIES_ETAG = "capabilities";
+    private static final String[] DEFAULT_LABELS = {"Finished", "To review", "Action needed", "Later"};
+    private static final int USERS_PER_BOARD = 4;
+    private static final int COMMENTS_PER_CARD = 2;
+    private static final int ATTACHMENT_EVERY_NTH_CARD = 5;
+    private static final long SEED = 4711;
+
+    private final AtomicLong ids = new AtomicLong(1);
+    private final Map<Long, RemoteBoard> boards = new LinkedHashMap<>();
+    private final Map<String, String> users = new TreeMap<>();
+    private final Random random = new Random(SEED);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Scheduler scheduler = Schedulers.from(executor);
+    private final RequestLimiter requestLimiter = new RequestLimiter();
+    @Nullable
+    private volatile RequestLimiter sharedRequestLimiter;
+    private final RequestStatistics requestStatistics = new RequestStatistics();
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Map<String, AtomicInteger> requestsPerEndpoint = new ConcurrentHashMap<>();
+    private final AtomicInteger requestsInFlight;
+    private final AtomicInteger peakRequestsInFlight = new AtomicInteger();
+
+    private volatile long latencyMillis = 0;
+    private volatile double errorRate = 0;
+    private volatile boolean online = true;
+
+    public FakeDeckServer(int boardCount, int stacksPerBoard, int cardsPerStack) {
+        this(boardCount, stacksPerBoard, cardsPerStack, new AtomicInteger());
+    }
+
+    /**
+     * @param requestsInFlight can be shared by multiple servers, so {@link #getPeakRequestsInFlight()} reports the requests they handled at the same time in total
+     */
+    public FakeDeckServer(int boardCount, int stacksPerBoard, int cardsPerStack, @NonNull AtomicInteger requestsInFlight) {
+        this.requestsInFlight = requestsInFlight;
+        final Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i <= USERS_PER_BOARD * 2; i++) {
+            users.put("user" + i, "User " + i);
+        }
+        for (int b = 0; b < boardCount; b++) {
+            final RemoteBoard board = new RemoteBoard(ids.getAndIncrement(), "Board " + b, Color.rgb(b * 40 % 256, 130, 201), OWNER_UID, now);
+            for (String title : DEFAULT_LABELS) {
+                board.labels.add(new RemoteLabel(ids.getAndIncrement(), title, Color.rgb(random.nextInt(256), random.nextInt(256), random.nextInt(256))));
+            }
+            for (int u = 1; u < USERS_PER_BOARD; u++) {
+                board.acl.add(new RemoteAccessControl(ids.getAndIncrement(), 0L, "user" + ((b + u) % users.size())));
+            }
+            board.acl.add(new RemoteAccessControl(ids.getAndIncrement(), 1L, GROUP_ID));
+            for (int s = 0; s < stacksPerBoard; s++) {
+                final RemoteStack stack = new RemoteStack(ids.getAndIncrement(), board.id, "Stack " + s, s, now);
+                for (int c = 0; c < cardsPerStack; c++) {
+                    final RemoteCard card = new RemoteCard(ids.getAndIncrement(), stack.id, "Card " + b + "-" + s + "-" + c, c, now);
+                    card.description = "Description of card " + card.id + "\n\n- [x] First task\n- [ ] Second task";
+                    card.dueDate = random.nextInt(3) == 0 ? now.plus(random.nextInt(30) - 10, ChronoUnit.DAYS) : null;
+                    card.labelIds.add(board.labels.get(c % board.labels.size()).id);
+                    card.assignees.add(board.acl.get(c % (USERS_PER_BOARD - 1)).participant);
+                    if (c % ATTACHMENT_EVERY_NTH_CARD == 0) {
+                        card.attachments.add(new RemoteAttachment(ids.getAndIncrement(), "attachment-" + card.id + ".pdf", 1024L * (1 + random.nextInt(512)), now));
+                    }
+                    for (int m = 0; m < COMMENTS_PER_CARD; m++) {
+                        card.comments.add(new RemoteComment(ids.getAndIncrement(), users.containsKey("user" + m) ? "user" + m : OWNER_UID, "Comment " + m + " on card " + card.id, now.minus(COMMENTS_PER_CARD - m, ChronoUnit.HOURS)));
+                    }
+                    stack.cards.add(card);
+                }
+                board.stacks.add(stack);
+            }
+            boards.put(board.id, board);
+        }
+    }
+
+    /**
+     * @param latencyMillis how long each request takes before it is answered
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @param errorRate probability between <code>0</code> and <code>1</code> that a request fails with <code>500 Internal Server Error</code>
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void setOnline(boolean online) {
+        this.online = online;
+    }
+
+    /**
+     * Modifies the title of the given fraction of cards, like other users would do between two synchronizations.
+     *
+     * @return the number of modified cards
+     */
+    public synchronized int touchCards(double fraction) {
+        final Instant now = Instant.now();
+        int touched = 0;
+        for (RemoteBoard board : boards.values()) {
+            for (RemoteStack stack : board.stacks) {
+                for (RemoteCard card : stack.cards) {
+                    if (random.nextDouble() < fraction) {
+                        card.title = card.title + " (edited)";
+                        card.lastModified = now;
+                        stack.lastModified = now;
+                        board.lastModified = now;
+                        touched++;
+                    }
+                }
+            }
+        }
+        return touched;
+    }
+
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of requests per endpoint, sorted by the name of the endpoint
+     */
+    @NonNull
+    public Map<String, Integer> getRequestCountPerEndpoint() {
+        final Map<String, Integer> result = new TreeMap<>();
+        for (Map.Entry<String, AtomicInteger> entry : requestsPerEndpoint.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+        return result;
+    }
+
+    public int getPeakRequestsInFlight() {
+        return peakRequestsInFlight.get();
+    }
+
+    public int getMaxConcurrentRequests() {
+        return requestLimiter.getMaxConcurrentRequests();
+    }
+
+    @Nullable
+    public RequestLimiter getSharedRequestLimiter() {
+        return sharedRequestLimiter;
+    }
+
+    public void resetStatistics() {
+        requests.set(0);
+        requestsPerEndpoint.clear();
+        peakRequestsInFlight.set(0);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        requestLimiter.setMaxConcurrentRequests(maxConcurrentRequests);
+    }
+
+    @Override
+    public void setSharedRequestLimiter(@Nullable RequestLimiter sharedRequestLimiter) {
+        this.sharedRequestLimiter = sharedRequestLimiter;
+    }
+
+    @NonNull
+    @Override
+    public RequestStatistics getRequestStatistics() {
+        return requestStatistics;
+    }
+
+    @Override
+    public boolean hasInternetConnection() {
+        return online;
+    }
+
+    @Override
+    public boolean isEtagsEnabled() {
+        return true;
+    }
+
+    @Override
+    public void getBoards(@Nullable Instant lastSync, @NonNull ResponseCallback<ParsedResponse<List<FullBoard>>> responseCallback) {
+        final String ifNoneMatch = responseCallback.getAccount().getBoardsEtag();
+        respond("getBoards", responseCallback, () -> {
+            final String eTag = etag(boards.values().stream().map(board -> board.lastModified).max(Instant::compareTo).orElse(Instant.EPOCH), boards.size());
+            if (lastSync == null && eTag.equals(ifNoneMatch)) {
+                throw notModified();
+            }
+            final List<FullBoard> result = new ArrayList<>();
+            for (RemoteBoard board : boards.values()) {
+                if (lastSync == null || board.lastModified.isAfter(lastSync)) {
+                    result.add(toFullBoard(board));
+                }
+            }
+            return new ParsedResponse<>(result, Collections.singletonMap("ETag", eTag));
+        });
+    }
+
+    @Override
+    public void getCapabilities(String eTag, @NonNull ResponseCallback<ParsedResponse<Capabilities>> responseCallback) {
+        respond("getCapabilities", responseCallback, () -> {
+            if (CAPABILITIES_ETAG.equals(eTag)) {
+                throw notModified();
+            }
+            final Capabilities capabilities = new Capabilities();
+            capabilities.setDeckVersion(Version.of(DECK_VERSION));
+            capabilities.setNextcloudVersion(Version.of(NEXTCLOUD_VERSION));
+            capabilities.setColor(Capabilities.DEFAULT_COLOR);
+            capabilities.setTextColor(Capabilities.DEFAULT_TEXT_COLOR);
+            capabilities.setMaintenanceEnabled(false);
+            return new ParsedResponse<>(capabilities, Collections.singletonMap("ETag", CAPABILITIES_ETAG));
+        });
+    }
+
+    @Override
+    public void getProjectsForCard(long remoteCardId, @NonNull ResponseCallback<OcsProjectList> responseCallback) {
+        respond("getProjectsForCard", responseCallback, OcsProjectList::new);
+    }
+
+    @Override
+    public void searchUser(String searchTerm, @NonNull ResponseCallback<OcsUserList> responseCallback) {
+        respond("searchUser", responseCallback, () -> {
+            final OcsUserList result = new OcsUserList();
+            for (Map.Entry<String, String> user : users.entrySet()) {
+                if (user.getKey().contains(searchTerm) || user.getValue().contains(searchTerm)) {
+                    result.addUser(new OcsUser(user.getKey(), user.getValue()));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public void getSingleUserData(String userUid, @NonNull ResponseCallback<OcsUser> responseCallback) {
+        respond("getSingleUserData", responseCallback, () -> {
+            final String displayName = users.get(userUid);
+            if (displayName == null) {
+                throw notFound("User " + userUid);
+            }
+            return new OcsUser(userUid, displayName);
+        });
+    }
+
+    @Override
+    public void searchGroupMembers(String groupUID, @NonNull ResponseCallback<GroupMemberUIDs> responseCallback) {
+        respond("searchGroupMembers", responseCallback, () -> {
+            if (!GROUP_ID.equals(groupUID)) {
+                throw notFound("Group " + groupUID);
+            }
+            final GroupMemberUIDs result = new GroupMemberUIDs();
+            result.setUids(new ArrayList<>(users.keySet()));
+            return result;
+        });
+    }
+
+    @Override
+    public void getActivitiesForCard(long cardId, @NonNull ResponseCallback<List<Activity>> responseCallback) {
+        respond("getActivitiesForCard", responseCallback, ArrayList::new);
+    }
+
+    @Override
+    public void createBoard(Board board, @NonNull ResponseCallback<FullBoard> responseCallback) {
+        respond("createBoard", responseCallback, () -> {
+            final RemoteBoard remoteBoard = new RemoteBoard(ids.getAndIncrement(), board.getTitle(), board.getColor(), OWNER_UID, Instant.now());
+            for (String title : DEFAULT_LABELS) {
+                remoteBoard.labels.add(new RemoteLabel(ids.getAndIncrement(), title, Color.GRAY));
+            }
+            boards.put(remoteBoard.id, remoteBoard);
+            return toFullBoard(remoteBoard);
+        });
+    }
+
+    @Override
+    public void deleteBoard(Board board, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("deleteBoard", responseCallback, () -> {
+            if (boards.remove(board.getId()) == null) {
+                throw notFound("Board " + board.getId());
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void updateBoard(Board board, @NonNull ResponseCallback<FullBoard> responseCallback) {
+        respond("updateBoard", responseCallback, () -> {
+            final RemoteBoard remoteBoard = findBoard(board.getId());
+            remoteBoard.title = board.getTitle();
+            remoteBoard.color = board.getColor();
+            remoteBoard.archived = board.isArchived();
+            remoteBoard.lastModified = Instant.now();
+            return toFullBoard(remoteBoard);
+        });
+    }
+
+    @Override
+    public void createAccessControl(long remoteBoardId, AccessControl acl, @NonNull ResponseCallback<AccessControl> responseCallback) {
+        respond("createAccessControl", responseCallback, () -> {
+            final RemoteBoard board = findBoard(remoteBoardId);
+            final RemoteAccessControl remoteAcl = new RemoteAccessControl(ids.getAndIncrement(), acl.getType(), acl.getUser().getUid());
+            board.acl.add(remoteAcl);
+            board.lastModified = Instant.now();
+            return toAccessControl(board, remoteAcl);
+        });
+    }
+
+    @Override
+    public void updateAccessControl(long remoteBoardId, AccessControl acl, @NonNull ResponseCallback<AccessControl> responseCallback) {
+        respond("updateAccessControl", responseCallback, () -> {
+            final RemoteBoard board = findBoard(remoteBoardId);
+            final RemoteAccessControl remoteAcl = board.acl.stream().filter(a -> a.id == acl.getId()).findFirst().orElseThrow(() -> notFound("ACL " + acl.getId()));
+            remoteAcl.permissionEdit = acl.isPermissionEdit();
+            remoteAcl.permissionShare = acl.isPermissionShare();
+            remoteAcl.permissionManage = acl.isPermissionManage();
+            board.lastModified = Instant.now();
+            return toAccessControl(board, remoteAcl);
+        });
+    }
+
+    @Override
+    public void deleteAccessControl(long remoteBoardId, AccessControl acl, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("deleteAccessControl", responseCallback, () -> {
+            final RemoteBoard board = findBoard(remoteBoardId);
+            if (!board.acl.removeIf(a -> a.id == acl.getId())) {
+                throw notFound("ACL " + acl.getId());
+            }
+            board.lastModified = Instant.now();
+            return null;
+        });
+    }
+
+    @Override
+    public void getStacks(long boardId, @Nullable Instant lastSync, @Nullable String eTag, @NonNull ResponseCallback<ParsedResponse<List<FullStack>>> responseCallback) {
+        respond("getStacks", responseCallback, () -> {
+            final RemoteBoard board = findBoard(boardId);
+            final String stacksEtag = etag(board.stacks.stream().map(stack -> stack.lastModified).max(Instant::compareTo).orElse(board.lastModified), board.stacks.size());
+            if (stacksEtag.equals(unquote(eTag))) {
+                throw notModified();
+            }
+            final List<FullStack> result = new ArrayList<>(board.stacks.size());
+            for (RemoteStack stack : board.stacks) {
+                result.add(toFullStack(board, stack, lastSync));
+            }
+            return new ParsedResponse<>(result, Collections.singletonMap("ETag", "\"" + stacksEtag + "\""));
+        });
+    }
+
+    @Override
+    public void getStack(long boardId, long stackId, @Nullable String eTag, @NonNull ResponseCallback<FullStack> responseCallback) {
+        respond("getStack", responseCallback, () -> {
+            final RemoteBoard board = findBoard(boardId);
+            return toFullStack(board, findStack(board, stackId), null);
+        });
+    }
+
+    @Override
+    public void createStack(Board board, Stack stack, @NonNull ResponseCallback<FullStack> responseCallback) {
+        respond("createStack", responseCallback, () -> {
+            final RemoteBoard remoteBoard = findBoard(board.getId());
+            final RemoteStack remoteStack = new RemoteStack(ids.getAndIncrement(), remoteBoard.id, stack.getTitle(), stack.getOrder(), Instant.now());
+            remoteBoard.stacks.add(remoteStack);
+            remoteBoard.lastModified = remoteStack.lastModified;
+            return toFullStack(remoteBoard, remoteStack, null);
+        });
+    }
+
+    @Override
+    public void deleteStack(Board board, Stack stack, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("deleteStack", responseCallback, () -> {
+            final RemoteBoard remoteBoard = findBoard(board.getId());
+            if (!remoteBoard.stacks.removeIf(s -> s.id == stack.getId())) {
+                throw notFound("Stack " + stack.getId());
+            }
+            remoteBoard.lastModified = Instant.now();
+            return null;
+        });
+    }
+
+    @Override
+    public void updateStack(Board board, Stack stack, @NonNull ResponseCallback<FullStack> responseCallback) {
+        respond("updateStack", responseCallback, () -> {
+            final RemoteBoard remoteBoard = findBoard(board.getId());
+            final RemoteStack remoteStack = findStack(remoteBoard, stack.getId());
+            remoteStack.title = stack.getTitle();
+            remoteStack.order = stack.getOrder();
+            remoteStack.lastModified = Instant.now();
+            remoteBoard.lastModified = remoteStack.lastModified;
+            return toFullStack(remoteBoard, remoteStack, null);
+        });
+    }
+
+    @Override
+    public void getCard(long boardId, long stackId, long cardId, @Nullable String eTag, @NonNull ResponseCallback<FullCard> responseCallback) {
+        respond("getCard", responseCallback, () -> {
+            final RemoteBoard board = findBoard(boardId);
+            final RemoteCard card = findCard(findStack(board, stackId), cardId);
+            if (card.etag().equals(unquote(eTag))) {
+                throw notModified();
+            }
+            return toFullCard(board, card, true);
+        });
+    }
+
+    @Override
+    public void createCard(long boardId, long stackId, Card card, @NonNull ResponseCallback<FullCard> responseCallback) {
+        respond("createCard", responseCallback, () -> {
+            final RemoteBoard board = findBoard(boardId);
+            final RemoteStack stack = findStack(board, stackId);
+            final RemoteCard remoteCard = new RemoteCard(ids.getAndIncrement(), stack.id, card.getTitle(), card.getOrder(), Instant.now());
+            remoteCard.description = card.getDescription();
+            remoteCard.dueDate = card.getDueDate();
+            stack.cards.add(remoteCard);
+            touch(board, stack, remoteCard);
+            return toFullCard(board, remoteCard, true);
+        });
+    }
+
+    @Override
+    public void deleteCard(long boardId, long stackId, Card card, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("deleteCard", responseCallback, () -> {
+            final RemoteBoard board = findBoard(boardId);
+            final RemoteStack stack = findStack(board, stackId);
+            if (!stack.cards.removeIf(c -> c.id == card.getId())) {
+                throw notFound("Card " + card.getId());
+            }
+            stack.lastModified = Instant.now();
+            board.lastModified = stack.lastModified;
+            return null;
+        });
+    }
+
+    @Override
+    public void updateCard(long boardId, long stackId, CardUpdate card, @NonNull ResponseCallback<FullCard> responseCallback) {
+        respond("updateCard", responseCallback, () -> {
+            final RemoteBoard board = findBoard(boardId);
+            final RemoteStack stack = findStack(board, stackId);
+            final RemoteCard remoteCard = findCard(stack, card.getId());
+            remoteCard.title = card.getTitle();
+            remoteCard.description = card.getDescription();
+            remoteCard.dueDate = card.getDueDate();
+            remoteCard.order = card.getOrder();
+            remoteCard.archived = card.isArchived();
+            touch(board, stack, remoteCard);
+            return toFullCard(board, remoteCard, true);
+        });
+    }
+
+    @Override
+    public void assignUserToCard(long boardId, long stackId, long cardId, String userUID, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("assignUserToCard", responseCallback, () -> modifyCard(boardId, stackId, cardId, card -> card.assignees.add(userUID)));
+    }
+
+    @Override
+    public void unassignUserFromCard(long boardId, long stackId, long cardId, String userUID, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("unassignUserFromCard", responseCallback, () -> modifyCard(boardId, stackId, cardId, card -> card.assignees.remove(userUID)));
+    }
+
+    @Override
+    public void assignLabelToCard(long boardId, long stackId, long cardId, long labelId, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("assignLabelToCard", responseCallback, () -> modifyCard(boardId, stackId, cardId, card -> card.labelIds.add(labelId)));
+    }
+
+    @Override
+    public void unassignLabelFromCard(long boardId, long stackId, long cardId, long labelId, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("unassignLabelFromCard", responseCallback, () -> modifyCard(boardId, stackId, cardId, card -> card.labelIds.remove(labelId)));
+    }
+
+
+    // Labels
+
+    @Override
+    public void createLabel(long boardId, Label label, @NonNull ResponseCallback<Label> responseCallback) {
+        respond("createLabel", responseCallback, () -> {
+            final RemoteBoard board = findBoard(boardId);
+            final RemoteLabel remoteLabel = new RemoteLabel(ids.getAndIncrement(), label.getTitle(), label.getColor());
+            board.labels.add(remoteLabel);
+            board.lastModified = Instant.now();
+            return toLabel(board, remoteLabel);
+        });
+    }
+
+    @Override
+    public void deleteLabel(long boardId, Label label, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("deleteLabel", responseCallback, () -> {
+            final RemoteBoard board = findBoard(boardId);
+            if (!board.labels.removeIf(l -> l.id == label.getId())) {
+                throw notFound("Label " + label.getId());
+            }
+            board.lastModified = Instant.now();
+            return null;
+        });
+    }
+
+    @Override
+    public void updateLabel(long boardId, Label label, @NonNull ResponseCallback<Label> responseCallback) {
+        respond("updateLabel", responseCallback, () -> {
+            final RemoteBoard board = findBoard(boardId);
+            final RemoteLabel remoteLabel = board.labels.stream().filter(l -> l.id == label.getId()).findFirst().orElseThrow(() -> notFound("Label " + label.getId()));
+            remoteLabel.title = label.getTitle();
+            remoteLabel.color = label.getColor();
+            board.lastModified = Instant.now();
+            return toLabel(board, remoteLabel);
+        });
+    }
+
+    @Override
+    public void reorder(long boardId, long currentStackId, long cardId, long newStackId, int newPosition, @NonNull ResponseCallback<List<FullCard>> responseCallback) {
+        respond("reorder", responseCallback, () -> {
+            final RemoteBoard board = findBoard(boardId);
+            final RemoteStack currentStack = findStack(board, currentStackId);
+            final RemoteStack newStack = findStack(board, newStackId);
+            final RemoteCard card = findCard(currentStack, cardId);
+            currentStack.cards.remove(card);
+            newStack.cards.add(Math.max(0, Math.min(newPosition, newStack.cards.size())), card);
+            card.stackId = newStack.id;
+            final List<FullCard> result = new ArrayList<>(newStack.cards.size());
+            for (int i = 0; i < newStack.cards.size(); i++) {
+                final RemoteCard reordered = newStack.cards.get(i);
+                reordered.order = i;
+                touch(board, newStack, reordered);
+                result.add(toFullCard(board, reordered, false));
+            }
+            currentStack.lastModified = newStack.lastModified;
+            return result;
+        });
+    }
+
+
+    // Attachments
+
+    @Override
+    public void uploadAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, File attachment, @NonNull ResponseCallback<Attachment> responseCallback) {
+        respond("uploadAttachment", responseCallback, () -> {
+            final RemoteBoard board = findBoard(remoteBoardId);
+            final RemoteStack stack = findStack(board, remoteStackId);
+            final RemoteCard card = findCard(stack, remoteCardId);
+            final RemoteAttachment remoteAttachment = new RemoteAttachment(ids.getAndIncrement(), attachment.getName(), attachment.length(), Instant.now());
+            card.attachments.add(remoteAttachment);
+            touch(board, stack, card);
+            return toAttachment(card, remoteAttachment);
+        });
+    }
+
+    @Override
+    public void updateAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, String contentType, Uri attachmentUri, @NonNull ResponseCallback<Attachment> responseCallback) {
+        respond("updateAttachment", responseCallback, () -> {
+            final RemoteCard card = findCard(findStack(findBoard(remoteBoardId), remoteStackId), remoteCardId);
+            return toAttachment(card, findAttachment(card, remoteAttachmentId));
+        });
+    }
+
+    @Override
+    public void downloadAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, @NonNull ResponseCallback<ResponseBody> responseCallback) {
+        respond("downloadAttachment", responseCallback, () -> {
+            final RemoteCard card = findCard(findStack(findBoard(remoteBoardId), remoteStackId), remoteCardId);
+            final RemoteAttachment attachment = findAttachment(card, remoteAttachmentId);
+            return ResponseBody.create(null, new byte[(int) attachment.filesize]);
+        });
+    }
+
+    @Override
+    public void deleteAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("deleteAttachment", responseCallback, () -> {
+            final RemoteBoard board = findBoard(remoteBoardId);
+            final RemoteStack stack = findStack(board, remoteStackId);
+            final RemoteCard card = findCard(stack, remoteCardId);
+            findAttachment(card, remoteAttachmentId).deletedAt = Instant.now();
+            touch(board, stack, card);
+            return null;
+        });
+    }
+
+    @Override
+    public void restoreAttachment(Long remoteBoardId, long remoteStackId, long remoteCardId, long remoteAttachmentId, @NonNull ResponseCallback<Attachment> responseCallback) {
+        respond("restoreAttachment", responseCallback, () -> {
+            final RemoteBoard board = findBoard(remoteBoardId);
+            final RemoteStack stack = findStack(board, remoteStackId);
+            final RemoteCard card = findCard(stack, remoteCardId);
+            final RemoteAttachment attachment = findAttachment(card, remoteAttachmentId);
+            attachment.deletedAt = null;
+            touch(board, stack, card);
+            return toAttachment(card, attachment);
+        });
+    }
+
+
+    // Comments
+
+    @Override
+    public void getCommentsForRemoteCardId(Long remoteCardId, @NonNull ResponseCallback<OcsComment> responseCallback) {
+        respond("getCommentsForCard", responseCallback, () -> {
+            final RemoteCard card = findCard(remoteCardId);
+            final OcsComment result = new OcsComment();
+            for (RemoteComment comment : card.comments) {
+                result.addComment(toDeckComment(card, comment));
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public void createCommentForCard(DeckComment comment, @NonNull ResponseCallback<OcsComment> responseCallback) {
+        respond("createCommentForCard", responseCallback, () -> {
+            final RemoteCard card = findCard(comment.getObjectId());
+            final RemoteComment remoteComment = new RemoteComment(ids.getAndIncrement(), OWNER_UID, comment.getMessage(), Instant.now());
+            card.comments.add(remoteComment);
+            final OcsComment result = new OcsComment();
+            result.addComment(toDeckComment(card, remoteComment));
+            return result;
+        });
+    }
+
+    @Override
+    public void updateCommentForCard(DeckComment comment, @NonNull ResponseCallback<OcsComment> responseCallback) {
+        respond("updateCommentForCard", responseCallback, () -> {
+            final RemoteCard card = findCard(comment.getObjectId());
+            final RemoteComment remoteComment = card.comments.stream().filter(c -> c.id == comment.getId()).findFirst().orElseThrow(() -> notFound("Comment " + comment.getId()));
+            remoteComment.message = comment.getMessage();
+            final OcsComment result = new OcsComment();
+            result.addComment(toDeckComment(card, remoteComment));
+            return result;
+        });
+    }
+
+    @Override
+    public void deleteCommentForCard(DeckComment comment, @NonNull ResponseCallback<Void> responseCallback) {
+        respond("deleteCommentForCard", responseCallback, () -> {
+            final RemoteCard card = findCard(comment.getObjectId());
+            if (!card.comments.removeIf(c -> c.id == comment.getId())) {
+                throw notFound("Comment " + comment.getId());
+            }
+            return null;
+        });
+    }
+
+
+    // Request handling
+
+    /**
+     * Answers the request asynchronously like the {@link ServerAdapter} does.
+     * The <code>handler</code> is executed while holding the lock of this server, so it may read and modify the state freely.
+     */
+    private <T> void respond(@NonNull String endpoint, @NonNull ResponseCallback<T> callback, @NonNull Callable<T> handler) {
+        ensureInternetConnection();
+        requests.incrementAndGet();
+        requestsPerEndpoint.computeIfAbsent(endpoint, key -> new AtomicInteger()).incrementAndGet();
+        requestStatistics.onRequest();
+        final RequestLimiter sharedRequestLimiter = this.sharedRequestLimiter;
+        final Observable<Optional<T>> request = Observable.fromCallable(() -> handle(handler)).subscribeOn(scheduler);
+        //noinspection ResultOfMethodCallIgnored
+        requestLimiter.limit(sharedRequestLimiter == null ? request : sharedRequestLimiter.limit(request))
+                .doOnNext(response -> requestStatistics.onResponse(response.orElse(null)))
+                .doOnError(requestStatistics::onError)
+                .subscribe(response -> {
+                    final T result = response.orElse(null);
+                    callback.fillAccountIDs(result);
+                    callback.onResponse(result);
+                }, callback::onError);
+    }
+
+    private <T> Optional<T> handle(@NonNull Callable<T> handler) throws Exception {
+        peakRequestsInFlight.accumulateAndGet(requestsInFlight.incrementAndGet(), Math::max);
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            final boolean fail;
+            synchronized (random) {
+                fail = errorRate > 0 && random.nextDouble() < errorRate;
+            }
+            if (fail) {
+                throw new NextcloudHttpRequestFailedException(HTTP_INTERNAL_ERROR, new RuntimeException("Injected error"));
+            }
+            synchronized (this) {
+                return Optional.ofNullable(handler.call());
+            }
+        } finally {
+            requestsInFlight.decrementAndGet();
+        }
+    }
+
+    private interface CardModification {
+        void modify(@NonNull RemoteCard card);
+    }
+
+    @Nullable
+    private Void modifyCard(long boardId, long stackId, long cardId, @NonNull CardModification modification) throws NextcloudHttpRequestFailedException {
+        final RemoteBoard board = findBoard(boardId);
+        final RemoteStack stack = findStack(board, stackId);
+        final RemoteCard card = findCard(stack, cardId);
+        modification.modify(card);
+        touch(board, stack, card);
+        return null;
+    }
+
+    private static void touch(@NonNull RemoteBoard board, @NonNull RemoteStack stack, @NonNull RemoteCard card) {
+        card.lastModified = Instant.now();
+        stack.lastModified = card.lastModified;
+        board.lastModified = card.lastModified;
+    }
+
+    @NonNull
+    private RemoteBoard findBoard(@Nullable Long boardId) throws NextcloudHttpRequestFailedException {
+        final RemoteBoard board = boards.get(boardId);
+        if (board == null) {
+            throw notFound("Board " + boardId);
+        }
+        return board;
+    }
+
+    @NonNull
+    private static RemoteStack findStack(@NonNull RemoteBoard board, @Nullable Long stackId) throws NextcloudHttpRequestFailedException {
+        for (RemoteStack stack : board.stacks) {
+            if (stackId != null && stack.id == stackId) {
+                return stack;
+            }
+        }
+        throw notFound("Stack " + stackId);
+    }
+
+    @NonNull
+    private static RemoteCard findCard(@NonNull RemoteStack stack, @Nullable Long cardId) throws NextcloudHttpRequestFailedException {
+        for (RemoteCard card : stack.cards) {
+            if (cardId != null && card.id == cardId) {
+                return card;
+            }
+        }
+        throw notFound("Card " + cardId);
+    }
+
+    @NonNull
+    private RemoteCard findCard(@Nullable Long cardId) throws NextcloudHttpRequestFailedException {
+        for (RemoteBoard board : boards.values()) {
+            for (RemoteStack stack : board.stacks) {
+                for (RemoteCard card : stack.cards) {
+                    if (cardId != null && card.id == cardId) {
+                        return card;
+                    }
+                }
+            }
+        }
+        throw notFound("Card " + cardId);
+    }
+
+    @NonNull
+    private static RemoteAttachment findAttachment(@NonNull RemoteCard card, long attachmentId) throws NextcloudHttpRequestFailedException {
+        for (RemoteAttachment attachment : card.attachments) {
+            if (attachment.id == attachmentId) {
+                return attachment;
+            }
+        }
+        throw notFound("Attachment " + attachmentId);
+    }
+
+    @NonNull
+    private static NextcloudHttpRequestFailedException notFound(@NonNull String what) {
+        return new NextcloudHttpRequestFailedException(HTTP_NOT_FOUND, new RuntimeException(what + " not found"));
+    }
+
+    @NonNull
+    private static NextcloudHttpRequestFailedException notModified() {
+        return new NextcloudHttpRequestFailedException(HTTP_NOT_MODIFIED, new RuntimeException("Not modified"));
+    }
+
+    @NonNull
+    private static String etag(@NonNull Instant lastModified, long discriminator) {
+        return Long.toHexString(lastModified.toEpochMilli()) + "-" + Long.toHexString(discriminator);
+    }
+
+    @Nullable
+    private static String unquote(@Nullable String eTag) {
+        return eTag == null || !eTag.startsWith("\"") ? eTag : eTag.substring(1, eTag.length() - 1);
+    }
+
+
+    // Mapping of the server state to the entities delivered by the API
+
+    @NonNull
+    private User toUser(@NonNull String uid) {
+        final String displayName = uid.equals(GROUP_ID) ? "Benchmark group" : users.getOrDefault(uid, uid);
+        return new User(uid, uid, displayName);
+    }
+
+    @NonNull
+    private FullBoard toFullBoard(@NonNull RemoteBoard remoteBoard) {
+        final Board board = new Board();
+        board.setId(remoteBoard.id);
+        board.setTitle(remoteBoard.title);
+        board.setColor(remoteBoard.color);
+        board.setArchived(remoteBoard.archived);
+        board.setLastModified(remoteBoard.lastModified);
+        board.setEtag(etag(remoteBoard.lastModified, remoteBoard.id));
+        board.setPermissionRead(true);
+        board.setPermissionEdit(true);
+        board.setPermissionManage(true);
+        board.setPermissionShare(true);
+
+        final FullBoard fullBoard = new FullBoard();
+        fullBoard.setBoard(board);
+        fullBoard.setOwner(toUser(remoteBoard.owner));
+        final List<Label> labels = new ArrayList<>(remoteBoard.labels.size());
+        for (RemoteLabel label : remoteBoard.labels) {
+            labels.add(toLabel(remoteBoard, label));
+        }
+        fullBoard.setLabels(labels);
+        final List<AccessControl> acl = new ArrayList<>(remoteBoard.acl.size());
+        final List<User> boardUsers = new ArrayList<>(remoteBoard.acl.size() + 1);
+        boardUsers.add(toUser(remoteBoard.owner));
+        for (RemoteAccessControl accessControl : remoteBoard.acl) {
+            acl.add(toAccessControl(remoteBoard, accessControl));
+            if (accessControl.type == 0L) {
+                boardUsers.add(toUser(accessControl.participant));
+            }
+        }
+        fullBoard.setParticipants(acl);
+        fullBoard.setUsers(boardUsers);
+        final List<Stack> stacks = new ArrayList<>(remoteBoard.stacks.size());
+        for (RemoteStack stack : remoteBoard.stacks) {
+            stacks.add(toStack(stack));
+        }
+        fullBoard.setStacks(stacks);
+        return fullBoard;
+    }
+
+    @NonNull
+    private static Label toLabel(@NonNull RemoteBoard board, @NonNull RemoteLabel remoteLabel) {
+        final Label label = new Label();
+        label.setId(remoteLabel.id);
+        label.setTitle(remoteLabel.title);
+        label.setColor(remoteLabel.color);
+        label.setBoardId(board.id);
+        return label;
+    }
+
+    @NonNull
+    private AccessControl toAccessControl(@NonNull RemoteBoard board, @NonNull RemoteAccessControl remoteAcl) {
+        final AccessControl acl = new AccessControl();
+        acl.setId(remoteAcl.id);
+        acl.setType(remoteAcl.type);
+        acl.setBoardId(board.id);
+        acl.setUser(toUser(remoteAcl.participant));
+        acl.setOwner(false);
+        acl.setPermissionEdit(remoteAcl.permissionEdit);
+        acl.setPermissionShare(remoteAcl.permissionShare);
+        acl.setPermissionManage(remoteAcl.permissionManage);
+        return acl;
+    }
+
+    @NonNull
+    private static Stack toStack(@NonNull RemoteStack remoteStack) {
+        final Stack stack = new Stack();
+        stack.setId(remoteStack.id);
+        stack.setTitle(remoteStack.title);
+        stack.setBoardId(remoteStack.boardId);
+        stack.setOrder(remoteStack.order);
+        stack.setLastModified(remoteStack.lastModified);
+        stack.setEtag(etag(remoteStack.lastModified, remoteStack.id));
+        return stack;
+    }
+
+    /**
+     * @param lastSync if not <code>null</code>, only cards which have been modified since then will be contained
+     */
+    @NonNull
+    private FullStack toFullStack(@NonNull RemoteBoard board, @NonNull RemoteStack remoteStack, @Nullable Instant lastSync) {
+        final FullStack fullStack = new FullStack();
+        fullStack.setStack(toStack(remoteStack));
+        final List<Card> cards = new ArrayList<>(remoteStack.cards.size());
+        final List<FullCard> fullCards = new ArrayList<>(remoteStack.cards.size());
+        for (RemoteCard card : remoteStack.cards) {
+            if (lastSync == null || card.lastModified.isAfter(lastSync)) {
+                // Like the real server, the stacks endpoint does not deliver attachments
+                final FullCard fullCard = toFullCard(board, card, false);
+                fullCards.add(fullCard);
+                cards.add(fullCard.getCard());
+            }
+        }
+        fullStack.setCards(cards);
+        fullStack.setFullCards(fullCards);
+        return fullStack;
+    }
+
+    @NonNull
+    private FullCard toFullCard(@NonNull RemoteBoard board, @NonNull RemoteCard remoteCard, boolean includeAttachments) {
+        final Card card = new Card();
+        card.setId(remoteCard.id);
+        card.setTitle(remoteCard.title);
+        card.setDescription(remoteCard.description);
+        card.setStackId(remoteCard.stackId);
+        card.setType("plain");
+        card.setOrder(remoteCard.order);
+        card.setArchived(remoteCard.archived);
+        card.setDueDate(remoteCard.dueDate);
+        card.setCreatedAt(remoteCard.createdAt);
+        card.setLastModified(remoteCard.lastModified);
+        card.setEtag(remoteCard.etag());
+        card.setCommentsUnread(0);
+
+        final FullCard fullCard = new FullCard();
+        fullCard.setCard(card);
+        fullCard.setOwner(toUser(OWNER_UID));
+        final List<Label> labels = new ArrayList<>(remoteCard.labelIds.size());
+        for (RemoteLabel label : board.labels) {
+            if (remoteCard.labelIds.contains(label.id)) {
+                labels.add(toLabel(board, label));
+            }
+        }
+        fullCard.setLabels(labels);
+        final List<User> assignees = new ArrayList<>(remoteCard.assignees.size());
+        for (String uid : remoteCard.assignees) {
+            assignees.add(toUser(uid));
+        }
+        fullCard.setAssignedUsers(assignees);
+        final List<Attachment> attachments = new ArrayList<>(remoteCard.attachments.size());
+        for (RemoteAttachment attachment : remoteCard.attachments) {
+            if (attachment.deletedAt == null) {
+                attachments.add(toAttachment(remoteCard, attachment));
+            }
+        }
+        card.setAttachmentCount(attachments.size());
+        fullCard.setAttachments(includeAttachments ? attachments : null);
+        return fullCard;
+    }
+
+    @NonNull
+    private static Attachment toAttachment(@NonNull RemoteCard card, @NonNull RemoteAttachment remoteAttachment) {
+        final Attachment attachment = new Attachment();
+        attachment.setId(remoteAttachment.id);
+        attachment.setCardId(card.id);
+        attachment.setType(EAttachmentType.FILE);
+        attachment.setData(remoteAttachment.basename);
+        attachment.setBasename(remoteAttachment.basename);
+        attachment.setFilename(remoteAttachment.basename.substring(0, remoteAttachment.basename.lastIndexOf('.')));
+        attachment.setExtension(remoteAttachment.basename.substring(remoteAttachment.basename.lastIndexOf('.') + 1));
+        attachment.setDirname("/Deck");
+        attachment.setMimetype("application/pdf");
+        attachment.setFilesize(remoteAttachment.filesize);
+        attachment.setFileId(remoteAttachment.id);
+        attachment.setCreatedAt(remoteAttachment.createdAt);
+        attachment.setCreatedBy(OWNER_UID);
+        attachment.setLastModified(remoteAttachment.createdAt);
+        attachment.setEtag(etag(remoteAttachment.createdAt, remoteAttachment.id));
+        return attachment;
+    }
+
+    @NonNull
+    private DeckComment toDeckComment(@NonNull RemoteCard card, @NonNull RemoteComment remoteComment) {
+        final DeckComment comment = new DeckComment();
+        comment.setId(remoteComment.id);
+        comment.setObjectId(card.id);
+        comment.setActorType("users");
+        comment.setActorId(remoteComment.actorId);
+        comment.setActorDisplayName(toUser(remoteComment.actorId).getDisplayname());
+        comment.setMessage(remoteComment.message);
+        comment.setCreationDateTime(remoteComment.creationDateTime);
+        return comment;
+    }
+
+
+    // Server state
+
+    private static class RemoteBoard {
+        private final long id;
+        private final String owner;
+        private final List<RemoteLabel> labels = new ArrayList<>();
+        private final List<RemoteAccessControl> acl = new ArrayList<>();
+        private final List<RemoteStack> stacks = new ArrayList<>();
+        private String title;
+        private Integer color;
+        private boolean archived;
+        private Instant lastModified;
+
+        private RemoteBoard(long id, String title, Integer color, String owner, Instant lastModified) {
+            this.id = id;
+            this.title = title;
+            this.color = color;
+            this.owner = owner;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static class RemoteLabel {
+        private final long id;
+        private String title;
+        private Integer color;
+
+        private RemoteLabel(long id, String title, Integer color) {
+            this.id = id;
+            this.title = title;
+            this.color = color;
+        }
+    }
+
+    private static class RemoteAccessControl {
+        private final long id;
+        private final Long type;
+        private final String participant;
+        private boolean permissionEdit = true;
+        private boolean permissionShare = false;
+        private boolean permissionManage = false;
+
+        private RemoteAccessControl(long id, Long type, String participant) {
+            this.id = id;
+            this.type = type;
+            this.participant = participant;
+        }
+    }
+
+    private static class RemoteStack {
+        private final long id;
+        private final long boardId;
+        private final List<RemoteCard> cards = new ArrayList<>();
+        private String title;
+        private int order;
+        private Instant lastModified;
+
+        private RemoteStack(long id, long boardId, String title, int order, Instant lastModified) {
+            this.id = id;
+            this.boardId = boardId;
+            this.title = title;
+            this.order = order;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static class RemoteCard {
+        private final long id;
+        private final Instant createdAt;
+        private final Set<Long> labelIds = new LinkedHashSet<>();
+        private final Set<String> assignees = new LinkedHashSet<>();
+        private final List<RemoteAttachment> attachments = new ArrayList<>();
+        private final List<RemoteComment> comments = new ArrayList<>();
+        private long stackId;
+        private String title;
+        private String description = "";
+        private int order;
+        private boolean archived;
+        private Instant dueDate;
+        private Instant lastModified;
+
+        private RemoteCard(long id, long stackId, String title, int order, Instant createdAt) {
+            this.id = id;
+            this.stackId = stackId;
+            this.title = title;
+            this.order = order;
+            this.createdAt = createdAt;
+            this.lastModified = createdAt;
+        }
+
+        private String etag() {
+            return FakeDeckServer.etag(lastModified, id);
+        }
+    }
+
+    private static class RemoteAttachment {
+        private final long id;
+        private final String basename;
+        private final long filesize;
+        private final Instant createdAt;
+        private Instant deletedAt;
+
+        private RemoteAttachment(long id, String basename, long filesize, Instant createdAt) {
+            this.id = id;
+            this.basename = basename;
+            this.filesize = filesize;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static class RemoteComment {
+        private final long id;
+        private final String actorId;
+        private final Instant creationDateTime;
+        private String message;
+
+        private RemoteComment(long id, String actorId, String message, Instant creationDateTime) {
+            this.id = id;
+            this.actorId = actorId;
+            this.message = message;
+            this.creationDateTime = creationDateTime;
+        }
+    }
+}
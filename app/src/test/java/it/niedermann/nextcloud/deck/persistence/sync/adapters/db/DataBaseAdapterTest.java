@@ -1,12 +1,19 @@
 package it.niedermann.nextcloud.deck.persistence.sync.adapters.db;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 import static java.lang.reflect.Modifier.isPrivate;
 import static it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DeckDatabaseTestUtil.createAccount;
 import static it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DeckDatabaseTestUtil.createBoard;
+import static it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DeckDatabaseTestUtil.createCard;
+import static it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DeckDatabaseTestUtil.createStack;
 import static it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DeckDatabaseTestUtil.createUser;
 
 import android.content.Context;
+import android.graphics.Color;
 
 import androidx.room.Room;
 import androidx.test.core.app.ApplicationProvider;
@@ -25,9 +32,24 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.JoinCardWithLabel;
+import it.niedermann.nextcloud.deck.model.JoinCardWithUser;
+import it.niedermann.nextcloud.deck.model.Label;
+import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.enums.DBStatus;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.interfaces.IRemoteEntity;
+import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
+import it.niedermann.nextcloud.deck.model.widget.filter.EWidgetType;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidget;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetAccount;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetBoard;
+import it.niedermann.nextcloud.deck.model.widget.filter.dto.FilterWidgetCard;
 
 @RunWith(RobolectricTestRunner.class)
 public class DataBaseAdapterTest {
@@ -109,4 +131,358 @@ public class DataBaseAdapterTest {
         assertEquals(leet + 1, args.get(1));
     }
 
+    @Test
+    public void testFilterRelationsForCards() throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        final var account = createAccount(db.getAccountDao());
+        final var user1 = createUser(db.getUserDao(), account);
+        final var user2 = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, user1);
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var card1 = createCard(db.getCardDao(), account, stack);
+        final var card2 = createCard(db.getCardDao(), account, stack);
+
+        final var labelB = new Label();
+        labelB.setAccountId(account.getId());
+        labelB.setBoardId(board.getLocalId());
+        labelB.setTitle("B");
+        labelB.setColor(Color.RED);
+        labelB.setLocalId(db.getLabelDao().insert(labelB));
+        final var labelA = new Label(labelB);
+        labelA.setLocalId(null);
+        labelA.setTitle("A");
+        labelA.setLocalId(db.getLabelDao().insert(labelA));
+
+        db.getJoinCardWithLabelDao().insert(createLabelJoin(card1.getLocalId(), labelB.getLocalId(), DBStatus.UP_TO_DATE));
+        db.getJoinCardWithLabelDao().insert(createLabelJoin(card1.getLocalId(), labelA.getLocalId(), DBStatus.UP_TO_DATE));
+        db.getJoinCardWithLabelDao().insert(createLabelJoin(card2.getLocalId(), labelA.getLocalId(), DBStatus.LOCAL_DELETED));
+        db.getJoinCardWithLabelDao().insert(createLabelJoin(card2.getLocalId(), labelB.getLocalId(), DBStatus.UP_TO_DATE));
+        db.getJoinCardWithUserDao().insert(createUserJoin(card1.getLocalId(), user1.getLocalId(), DBStatus.LOCAL_DELETED));
+        db.getJoinCardWithUserDao().insert(createUserJoin(card2.getLocalId(), user1.getLocalId(), DBStatus.UP_TO_DATE));
+        db.getJoinCardWithUserDao().insert(createUserJoin(card2.getLocalId(), user2.getLocalId(), DBStatus.UP_TO_DATE));
+
+        final List<FullCard> cards = db.getCardDao().getFullCardsForStackDirectly(account.getId(), stack.getLocalId());
+        final var filterRelationsForCard = DataBaseAdapter.class.getDeclaredMethod("filterRelationsForCard", Collection.class);
+        filterRelationsForCard.setAccessible(true);
+        filterRelationsForCard.invoke(adapter, cards);
+
+        final var fullCard1 = cards.stream().filter(card -> card.getCard().getLocalId().equals(card1.getLocalId())).findFirst().orElseThrow();
+        final var fullCard2 = cards.stream().filter(card -> card.getCard().getLocalId().equals(card2.getLocalId())).findFirst().orElseThrow();
+        assertEquals(List.of("A", "B"), fullCard1.getLabels().stream().map(Label::getTitle).collect(Collectors.toList()));
+        assertEquals(List.of("B"), fullCard2.getLabels().stream().map(Label::getTitle).collect(Collectors.toList()));
+        assertEquals(0, fullCard1.getAssignedUsers().size());
+        assertEquals(2, fullCard2.getAssignedUsers().size());
+    }
+
+    @Test
+    public void testFilterByText() {
+        final var account = createAccount(db.getAccountDao());
+        final var user = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, user);
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var card1 = createCard(db.getCardDao(), account, stack);
+        final var card2 = createCard(db.getCardDao(), account, stack);
+        card1.setTitle("Holy Moly");
+        card2.setDescription("Buy some milk");
+        db.getCardDao().update(card1, card2);
+
+        final var filter = new FilterInformation();
+        filter.setFilterText("hol");
+        assertEquals(List.of(card1), adapter.getFullCardsForStackDirectly(account.getId(), stack.getLocalId(), filter).stream().map(FullCard::getCard).collect(Collectors.toList()));
+
+        filter.setFilterText("some MILK");
+        assertEquals(List.of(card2), adapter.getFullCardsForStackDirectly(account.getId(), stack.getLocalId(), filter).stream().map(FullCard::getCard).collect(Collectors.toList()));
+
+        card2.setDescription("Buy some bread");
+        db.getCardDao().update(card2);
+        assertEquals(0, adapter.getFullCardsForStackDirectly(account.getId(), stack.getLocalId(), filter).size());
+    }
+
+    @Test
+    public void testGetCardsForFilterWidget() {
+        final var account = createAccount(db.getAccountDao());
+        final var user = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, user);
+        final var stack = createStack(db.getStackDao(), account, board);
+        createCard(db.getCardDao(), account, stack);
+        createCard(db.getCardDao(), account, stack);
+
+        final var filterWidget = new FilterWidget(1, EWidgetType.FILTER_WIDGET);
+        filterWidget.getAccounts().add(new FilterWidgetAccount(account.getId(), false));
+        final int filterWidgetId = adapter.createFilterWidgetDirectly(filterWidget);
+
+        final List<FilterWidgetCard> cards = adapter.getCardsForFilterWidget(filterWidgetId);
+        assertEquals(2, cards.size());
+        for (FilterWidgetCard card : cards) {
+            assertEquals(stack.getLocalId(), card.getStack().getLocalId());
+            assertEquals(board.getLocalId(), card.getBoard().getLocalId());
+        }
+
+        // The result is reused until it gets invalidated
+        createCard(db.getCardDao(), account, stack);
+        assertEquals(2, adapter.getCardsForFilterWidget(filterWidgetId).size());
+        db.getFilterWidgetDao().invalidateResults(List.of(filterWidgetId));
+        assertEquals(3, adapter.getCardsForFilterWidget(filterWidgetId).size());
+    }
+
+    @Test
+    public void testGetChangedFilterWidgetIdsByEntities() {
+        final var account = createAccount(db.getAccountDao());
+        final var otherAccount = createAccount(db.getAccountDao());
+        final var user = createUser(db.getUserDao(), account);
+        final var board1 = createBoard(db.getBoardDao(), account, user);
+        final var board2 = createBoard(db.getBoardDao(), account, user);
+
+        final int widgetOfBoard1 = createFilterWidget(1, account.getId(), board1.getLocalId());
+        final int widgetOfBoard2 = createFilterWidget(2, account.getId(), board2.getLocalId());
+        final int widgetOfAllBoards = createFilterWidget(3, otherAccount.getId(), null);
+        final var dao = db.getFilterWidgetDao();
+
+        assertEquals(3, dao.countFilterWidgets());
+        assertEquals(Set.of(widgetOfBoard1, widgetOfAllBoards), Set.copyOf(dao.getChangedFilterWidgetIdsByEntities(FilterWidget.EChangedEntityType.BOARD.toString(), List.of(board1.getLocalId()))));
+        assertEquals(Set.of(widgetOfBoard1, widgetOfBoard2, widgetOfAllBoards), Set.copyOf(dao.getChangedFilterWidgetIdsByEntities(FilterWidget.EChangedEntityType.BOARD.toString(), List.of(board1.getLocalId(), board2.getLocalId()))));
+        assertEquals(Set.of(widgetOfAllBoards), Set.copyOf(dao.getChangedFilterWidgetIdsByEntities(FilterWidget.EChangedEntityType.BOARD.toString(), Collections.emptyList())));
+        assertEquals(Set.of(widgetOfBoard1, widgetOfBoard2), Set.copyOf(dao.getChangedFilterWidgetIdsByEntities(FilterWidget.EChangedEntityType.ACCOUNT.toString(), List.of(account.getId()))));
+    }
+
+    private int createFilterWidget(int id, long accountId, Long boardId) {
+        final var filterWidget = new FilterWidget(id, EWidgetType.FILTER_WIDGET);
+        final var filterWidgetAccount = new FilterWidgetAccount(accountId, false);
+        if (boardId != null) {
+            filterWidgetAccount.getBoards().add(new FilterWidgetBoard(boardId, new ArrayList<>()));
+        }
+        filterWidget.getAccounts().add(filterWidgetAccount);
+        return adapter.createFilterWidgetDirectly(filterWidget);
+    }
+
+    @Test
+    public void testLocalCardOrder() {
+        final var account = createAccount(db.getAccountDao());
+        final var user = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, user);
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var card1 = createCard(db.getCardDao(), account, stack);
+        final var card2 = createCard(db.getCardDao(), account, stack);
+        final var card3 = createCard(db.getCardDao(), account, stack);
+        card1.setOrder(2);
+        card2.setOrder(0);
+        card3.setOrder(1);
+        db.getCardDao().update(card1, card2, card3);
+
+        adapter.resetLocalCardOrderToServerOrder(stack.getLocalId());
+        assertEquals(List.of(card2.getLocalId(), card3.getLocalId(), card1.getLocalId()), getLocalIdsOfStack(account.getId(), stack.getLocalId()));
+        assertEquals(2, adapter.getServerOrderOfCardDirectly(db.getCardDao().getCardByLocalIdDirectly(account.getId(), card1.getLocalId())));
+
+        // Not pushed local changes are not overridden by the server order
+        final var movedCard = db.getCardDao().getCardByLocalIdDirectly(account.getId(), card1.getLocalId());
+        movedCard.setLocalOrder(-DataBaseAdapter.CARD_LOCAL_ORDER_GAP);
+        movedCard.setStatusEnum(DBStatus.LOCAL_EDITED);
+        db.getCardDao().update(movedCard);
+        adapter.resetLocalCardOrderToServerOrder(stack.getLocalId());
+        assertEquals(List.of(card1.getLocalId(), card2.getLocalId(), card3.getLocalId()), getLocalIdsOfStack(account.getId(), stack.getLocalId()));
+        assertEquals(0, adapter.getServerOrderOfCardDirectly(movedCard));
+    }
+
+    @Test
+    public void testServerOrderAmbiguous() {
+        final var account = createAccount(db.getAccountDao());
+        final var user = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, user);
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var card1 = createCard(db.getCardDao(), account, stack);
+        final var card2 = createCard(db.getCardDao(), account, stack);
+        final var card3 = createCard(db.getCardDao(), account, stack);
+        card1.setOrder(0);
+        card2.setOrder(1);
+        card3.setOrder(2);
+        db.getCardDao().update(card1, card2, card3);
+        adapter.resetLocalCardOrderToServerOrder(stack.getLocalId());
+
+        // Unchanged position
+        final var unchangedCard = db.getCardDao().getCardByLocalIdDirectly(account.getId(), card2.getLocalId());
+        assertFalse(adapter.isServerOrderAmbiguous(stack.getLocalId(), unchangedCard, adapter.getServerOrderOfCardDirectly(unchangedCard)));
+
+        // Moved to the top: the pushed order ties with the order of card1 on the server
+        final var movedCard = db.getCardDao().getCardByLocalIdDirectly(account.getId(), card3.getLocalId());
+        movedCard.setLocalOrder(-DataBaseAdapter.CARD_LOCAL_ORDER_GAP);
+        movedCard.setStatusEnum(DBStatus.LOCAL_EDITED);
+        db.getCardDao().update(movedCard);
+        final int order = adapter.getServerOrderOfCardDirectly(movedCard);
+        assertEquals(0, order);
+        assertTrue(adapter.isServerOrderAmbiguous(stack.getLocalId(), movedCard, order));
+
+        // After the server renumbered the stack, the order is unambiguous
+        adapter.applyServerOrderOfStack(account.getId(), List.of(
+                createFullCard(card3.getId(), 0),
+                createFullCard(card1.getId(), 1),
+                createFullCard(card2.getId(), 2)));
+        final var reorderedCard = db.getCardDao().getCardByLocalIdDirectly(account.getId(), card3.getLocalId());
+        assertEquals(0, reorderedCard.getOrder());
+        assertEquals(1, db.getCardDao().getCardByLocalIdDirectly(account.getId(), card1.getLocalId()).getOrder());
+        assertFalse(adapter.isServerOrderAmbiguous(stack.getLocalId(), reorderedCard, adapter.getServerOrderOfCardDirectly(reorderedCard)));
+    }
+
+    @Test
+    public void testServerOrderIgnoresArchivedCards() {
+        final var account = createAccount(db.getAccountDao());
+        final var user = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, user);
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var archivedCard = createCard(db.getCardDao(), account, stack);
+        final var card1 = createCard(db.getCardDao(), account, stack);
+        final var card2 = createCard(db.getCardDao(), account, stack);
+        archivedCard.setOrder(5);
+        archivedCard.setArchived(true);
+        card1.setOrder(0);
+        card2.setOrder(1);
+        db.getCardDao().update(archivedCard, card1, card2);
+        adapter.resetLocalCardOrderToServerOrder(stack.getLocalId());
+        final var archivedCardBeforeAll = db.getCardDao().getCardByLocalIdDirectly(account.getId(), archivedCard.getLocalId());
+        archivedCardBeforeAll.setLocalOrder(-DataBaseAdapter.CARD_LOCAL_ORDER_GAP);
+        db.getCardDao().update(archivedCardBeforeAll);
+
+        // The server only numbers cards which are not archived
+        final var firstCard = db.getCardDao().getCardByLocalIdDirectly(account.getId(), card1.getLocalId());
+        assertEquals(0, adapter.getServerOrderOfCardDirectly(firstCard));
+        assertFalse(adapter.isServerOrderAmbiguous(stack.getLocalId(), firstCard, 0));
+    }
+
+    @Test
+    public void testApplyServerOrderAfterMove() {
+        final var account = createAccount(db.getAccountDao());
+        final var user = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, user);
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var card1 = createCard(db.getCardDao(), account, stack);
+        final var card2 = createCard(db.getCardDao(), account, stack);
+        final var card3 = createCard(db.getCardDao(), account, stack);
+        final var archivedCard = createCard(db.getCardDao(), account, stack);
+        card1.setOrder(0);
+        card2.setOrder(1);
+        card3.setOrder(2);
+        archivedCard.setOrder(3);
+        archivedCard.setArchived(true);
+        db.getCardDao().update(card1, card2, card3, archivedCard);
+        adapter.resetLocalCardOrderToServerOrder(stack.getLocalId());
+        final var archivedCardBeforeAll = db.getCardDao().getCardByLocalIdDirectly(account.getId(), archivedCard.getLocalId());
+        archivedCardBeforeAll.setLocalOrder(-2 * DataBaseAdapter.CARD_LOCAL_ORDER_GAP);
+        db.getCardDao().update(archivedCardBeforeAll);
+
+        final var movedCard = db.getCardDao().getCardByLocalIdDirectly(account.getId(), card3.getLocalId());
+        movedCard.setLocalOrder(-DataBaseAdapter.CARD_LOCAL_ORDER_GAP);
+        movedCard.setStatusEnum(DBStatus.LOCAL_MOVED);
+        db.getCardDao().update(movedCard);
+        // Archived cards are not numbered by the server
+        assertEquals(0, adapter.getServerOrderOfCardDirectly(movedCard));
+
+        // Nothing is applied if the response can not be applied completely
+        final var incompleteResponse = new ArrayList<FullCard>();
+        incompleteResponse.add(createFullCard(card3.getId(), 0));
+        incompleteResponse.add(new FullCard());
+        assertThrows(NullPointerException.class, () -> adapter.applyServerOrderAfterMove(account.getId(), movedCard, incompleteResponse));
+        var storedMovedCard = db.getCardDao().getCardByLocalIdDirectly(account.getId(), card3.getLocalId());
+        assertEquals(2, storedMovedCard.getOrder());
+        assertEquals(DBStatus.LOCAL_MOVED.getId(), storedMovedCard.getStatus());
+
+        adapter.applyServerOrderAfterMove(account.getId(), movedCard, List.of(
+                createFullCard(card3.getId(), 0),
+                createFullCard(card1.getId(), 1),
+                createFullCard(card2.getId(), 2)));
+        storedMovedCard = db.getCardDao().getCardByLocalIdDirectly(account.getId(), card3.getLocalId());
+        assertEquals(0, storedMovedCard.getOrder());
+        assertEquals(DBStatus.UP_TO_DATE.getId(), storedMovedCard.getStatus());
+        assertEquals(1, db.getCardDao().getCardByLocalIdDirectly(account.getId(), card1.getLocalId()).getOrder());
+        assertEquals(2, db.getCardDao().getCardByLocalIdDirectly(account.getId(), card2.getLocalId()).getOrder());
+        assertEquals(List.of(card3.getLocalId(), card1.getLocalId(), card2.getLocalId(), archivedCard.getLocalId()), getLocalIdsOfStack(account.getId(), stack.getLocalId()));
+    }
+
+    private static FullCard createFullCard(long remoteId, int order) {
+        final var card = new Card();
+        card.setId(remoteId);
+        card.setOrder(order);
+        final var fullCard = new FullCard();
+        fullCard.setCard(card);
+        return fullCard;
+    }
+
+    @Test
+    public void testGetLocalOrderBetween() {
+        final var previous = new Card();
+        final var next = new Card();
+        previous.setLocalOrder(10);
+        next.setLocalOrder(20);
+        assertEquals(Long.valueOf(15), DataBaseAdapter.getLocalOrderBetween(previous, next));
+        assertEquals(Long.valueOf(10 + DataBaseAdapter.CARD_LOCAL_ORDER_GAP), DataBaseAdapter.getLocalOrderBetween(previous, null));
+        assertEquals(Long.valueOf(20 - DataBaseAdapter.CARD_LOCAL_ORDER_GAP), DataBaseAdapter.getLocalOrderBetween(null, next));
+        assertEquals(Long.valueOf(0), DataBaseAdapter.getLocalOrderBetween(null, null));
+
+        next.setLocalOrder(11);
+        assertNull(DataBaseAdapter.getLocalOrderBetween(previous, next));
+    }
+
+    @Test
+    public void testCloneBoard() {
+        final var account = createAccount(db.getAccountDao());
+        final var user = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, user);
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var card1 = createCard(db.getCardDao(), account, stack);
+        final var card2 = createCard(db.getCardDao(), account, stack);
+        final var deletedCard = createCard(db.getCardDao(), account, stack);
+        card1.setLocalOrder(1);
+        card2.setLocalOrder(2);
+        deletedCard.setStatusEnum(DBStatus.LOCAL_DELETED);
+        db.getCardDao().update(card1, card2, deletedCard);
+
+        final var label = new Label();
+        label.setAccountId(account.getId());
+        label.setBoardId(board.getLocalId());
+        label.setTitle("A");
+        label.setColor(Color.RED);
+        label.setLocalId(db.getLabelDao().insert(label));
+        db.getJoinCardWithLabelDao().insert(createLabelJoin(card2.getLocalId(), label.getLocalId(), DBStatus.UP_TO_DATE));
+        db.getJoinCardWithUserDao().insert(createUserJoin(card1.getLocalId(), user.getLocalId(), DBStatus.UP_TO_DATE));
+
+        final var originalBoard = db.getBoardDao().getFullBoardByLocalIdDirectly(account.getId(), board.getLocalId());
+        originalBoard.getBoard().setTitle("Copy");
+        final long clonedBoardId = adapter.cloneBoardDirectly(account.getId(), originalBoard, account.getId(), user, true, true);
+
+        final var clonedBoard = db.getBoardDao().getFullBoardByLocalIdDirectly(account.getId(), clonedBoardId);
+        assertEquals("Copy", clonedBoard.getBoard().getTitle());
+        assertEquals(DBStatus.LOCAL_EDITED.getId(), clonedBoard.getStatus());
+        assertEquals(1, clonedBoard.getStacks().size());
+        assertEquals(1, clonedBoard.getLabels().size());
+
+        final List<FullCard> clonedCards = adapter.getFullCardsForStackDirectly(account.getId(), clonedBoard.getStacks().get(0).getLocalId(), null);
+        assertEquals(List.of(card1.getTitle(), card2.getTitle()), clonedCards.stream().map(fullCard -> fullCard.getCard().getTitle()).collect(Collectors.toList()));
+        assertEquals(List.of(user.getLocalId()), clonedCards.get(0).getAssignedUsers().stream().map(User::getLocalId).collect(Collectors.toList()));
+        assertEquals(List.of(clonedBoard.getLabels().get(0).getLocalId()), clonedCards.get(1).getLabels().stream().map(Label::getLocalId).collect(Collectors.toList()));
+        for (FullCard clonedCard : clonedCards) {
+            assertNull(clonedCard.getId());
+            assertEquals(DBStatus.LOCAL_EDITED.getId(), clonedCard.getStatus());
+        }
+    }
+
+    private List<Long> getLocalIdsOfStack(long accountId, long localStackId) {
+        return adapter.getFullCardsForStackDirectly(accountId, localStackId, null)
+                .stream()
+                .map(FullCard::getLocalId)
+                .collect(Collectors.toList());
+    }
+
+    private static JoinCardWithLabel createLabelJoin(long localCardId, long localLabelId, DBStatus status) {
+        final var join = new JoinCardWithLabel();
+        join.setCardId(localCardId);
+        join.setLabelId(localLabelId);
+        join.setStatusEnum(status);
+        return join;
+    }
+
+    private static JoinCardWithUser createUserJoin(long localCardId, long localUserId, DBStatus status) {
+        final var join = new JoinCardWithUser();
+        join.setCardId(localCardId);
+        join.setUserId(localUserId);
+        join.setStatusEnum(status);
+        return join;
+    }
+
 }
@@ -0,0 +1,51 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import it.niedermann.nextcloud.deck.model.enums.EOutboxEntityType;
+import it.niedermann.nextcloud.deck.model.outbox.OutboxEntry;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DeckDatabaseTestUtil;
+
+@RunWith(RobolectricTestRunner.class)
+public class OutboxDaoTest extends AbstractDaoTest {
+
+    @Test
+    public void testAppend() {
+        final var account = DeckDatabaseTestUtil.createAccount(db.getAccountDao());
+        final var user = DeckDatabaseTestUtil.createUser(db.getUserDao(), account);
+        final var board = DeckDatabaseTestUtil.createBoard(db.getBoardDao(), account, user);
+        final var stack = DeckDatabaseTestUtil.createStack(db.getStackDao(), account, board);
+        final var card = DeckDatabaseTestUtil.createCard(db.getCardDao(), account, stack);
+
+        final long firstEdit = db.getOutboxDao().append(new OutboxEntry(account.getId(), board.getLocalId(), stack.getLocalId(), EOutboxEntityType.CARD_LABEL, card.getLocalId()));
+        final long secondEdit = db.getOutboxDao().append(new OutboxEntry(account.getId(), board.getLocalId(), stack.getLocalId(), EOutboxEntityType.CARD, card.getLocalId()));
+        final long thirdEdit = db.getOutboxDao().append(new OutboxEntry(account.getId(), board.getLocalId(), stack.getLocalId(), EOutboxEntityType.CARD, card.getLocalId()));
+
+        // Every recorded edit is kept, cards come before their labels
+        final var entries = db.getOutboxDao().getAllDirectly();
+        assertEquals(3, entries.size());
+        assertEquals(List.of(secondEdit, thirdEdit, firstEdit), entries.stream().map(OutboxEntry::getLocalId).collect(Collectors.toList()));
+
+        db.getOutboxDao().incrementAttempts(List.of(secondEdit, thirdEdit));
+        db.getOutboxDao().incrementAttempts(List.of(thirdEdit));
+        final var attempts = db.getOutboxDao().getAllDirectly().stream().map(OutboxEntry::getAttempts).collect(Collectors.toList());
+        assertEquals(List.of(1, 2, 0), attempts);
+
+        db.getOutboxDao().deleteByLocalIds(List.of(secondEdit, thirdEdit));
+        assertEquals(1, db.getOutboxDao().countForAccountDirectly(account.getId()));
+
+        // Edits recorded after the synchronization started must survive
+        final long fourthEdit = db.getOutboxDao().append(new OutboxEntry(account.getId(), board.getLocalId(), stack.getLocalId(), EOutboxEntityType.CARD, card.getLocalId()));
+        db.getOutboxDao().deleteForAccount(account.getId(), firstEdit);
+        final var remaining = db.getOutboxDao().getAllDirectly();
+        assertEquals(1, remaining.size());
+        assertEquals(fourthEdit, (long) remaining.get(0).getLocalId());
+    }
+}
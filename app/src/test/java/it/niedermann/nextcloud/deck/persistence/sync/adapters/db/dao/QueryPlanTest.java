@@ -0,0 +1,110 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao;
+
+import static org.junit.Assert.assertFalse;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import it.niedermann.nextcloud.deck.model.Label;
+import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.enums.EDueType;
+import it.niedermann.nextcloud.deck.model.interfaces.AbstractRemoteEntity;
+import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
+import it.niedermann.nextcloud.deck.model.ocs.projects.OcsProject;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+
+/**
+ * Makes sure that hot queries on big tables are answered by indices and do not regress to a full table scan.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueryPlanTest extends AbstractDaoTest {
+
+    /**
+     * Matches <code>SCAN TABLE card AS c</code> (SQLite &lt; 3.36) as well as <code>SCAN c</code> (SQLite &ge; 3.36)
+     */
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?(\\w+)( AS (\\w+))?.*");
+    private static final Set<String> BIG_TABLES = Set.of("card", "c", "joincardwithlabel", "joincardwithuser", "j", "deckcomment", "dc");
+
+    @Test
+    public void testCardQueries() {
+        assertNoFullScan(CardDao.QUERY_CARD_BY_REMOTE_ID);
+        assertNoFullScan(CardDao.QUERY_NOT_DELETED_CARDS_FOR_STACK);
+        assertNoFullScan(CardDao.QUERY_ARCHIVED_CARDS_FOR_BOARD);
+        assertNoFullScan(CardDao.QUERY_CARDS_FOR_STACK);
+        assertNoFullScan(CardDao.QUERY_UPCOMING_CARDS);
+    }
+
+    @Test
+    public void testJoinQueries() {
+        assertNoFullScan(JoinCardWithLabelDao.QUERY_NOT_DELETED_JOINS_FOR_CARDS);
+        assertNoFullScan(JoinCardWithUserDao.QUERY_NOT_DELETED_JOINS_FOR_CARDS);
+        assertNoFullScan(LabelDao.QUERY_NOT_DELETED_LABELS_FOR_CARDS);
+        assertNoFullScan(UserDao.QUERY_NOT_DELETED_USERS_FOR_CARDS);
+    }
+
+    @Test
+    public void testCommentQueries() {
+        assertNoFullScan(CommentDao.QUERY_COMMENTS_FOR_CARD);
+        assertNoFullScan(CommentDao.QUERY_LOCALLY_CHANGED_COMMENTS_FOR_CARD);
+    }
+
+    @Test
+    public void testFilterQueries() {
+        final var filter = new FilterInformation();
+        assertNoFullScan(DataBaseAdapter.getQueryForFilter(filter, List.of(1L), List.of(2L)).getSql());
+        assertNoFullScan(DataBaseAdapter.getQueryForFilter(filter, List.of(1L), null).getSql());
+
+        filter.setLabels(List.of(createEntity(new Label(), 3L)));
+        filter.setNoAssignedLabel(true);
+        filter.setUsers(List.of(createEntity(new User(), 4L)));
+        filter.setNoAssignedUser(true);
+        filter.setProjects(List.of(createEntity(new OcsProject(), 5L)));
+        filter.setDueType(EDueType.WEEK);
+        filter.setFilterText("search");
+        filter.setArchiveStatus(FilterInformation.EArchiveStatus.NON_ARCHIVED);
+        assertNoFullScan(DataBaseAdapter.getQueryForFilter(filter, List.of(1L), List.of(2L)).getSql());
+        assertNoFullScan(DataBaseAdapter.getQueryForFilter(filter, List.of(1L), null).getSql());
+    }
+
+    @NonNull
+    private static <T extends AbstractRemoteEntity> T createEntity(@NonNull T entity, long localId) {
+        entity.setLocalId(localId);
+        return entity;
+    }
+
+    private void assertNoFullScan(@NonNull String query) {
+        for (String detail : explainQueryPlan(query)) {
+            final var matcher = FULL_SCAN.matcher(detail);
+            if (matcher.matches()) {
+                final String table = matcher.group(2).toLowerCase(Locale.ROOT);
+                final String alias = matcher.group(4) == null ? table : matcher.group(4).toLowerCase(Locale.ROOT);
+                assertFalse("Full scan \"" + detail + "\" in query " + query, BIG_TABLES.contains(table) || BIG_TABLES.contains(alias));
+            }
+        }
+    }
+
+    /**
+     * Parameters stay unbound because the plan does not depend on their values.
+     */
+    @NonNull
+    private List<String> explainQueryPlan(@NonNull String query) {
+        final List<String> details = new ArrayList<>();
+        try (final var cursor = db.getOpenHelper().getReadableDatabase().query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + query))) {
+            final int detailColumn = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detailColumn));
+            }
+        }
+        return details;
+    }
+}
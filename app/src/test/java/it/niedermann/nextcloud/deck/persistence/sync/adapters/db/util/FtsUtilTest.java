@@ -0,0 +1,20 @@
+package it.niedermann.nextcloud.deck.persistence.sync.adapters.db.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class FtsUtilTest {
+
+    @Test
+    public void testToMatchQuery() {
+        assertNull(FtsUtil.toMatchQuery(null));
+        assertNull(FtsUtil.toMatchQuery(""));
+        assertNull(FtsUtil.toMatchQuery("  - \"*"));
+        assertEquals("\"foo*\"", FtsUtil.toMatchQuery("foo"));
+        assertEquals("\"foo*\" \"bar*\"", FtsUtil.toMatchQuery("  foo   bar "));
+        assertEquals("\"foo*\" \"OR*\" \"bar*\"", FtsUtil.toMatchQuery("foo OR \"bar\""));
+        assertEquals("\"Grüße*\" \"2022*\"", FtsUtil.toMatchQuery("Grüße, 2022!"));
+    }
+}
@@ -0,0 +1,54 @@
+package it.niedermann.nextcloud.deck.persistence.sync.helpers;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.model.Label;
+
+public class EntityDeltaTest {
+
+    @Test
+    public void testBetween() {
+        final var unchanged = createLabel(1L, 1L, 101L);
+        final var removed = createLabel(1L, 2L, 102L);
+        final var otherAccount = createLabel(2L, 3L, 103L);
+        final var changedLocally = createLabel(1L, 4L, 104L);
+
+        final var unchangedFromServer = createLabel(1L, null, 101L);
+        final var addedFromServer = createLabel(1L, null, 105L);
+        final var otherAccountFromServer = createLabel(1L, null, 103L);
+        final var changedFromServer = createLabel(1L, null, 104L);
+        changedFromServer.setLastModified(Instant.ofEpochSecond(10));
+
+        final var delta = EntityDelta.between(
+                List.of(unchanged, removed, otherAccount, changedLocally),
+                List.of(unchangedFromServer, addedFromServer, otherAccountFromServer, changedFromServer));
+
+        assertEquals(List.of(addedFromServer, otherAccountFromServer), delta.getAdded());
+        assertEquals(List.of(removed, otherAccount), delta.getRemoved());
+        assertEquals(List.of(changedFromServer), delta.getChanged());
+    }
+
+    @Test
+    public void testBetweenPrefersLocalIds() {
+        final var label = createLabel(1L, 1L, 101L);
+        final var otherLabelWithSameRemoteId = createLabel(1L, 2L, 101L);
+        final var delta = EntityDelta.between(List.of(label), List.of(otherLabelWithSameRemoteId));
+
+        assertEquals(List.of(otherLabelWithSameRemoteId), delta.getAdded());
+        assertEquals(List.of(label), delta.getRemoved());
+        assertEquals(0, EntityDelta.between(null, null).getAdded().size());
+    }
+
+    private static Label createLabel(long accountId, Long localId, Long remoteId) {
+        final var label = new Label();
+        label.setAccountId(accountId);
+        label.setLocalId(localId);
+        label.setId(remoteId);
+        return label;
+    }
+}
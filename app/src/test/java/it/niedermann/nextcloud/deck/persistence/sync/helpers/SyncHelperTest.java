@@ -0,0 +1,221 @@
+package it.niedermann.nextcloud.deck.persistence.sync.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Completable;
+import it.niedermann.nextcloud.deck.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Label;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.AbstractSyncDataProvider;
+
+@RunWith(RobolectricTestRunner.class)
+public class SyncHelperTest {
+
+    private final Account account = new Account(1L);
+    private final IServerAdapter serverAdapter = mock(IServerAdapter.class);
+    private final FakeServer server = new FakeServer();
+    private final DataBaseAdapter dataBaseAdapter = mock(DataBaseAdapter.class);
+    private final RecordingCallback callback = new RecordingCallback(account);
+
+    @Test
+    public void testDoUpSyncForRespondsOnceAfterAllEntitiesAndChildren() {
+        final var provider = new FakeLabelDataProvider(4, createLabels(3));
+
+        new SyncHelper(serverAdapter, dataBaseAdapter, null)
+                .setResponseCallback(callback)
+                .doUpSyncFor(provider);
+        server.respondToAll();
+
+        assertEquals(3, provider.pushed.size());
+        assertEquals(1, provider.childrenSubscribed.get());
+        assertEquals(1, callback.responses.get());
+        assertEquals(0, callback.errors.size());
+    }
+
+    @Test
+    public void testDoUpSyncForDelaysErrors() {
+        final var provider = new FakeLabelDataProvider(4, createLabels(3));
+        final var firstError = new RuntimeException("first");
+        final var secondError = new RuntimeException("second");
+
+        new SyncHelper(serverAdapter, dataBaseAdapter, null)
+                .setResponseCallback(callback)
+                .doUpSyncFor(provider);
+        server.respond(0, firstError);
+        server.respond(1, null);
+        server.respond(2, secondError);
+
+        assertEquals(1, provider.pushed.size());
+        // Children are pushed even if some entities failed
+        assertEquals(1, provider.childrenSubscribed.get());
+        assertEquals(0, callback.responses.get());
+        assertEquals(1, callback.errors.size());
+        assertSame(firstError, callback.errors.get(0));
+    }
+
+    @Test
+    public void testUpSyncForRespectsMaxConcurrency() {
+        final var provider = new FakeLabelDataProvider(2, createLabels(3));
+
+        new SyncHelper(serverAdapter, dataBaseAdapter, null)
+                .setResponseCallback(callback)
+                .doUpSyncFor(provider);
+        assertEquals(2, server.pending.size());
+
+        server.respond(0, null);
+        assertEquals(3, server.pending.size());
+        assertEquals(0, provider.childrenSubscribed.get());
+
+        server.respondToAll();
+        assertEquals(1, provider.childrenSubscribed.get());
+        assertEquals(1, callback.responses.get());
+    }
+
+    @NonNull
+    private List<Label> createLabels(int count) {
+        final var labels = new ArrayList<Label>(count);
+        for (int i = 0; i < count; i++) {
+            final var label = new Label();
+            label.setAccountId(account.getId());
+            label.setLocalId((long) i);
+            label.setTitle("Label " + i);
+            labels.add(label);
+        }
+        return labels;
+    }
+
+    /**
+     * Holds back the responses of the server until the test decides whether they succeed or fail.
+     */
+    private static class FakeServer {
+
+        private final List<Runnable> onSuccess = new ArrayList<>();
+        private final List<ResponseCallback<Label>> pending = new ArrayList<>();
+        private final Set<Integer> responded = new HashSet<>();
+
+        void createLabel(@NonNull Label label, @NonNull ResponseCallback<Label> callback) {
+            pending.add(callback);
+            onSuccess.add(() -> {
+                final var response = new Label(label);
+                response.setId(100L + label.getLocalId());
+                callback.onResponse(response);
+            });
+        }
+
+        void respond(int index, Throwable error) {
+            if (!responded.add(index)) {
+                return;
+            }
+            if (error == null) {
+                onSuccess.get(index).run();
+            } else {
+                pending.get(index).onError(error);
+            }
+        }
+
+        void respondToAll() {
+            for (int i = 0; i < onSuccess.size(); i++) {
+                respond(i, null);
+            }
+        }
+    }
+
+    private class FakeLabelDataProvider extends AbstractSyncDataProvider<Label> {
+
+        private final int maxConcurrency;
+        private final List<Label> changed;
+        private final List<Label> pushed = new ArrayList<>();
+        private final AtomicInteger childrenSubscribed = new AtomicInteger();
+
+        private FakeLabelDataProvider(int maxConcurrency, @NonNull List<Label> changed) {
+            super(null);
+            this.maxConcurrency = maxConcurrency;
+            this.changed = changed;
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        @Override
+        public List<Label> getAllChangedFromDB(DataBaseAdapter dataBaseAdapter, long accountId, Instant lastSync) {
+            return changed;
+        }
+
+        @Override
+        public void createOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<Label> responder, Label entity) {
+            server.createLabel(entity, responder);
+        }
+
+        @Override
+        public void updateInDB(DataBaseAdapter dataBaseAdapter, long accountId, Label label, boolean setStatus) {
+            pushed.add(label);
+        }
+
+        @Override
+        public Completable goDeeperForUpSync(SyncHelper syncHelper, IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, Account account) {
+            return Completable.fromAction(childrenSubscribed::incrementAndGet);
+        }
+
+        @Override
+        public Label getSingleFromDB(DataBaseAdapter dataBaseAdapter, long accountId, Label entity) {
+            return null;
+        }
+
+        @Override
+        public long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, Label label) {
+            return 0;
+        }
+
+        @Override
+        public void deleteInDB(DataBaseAdapter dataBaseAdapter, long accountId, Label label) {
+        }
+
+        @Override
+        public void updateOnServer(IServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<Label> callback, Label entity) {
+        }
+
+        @Override
+        public void deleteOnServer(IServerAdapter serverAdapter, long accountId, ResponseCallback<Void> callback, Label entity, DataBaseAdapter dataBaseAdapter) {
+        }
+    }
+
+    private static class RecordingCallback extends ResponseCallback<Boolean> {
+
+        private final AtomicInteger responses = new AtomicInteger();
+        private final List<Throwable> errors = new ArrayList<>();
+
+        private RecordingCallback(@NonNull Account account) {
+            super(account);
+        }
+
+        @Override
+        public void onResponse(Boolean response) {
+            responses.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            super.onError(throwable);
+            errors.add(throwable);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package it.niedermann.nextcloud.deck.persistence.sync.helpers;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class SyncReportUtilTest {
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    @Test
+    public void testReportsAreNewestFirst() {
+        assertEquals("", SyncReportUtil.getReports(context));
+
+        SyncReportUtil.addReport(context, "first\n  line\n");
+        SyncReportUtil.addReport(context, "second\n");
+
+        assertEquals("second\n\nfirst\n  line", SyncReportUtil.getReports(context));
+    }
+
+    @Test
+    public void testOnlyTheLatestReportsAreKept() {
+        for (int i = 0; i < 25; i++) {
+            SyncReportUtil.addReport(context, "report " + i + "\n  details\n");
+        }
+
+        final String[] reports = SyncReportUtil.getReports(context).split("\n\n");
+        assertEquals(20, reports.length);
+        assertEquals("report 24\n  details", reports[0]);
+        assertEquals("report 5\n  details", reports[19]);
+    }
+}
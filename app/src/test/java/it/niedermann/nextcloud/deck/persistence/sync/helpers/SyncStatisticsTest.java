@@ -0,0 +1,75 @@
+package it.niedermann.nextcloud.deck.persistence.sync.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.api.RequestStatistics;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.CardDataProvider;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.providers.StackDataProvider;
+
+public class SyncStatisticsTest {
+
+    @Test
+    public void testProviderStatistics() {
+        final var statistics = new SyncStatistics("Test (delta)", null);
+        final var cards = statistics.forProvider(new CardDataProvider(null, null, null));
+        cards.onFetched(TimeUnit.MILLISECONDS.toNanos(10), 3);
+        cards.onFetched(TimeUnit.MILLISECONDS.toNanos(15), 2);
+        cards.onNotModified(TimeUnit.MILLISECONDS.toNanos(5));
+        cards.onCreated();
+        cards.onCreated();
+        cards.onUpdated();
+        cards.onUnchanged();
+        cards.onUnchanged();
+        cards.onWritten(TimeUnit.MILLISECONDS.toNanos(4));
+        cards.onWritten(TimeUnit.MILLISECONDS.toNanos(3));
+
+        // Providers of the same level share their statistics
+        assertSame(cards, statistics.forProvider(new CardDataProvider(null, null, null)));
+        assertEquals("3 fetches in 30 ms, 1 not modified (33 %), 5 entities received (2 created, 1 updated, 2 unchanged) and written in 7 ms", cards.toString());
+    }
+
+    @Test
+    public void testSummary() {
+        final var requestStatistics = new RequestStatistics();
+        // Requests before the synchronization started must not be reported
+        requestStatistics.onRequest();
+        requestStatistics.onError(new RuntimeException());
+
+        final var statistics = new SyncStatistics("Test (full)", requestStatistics);
+        for (int i = 0; i < 4; i++) {
+            requestStatistics.onRequest();
+        }
+        requestStatistics.onError(new NextcloudHttpRequestFailedException(304, new RuntimeException()));
+        statistics.onTransaction(TimeUnit.MILLISECONDS.toNanos(10));
+        statistics.onTransaction(TimeUnit.MILLISECONDS.toNanos(30));
+        statistics.forProvider(new StackDataProvider(null, null)).onFetched(TimeUnit.MILLISECONDS.toNanos(2), 1);
+        statistics.forProvider(new CardDataProvider(null, null, null)).onNotModified(TimeUnit.MILLISECONDS.toNanos(1));
+
+        final String[] lines = statistics.getSummary(null).split(System.lineSeparator());
+        assertEquals(5, lines.length);
+        assertTrue(lines[0], lines[0].contains(" Sync of Test (full) succeeded after "));
+        assertEquals("  HTTP: 4 requests, 0 failed, 1 not modified (25 %), 0 KiB in 0 responses with known size", lines[1]);
+        assertEquals("  DB: 2 transactions in 40 ms, longest 30 ms", lines[2]);
+        assertEquals("  Card: 1 fetches in 1 ms, 1 not modified (100 %), 0 entities received (0 created, 0 updated, 0 unchanged) and written in 0 ms", lines[3]);
+        assertEquals("  Stack: 1 fetches in 2 ms, 0 not modified (0 %), 1 entities received (0 created, 0 updated, 0 unchanged) and written in 0 ms", lines[4]);
+    }
+
+    @Test
+    public void testSummaryOfFailedSynchronization() {
+        final var statistics = new SyncStatistics("Test (delta)", null);
+
+        final String summary = statistics.getSummary(new IllegalStateException("Offline"));
+
+        assertTrue(summary, summary.contains(" Sync of Test (delta) failed with java.lang.IllegalStateException: Offline after "));
+        assertFalse("Without request statistics no HTTP line is reported", summary.contains("HTTP:"));
+    }
+}
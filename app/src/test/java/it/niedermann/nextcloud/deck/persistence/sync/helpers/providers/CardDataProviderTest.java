@@ -0,0 +1,182 @@
+package it.niedermann.nextcloud.deck.persistence.sync.helpers.providers;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Board;
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.model.full.FullStack;
+import it.niedermann.nextcloud.deck.model.propagation.CardUpdate;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.IServerAdapter;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+
+@RunWith(RobolectricTestRunner.class)
+public class CardDataProviderTest {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final long REMOTE_BOARD_ID = 10L;
+    private static final long LOCAL_STACK_ID = 2L;
+    private static final long REMOTE_STACK_ID = 20L;
+    private static final long REMOTE_CARD_ID = 300L;
+
+    private final IServerAdapter serverAdapter = mock(IServerAdapter.class);
+    private final DataBaseAdapter dataBaseAdapter = mock(DataBaseAdapter.class);
+    private CardDataProvider provider;
+
+    @Before
+    public void setup() {
+        final var board = new Board();
+        board.setId(REMOTE_BOARD_ID);
+        final var stack = new Stack();
+        stack.setLocalId(LOCAL_STACK_ID);
+        stack.setId(REMOTE_STACK_ID);
+        final var fullStack = new FullStack();
+        fullStack.setStack(stack);
+        provider = new CardDataProvider(null, board, fullStack);
+
+        when(dataBaseAdapter.getServerOrderOfCardDirectly(any())).thenReturn(0);
+        doAnswer(invocation -> {
+            final var response = createFullCard(REMOTE_CARD_ID, invocation.<Card>getArgument(2).getOrder());
+            invocation.<ResponseCallback<FullCard>>getArgument(3).onResponse(response);
+            return null;
+        }).when(serverAdapter).createCard(anyLong(), anyLong(), any(), any());
+        doAnswer(invocation -> {
+            final var response = createFullCard(REMOTE_CARD_ID, invocation.<CardUpdate>getArgument(2).getOrder());
+            invocation.<ResponseCallback<FullCard>>getArgument(3).onResponse(response);
+            return null;
+        }).when(serverAdapter).updateCard(anyLong(), anyLong(), any(), any());
+        doAnswer(invocation -> {
+            // The server renumbers all cards of the stack
+            invocation.<ResponseCallback<List<FullCard>>>getArgument(5).onResponse(List.of(
+                    createFullCard(REMOTE_CARD_ID, 0),
+                    createFullCard(REMOTE_CARD_ID + 1, 1)));
+            return null;
+        }).when(serverAdapter).reorder(anyLong(), anyLong(), anyLong(), anyLong(), anyInt(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateOnServerWithUnambiguousOrder() {
+        final var callback = (ResponseCallback<FullCard>) mock(ResponseCallback.class);
+        final var card = createLocalCard();
+        when(dataBaseAdapter.isServerOrderAmbiguous(LOCAL_STACK_ID, card.getCard(), 0)).thenReturn(false);
+
+        provider.createOnServer(serverAdapter, dataBaseAdapter, ACCOUNT_ID, callback, card);
+
+        verify(serverAdapter).createCard(eq(REMOTE_BOARD_ID), eq(REMOTE_STACK_ID), eq(card.getCard()), any());
+        verify(serverAdapter, never()).reorder(anyLong(), anyLong(), anyLong(), anyLong(), anyInt(), any());
+        verify(callback).onResponse(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateOnServerWithAmbiguousOrder() {
+        final var callback = (ResponseCallback<FullCard>) mock(ResponseCallback.class);
+        final var card = createLocalCard();
+        when(dataBaseAdapter.isServerOrderAmbiguous(LOCAL_STACK_ID, card.getCard(), 0)).thenReturn(true);
+
+        provider.createOnServer(serverAdapter, dataBaseAdapter, ACCOUNT_ID, callback, card);
+
+        verify(serverAdapter).reorder(eq(REMOTE_BOARD_ID), eq(REMOTE_STACK_ID), eq(REMOTE_CARD_ID), eq(REMOTE_STACK_ID), eq(0), any());
+        verify(dataBaseAdapter).applyServerOrderOfStack(eq(ACCOUNT_ID), any());
+        verify(callback).onResponse(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateOnServerWithAmbiguousOrder() {
+        final var callback = (ResponseCallback<FullCard>) mock(ResponseCallback.class);
+        final var card = createLocalCard();
+        card.getCard().setId(REMOTE_CARD_ID);
+        when(dataBaseAdapter.isServerOrderAmbiguous(LOCAL_STACK_ID, card.getCard(), 0)).thenReturn(true);
+
+        provider.updateOnServer(serverAdapter, dataBaseAdapter, ACCOUNT_ID, callback, card);
+
+        verify(serverAdapter).reorder(eq(REMOTE_BOARD_ID), eq(REMOTE_STACK_ID), eq(REMOTE_CARD_ID), eq(REMOTE_STACK_ID), eq(0), any());
+        verify(dataBaseAdapter).applyServerOrderOfStack(eq(ACCOUNT_ID), any());
+        verify(callback).onResponse(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReorderFailurePropagates() {
+        final var callback = (ResponseCallback<FullCard>) mock(ResponseCallback.class);
+        final var card = createLocalCard();
+        final var error = new RuntimeException();
+        when(dataBaseAdapter.isServerOrderAmbiguous(LOCAL_STACK_ID, card.getCard(), 0)).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<ResponseCallback<List<FullCard>>>getArgument(5).onError(error);
+            return null;
+        }).when(serverAdapter).reorder(anyLong(), anyLong(), anyLong(), anyLong(), anyInt(), any());
+
+        provider.createOnServer(serverAdapter, dataBaseAdapter, ACCOUNT_ID, callback, card);
+
+        verify(dataBaseAdapter, never()).applyServerOrderOfStack(anyLong(), any());
+        verify(callback, never()).onResponse(any());
+        verify(callback).onError(error);
+    }
+
+    @Test
+    public void testPushedOrderOfResponseIsTheRenumberedOne() {
+        final var card = createLocalCard();
+        when(dataBaseAdapter.getServerOrderOfCardDirectly(any())).thenReturn(1);
+        when(dataBaseAdapter.isServerOrderAmbiguous(LOCAL_STACK_ID, card.getCard(), 1)).thenReturn(true);
+        final var responses = new FullCard[1];
+
+        provider.createOnServer(serverAdapter, dataBaseAdapter, ACCOUNT_ID, new ResponseCallback<>(new Account(ACCOUNT_ID)) {
+            @Override
+            public void onResponse(FullCard response) {
+                responses[0] = response;
+            }
+        }, card);
+
+        assertEquals(1, card.getCard().getOrder());
+        verify(serverAdapter).reorder(eq(REMOTE_BOARD_ID), eq(REMOTE_STACK_ID), eq(REMOTE_CARD_ID), eq(REMOTE_STACK_ID), eq(1), any());
+        assertEquals(0, responses[0].getCard().getOrder());
+    }
+
+    @NonNull
+    private static FullCard createLocalCard() {
+        final var card = new Card();
+        card.setAccountId(ACCOUNT_ID);
+        card.setLocalId(5L);
+        card.setStackId(LOCAL_STACK_ID);
+        card.setTitle("Card");
+        final var fullCard = new FullCard();
+        fullCard.setCard(card);
+        fullCard.setOwner(List.of(new User()));
+        return fullCard;
+    }
+
+    @NonNull
+    private static FullCard createFullCard(long remoteId, int order) {
+        final var card = new Card();
+        card.setId(remoteId);
+        card.setOrder(order);
+        final var fullCard = new FullCard();
+        fullCard.setCard(card);
+        return fullCard;
+    }
+}
@@ -0,0 +1,96 @@
+package it.niedermann.nextcloud.deck.ui.card;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.dao.CardDao;
+
+@RunWith(RobolectricTestRunner.class)
+public class CardLimitScrollListenerTest {
+
+    private static final int PAGE_SIZE = CardLimitScrollListener.PAGE_SIZE;
+
+    private final List<int[]> requestedPages = new ArrayList<>();
+    private final CardLimitScrollListener listener = new CardLimitScrollListener((offset, limit) -> requestedPages.add(new int[]{offset, limit}));
+    private final RecyclerView recyclerView = mock(RecyclerView.class);
+    @SuppressWarnings("rawtypes")
+    private final RecyclerView.Adapter adapter = mock(RecyclerView.Adapter.class);
+    private final LinearLayoutManager layoutManager = mock(LinearLayoutManager.class);
+
+    @Before
+    public void setup() {
+        when(recyclerView.getAdapter()).thenReturn(adapter);
+        when(recyclerView.getLayoutManager()).thenReturn(layoutManager);
+    }
+
+    @Test
+    public void testRequestsOnlyTheNextPage() {
+        scrollTo(PAGE_SIZE, PAGE_SIZE - 1);
+        assertRequested(PAGE_SIZE, PAGE_SIZE);
+
+        // The next page has not been loaded yet
+        scrollTo(PAGE_SIZE, PAGE_SIZE - 1);
+        assertEquals(1, requestedPages.size());
+
+        scrollTo(2 * PAGE_SIZE, 2 * PAGE_SIZE - 1);
+        assertRequested(2 * PAGE_SIZE, PAGE_SIZE);
+    }
+
+    @Test
+    public void testDoesNotRequestPagesFarFromTheEnd() {
+        scrollTo(PAGE_SIZE, 0);
+        listener.onScrolled(recyclerView, 0, -10);
+        assertEquals(0, requestedPages.size());
+    }
+
+    @Test
+    public void testDoesNotRequestPagesAfterTheLastCard() {
+        scrollTo(PAGE_SIZE - 1, PAGE_SIZE - 2);
+        assertEquals(0, requestedPages.size());
+    }
+
+    @Test
+    public void testLoadAll() {
+        listener.loadAll();
+        assertRequested(PAGE_SIZE, CardDao.NO_LIMIT);
+
+        listener.loadAll();
+        scrollTo(10 * PAGE_SIZE, 10 * PAGE_SIZE - 1);
+        assertEquals(1, requestedPages.size());
+    }
+
+    @Test
+    public void testReset() {
+        scrollTo(PAGE_SIZE, PAGE_SIZE - 1);
+        listener.loadAll();
+        listener.reset();
+        requestedPages.clear();
+
+        scrollTo(PAGE_SIZE, PAGE_SIZE - 1);
+        assertRequested(PAGE_SIZE, PAGE_SIZE);
+    }
+
+    private void scrollTo(int itemCount, int lastVisibleItemPosition) {
+        when(adapter.getItemCount()).thenReturn(itemCount);
+        when(layoutManager.findLastVisibleItemPosition()).thenReturn(lastVisibleItemPosition);
+        listener.onScrolled(recyclerView, 0, 10);
+    }
+
+    private void assertRequested(int offset, int limit) {
+        final int[] lastPage = requestedPages.get(requestedPages.size() - 1);
+        assertEquals(offset, lastPage[0]);
+        assertEquals(limit, lastPage[1]);
+    }
+}
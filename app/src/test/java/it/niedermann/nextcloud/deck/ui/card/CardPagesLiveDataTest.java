@@ -0,0 +1,75 @@
+package it.niedermann.nextcloud.deck.ui.card;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import androidx.annotation.NonNull;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.MutableLiveData;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+
+@RunWith(RobolectricTestRunner.class)
+public class CardPagesLiveDataTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final List<MutableLiveData<List<FullCard>>> pages = new ArrayList<>();
+    private final List<Integer> offsets = new ArrayList<>();
+    private final CardPagesLiveData cardPages = new CardPagesLiveData((offset, limit) -> {
+        final var page = new MutableLiveData<List<FullCard>>();
+        pages.add(page);
+        offsets.add(offset);
+        return page;
+    });
+
+    @Test
+    public void testAppendsPages() {
+        cardPages.observeForever(cards -> {
+        });
+        cardPages.loadPage(0, 2);
+        cardPages.loadPage(2, 2);
+        assertEquals(List.of(0, 2), offsets);
+        assertNull(cardPages.getValue());
+
+        // Later pages are only published once all pages before them have been loaded
+        pages.get(1).setValue(createCards(3L, 4L));
+        assertEquals(List.of(), localIds());
+        pages.get(0).setValue(createCards(1L, 2L));
+        assertEquals(List.of(1L, 2L, 3L, 4L), localIds());
+
+        // Only the changed page is queried again, a card is only contained once while it moves between pages
+        pages.get(0).setValue(createCards(2L, 3L));
+        assertEquals(List.of(2L, 3L, 4L), localIds());
+        assertEquals(2, pages.size());
+    }
+
+    @NonNull
+    private List<Long> localIds() {
+        return cardPages.getValue().stream().map(FullCard::getLocalId).collect(Collectors.toList());
+    }
+
+    @NonNull
+    private static List<FullCard> createCards(Long... localIds) {
+        final List<FullCard> cards = new ArrayList<>(localIds.length);
+        for (Long localId : localIds) {
+            final var card = new Card();
+            card.setLocalId(localId);
+            final var fullCard = new FullCard();
+            fullCard.setCard(card);
+            cards.add(fullCard);
+        }
+        return cards;
+    }
+}
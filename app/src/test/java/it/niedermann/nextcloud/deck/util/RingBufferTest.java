@@ -0,0 +1,66 @@
+package it.niedermann.nextcloud.deck.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RingBufferTest {
+
+    @Test
+    public void testCapacityMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(3));
+        assertEquals(4, new RingBuffer<>(4).getCapacity());
+    }
+
+    @Test
+    public void testReadContinuesWhereItStopped() {
+        final var buffer = new RingBuffer<Integer>(4);
+        final List<Integer> read = new ArrayList<>();
+
+        assertEquals(0, buffer.add(1));
+        assertEquals(1, buffer.add(2));
+        long next = buffer.read(0, read::add);
+        assertEquals(2, next);
+        assertEquals(List.of(1, 2), read);
+
+        buffer.add(3);
+        next = buffer.read(next, read::add);
+        assertEquals(3, next);
+        assertEquals(List.of(1, 2, 3), read);
+    }
+
+    @Test
+    public void testOverwrittenElementsAreSkipped() {
+        final var buffer = new RingBuffer<Integer>(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i);
+        }
+        final List<Integer> read = new ArrayList<>();
+        assertEquals(10, buffer.read(0, read::add));
+        assertEquals(List.of(6, 7, 8, 9), read);
+    }
+
+    @Test
+    public void testReleasedElementsAreNotReadAnymore() {
+        final var buffer = new RingBuffer<Integer>(4);
+        buffer.add(1);
+        buffer.add(2);
+        buffer.add(3);
+        buffer.release(2);
+
+        final List<Integer> read = new ArrayList<>();
+        assertEquals(3, buffer.read(2, read::add));
+        assertEquals(List.of(3), read);
+
+        buffer.add(4);
+        buffer.add(5);
+        read.clear();
+        assertEquals(5, buffer.read(3, read::add));
+        assertEquals(List.of(4, 5), read);
+    }
+}
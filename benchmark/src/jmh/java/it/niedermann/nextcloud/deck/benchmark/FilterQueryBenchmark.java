@@ -0,0 +1,66 @@
+package it.niedermann.nextcloud.deck.benchmark;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.model.Label;
+import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.enums.EDueType;
+import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
+import it.niedermann.nextcloud.deck.persistence.sync.adapters.db.DataBaseAdapter;
+
+/**
+ * Builds the SQL of a card filter with the given number of selected labels, users and stacks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FilterQueryBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int selected;
+
+    private FilterInformation filter;
+    private List<Long> accountIds;
+    private List<Long> stackIds;
+
+    @Setup
+    public void setup() {
+        final List<Label> labels = new ArrayList<>(selected);
+        final List<User> users = new ArrayList<>(selected);
+        stackIds = new ArrayList<>(selected);
+        for (long i = 0; i < selected; i++) {
+            final Label label = new Label();
+            label.setLocalId(i);
+            labels.add(label);
+            final User user = new User();
+            user.setLocalId(i);
+            users.add(user);
+            stackIds.add(i);
+        }
+        accountIds = List.of(1L, 2L);
+        filter = new FilterInformation();
+        filter.setLabels(labels);
+        filter.setUsers(users);
+        filter.setNoAssignedUser(true);
+        filter.setDueType(EDueType.WEEK);
+        filter.setFilterText("release notes");
+    }
+
+    @Benchmark
+    public SimpleSQLiteQuery buildQuery() {
+        return DataBaseAdapter.getQueryForFilter(filter, accountIds, stackIds);
+    }
+}
@@ -0,0 +1,56 @@
+package it.niedermann.nextcloud.deck.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.persistence.sync.helpers.EntityDelta;
+
+/**
+ * Compares a local and a remote list of cards, where a tenth of the remote cards are new and a tenth of the local ones have been deleted remotely.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FindDeltaBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private List<Card> local;
+    private List<Card> remote;
+
+    @Setup
+    public void setup() {
+        final List<Card> cards = SyntheticData.cards(size + size / 10);
+        local = new ArrayList<>(cards.subList(0, size));
+        remote = new ArrayList<>(cards.subList(size / 10, cards.size()));
+        for (Card card : remote) {
+            // Remote entities are only identified by their remote ID
+            card.setLocalId(null);
+        }
+        Collections.shuffle(remote, new Random(size));
+    }
+
+    @Benchmark
+    public List<Card> newOnServer() {
+        return EntityDelta.between(local, remote).getAdded();
+    }
+
+    @Benchmark
+    public List<Card> deletedOnServer() {
+        return EntityDelta.between(local, remote).getRemoved();
+    }
+}
@@ -0,0 +1,51 @@
+package it.niedermann.nextcloud.deck.benchmark;
+
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.api.GsonConfig;
+import it.niedermann.nextcloud.deck.model.full.FullBoard;
+
+/**
+ * Parses a <code>getBoards(details=true)</code> response with the tree based JsonToEntityParser and with the streaming parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonParserBenchmark {
+
+    private static final Type BOARD_LIST = new TypeToken<List<FullBoard>>() {}.getType();
+
+    @Param({"10", "100", "1000"})
+    public int cards;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = SyntheticData.boardsJson(cards);
+    }
+
+    @Benchmark
+    public List<FullBoard> tree() {
+        return GsonConfig.getTreeGson().fromJson(new StringReader(json), BOARD_LIST);
+    }
+
+    @Benchmark
+    public List<FullBoard> streaming() {
+        return GsonConfig.getGson().fromJson(new StringReader(json), BOARD_LIST);
+    }
+}
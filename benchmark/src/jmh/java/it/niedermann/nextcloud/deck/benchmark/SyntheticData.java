@@ -0,0 +1,232 @@
+package it.niedermann.nextcloud.deck.benchmark;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import it.niedermann.nextcloud.deck.model.Card;
+
+/**
+ * Generates reproducible payloads and entities which look like the ones of a real Deck instance.
+ */
+public class SyntheticData {
+
+    private static final int CARDS_PER_STACK = 25;
+    private static final int LABELS_PER_BOARD = 6;
+    private static final int USERS_PER_BOARD = 4;
+    private static final long SEED = 1337L;
+
+    private SyntheticData() {
+        throw new UnsupportedOperationException("This class must not be instantiated.");
+    }
+
+    /**
+     * @return a <code>getBoards(details=true)</code> response with one board, whose stacks contain <code>cardCount</code> cards in total
+     */
+    @NonNull
+    public static String boardsJson(int cardCount) {
+        final Random random = new Random(SEED);
+        final StringWriter json = new StringWriter();
+        try (JsonWriter out = new JsonWriter(json)) {
+            out.beginArray();
+            out.beginObject();
+            out.name("id").value(1);
+            out.name("title").value("Synthetic board");
+            out.name("color").value("0082c9");
+            out.name("archived").value(false);
+            out.name("lastModified").value(1634038316);
+            out.name("deletedAt").value(0);
+            out.name("ETag").value("board-etag");
+            out.name("owner");
+            writeUser(out, 0);
+            out.name("labels").beginArray();
+            for (int i = 0; i < LABELS_PER_BOARD; i++) {
+                writeLabel(out, i);
+            }
+            out.endArray();
+            out.name("acl").beginArray();
+            for (int i = 1; i < USERS_PER_BOARD; i++) {
+                out.beginObject();
+                out.name("id").value(i);
+                out.name("participant");
+                writeUser(out, i);
+                out.name("type").value(0);
+                out.name("boardId").value(1);
+                out.name("owner").value(false);
+                out.name("permissionEdit").value(true);
+                out.name("permissionShare").value(false);
+                out.name("permissionManage").value(false);
+                out.endObject();
+            }
+            out.endArray();
+            out.name("permissions").beginObject()
+                    .name("PERMISSION_READ").value(true)
+                    .name("PERMISSION_EDIT").value(true)
+                    .name("PERMISSION_MANAGE").value(true)
+                    .name("PERMISSION_SHARE").value(true)
+                    .endObject();
+            out.name("users").beginArray();
+            for (int i = 0; i < USERS_PER_BOARD; i++) {
+                writeUser(out, i);
+            }
+            out.endArray();
+            out.name("stacks").beginArray();
+            final int stackCount = Math.max(1, (cardCount + CARDS_PER_STACK - 1) / CARDS_PER_STACK);
+            int cardId = 1;
+            for (int stackId = 1; stackId <= stackCount; stackId++) {
+                out.beginObject();
+                out.name("id").value(stackId);
+                out.name("title").value("Stack " + stackId);
+                out.name("boardId").value(1);
+                out.name("order").value(stackId);
+                out.name("lastModified").value(1634038316);
+                out.name("deletedAt").value(0);
+                out.name("ETag").value("stack-etag-" + stackId);
+                out.name("cards").beginArray();
+                for (int i = 0; i < CARDS_PER_STACK && cardId <= cardCount; i++, cardId++) {
+                    writeCard(out, random, cardId, stackId, i);
+                }
+                out.endArray();
+                out.endObject();
+            }
+            out.endArray();
+            out.endObject();
+            out.endArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
+    private static void writeCard(@NonNull JsonWriter out, @NonNull Random random, int cardId, int stackId, int order) throws IOException {
+        out.beginObject();
+        out.name("id").value(cardId);
+        out.name("title").value("Card " + cardId);
+        out.name("description").value(description(random, 8));
+        out.name("stackId").value(stackId);
+        out.name("type").value("plain");
+        out.name("lastModified").value(1634038316 + cardId);
+        out.name("createdAt").value(1634000000 + cardId);
+        out.name("deletedAt").value(0);
+        out.name("ETag").value("card-etag-" + cardId);
+        out.name("order").value(order);
+        out.name("archived").value(false);
+        out.name("overdue").value(0);
+        out.name("commentsUnread").value(random.nextInt(3));
+        out.name("attachmentCount").value(cardId % 10 == 0 ? 1 : 0);
+        if (random.nextBoolean()) {
+            out.name("duedate").value("2021-10-" + (10 + random.nextInt(20)) + "T12:00:00+00:00");
+        } else {
+            out.name("duedate").nullValue();
+        }
+        out.name("owner");
+        writeUser(out, 0);
+        out.name("labels").beginArray();
+        writeLabel(out, cardId % LABELS_PER_BOARD);
+        writeLabel(out, (cardId + 1) % LABELS_PER_BOARD);
+        out.endArray();
+        out.name("assignedUsers").beginArray();
+        out.beginObject();
+        out.name("id").value(cardId);
+        out.name("cardId").value(cardId);
+        out.name("type").value(0);
+        out.name("participant");
+        writeUser(out, cardId % USERS_PER_BOARD);
+        out.endObject();
+        out.endArray();
+        out.name("attachments").beginArray();
+        if (cardId % 10 == 0) {
+            out.beginObject();
+            out.name("id").value(cardId);
+            out.name("cardId").value(cardId);
+            out.name("type").value("file");
+            out.name("data").value("file-" + cardId + ".pdf");
+            out.name("lastModified").value(1634038316);
+            out.name("createdAt").value(1634038316);
+            out.name("createdBy").value("user0");
+            out.name("deletedAt").value(0);
+            out.name("ETag").value("attachment-etag-" + cardId);
+            out.name("extendedData").beginObject()
+                    .name("fileid").value(cardId)
+                    .name("filesize").value(4096)
+                    .name("mimetype").value("application/pdf")
+                    .name("info").beginObject()
+                    .name("dirname").value("/Deck")
+                    .name("basename").value("file-" + cardId + ".pdf")
+                    .name("extension").value("pdf")
+                    .name("filename").value("file-" + cardId)
+                    .endObject()
+                    .endObject();
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    private static void writeLabel(@NonNull JsonWriter out, int labelId) throws IOException {
+        out.beginObject()
+                .name("id").value(labelId + 1)
+                .name("title").value("Label " + labelId)
+                .name("color").value(String.format("%06X", labelId * 0x202020))
+                .name("boardId").value(1)
+                .name("lastModified").value(0)
+                .name("ETag").value("label-etag-" + labelId)
+                .endObject();
+    }
+
+    private static void writeUser(@NonNull JsonWriter out, int userId) throws IOException {
+        out.beginObject()
+                .name("primaryKey").value("user" + userId)
+                .name("uid").value("user" + userId)
+                .name("displayname").value("User " + userId)
+                .name("type").value(0)
+                .endObject();
+    }
+
+    /**
+     * @return a Markdown description with <code>tasks</code> tasks, some of them done, mixed with other content
+     */
+    @NonNull
+    public static String description(@NonNull Random random, int tasks) {
+        final StringBuilder description = new StringBuilder("## Synthetic description\n\nSome **text** with a [link](https://example.com).\n\n");
+        for (int i = 0; i < tasks; i++) {
+            description.append(random.nextBoolean() ? "- [x] " : "- [ ] ").append("Task ").append(i).append('\n');
+            if (i % 3 == 0) {
+                description.append("\nA paragraph between the tasks.\n\n");
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * @return <code>count</code> cards with remote and local IDs, due dates around now and alternating modification dates
+     */
+    @NonNull
+    public static List<Card> cards(int count) {
+        final Random random = new Random(SEED);
+        final Instant now = Instant.now();
+        final List<Card> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Card card = new Card("Card " + i, description(random, 3), 1);
+            card.setId((long) i);
+            card.setLocalId((long) i + 1000);
+            card.setAccountId(1);
+            card.setDueDate(random.nextInt(5) == 0 ? null : now.plus(random.nextInt(30) - 10, ChronoUnit.DAYS));
+            card.setLastModified(now.minus(random.nextInt(1000), ChronoUnit.MINUTES));
+            if (i % 2 == 0) {
+                card.setLastModifiedLocal(now.minus(random.nextInt(1000), ChronoUnit.MINUTES));
+            }
+            cards.add(card);
+        }
+        return cards;
+    }
+}
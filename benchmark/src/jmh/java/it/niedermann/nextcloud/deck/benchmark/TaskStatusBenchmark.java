@@ -0,0 +1,42 @@
+package it.niedermann.nextcloud.deck.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.model.Card;
+
+/**
+ * Counts the tasks of a Markdown description. Setting the description resets the cached result, so each invocation counts again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskStatusBenchmark {
+
+    @Param({"0", "10", "100"})
+    public int tasks;
+
+    private Card card;
+    private String description;
+
+    @Setup
+    public void setup() {
+        card = new Card();
+        description = SyntheticData.description(new Random(tasks), tasks);
+    }
+
+    @Benchmark
+    public Card.TaskStatus getTaskStatus() {
+        card.setDescription(description);
+        return card.getTaskStatus();
+    }
+}
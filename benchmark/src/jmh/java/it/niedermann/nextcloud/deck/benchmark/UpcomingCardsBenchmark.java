@@ -0,0 +1,62 @@
+package it.niedermann.nextcloud.deck.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import android.content.Context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.ui.upcomingcards.UpcomingCardsAdapterItem;
+import it.niedermann.nextcloud.deck.ui.upcomingcards.UpcomingCardsUtil;
+
+/**
+ * Inserts the section separators into upcoming cards, which are already sorted by their due date like they are returned from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UpcomingCardsBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private Context context;
+    private List<UpcomingCardsAdapterItem> items;
+
+    @Setup
+    public void setup() {
+        context = mock(Context.class);
+        when(context.getString(anyInt())).thenReturn("Section");
+        final Account account = new Account(1L, "user0@example.com", "user0", "https://example.com");
+        items = new ArrayList<>(size);
+        for (Card card : SyntheticData.cards(size)) {
+            final FullCard fullCard = new FullCard();
+            fullCard.setCard(card);
+            items.add(new UpcomingCardsAdapterItem(fullCard, account, 1L, 1L, true));
+        }
+        items.sort(Comparator.comparing(item -> item.getFullCard().getCard().getDueDate(), Comparator.nullsLast(Comparator.naturalOrder())));
+    }
+
+    @Benchmark
+    public Collection<Object> addDueDateSeparators() {
+        return UpcomingCardsUtil.addDueDateSeparators(context, items);
+    }
+}